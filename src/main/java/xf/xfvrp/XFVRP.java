@@ -6,9 +6,12 @@ import xf.xfvrp.base.Vehicle;
 import xf.xfvrp.base.XFVRPModel;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.base.exception.XFVRPExceptionType;
+import xf.xfvrp.base.metric.internal.SharedMetricTransformator;
+import xf.xfvrp.base.monitor.EvaluationMetrics;
 import xf.xfvrp.base.monitor.StatusCode;
 import xf.xfvrp.base.xfvrp.XFVRP_Parameter;
 import xf.xfvrp.opt.*;
+import xf.xfvrp.opt.evaluation.EvaluationService;
 import xf.xfvrp.opt.init.ModelBuilder;
 import xf.xfvrp.opt.init.precheck.PreCheckException;
 import xf.xfvrp.opt.init.precheck.PreCheckService;
@@ -58,6 +61,8 @@ public class XFVRP extends XFVRP_Parameter {
 	public void executeRoutePlanning() throws PreCheckException, XFVRPException {
 		statusManager.fireMessage(StatusCode.RUNNING, "XFVRP started");
 		statusManager.setStartTime();
+		statusManager.resetRouteQualityCacheCounter();
+		statusManager.getEvaluationMetrics().reset();
 
 		// Flush import buffer
 		importer.finishImport();
@@ -77,23 +82,34 @@ public class XFVRP extends XFVRP_Parameter {
 			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "No vehicle information are present.");
 		}
 
-		vehicleSolutionList.addAll(
-				new FullRouteMixedFleetHeuristic().execute(
-						nodes,
-						vehicles,
-						(dataBag) -> {
-							try {
-								return executeRoutePlanning(dataBag);
-							} catch (PreCheckException | XFVRPException e) {
-								e.printStackTrace();
-							}
-							return null;
-						},
-						metric,
-						parameter,
-						statusManager)
-				);
-
+		// Distance matrix is transformed once for all vehicles with same metric, if the metric
+		// does not depend on the index of the nodes. Otherwise each model transforms its own matrix.
+		SharedMetricTransformator sharedMetricTransformator = (SharedMetricTransformator.isSharable(metric)) ?
+				new SharedMetricTransformator(metric, nodes, parameter.getNbrOfMetricThreads()) :
+				null;
+
+		try {
+			vehicleSolutionList.addAll(
+					new FullRouteMixedFleetHeuristic().execute(
+							nodes,
+							vehicles,
+							(dataBag) -> {
+								try {
+									return executeRoutePlanning(dataBag, sharedMetricTransformator);
+								} catch (PreCheckException | XFVRPException e) {
+									e.printStackTrace();
+								}
+								return null;
+							},
+							metric,
+							parameter,
+							statusManager)
+					);
+		} finally {
+			// Release the memorized route qualities of the last model, also if the planning failed
+			EvaluationService.releaseContext();
+		}
+		statusManager.fireMessage(StatusCode.RUNNING, "Route quality cache hits: " + statusManager.getRouteQualityCacheHits() + " misses: " + statusManager.getRouteQualityCacheMisses());
 
 		statusManager.fireMessage(StatusCode.FINISHED, "XFVRP finished sucessfully.");
 	}
@@ -102,9 +118,9 @@ public class XFVRP extends XFVRP_Parameter {
 	 * Calculates a single vehicle VRP for a given vehicle with all
 	 * announced optimization procedures.
 	 */
-	private XFVRPSolution executeRoutePlanning(RoutingDataBag dataBag) throws PreCheckException, XFVRPException {
+	private XFVRPSolution executeRoutePlanning(RoutingDataBag dataBag, SharedMetricTransformator sharedMetricTransformator) throws PreCheckException, XFVRPException {
 		Node[] nodes = new PreCheckService().precheck(dataBag.nodes, dataBag.vehicle, parameter);
-		XFVRPModel model = new ModelBuilder().build(nodes, dataBag.vehicle, metric, parameter, statusManager);
+		XFVRPModel model = new ModelBuilder(sharedMetricTransformator).build(nodes, dataBag.vehicle, metric, parameter, statusManager);
 		Solution solution = new InitialSolutionBuilder().build(model, parameter, statusManager);
 
 		// VRP optimizations, if initiated solution has appropriate length
@@ -150,6 +166,7 @@ public class XFVRP extends XFVRP_Parameter {
 		if(vehicleSolutionList.size() > 0) {
 
 			Report rep = new Report(lastModel);
+			rep.setEvaluationMetrics(statusManager.getEvaluationMetrics().copy());
 			for (XFVRPSolution sol : vehicleSolutionList)
 				rep.importReport(new ReportBuilder().getReport(sol));
 
@@ -158,6 +175,16 @@ public class XFVRP extends XFVRP_Parameter {
 		return null;
 	}
 
+	/**
+	 * Returns the counters of the evaluations per optimization operator of the
+	 * last route planning. The counters are reset by each call of executeRoutePlanning.
+	 *
+	 * The time measurement is activated by setTimerActive(true) on the returned object.
+	 */
+	public EvaluationMetrics getEvaluationMetrics() {
+		return statusManager.getEvaluationMetrics();
+	}
+
 	/**
 	 * Adds a certain optimization algorithm out
 	 * of the spectrum of accessible methods in
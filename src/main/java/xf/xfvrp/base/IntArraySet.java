@@ -0,0 +1,134 @@
+package xf.xfvrp.base;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Compact set of int values, which are stored in a sorted int array.
+ *
+ * It is used for the small index sets of presets at the nodes (depots, vehicles,
+ * black listed nodes). These sets are mostly filled during import and afterwards
+ * read, so adding or removing a value may shift the array, but searching a value
+ * needs no boxing or hashing.
+ *
+ * The class is internal to the nodes. Callers of the nodes see these sets only
+ * as Set of Integer, which supports all changes like a HashSet.
+ *
+ * @author hschneid
+ *
+ */
+class IntArraySet extends AbstractSet<Integer> {
+
+	private int[] values = new int[0];
+	private int size = 0;
+
+	/**
+	 * @return true, if the value was not contained before
+	 */
+	public boolean add(int value) {
+		int pos = Arrays.binarySearch(values, 0, size, value);
+		if(pos >= 0)
+			return false;
+
+		pos = -(pos + 1);
+		if(size == values.length)
+			values = Arrays.copyOf(values, Math.max(4, size * 2));
+		System.arraycopy(values, pos, values, pos + 1, size - pos);
+		values[pos] = value;
+		size++;
+
+		return true;
+	}
+
+	@Override
+	public boolean add(Integer value) {
+		return add(value.intValue());
+	}
+
+	/**
+	 * @return true, if the value was contained before
+	 */
+	public boolean remove(int value) {
+		int pos = Arrays.binarySearch(values, 0, size, value);
+		if(pos < 0)
+			return false;
+
+		removeAt(pos);
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return (o instanceof Integer) && remove(((Integer) o).intValue());
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+	}
+
+	public boolean contains(int value) {
+		return Arrays.binarySearch(values, 0, size, value) >= 0;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Integer) && contains(((Integer) o).intValue());
+	}
+
+	/**
+	 * @return value at position i in ascending order
+	 */
+	public int getInt(int i) {
+		return values[i];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Iterator<Integer>() {
+			private int i = 0;
+			// True, if the last returned value was removed
+			private boolean isRemoved = false;
+
+			@Override
+			public boolean hasNext() {
+				return i < size;
+			}
+
+			@Override
+			public Integer next() {
+				if(i >= size)
+					throw new NoSuchElementException();
+				isRemoved = false;
+				return values[i++];
+			}
+
+			@Override
+			public void remove() {
+				if(i == 0 || isRemoved)
+					throw new IllegalStateException();
+				removeAt(--i);
+				isRemoved = true;
+			}
+		};
+	}
+
+	private void removeAt(int pos) {
+		System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+		size--;
+	}
+}
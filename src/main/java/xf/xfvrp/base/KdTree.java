@@ -0,0 +1,296 @@
+package xf.xfvrp.base;
+
+import xf.xfvrp.base.metric.SpatialMetric;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Spatial index over the positions of nodes of a spatial metric (see SpatialMetric),
+ * which finds the nearest nodes or the nodes within a radius of a node.
+ *
+ * The tree is balanced and stored in arrays: The node of a range of slots is the median
+ * of the range in the split dimension, which changes with the depth. The nodes before
+ * the median are the left subtree and the nodes after the median are the right subtree.
+ *
+ * Nodes are addressed by their index. Nodes with same distance are found in ascending
+ * order of their index.
+ *
+ * @author hschneid
+ *
+ */
+public class KdTree {
+
+	private final SpatialMetric metric;
+	private final int nbrOfDimensions;
+
+	// Index and position of node in slot i (position at i * nbrOfDimensions)
+	private final int[] indexes;
+	private final double[] positions;
+
+	/**
+	 * @param nodes Nodes of the index
+	 * @param metric Metric, which gives the positions of nodes
+	 */
+	public KdTree(Node[] nodes, SpatialMetric metric) {
+		this.metric = metric;
+		this.nbrOfDimensions = metric.getNbrOfDimensions();
+
+		indexes = new int[nodes.length];
+		positions = new double[nodes.length * nbrOfDimensions];
+		double[] position = new double[nbrOfDimensions];
+		for (int i = 0; i < nodes.length; i++) {
+			metric.getPosition(nodes[i], position);
+			indexes[i] = nodes[i].getIdx();
+			System.arraycopy(position, 0, positions, i * nbrOfDimensions, nbrOfDimensions);
+		}
+
+		build(0, nodes.length, 0);
+	}
+
+	private KdTree(SpatialMetric metric, int[] indexes, double[] positions) {
+		this.metric = metric;
+		this.nbrOfDimensions = metric.getNbrOfDimensions();
+		this.indexes = indexes;
+		this.positions = positions;
+
+		build(0, indexes.length, 0);
+	}
+
+	/**
+	 * @param isSelected Test of a node index
+	 * @return Spatial index over the selected nodes of this index
+	 */
+	public KdTree subset(IntPredicate isSelected) {
+		int size = 0;
+		int[] subIndexes = new int[indexes.length];
+		double[] subPositions = new double[positions.length];
+		for (int i = 0; i < indexes.length; i++) {
+			if(!isSelected.test(indexes[i]))
+				continue;
+
+			subIndexes[size] = indexes[i];
+			System.arraycopy(positions, i * nbrOfDimensions, subPositions, size * nbrOfDimensions, nbrOfDimensions);
+			size++;
+		}
+
+		return new KdTree(
+				metric,
+				Arrays.copyOf(subIndexes, size),
+				Arrays.copyOf(subPositions, size * nbrOfDimensions)
+		);
+	}
+
+	/**
+	 * @return Number of nodes in this index
+	 */
+	public int size() {
+		return indexes.length;
+	}
+
+	/**
+	 * Finds the k nearest nodes of the given node (including the node itself, if it is in this index).
+	 *
+	 * @return Indexes of nodes in ascending order of distance
+	 */
+	public int[] findNearest(Node node, int k) {
+		k = Math.min(k, indexes.length);
+		Candidates candidates = new Candidates(k);
+		if(k > 0)
+			searchNearest(getPosition(node), 0, indexes.length, 0, candidates);
+
+		return candidates.getIndexes();
+	}
+
+	/**
+	 * Finds all nodes, which have at most the given distance of the metric to the given node.
+	 *
+	 * @return Indexes of nodes in ascending order of index
+	 */
+	public int[] findInRadius(Node node, float radius) {
+		double positionRadius = metric.toPositionDistance(radius);
+		Found found = new Found();
+		searchInRadius(getPosition(node), positionRadius * positionRadius, 0, indexes.length, 0, found);
+
+		return found.getSortedIndexes();
+	}
+
+	private void build(int start, int end, int depth) {
+		if(end - start <= 1)
+			return;
+
+		int median = (start + end) >>> 1;
+		select(start, end - 1, median, depth % nbrOfDimensions);
+
+		build(start, median, depth + 1);
+		build(median + 1, end, depth + 1);
+	}
+
+	/**
+	 * Moves the k-th smallest position in the dimension to slot k (quick select),
+	 * so that all slots before k are not greater and all slots after k are not smaller.
+	 */
+	private void select(int left, int right, int k, int dimension) {
+		while(left < right) {
+			double pivot = positions[((left + right) >>> 1) * nbrOfDimensions + dimension];
+			int i = left;
+			int j = right;
+			while(i <= j) {
+				while(positions[i * nbrOfDimensions + dimension] < pivot)
+					i++;
+				while(positions[j * nbrOfDimensions + dimension] > pivot)
+					j--;
+				if(i <= j) {
+					swap(i, j);
+					i++;
+					j--;
+				}
+			}
+
+			if(k <= j)
+				right = j;
+			else if(k >= i)
+				left = i;
+			else
+				return;
+		}
+	}
+
+	private void swap(int i, int j) {
+		int idx = indexes[i];
+		indexes[i] = indexes[j];
+		indexes[j] = idx;
+		for (int d = 0; d < nbrOfDimensions; d++) {
+			double value = positions[i * nbrOfDimensions + d];
+			positions[i * nbrOfDimensions + d] = positions[j * nbrOfDimensions + d];
+			positions[j * nbrOfDimensions + d] = value;
+		}
+	}
+
+	private void searchNearest(double[] position, int start, int end, int depth, Candidates candidates) {
+		if(start >= end)
+			return;
+
+		int median = (start + end) >>> 1;
+		candidates.add(indexes[median], getSquaredDistance(position, median));
+
+		int dimension = depth % nbrOfDimensions;
+		double diff = position[dimension] - positions[median * nbrOfDimensions + dimension];
+
+		// Nearer subtree first
+		if(diff < 0) {
+			searchNearest(position, start, median, depth + 1, candidates);
+			if(!candidates.isFull() || diff * diff <= candidates.getMaxDistance())
+				searchNearest(position, median + 1, end, depth + 1, candidates);
+		} else {
+			searchNearest(position, median + 1, end, depth + 1, candidates);
+			if(!candidates.isFull() || diff * diff <= candidates.getMaxDistance())
+				searchNearest(position, start, median, depth + 1, candidates);
+		}
+	}
+
+	private void searchInRadius(double[] position, double squaredRadius, int start, int end, int depth, Found found) {
+		if(start >= end)
+			return;
+
+		int median = (start + end) >>> 1;
+		if(getSquaredDistance(position, median) <= squaredRadius)
+			found.add(indexes[median]);
+
+		int dimension = depth % nbrOfDimensions;
+		double diff = position[dimension] - positions[median * nbrOfDimensions + dimension];
+		if(diff < 0 || diff * diff <= squaredRadius)
+			searchInRadius(position, squaredRadius, start, median, depth + 1, found);
+		if(diff >= 0 || diff * diff <= squaredRadius)
+			searchInRadius(position, squaredRadius, median + 1, end, depth + 1, found);
+	}
+
+	private double getSquaredDistance(double[] position, int slot) {
+		double sum = 0;
+		for (int d = 0; d < nbrOfDimensions; d++) {
+			double diff = position[d] - positions[slot * nbrOfDimensions + d];
+			sum += diff * diff;
+		}
+		return sum;
+	}
+
+	private double[] getPosition(Node node) {
+		double[] position = new double[nbrOfDimensions];
+		metric.getPosition(node, position);
+		return position;
+	}
+
+	/**
+	 * Bounded list of the nearest found nodes in ascending order of distance and index
+	 */
+	private static class Candidates {
+
+		private final int[] indexes;
+		private final double[] distances;
+		private int size = 0;
+
+		Candidates(int capacity) {
+			indexes = new int[capacity];
+			distances = new double[capacity];
+		}
+
+		void add(int idx, double distance) {
+			if(isFull() && !isBefore(distance, idx, size - 1))
+				return;
+
+			int pos = Math.min(size, indexes.length - 1);
+			while(pos > 0 && isBefore(distance, idx, pos - 1)) {
+				indexes[pos] = indexes[pos - 1];
+				distances[pos] = distances[pos - 1];
+				pos--;
+			}
+			indexes[pos] = idx;
+			distances[pos] = distance;
+			size = Math.min(size + 1, indexes.length);
+		}
+
+		boolean isFull() {
+			return size == indexes.length;
+		}
+
+		double getMaxDistance() {
+			return distances[size - 1];
+		}
+
+		int[] getIndexes() {
+			return Arrays.copyOf(indexes, size);
+		}
+
+		private boolean isBefore(double distance, int idx, int pos) {
+			return distance < distances[pos] || (distance == distances[pos] && idx < indexes[pos]);
+		}
+	}
+
+	/**
+	 * Growing list of found nodes
+	 */
+	private static class Found {
+
+		private int[] indexes = new int[16];
+		private int size = 0;
+
+		void add(int idx) {
+			if(size == indexes.length)
+				indexes = Arrays.copyOf(indexes, size * 2);
+			indexes[size++] = idx;
+		}
+
+		int[] getSortedIndexes() {
+			int[] result = Arrays.copyOf(indexes, size);
+			Arrays.sort(result);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package xf.xfvrp.base;
+
+import xf.xfvrp.base.metric.InternalMetric;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * The NeighborList holds the granular neighbors of all customers of a model
+ * for the granular search of the improvement operators.
+ *
+ * The neighbors of a customer are its k nearest customers by the distance of
+ * optimization. If a granularity factor is given, neighbors are dropped, which are
+ * farther than the factor times the average distance to all k nearest neighbors.
+ * The relation is symmetric, so b is a neighbor of a, if a is a neighbor of b.
+ *
+ * If a spatial index is given, the nearest customers are found by the index in
+ * near linear time instead of comparing all pairs of customers.
+ *
+ * Depots and replenishment nodes have no neighbors. Connections to them are
+ * always granular (see XFVRPModel.isGranular).
+ *
+ * The neighbors of node idx are stored ascending between offsets idx and idx + 1.
+ *
+ * @author hschneid
+ *
+ */
+public class NeighborList {
+
+	private final int[] offsets;
+	private final int[] neighbors;
+
+	/**
+	 * @param nodes All nodes of the model, addressed by their index
+	 * @param metric Metric for optimization
+	 * @param nbrOfNeighbors Number of nearest neighbors per customer
+	 * @param granularityFactor Maximal distance of a neighbor relative to the average distance of all nearest neighbors (0 = no limit)
+	 */
+	public NeighborList(Node[] nodes, InternalMetric metric, int nbrOfNeighbors, float granularityFactor) {
+		this(nodes, metric, null, nbrOfNeighbors, granularityFactor);
+	}
+
+	/**
+	 * @param spatialIndex Spatial index over the nodes of the model (null = no spatial index)
+	 */
+	public NeighborList(Node[] nodes, InternalMetric metric, KdTree spatialIndex, int nbrOfNeighbors, float granularityFactor) {
+		int[] customers = Arrays.stream(nodes)
+				.filter(n -> n.getSiteType() == SiteType.CUSTOMER)
+				.mapToInt(Node::getIdx)
+				.toArray();
+		nbrOfNeighbors = Math.max(0, Math.min(nbrOfNeighbors, customers.length - 1));
+
+		// Nearest customers of each customer in order of customers
+		int[] nearest = new int[customers.length * nbrOfNeighbors];
+		float[] nearestDistances = new float[nearest.length];
+		if(spatialIndex != null)
+			findNearest(nodes, customers, metric, spatialIndex, nbrOfNeighbors, nearest, nearestDistances);
+		else
+			findNearest(nodes, customers, metric, nbrOfNeighbors, nearest, nearestDistances);
+
+		float maxDistance = getMaxDistance(nearestDistances, granularityFactor);
+
+		// Symmetric relation of all nearest neighbors within max distance
+		long[] arcs = new long[nearest.length * 2];
+		int nbrOfArcs = 0;
+		for (int i = 0; i < nearest.length; i++) {
+			// Preset rules forbid connections by maximal distance
+			if(nearestDistances[i] == Float.MAX_VALUE || nearestDistances[i] > maxDistance)
+				continue;
+
+			long a = customers[i / nbrOfNeighbors];
+			long b = nearest[i];
+			arcs[nbrOfArcs++] = (a << 32) | b;
+			arcs[nbrOfArcs++] = (b << 32) | a;
+		}
+		Arrays.sort(arcs, 0, nbrOfArcs);
+
+		offsets = new int[nodes.length + 1];
+		neighbors = new int[nbrOfArcs];
+		int size = 0;
+		for (int i = 0; i < nbrOfArcs; i++) {
+			if(i > 0 && arcs[i] == arcs[i - 1])
+				continue;
+
+			offsets[(int) (arcs[i] >>> 32) + 1]++;
+			neighbors[size++] = (int) arcs[i];
+		}
+		for (int i = 0; i < nodes.length; i++)
+			offsets[i + 1] += offsets[i];
+	}
+
+	/**
+	 * @return true, if node idx2 is a neighbor of node idx1
+	 */
+	public boolean isNeighbor(int idx1, int idx2) {
+		return Arrays.binarySearch(neighbors, offsets[idx1], offsets[idx1 + 1], idx2) >= 0;
+	}
+
+	/**
+	 * @return Position of the first neighbor of node idx
+	 */
+	public int getStart(int idx) {
+		return offsets[idx];
+	}
+
+	/**
+	 * @return Position after the last neighbor of node idx
+	 */
+	public int getEnd(int idx) {
+		return offsets[idx + 1];
+	}
+
+	/**
+	 * @return Index of the neighbor at position pos
+	 */
+	public int getNeighbor(int pos) {
+		return neighbors[pos];
+	}
+
+	private void findNearest(Node[] nodes, int[] customers, InternalMetric metric, int nbrOfNeighbors, int[] nearest, float[] nearestDistances) {
+		for (int i = 0; i < customers.length; i++) {
+			Node src = nodes[customers[i]];
+			int offset = i * nbrOfNeighbors;
+			int size = 0;
+
+			// Insertion into the sorted list of the nearest customers
+			for (int customer : customers) {
+				if(customer == src.getIdx())
+					continue;
+
+				float distance = metric.getDistance(src, nodes[customer]);
+				if(size == nbrOfNeighbors && (size == 0 || distance >= nearestDistances[offset + size - 1]))
+					continue;
+
+				int pos = Math.min(size, nbrOfNeighbors - 1);
+				while(pos > 0 && nearestDistances[offset + pos - 1] > distance) {
+					nearest[offset + pos] = nearest[offset + pos - 1];
+					nearestDistances[offset + pos] = nearestDistances[offset + pos - 1];
+					pos--;
+				}
+				nearest[offset + pos] = customer;
+				nearestDistances[offset + pos] = distance;
+				size = Math.min(size + 1, nbrOfNeighbors);
+			}
+		}
+	}
+
+	/**
+	 * The spatial index finds the customers in order of distance. Customers, which are forbidden
+	 * by preset rules, are skipped. So the search is repeated with more customers, if too many
+	 * customers are skipped. Free places get the maximal distance.
+	 */
+	private void findNearest(Node[] nodes, int[] customers, InternalMetric metric, KdTree spatialIndex, int nbrOfNeighbors, int[] nearest, float[] nearestDistances) {
+		KdTree customerIndex = spatialIndex.subset(idx -> nodes[idx].getSiteType() == SiteType.CUSTOMER);
+		Arrays.fill(nearestDistances, Float.MAX_VALUE);
+
+		for (int i = 0; i < customers.length; i++) {
+			Node src = nodes[customers[i]];
+			int offset = i * nbrOfNeighbors;
+
+			int nbrOfSearched = nbrOfNeighbors + 1;
+			while(true) {
+				int[] found = customerIndex.findNearest(src, nbrOfSearched);
+
+				int size = 0;
+				for (int j = 0; j < found.length && size < nbrOfNeighbors; j++) {
+					float distance = (found[j] != src.getIdx()) ? metric.getDistance(src, nodes[found[j]]) : Float.MAX_VALUE;
+					if(distance == Float.MAX_VALUE)
+						continue;
+
+					nearest[offset + size] = found[j];
+					nearestDistances[offset + size] = distance;
+					size++;
+				}
+
+				if(size == nbrOfNeighbors || found.length < nbrOfSearched)
+					break;
+				nbrOfSearched *= 2;
+			}
+		}
+	}
+
+	private float getMaxDistance(float[] nearestDistances, float granularityFactor) {
+		float sum = 0;
+		int count = 0;
+		for (float distance : nearestDistances) {
+			if(distance < Float.MAX_VALUE) {
+				sum += distance;
+				count++;
+			}
+		}
+
+		if(granularityFactor <= 0 || count == 0)
+			return Float.MAX_VALUE;
+
+		return granularityFactor * sum / count;
+	}
+}
@@ -4,7 +4,6 @@ import xf.xfvrp.base.preset.BlockNameConverter;
 import xf.xfvrp.base.preset.BlockPositionConverter;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Set;
 
 /** 
@@ -55,11 +54,11 @@ public class Node implements Cloneable {
 	private int presetBlockPos = BlockPositionConverter.UNDEF_POSITION;
 	private int presetBlockRank;
 
-	private final Set<Integer> presetBlockVehicleList = new HashSet<>();
+	private final IntArraySet presetBlockVehicleList = new IntArraySet();
 	/** A list of depot node ids (global idx), where this customer must be allocated to one these depots. **/
-	private final Set<Integer> presetDepotList = new HashSet<>();
+	private final IntArraySet presetDepotList = new IntArraySet();
 	/** A list of node ids (global idx), which must not be routed with this node. **/
-	private final Set<Integer> presetRoutingBlackList = new HashSet<>();
+	private final IntArraySet presetRoutingBlackList = new IntArraySet();
 
 	/** If customer is invalid for whole route plan, the reason is written to invalid states **/
 	private InvalidReason invalidReason = InvalidReason.NONE;
@@ -240,6 +239,13 @@ public class Node implements Cloneable {
 		return timeWindowArr[timeWindowArr.length - 1];
 	}
 
+	/**
+	 * @return all time windows of this node as pairs of open and close time
+	 */
+	public float[][] getTimeWindows() {
+		return timeWindowArr;
+	}
+
 	public int getDepotId() {
 		return depotId ;
 	}
@@ -354,6 +360,17 @@ public class Node implements Cloneable {
 		return presetDepotList;
 	}
 
+	/**
+	 * The preset sets with access by position are only visible for the NodeTable.
+	 */
+	IntArraySet getPresetDepotSet() {
+		return presetDepotList;
+	}
+
+	IntArraySet getPresetRoutingBlackSet() {
+		return presetRoutingBlackList;
+	}
+
 	public boolean isInPresetDepotList(int globalIdx){
 		return presetDepotList.contains(globalIdx);
 	}
@@ -0,0 +1,426 @@
+package xf.xfvrp.base;
+
+import xf.xfvrp.base.preset.BlockNameConverter;
+import xf.xfvrp.base.preset.BlockPositionConverter;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * The NodeTable holds the attributes of all nodes of a model, which are
+ * needed during the evaluation of routes, in primitive arrays. All values
+ * are addressed by the local index (idx) of a node.
+ *
+ * So the evaluation reads a few compact arrays instead of following the
+ * references of a node to its demand, time window and preset objects.
+ *
+ * The preset depot lists and black lists are stored as bitsets over the
+ * global index of nodes. Only nodes with a preset depot list get a row in
+ * the depot bitsets. The black list of a node is stored sparse as its non
+ * zero words, so that it can be added to a route in time proportional to its size.
+ *
+ * The table is a snapshot of the nodes at the creation of the model. Changes
+ * at the nodes afterwards are not considered.
+ *
+ * @author hschneid
+ *
+ */
+public class NodeTable {
+
+	private static final SiteType[] SITE_TYPES = SiteType.values();
+	private static final float[] DEFAULT_TIME_WINDOW = new float[] {0, Float.MAX_VALUE};
+
+	private static final int NO_ROW = -1;
+
+	private final int nbrOfCompartments;
+
+	private final byte[] siteTypes;
+	private final int[] globalIdx;
+
+	// Demand per node and compartment (idx * nbrOfCompartments + compartment)
+	private final float[] pickups;
+	private final float[] deliveries;
+
+	private final float[] serviceTimes;
+	private final float[] serviceTimesForSite;
+
+	// Open and close time of all time windows; the windows of node idx are between offsets idx and idx + 1
+	private final float[] timeWindows;
+	private final int[] timeWindowOffsets;
+	// Time windows with ascending close times for the binary search of the fitting time window
+	private final int[] searchWindows;
+	private final float[] searchCloseTimes;
+	private final int[] searchOffsets;
+
+	// Earliest departure (without waiting) and latest arrival (without delay) at a node over all its time windows
+	private final float[] earliestDepartures;
+	private final float[] latestArrivals;
+
+	private final int[] presetBlockIdx;
+	private final int[] presetBlockPos;
+	private final int[] presetBlockRank;
+
+	// Bitsets over global index of nodes
+	private final int nbrOfWords;
+	private final int[] presetDepotRows;
+	private final long[] presetDepotBits;
+	// Non zero words of the black lists; the words of node idx are between offsets idx and idx + 1
+	private final int[] blackListOffsets;
+	private final int[] blackListWords;
+	private final long[] blackListBits;
+
+	// False, if no preset restriction can lead to a penalty
+	private final boolean hasPresets;
+
+	/**
+	 * @param nodeArr All nodes of the model with their local index
+	 * @param nbrOfCompartments Number of compartments of the vehicle
+	 * @param maxGlobalNodeIdx Greatest global index of all nodes
+	 */
+	public NodeTable(Node[] nodeArr, int nbrOfCompartments, int maxGlobalNodeIdx) {
+		this.nbrOfCompartments = nbrOfCompartments;
+
+		int size = 0;
+		int nbrOfTimeWindows = 0;
+		int nbrOfPresetDepotRows = 0;
+		int nbrOfBlackListWords = 0;
+		nbrOfWords = getNbrOfWords(maxGlobalNodeIdx + 1);
+		long[] row = new long[nbrOfWords];
+		for (Node node : nodeArr) {
+			size = Math.max(size, node.getIdx() + 1);
+			nbrOfTimeWindows += Math.max(1, node.getTimeWindows().length);
+			if(node.getPresetDepotList().size() > 0)
+				nbrOfPresetDepotRows++;
+			nbrOfBlackListWords += countWords(node.getPresetRoutingBlackSet(), row);
+		}
+
+		siteTypes = new byte[size];
+		globalIdx = new int[size];
+		pickups = new float[size * nbrOfCompartments];
+		deliveries = new float[size * nbrOfCompartments];
+		serviceTimes = new float[size];
+		serviceTimesForSite = new float[size];
+		timeWindows = new float[nbrOfTimeWindows * 2];
+		timeWindowOffsets = new int[size + 1];
+		searchWindows = new int[nbrOfTimeWindows];
+		searchCloseTimes = new float[nbrOfTimeWindows];
+		searchOffsets = new int[size + 1];
+		earliestDepartures = new float[size];
+		latestArrivals = new float[size];
+		presetBlockIdx = new int[size];
+		presetBlockPos = new int[size];
+		presetBlockRank = new int[size];
+
+		presetDepotRows = new int[size];
+		presetDepotBits = new long[nbrOfPresetDepotRows * nbrOfWords];
+		blackListOffsets = new int[size + 1];
+		blackListWords = new int[nbrOfBlackListWords];
+		blackListBits = new long[nbrOfBlackListWords];
+
+		// Nodes are added in order of their local index, so that the time windows are stored consecutively
+		Node[] nodesByIdx = new Node[size];
+		for (Node node : nodeArr)
+			nodesByIdx[node.getIdx()] = node;
+
+		int timeWindowIdx = 0;
+		int searchIdx = 0;
+		int presetDepotRow = 0;
+		int blackListWord = 0;
+		boolean hasPresets = false;
+		boolean hasRank = false;
+		int rank = 0;
+		for (int idx = 0; idx < size; idx++) {
+			Node node = nodesByIdx[idx];
+			timeWindowOffsets[idx] = timeWindowIdx;
+			searchOffsets[idx] = searchIdx;
+			presetDepotRows[idx] = NO_ROW;
+			blackListOffsets[idx] = blackListWord;
+			if(node == null)
+				continue;
+
+			siteTypes[idx] = (byte) node.getSiteType().ordinal();
+			globalIdx[idx] = node.getGlobalIdx();
+			serviceTimes[idx] = node.getServiceTime();
+			serviceTimesForSite[idx] = node.getServiceTimeForSite();
+			presetBlockIdx[idx] = node.getPresetBlockIdx();
+			presetBlockPos[idx] = node.getPresetBlockPos();
+			presetBlockRank[idx] = node.getPresetBlockRank();
+
+			addDemand(idx, node);
+
+			float[][] nodeTimeWindows = (node.getTimeWindows().length > 0) ? node.getTimeWindows() : new float[][] {DEFAULT_TIME_WINDOW};
+			float earliestOpen = Float.POSITIVE_INFINITY;
+			float latestClose = Float.NEGATIVE_INFINITY;
+			for (int i = 0; i < nodeTimeWindows.length; i++) {
+				float[] timeWindow = nodeTimeWindows[i];
+				timeWindows[timeWindowIdx * 2] = timeWindow[0];
+				timeWindows[timeWindowIdx * 2 + 1] = timeWindow[1];
+
+				// The first window, which can hold a time, always has a greater close time than all windows
+				// before. So only these windows need to be searched. The last window is the fallback anyway.
+				if(i < nodeTimeWindows.length - 1 && timeWindow[1] > latestClose) {
+					searchWindows[searchIdx] = timeWindowIdx;
+					searchCloseTimes[searchIdx] = timeWindow[1];
+					searchIdx++;
+				}
+
+				earliestOpen = Math.min(earliestOpen, timeWindow[0]);
+				latestClose = Math.max(latestClose, timeWindow[1]);
+				timeWindowIdx++;
+			}
+			// A starting depot has no service time
+			earliestDepartures[idx] = earliestOpen + ((node.getSiteType() != SiteType.DEPOT) ? node.getServiceTime() : 0);
+			latestArrivals[idx] = latestClose;
+
+			if(node.getPresetDepotList().size() > 0) {
+				presetDepotRows[idx] = presetDepotRow;
+				addBits(node.getPresetDepotSet(), presetDepotBits, presetDepotRow++);
+			}
+			blackListWord = addWords(node.getPresetRoutingBlackSet(), row, blackListWord);
+
+			// Preset sequence ranks can only be violated, if there are different ranks
+			if(node.getPresetBlockIdx() >= BlockNameConverter.DEFAULT_BLOCK_IDX) {
+				if(hasRank && rank != node.getPresetBlockRank())
+					hasPresets = true;
+				hasRank = true;
+				rank = node.getPresetBlockRank();
+			}
+			hasPresets |= node.getPresetBlockIdx() > BlockNameConverter.DEFAULT_BLOCK_IDX ||
+					node.getPresetBlockPos() > BlockPositionConverter.UNDEF_POSITION ||
+					node.getPresetDepotList().size() > 0 ||
+					node.getPresetRoutingBlackList().size() > 0;
+		}
+		timeWindowOffsets[size] = timeWindowIdx;
+		searchOffsets[size] = searchIdx;
+		blackListOffsets[size] = blackListWord;
+
+		this.hasPresets = hasPresets;
+	}
+
+	/**
+	 * @return false, if the nodes have no preset restrictions (blocks, positions, ranks,
+	 * preset depots or black lists), so that the preset checks can be skipped
+	 */
+	public boolean hasPresets() {
+		return hasPresets;
+	}
+
+	/**
+	 * @return number of long words of a bitset over the global index of all nodes
+	 */
+	public int getNbrOfWords() {
+		return nbrOfWords;
+	}
+
+	public int getNbrOfCompartments() {
+		return nbrOfCompartments;
+	}
+
+	public SiteType getSiteType(int idx) {
+		return SITE_TYPES[siteTypes[idx]];
+	}
+
+	public int getGlobalIdx(int idx) {
+		return globalIdx[idx];
+	}
+
+	/**
+	 * @return picked up amount of the node in the compartment or 0, if node is no pickup
+	 */
+	public float getPickup(int idx, int compartment) {
+		return pickups[idx * nbrOfCompartments + compartment];
+	}
+
+	/**
+	 * @return delivered amount of the node in the compartment or 0, if node is no delivery
+	 */
+	public float getDelivery(int idx, int compartment) {
+		return deliveries[idx * nbrOfCompartments + compartment];
+	}
+
+	public float getServiceTime(int idx) {
+		return serviceTimes[idx];
+	}
+
+	public float getServiceTimeForSite(int idx) {
+		return serviceTimesForSite[idx];
+	}
+
+	/**
+	 * Same as Node.getTimeWindow(time): Searches the first time window of the
+	 * node, which can hold the given time, or otherwise the last time window.
+	 *
+	 * @return index of the found time window for getOpenTime and getCloseTime
+	 */
+	public int findTimeWindow(int idx, float time) {
+		int low = searchOffsets[idx];
+		int high = searchOffsets[idx + 1];
+
+		// Binary search for the first window with a close time greater than time
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(time < searchCloseTimes[mid])
+				high = mid;
+			else
+				low = mid + 1;
+		}
+
+		return (low < searchOffsets[idx + 1]) ? searchWindows[low] : timeWindowOffsets[idx + 1] - 1;
+	}
+
+	/**
+	 * @return earliest time, when a vehicle can leave the node (open time of the earliest
+	 * time window plus service time)
+	 */
+	public float getEarliestDeparture(int idx) {
+		return earliestDepartures[idx];
+	}
+
+	/**
+	 * @return latest time, when a vehicle can arrive at the node without delay
+	 */
+	public float getLatestArrival(int idx) {
+		return latestArrivals[idx];
+	}
+
+	/**
+	 * @return index of the first time window of the node
+	 */
+	public int getFirstTimeWindow(int idx) {
+		return timeWindowOffsets[idx];
+	}
+
+	/**
+	 * @return index of the last time window of the node
+	 */
+	public int getLastTimeWindow(int idx) {
+		return timeWindowOffsets[idx + 1] - 1;
+	}
+
+	public float getOpenTime(int timeWindowIdx) {
+		return timeWindows[timeWindowIdx * 2];
+	}
+
+	public float getCloseTime(int timeWindowIdx) {
+		return timeWindows[timeWindowIdx * 2 + 1];
+	}
+
+	public int getPresetBlockIdx(int idx) {
+		return presetBlockIdx[idx];
+	}
+
+	public int getPresetBlockPos(int idx) {
+		return presetBlockPos[idx];
+	}
+
+	public int getPresetBlockRank(int idx) {
+		return presetBlockRank[idx];
+	}
+
+	public boolean hasPresetDepots(int idx) {
+		return presetDepotRows[idx] != NO_ROW;
+	}
+
+	/**
+	 * @return true, if the depot with the given global index is in the preset depot list of the node
+	 */
+	public boolean isInPresetDepotList(int idx, int depotGlobalIdx) {
+		int row = presetDepotRows[idx];
+		if(row == NO_ROW || depotGlobalIdx >= nbrOfWords * Long.SIZE)
+			return false;
+
+		return (presetDepotBits[row * nbrOfWords + (depotGlobalIdx >>> 6)] & (1L << depotGlobalIdx)) != 0;
+	}
+
+	/**
+	 * @return index of the first non zero word of the black list of the node
+	 */
+	public int getBlackListStart(int idx) {
+		return blackListOffsets[idx];
+	}
+
+	/**
+	 * @return index after the last non zero word of the black list of the node
+	 */
+	public int getBlackListEnd(int idx) {
+		return blackListOffsets[idx + 1];
+	}
+
+	/**
+	 * @return position of the black list word in a bitset over global index
+	 */
+	public int getBlackListWord(int i) {
+		return blackListWords[i];
+	}
+
+	public long getBlackListBits(int i) {
+		return blackListBits[i];
+	}
+
+	private void addDemand(int idx, Node node) {
+		float[] target;
+		if(node.getLoadType() == LoadType.PICKUP)
+			target = pickups;
+		else if(node.getLoadType() == LoadType.DELIVERY)
+			target = deliveries;
+		else
+			return;
+
+		float[] demand = node.getDemand();
+		System.arraycopy(demand, 0, target, idx * nbrOfCompartments, Math.min(demand.length, nbrOfCompartments));
+	}
+
+	/**
+	 * Global indexes beyond the greatest global index of the model can not be found
+	 * on a route of this model, so they are ignored.
+	 */
+	private void addBits(IntArraySet globalIdxSet, long[] bits, int row) {
+		int offset = row * nbrOfWords;
+		for (int i = 0; i < globalIdxSet.size(); i++) {
+			int globalIdx = globalIdxSet.getInt(i);
+			if(globalIdx >= 0 && globalIdx < nbrOfWords * Long.SIZE)
+				bits[offset + (globalIdx >>> 6)] |= 1L << globalIdx;
+		}
+	}
+
+	private int countWords(IntArraySet globalIdxSet, long[] row) {
+		if(globalIdxSet.isEmpty())
+			return 0;
+
+		Arrays.fill(row, 0);
+		addBits(globalIdxSet, row, 0);
+
+		int count = 0;
+		for (long word : row)
+			if(word != 0)
+				count++;
+		return count;
+	}
+
+	private int addWords(IntArraySet globalIdxSet, long[] row, int nextWord) {
+		if(globalIdxSet.isEmpty())
+			return nextWord;
+
+		Arrays.fill(row, 0);
+		addBits(globalIdxSet, row, 0);
+
+		for (int i = 0; i < row.length; i++) {
+			if(row[i] != 0) {
+				blackListWords[nextWord] = i;
+				blackListBits[nextWord] = row[i];
+				nextWord++;
+			}
+		}
+		return nextWord;
+	}
+
+	public static int getNbrOfWords(int nbrOfBits) {
+		return (nbrOfBits + Long.SIZE - 1) / Long.SIZE;
+	}
+}
@@ -1,6 +1,5 @@
 package xf.xfvrp.base;
 
-import xf.xfvrp.base.quality.RouteQuality;
 import xf.xfvrp.opt.Solution;
 
 import java.util.ArrayList;
@@ -56,15 +55,7 @@ public class NormalizeSolutionService {
 				int nextNonEmptyRoute = getNonEmptyRoute(routes, i);
 				if(nextNonEmptyRoute != -1) {
 					// Swap nextNonEmptyRoute to currentEmptyRoute
-					Node[] nonEmptyRoute = routes[nextNonEmptyRoute];
-					solution.setRoute(nextNonEmptyRoute, routes[i]);
-					solution.setRoute(i, nonEmptyRoute);
-
-					Quality nonEmptyQuality = solution.getRouteQualities()[nextNonEmptyRoute];
-					solution.setRouteQuality(nextNonEmptyRoute, solution.getRouteQualities()[i]);
-					solution.setRouteQuality(i, new RouteQuality(i, nonEmptyQuality));
-
-
+					solution.swapRoutes(i, nextNonEmptyRoute);
 				} else {
 					// No more non empty routes available
 					break;
@@ -94,6 +94,33 @@ public class Quality {
 		this.penalty -= q.penalty;
 	}
 
+	/**
+	 * Overwrites the values of this quality instance with the
+	 * values of the given quality. This way quality objects can be reused.
+	 */
+	public void set(Quality q) {
+		this.cost = q.cost;
+		this.penalty = q.penalty;
+	}
+
+	/**
+	 * Resets cost and penalty of this quality instance to zero.
+	 */
+	public void reset() {
+		this.cost = 0;
+		this.penalty = 0;
+	}
+
+	/**
+	 * Penalty values are stored with limited precision, so very small
+	 * penalty values are neglected.
+	 *
+	 * @return true, if the given penalty value would increase the penalty of a quality
+	 */
+	public static boolean isPenalty(float penalty) {
+		return (int)(penalty * DECIMAL_CORRECTOR) > 0;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see java.lang.Object#toString()
@@ -21,6 +21,9 @@ import xf.xfvrp.base.preset.BlockNameConverter;
  */
 public class XFVRPModel {
 
+	// Relative tolerance for the quick check of time windows
+	private static final float TIME_EPSILON = 0.001f;
+
 	protected final int nbrOfDepots;
 	protected final int nbrOfReplenish;
 
@@ -36,6 +39,15 @@ public class XFVRPModel {
 	protected final int[] blockCountArr;
 
 	protected final int maxGlobalNodeIdx;
+
+	/* Attributes of the nodes in primitive arrays for the evaluation */
+	protected final NodeTable nodeTable;
+
+	/* Spatial index over the nodes, if the metric is spatial (otherwise null) */
+	protected final KdTree spatialIndex;
+
+	/* Neighbors of the customers for the granular search, created at first use */
+	private NeighborList neighborList;
 	
 	protected XFVRPModel() {
 		nbrOfDepots = 0;
@@ -47,6 +59,8 @@ public class XFVRPModel {
 		parameter = null;
 		blockCountArr = null;
 		maxGlobalNodeIdx = -1;
+		nodeTable = null;
+		spatialIndex = null;
 	}
 
 	/**
@@ -57,7 +71,15 @@ public class XFVRPModel {
 	 * @param optMetric Metric that will be used for optimization processes
 	 */
 	public XFVRPModel(Node[] nodeArr, InternalMetric metric, InternalMetric optMetric, Vehicle vehicle, XFVRPParameter parameter) {
+		this(nodeArr, metric, optMetric, vehicle, parameter, null);
+	}
+
+	/**
+	 * @param spatialIndex Spatial index over the nodes, if the metric is spatial (otherwise null)
+	 */
+	public XFVRPModel(Node[] nodeArr, InternalMetric metric, InternalMetric optMetric, Vehicle vehicle, XFVRPParameter parameter, KdTree spatialIndex) {
 		this.nodeArr = nodeArr;
+		this.spatialIndex = spatialIndex;
 		this.metric = metric;
 		this.optMetric = optMetric;
 		this.vehicle = vehicle;
@@ -85,6 +107,9 @@ public class XFVRPModel {
 		this.maxGlobalNodeIdx = maxGlobalNodeIdx;
 		this.nbrOfDepots = nbrOfDepots;
 		this.nbrOfReplenish = nbrOfReplenish;
+
+		int nbrOfCompartments = (vehicle != null) ? vehicle.capacity.length / CompartmentLoadType.NBR_OF_LOAD_TYPES : 0;
+		this.nodeTable = new NodeTable(nodeArr, nbrOfCompartments, maxGlobalNodeIdx);
 	}
 
 	/**
@@ -133,6 +158,55 @@ public class XFVRPModel {
 		return metric.getDistanceAndTime(n1, n2);
 	}
 
+	/**
+	 * Quick check for the search of changes, whether node n2 can be visited directly after
+	 * node n1 without delay. Even if the vehicle leaves n1 as early as possible, it must
+	 * arrive at n2 before the latest close time of n2. Replenish nodes are not checked,
+	 * because they may be skipped in a route.
+	 *
+	 * @return false, if each route with n2 directly after n1 violates a time window
+	 */
+	public boolean isTimeWindowFeasible(Node n1, Node n2) {
+		int idx1 = n1.getIdx();
+		int idx2 = n2.getIdx();
+		if(nodeTable.getSiteType(idx1) == SiteType.REPLENISH || nodeTable.getSiteType(idx2) == SiteType.REPLENISH)
+			return true;
+
+		float latestArrival = nodeTable.getLatestArrival(idx2);
+		float delay = nodeTable.getEarliestDeparture(idx1) + metric.getTime(n1, n2) - latestArrival;
+
+		return delay <= TIME_EPSILON * Math.max(1, Math.abs(latestArrival)) || !Quality.isPenalty(delay);
+	}
+
+	/**
+	 * @return true, if the improvement operators search only granular changes
+	 */
+	public boolean isGranularSearch() {
+		return parameter != null && parameter.getNbrOfGranularNeighbors() > 0;
+	}
+
+	/**
+	 * A connection between two nodes is granular, if one node is a neighbor of the other
+	 * or if one node is no customer. Without granular search all connections are granular.
+	 */
+	public boolean isGranular(Node n1, Node n2) {
+		if(!isGranularSearch() ||
+				nodeTable.getSiteType(n1.getIdx()) != SiteType.CUSTOMER ||
+				nodeTable.getSiteType(n2.getIdx()) != SiteType.CUSTOMER)
+			return true;
+
+		return getNeighborList().isNeighbor(n1.getIdx(), n2.getIdx());
+	}
+
+	/**
+	 * @return neighbors of the customers for the granular search
+	 */
+	public NeighborList getNeighborList() {
+		if(neighborList == null)
+			neighborList = new NeighborList(nodeArr, optMetric, spatialIndex, parameter.getNbrOfGranularNeighbors(), parameter.getGranularityFactor());
+		return neighborList;
+	}
+
 	public int getNbrOfDepots() {
 		return nbrOfDepots;
 	}
@@ -172,4 +246,18 @@ public class XFVRPModel {
 	public int getMaxGlobalNodeIdx() {
 		return maxGlobalNodeIdx;
 	}
+
+	/**
+	 * @return attributes of all nodes of this model, addressed by the local index of the nodes
+	 */
+	public NodeTable getNodeTable() {
+		return nodeTable;
+	}
+
+	/**
+	 * @return spatial index over all nodes or null, if the metric is not spatial
+	 */
+	public KdTree getSpatialIndex() {
+		return spatialIndex;
+	}
 }
@@ -56,6 +56,51 @@ public class XFVRPParameter implements Serializable {
 	 * Parameter for planning a pickup-and-delivery problem (dial-a-ride)
 	 */
 	private boolean isWithPDP = false;
+
+	/*
+	 * Parameter for the evaluation of routes
+	 *
+	 * Number of route qualities, which are memorized during optimization. A value
+	 * of 0 deactivates the memorization.
+	 */
+	private int routeQualityCacheSize = 4096;
+
+	/*
+	 * Parameter for the model building
+	 *
+	 * Number of threads, which fill the distance matrix of the model. The user
+	 * metric must allow parallel calls, if the value is greater than 1.
+	 */
+	private int nbrOfMetricThreads = 1;
+
+	/*
+	 * Parameter for the model building
+	 *
+	 * Maximal absolute error of a distance or time value, if the distance matrix of
+	 * the model is stored in compact form with 16 bit per value. A value of 0 keeps
+	 * the full precision.
+	 */
+	private float compactMetricTolerance = 0;
+
+	/*
+	 * Parameter for the model building
+	 *
+	 * Number of bytes for the distance matrix of a model. If the complete matrix
+	 * does not fit, only the nearest neighbors of each node are stored and all other
+	 * distances are requested from the user metric, when they are needed.
+	 */
+	private long metricMemoryBudget = Long.MAX_VALUE;
+
+	/*
+	 * Parameter for the granular search of the improvement operators
+	 *
+	 * Number of nearest neighbors per customer. The operators only search changes,
+	 * where a new connection is between neighbors. A value of 0 deactivates the
+	 * granular search. Neighbors, which are farther than the granularity factor times
+	 * the average distance of all neighbors, are dropped (0 = no limit).
+	 */
+	private int nbrOfGranularNeighbors = 0;
+	private float granularityFactor = 0;
 	
 	/**
 	 * Reset of all parameters to default value
@@ -70,6 +115,12 @@ public class XFVRPParameter implements Serializable {
 		predefinedSolutionString = null;
 		nbrOfILSLoops = 50;
 		maxRunningTimeInSec = Long.MAX_VALUE;
+		routeQualityCacheSize = 4096;
+		nbrOfMetricThreads = 1;
+		compactMetricTolerance = 0;
+		metricMemoryBudget = Long.MAX_VALUE;
+		nbrOfGranularNeighbors = 0;
+		granularityFactor = 0;
 	}
 
 	/**
@@ -205,4 +256,88 @@ public class XFVRPParameter implements Serializable {
 	public void setMaxRunningTimeInSec(long maxRunningTimeInSec) {
 		this.maxRunningTimeInSec = maxRunningTimeInSec;
 	}
+
+	/**
+	 * @return the maximal number of memorized route qualities
+	 */
+	public int getRouteQualityCacheSize() {
+		return routeQualityCacheSize;
+	}
+
+	/**
+	 * @param routeQualityCacheSize the maximal number of memorized route qualities (0 = no memorization)
+	 */
+	public void setRouteQualityCacheSize(int routeQualityCacheSize) {
+		this.routeQualityCacheSize = routeQualityCacheSize;
+	}
+
+	/**
+	 * @return the number of threads, which fill the distance matrix of the model
+	 */
+	public int getNbrOfMetricThreads() {
+		return nbrOfMetricThreads;
+	}
+
+	/**
+	 * @param nbrOfMetricThreads the number of threads, which fill the distance matrix of the model (1 = no parallel calls of the metric)
+	 */
+	public void setNbrOfMetricThreads(int nbrOfMetricThreads) {
+		this.nbrOfMetricThreads = nbrOfMetricThreads;
+	}
+
+	/**
+	 * @return the maximal absolute error of a distance or time value in the compact distance matrix
+	 */
+	public float getCompactMetricTolerance() {
+		return compactMetricTolerance;
+	}
+
+	/**
+	 * @param compactMetricTolerance the maximal absolute error of a distance or time value in the compact distance matrix (0 = full precision)
+	 */
+	public void setCompactMetricTolerance(float compactMetricTolerance) {
+		this.compactMetricTolerance = compactMetricTolerance;
+	}
+
+	/**
+	 * @return the number of bytes for the distance matrix of a model
+	 */
+	public long getMetricMemoryBudget() {
+		return metricMemoryBudget;
+	}
+
+	/**
+	 * @param metricMemoryBudget the number of bytes for the distance matrix of a model (if exceeded, the matrix is stored sparse)
+	 */
+	public void setMetricMemoryBudget(long metricMemoryBudget) {
+		this.metricMemoryBudget = metricMemoryBudget;
+	}
+
+	/**
+	 * @return the number of nearest neighbors per customer for the granular search
+	 */
+	public int getNbrOfGranularNeighbors() {
+		return nbrOfGranularNeighbors;
+	}
+
+	/**
+	 * @param nbrOfGranularNeighbors the number of nearest neighbors per customer for the granular search (0 = no granular search)
+	 */
+	public void setNbrOfGranularNeighbors(int nbrOfGranularNeighbors) {
+		this.nbrOfGranularNeighbors = nbrOfGranularNeighbors;
+	}
+
+	/**
+	 * @return the maximal distance of a granular neighbor relative to the average distance of all neighbors
+	 */
+	public float getGranularityFactor() {
+		return granularityFactor;
+	}
+
+	/**
+	 * @param granularityFactor the maximal distance of a granular neighbor relative to the average distance of all neighbors (0 = no limit)
+	 */
+	public void setGranularityFactor(float granularityFactor) {
+		this.granularityFactor = granularityFactor;
+	}
 }
@@ -19,10 +19,19 @@ import xf.xfvrp.base.Vehicle;
  * @author hschneid
  *
  */
-public class AirMetric implements Metric {
+public class AirMetric implements PreparableMetric, SpatialMetric, IndexFreeMetric {
 
 	public static final double EARTH_RANGE = 40076.592;
 
+	/*
+	 * (non-Javadoc)
+	 * @see xf.xfvrp.base.metric.PreparableMetric#prepare(xf.xfvrp.base.Node[], xf.xfvrp.base.Vehicle)
+	 */
+	@Override
+	public PreparedMetric prepare(Node[] nodes, Vehicle veh) {
+		return new PreparedAirMetric(nodes);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see xftour.model.metric.Metric#getDistance(xftour.model.XFNode, xftour.model.XFNode)
@@ -50,6 +59,39 @@ public class AirMetric implements Metric {
 		return new float[]{getDistance(src, dst, veh), getTime(src, dst, veh)};
 	}	
 	
+	/*
+	 * (non-Javadoc)
+	 * @see xf.xfvrp.base.metric.SpatialMetric#getNbrOfDimensions()
+	 */
+	@Override
+	public int getNbrOfDimensions() {
+		return 3;
+	}
+
+	/**
+	 * The position is the point on the unit sphere. The length of the chord between two
+	 * points grows with the angle between them.
+	 */
+	@Override
+	public void getPosition(Node node, double[] position) {
+		double lat = ToRadians(90 - node.getYlat());
+		double lon = ToRadians(node.getXlong());
+		position[0] = Math.sin(lat) * Math.cos(lon);
+		position[1] = Math.sin(lat) * Math.sin(lon);
+		position[2] = Math.cos(lat);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see xf.xfvrp.base.metric.SpatialMetric#toPositionDistance(float)
+	 */
+	@Override
+	public double toPositionDistance(float distance) {
+		// Chord of the angle distance / EARTH_RANGE * 2 * PI
+		double halfAngle = Math.min(Math.PI / 2, Math.PI * distance / EARTH_RANGE);
+		return 2 * Math.sin(halfAngle);
+	}
+
 	/**
 	 * 
 	 * @param xlong1
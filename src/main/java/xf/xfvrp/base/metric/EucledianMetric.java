@@ -14,7 +14,16 @@ import xf.xfvrp.base.Vehicle;
  * @author hschneid
  *
  */
-public class EucledianMetric implements Metric {
+public class EucledianMetric implements PreparableMetric, SpatialMetric, IndexFreeMetric {
+
+	/*
+	 * (non-Javadoc)
+	 * @see xf.xfvrp.base.metric.PreparableMetric#prepare(xf.xfvrp.base.Node[], xf.xfvrp.base.Vehicle)
+	 */
+	@Override
+	public PreparedMetric prepare(Node[] nodes, Vehicle veh) {
+		return new PreparedEucledianMetric(nodes);
+	}
 
 	/*
 	 * (non-Javadoc)
@@ -34,6 +43,34 @@ public class EucledianMetric implements Metric {
 		return calc(src.getXlong(), src.getYlat(), dst.getXlong(), dst.getYlat());
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see xf.xfvrp.base.metric.SpatialMetric#getNbrOfDimensions()
+	 */
+	@Override
+	public int getNbrOfDimensions() {
+		return 2;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see xf.xfvrp.base.metric.SpatialMetric#getPosition(xf.xfvrp.base.Node, double[])
+	 */
+	@Override
+	public void getPosition(Node node, double[] position) {
+		position[0] = node.getXlong();
+		position[1] = node.getYlat();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see xf.xfvrp.base.metric.SpatialMetric#toPositionDistance(float)
+	 */
+	@Override
+	public double toPositionDistance(float distance) {
+		return distance;
+	}
+
 	/**
 	 * 
 	 * @param x1
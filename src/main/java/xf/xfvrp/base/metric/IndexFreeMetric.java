@@ -0,0 +1,21 @@
+package xf.xfvrp.base.metric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * A metric, whose values depend only on the locations of the nodes (like positions
+ * or geo ids) and not on the index of the nodes. The index of a node is given by the
+ * model, so a pair of nodes may have different indexes in different models. The values
+ * of an index free metric are the same in all models, so the distance matrix can be
+ * shared between the models (see SharedMetricTransformator).
+ *
+ * @author hschneid
+ *
+ */
+public interface IndexFreeMetric extends Metric {
+}
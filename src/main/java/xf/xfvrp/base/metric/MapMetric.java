@@ -3,8 +3,7 @@ package xf.xfvrp.base.metric;
 import xf.xfvrp.base.Node;
 import xf.xfvrp.base.Vehicle;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 
 /** 
@@ -14,14 +13,21 @@ import java.util.Map;
  * This source code is licensed under the MIT License (MIT) found in the
  * LICENSE file in the root directory of this source tree.
  *
+ *
+ * Metric of distances and times per pair of geo ids, which are added by the user.
+ *
+ * There is one hash table per vehicle metric id, where the pair of geo ids is
+ * packed into a primitive long key. So a lookup creates no key object.
  * 
  * @author hschneid
  *
  */
-public class MapMetric implements Metric {
+public class MapMetric implements IndexFreeMetric {
 
 	private static final int DEFAULT_VEHICLE_METRIC_ID = 0;
-	private Map<String, float[]> map = new HashMap<>();
+
+	// Table of pairs per vehicle metric id (entries may be null)
+	private PairTable[] tables = new PairTable[1];
 	
 	/*
 	 * (non-Javadoc)
@@ -29,7 +35,8 @@ public class MapMetric implements Metric {
 	 */
 	@Override
 	public float getDistance(Node src, Node dst, Vehicle veh) {
-		return map.get(genKey(src.getGeoId(), dst.getGeoId(), veh.vehicleMetricId))[0];
+		PairTable table = getTable(veh.vehicleMetricId);
+		return table.getDistance(findSlot(table, src, dst, veh));
 	}
 
 	/*
@@ -38,7 +45,8 @@ public class MapMetric implements Metric {
 	 */
 	@Override
 	public float getTime(Node src, Node dst, Vehicle veh) {
-		return map.get(genKey(src.getGeoId(), dst.getGeoId(), veh.vehicleMetricId))[1];
+		PairTable table = getTable(veh.vehicleMetricId);
+		return table.getTime(findSlot(table, src, dst, veh));
 	}
 	
 	/*
@@ -47,7 +55,12 @@ public class MapMetric implements Metric {
 	 */
 	@Override
 	public float[] getDistanceAndTime(Node src, Node dst, Vehicle veh) {
-		return map.get(genKey(src.getGeoId(), dst.getGeoId(), veh.vehicleMetricId));
+		PairTable table = getTable(veh.vehicleMetricId);
+		int slot = (table != null) ? table.find(src.getGeoId(), dst.getGeoId()) : -1;
+		if(slot == -1)
+			return null;
+
+		return new float[]{table.getDistance(slot), table.getTime(slot)};
 	}
 	
 	/**
@@ -57,11 +70,7 @@ public class MapMetric implements Metric {
 	 * @param dist
 	 */
 	public void addDist(int srcId, int dstId, float dist) {
-		String key = genKey(srcId, dstId, DEFAULT_VEHICLE_METRIC_ID);
-		if(!map.containsKey(key))
-			map.put(key, new float[]{dist, -1});
-		else
-			map.get(key)[0] = dist;
+		getOrCreateTable(DEFAULT_VEHICLE_METRIC_ID).putDistance(srcId, dstId, dist);
 	}
 	
 	/**
@@ -71,11 +80,7 @@ public class MapMetric implements Metric {
 	 * @param time
 	 */
 	public void addTime(int srcId, int dstId, float time) {
-		String key = genKey(srcId, dstId, DEFAULT_VEHICLE_METRIC_ID);
-		if(!map.containsKey(key))
-			map.put(key, new float[]{-1, time});
-		else
-			map.get(key)[1] = time;
+		getOrCreateTable(DEFAULT_VEHICLE_METRIC_ID).putTime(srcId, dstId, time);
 	}
 	
 	/**
@@ -86,7 +91,7 @@ public class MapMetric implements Metric {
 	 * @param time
 	 */
 	public void add(int srcId, int dstId, float dist, float time) {
-		map.put(genKey(srcId, dstId, DEFAULT_VEHICLE_METRIC_ID), new float[]{dist, time});
+		getOrCreateTable(DEFAULT_VEHICLE_METRIC_ID).put(srcId, dstId, dist, time);
 	}
 	
 	/**
@@ -98,18 +103,63 @@ public class MapMetric implements Metric {
 	 * @param time
 	 */
 	public void add(int srcId, int dstId, int vehicleMetricId, float dist, float time) {
-		map.put(genKey(srcId, dstId, vehicleMetricId), new float[]{dist, time});
+		getOrCreateTable(vehicleMetricId).put(srcId, dstId, dist, time);
 	}
 
 	/**
-	 * Generates an unique key for the two given ids.
-	 * 
-	 * @param srcId
-	 * @param dstId
-	 * @param vehicleMetricId
-	 * @return a unique key for this pair of ids
+	 * Adds the pairs (srcIds[i], dstIds[i]) with dists[i] and times[i] for
+	 * the given vehicle metric id. The table is enlarged once before the pairs are added.
+	 */
+	public void addAll(int[] srcIds, int[] dstIds, int vehicleMetricId, float[] dists, float[] times) {
+		if(dstIds.length != srcIds.length || dists.length != srcIds.length || times.length != srcIds.length)
+			throw new IllegalArgumentException("All arrays must have the same length.");
+
+		PairTable table = getOrCreateTable(vehicleMetricId);
+		table.ensureCapacity(table.size() + srcIds.length);
+		for (int i = 0; i < srcIds.length; i++)
+			table.put(srcIds[i], dstIds[i], dists[i], times[i]);
+	}
+
+	/**
+	 * Adds a complete matrix for the given geo ids, where dists[i][j] and times[i][j]
+	 * belong to the pair (geoIds[i], geoIds[j]).
 	 */
-	private String genKey(int srcId, int dstId, int vehicleMetricId) {
-		return srcId+"#"+dstId+"#"+vehicleMetricId;
+	public void addMatrix(int[] geoIds, int vehicleMetricId, float[][] dists, float[][] times) {
+		PairTable table = getOrCreateTable(vehicleMetricId);
+		table.ensureCapacity(table.size() + geoIds.length * geoIds.length);
+		for (int i = 0; i < geoIds.length; i++)
+			for (int j = 0; j < geoIds.length; j++)
+				table.put(geoIds[i], geoIds[j], dists[i][j], times[i][j]);
+	}
+
+	/**
+	 * Prepares the table of the vehicle metric id for the given number of pairs, so that
+	 * the pairs can be added without enlarging the table.
+	 */
+	public void ensureCapacity(int vehicleMetricId, int nbrOfPairs) {
+		getOrCreateTable(vehicleMetricId).ensureCapacity(nbrOfPairs);
+	}
+
+	private int findSlot(PairTable table, Node src, Node dst, Vehicle veh) {
+		int slot = (table != null) ? table.find(src.getGeoId(), dst.getGeoId()) : -1;
+		if(slot == -1)
+			throw new IllegalStateException("Missing distance information (" + src.getGeoId() + "," + dst.getGeoId() + "," + veh.vehicleMetricId + ")");
+
+		return slot;
+	}
+
+	private PairTable getTable(int vehicleMetricId) {
+		return (vehicleMetricId >= 0 && vehicleMetricId < tables.length) ? tables[vehicleMetricId] : null;
+	}
+
+	private PairTable getOrCreateTable(int vehicleMetricId) {
+		if(vehicleMetricId < 0)
+			throw new IllegalArgumentException("Vehicle metric id " + vehicleMetricId + " must not be negative.");
+		if(vehicleMetricId >= tables.length)
+			tables = Arrays.copyOf(tables, vehicleMetricId + 1);
+		if(tables[vehicleMetricId] == null)
+			tables[vehicleMetricId] = new PairTable();
+
+		return tables[vehicleMetricId];
 	}
 }
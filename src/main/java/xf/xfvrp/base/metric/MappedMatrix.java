@@ -0,0 +1,226 @@
+package xf.xfvrp.base.metric;
+
+import xf.xfvrp.base.exception.XFVRPException;
+import xf.xfvrp.base.exception.XFVRPExceptionType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Layout of a distance matrix file, which is mapped into memory.
+ *
+ * The file starts with a header of int values:
+ *  - magic number
+ *  - version
+ *  - size (number of nodes)
+ *  - number of vehicle metric ids
+ *  - symmetry flag (1 = only pairs with src <= dst are stored)
+ *  - vehicle metric ids
+ *
+ * After the header there is one block per vehicle metric id in the order of the header.
+ * A block contains distance and time of each pair of nodes interleaved, row by row.
+ * All values are stored in little endian.
+ *
+ * A mapped buffer can not be greater than 2 GB, so the blocks are mapped in chunks
+ * of 1 GB. A pair never crosses the border of a chunk.
+ *
+ * @author hschneid
+ *
+ */
+class MappedMatrix {
+
+	static final int MAGIC = 0x58464D4D;
+	static final int VERSION = 1;
+	private static final int NBR_OF_HEADER_VALUES = 5;
+
+	// Number of float values in a chunk
+	private static final int CHUNK_BITS = 28;
+	private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+	private final int size;
+	private final int[] vehicleMetricIds;
+	private final boolean isSymmetric;
+
+	// Position of vehicle metric id in header or -1
+	private final int[] blockOfVehicleMetricId;
+	private final long nbrOfPairsPerBlock;
+
+	private final MappedByteBuffer[] buffers;
+	private final FloatBuffer[] chunks;
+
+	/**
+	 * Maps the data part of the file behind a header with the given values. If the
+	 * mode is READ_WRITE, the file is extended to the necessary length.
+	 */
+	MappedMatrix(FileChannel channel, FileChannel.MapMode mode, int size, int[] vehicleMetricIds, boolean isSymmetric) throws IOException {
+		this.size = size;
+		this.vehicleMetricIds = vehicleMetricIds.clone();
+		this.isSymmetric = isSymmetric;
+
+		int maxVehicleMetricId = 0;
+		for (int id : vehicleMetricIds)
+			maxVehicleMetricId = Math.max(maxVehicleMetricId, id);
+		blockOfVehicleMetricId = new int[maxVehicleMetricId + 1];
+		Arrays.fill(blockOfVehicleMetricId, -1);
+		for (int i = 0; i < vehicleMetricIds.length; i++)
+			blockOfVehicleMetricId[vehicleMetricIds[i]] = i;
+
+		nbrOfPairsPerBlock = (isSymmetric) ? (long) size * (size + 1) / 2 : (long) size * size;
+
+		long nbrOfFloats = nbrOfPairsPerBlock * 2 * vehicleMetricIds.length;
+		int nbrOfChunks = (int) ((nbrOfFloats + CHUNK_MASK) >>> CHUNK_BITS);
+		buffers = new MappedByteBuffer[nbrOfChunks];
+		chunks = new FloatBuffer[nbrOfChunks];
+		long dataStart = getHeaderLength(vehicleMetricIds.length);
+		for (int i = 0; i < nbrOfChunks; i++) {
+			long firstFloat = (long) i << CHUNK_BITS;
+			long chunkLength = Math.min(CHUNK_MASK + 1, nbrOfFloats - firstFloat);
+
+			buffers[i] = channel.map(mode, dataStart + firstFloat * Float.BYTES, chunkLength * Float.BYTES);
+			buffers[i].order(ByteOrder.LITTLE_ENDIAN);
+			chunks[i] = buffers[i].asFloatBuffer();
+		}
+	}
+
+	/**
+	 * Reads the header of the file and maps the data part read-only.
+	 */
+	static MappedMatrix read(FileChannel channel) throws IOException, XFVRPException {
+		ByteBuffer header = readInts(channel, 0, NBR_OF_HEADER_VALUES);
+		if(header.getInt() != MAGIC)
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "File is no distance matrix file.");
+		int version = header.getInt();
+		if(version != VERSION)
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Unsupported version " + version + " of distance matrix file.");
+		int size = header.getInt();
+		int nbrOfVehicleMetricIds = header.getInt();
+		boolean isSymmetric = header.getInt() == 1;
+		if(size < 0 || nbrOfVehicleMetricIds < 0)
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Invalid header of distance matrix file.");
+
+		ByteBuffer ids = readInts(channel, NBR_OF_HEADER_VALUES * Integer.BYTES, nbrOfVehicleMetricIds);
+		int[] vehicleMetricIds = new int[nbrOfVehicleMetricIds];
+		for (int i = 0; i < vehicleMetricIds.length; i++) {
+			vehicleMetricIds[i] = ids.getInt();
+			if(vehicleMetricIds[i] < 0)
+				throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Invalid vehicle metric id " + vehicleMetricIds[i] + " in distance matrix file.");
+		}
+
+		long expectedLength = getHeaderLength(nbrOfVehicleMetricIds) + getDataLength(size, nbrOfVehicleMetricIds, isSymmetric);
+		if(channel.size() < expectedLength)
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Distance matrix file is truncated. Expected " + expectedLength + " bytes but found " + channel.size() + " bytes.");
+
+		return new MappedMatrix(channel, FileChannel.MapMode.READ_ONLY, size, vehicleMetricIds, isSymmetric);
+	}
+
+	/**
+	 * Writes the header for the given values at the start of the file.
+	 */
+	static void writeHeader(FileChannel channel, int size, int[] vehicleMetricIds, boolean isSymmetric) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(getHeaderLength(vehicleMetricIds.length)).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(size);
+		header.putInt(vehicleMetricIds.length);
+		header.putInt(isSymmetric ? 1 : 0);
+		for (int id : vehicleMetricIds)
+			header.putInt(id);
+		header.flip();
+
+		long pos = 0;
+		while(header.hasRemaining())
+			pos += channel.write(header, pos);
+	}
+
+	static int getHeaderLength(int nbrOfVehicleMetricIds) {
+		return (NBR_OF_HEADER_VALUES + nbrOfVehicleMetricIds) * Integer.BYTES;
+	}
+
+	static long getDataLength(int size, int nbrOfVehicleMetricIds, boolean isSymmetric) {
+		long nbrOfPairs = (isSymmetric) ? (long) size * (size + 1) / 2 : (long) size * size;
+		return nbrOfPairs * 2 * Float.BYTES * nbrOfVehicleMetricIds;
+	}
+
+	float getDistance(int srcIdx, int dstIdx, int vehicleMetricId) {
+		long pos = getPosition(srcIdx, dstIdx, vehicleMetricId);
+		return chunks[(int) (pos >>> CHUNK_BITS)].get((int) (pos & CHUNK_MASK));
+	}
+
+	float getTime(int srcIdx, int dstIdx, int vehicleMetricId) {
+		long pos = getPosition(srcIdx, dstIdx, vehicleMetricId) + 1;
+		return chunks[(int) (pos >>> CHUNK_BITS)].get((int) (pos & CHUNK_MASK));
+	}
+
+	void put(int srcIdx, int dstIdx, int vehicleMetricId, float dist, float time) {
+		long pos = getPosition(srcIdx, dstIdx, vehicleMetricId);
+		FloatBuffer chunk = chunks[(int) (pos >>> CHUNK_BITS)];
+		int offset = (int) (pos & CHUNK_MASK);
+		chunk.put(offset, dist);
+		chunk.put(offset + 1, time);
+	}
+
+	/**
+	 * Writes all changes of a read-write mapping to the file.
+	 */
+	void force() {
+		for (MappedByteBuffer buffer : buffers)
+			buffer.force();
+	}
+
+	int getSize() {
+		return size;
+	}
+
+	int[] getVehicleMetricIds() {
+		return vehicleMetricIds.clone();
+	}
+
+	boolean isSymmetric() {
+		return isSymmetric;
+	}
+
+	/**
+	 * @return Position of the distance value of the pair in number of floats
+	 */
+	private long getPosition(int srcIdx, int dstIdx, int vehicleMetricId) {
+		if(srcIdx < 0 || srcIdx >= size || dstIdx < 0 || dstIdx >= size)
+			throw new IndexOutOfBoundsException("Node index " + srcIdx + " or " + dstIdx + " is not in matrix of size " + size);
+		int block = (vehicleMetricId >= 0 && vehicleMetricId < blockOfVehicleMetricId.length) ? blockOfVehicleMetricId[vehicleMetricId] : -1;
+		if(block == -1)
+			throw new IndexOutOfBoundsException("Vehicle metric id " + vehicleMetricId + " is not in matrix");
+
+		long pairIdx;
+		if(isSymmetric) {
+			long i = Math.min(srcIdx, dstIdx);
+			long j = Math.max(srcIdx, dstIdx);
+			// Rows of the upper triangle get shorter by one with each row
+			pairIdx = i * size - i * (i - 1) / 2 + (j - i);
+		} else {
+			pairIdx = (long) srcIdx * size + dstIdx;
+		}
+
+		return (block * nbrOfPairsPerBlock + pairIdx) * 2;
+	}
+
+	private static ByteBuffer readInts(FileChannel channel, long position, int nbrOfInts) throws IOException, XFVRPException {
+		ByteBuffer buffer = ByteBuffer.allocate(nbrOfInts * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, position + buffer.position()) < 0)
+				throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Distance matrix file is truncated.");
+		}
+		buffer.flip();
+		return buffer;
+	}
+}
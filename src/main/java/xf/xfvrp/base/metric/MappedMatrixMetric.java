@@ -0,0 +1,95 @@
+package xf.xfvrp.base.metric;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+import xf.xfvrp.base.exception.XFVRPException;
+import xf.xfvrp.base.exception.XFVRPExceptionType;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Variant of DirectMatrixMetric, where the matrix is read from a file, which
+ * is mapped read-only into memory. The values stay outside of the heap and the
+ * opening of the file does not read the matrix. So several processes share one
+ * copy of the matrix in the page cache of the operating system.
+ *
+ * Same as in DirectMatrixMetric the nodes are addressed by their index. The file
+ * is written by MappedMatrixMetricWriter.
+ *
+ * @author hschneid
+ *
+ */
+public class MappedMatrixMetric implements Metric {
+
+	private final MappedMatrix matrix;
+
+	/**
+	 * Opens the given matrix file. The file can be closed or
+	 * deleted afterwards, the mapping stays valid.
+	 */
+	public MappedMatrixMetric(Path file) throws XFVRPException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			matrix = MappedMatrix.read(channel);
+		} catch (IOException e) {
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Distance matrix file " + file + " can not be read.", e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see xftour.model.metric.Metric#getDistance(xftour.model.XFNode, xftour.model.XFNode)
+	 */
+	@Override
+	public float getDistance(Node src, Node dst, Vehicle veh) {
+		return matrix.getDistance(src.getIdx(), dst.getIdx(), veh.vehicleMetricId);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see xftour.model.metric.Metric#getTime(xftour.model.XFNode, xftour.model.XFNode)
+	 */
+	@Override
+	public float getTime(Node src, Node dst, Vehicle veh) {
+		return matrix.getTime(src.getIdx(), dst.getIdx(), veh.vehicleMetricId);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see xftour.model.metric.Metric#getDistanceAndTime(xftour.model.XFNode, xftour.model.XFNode)
+	 */
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst, Vehicle veh) {
+		return new float[]{
+				matrix.getDistance(src.getIdx(), dst.getIdx(), veh.vehicleMetricId),
+				matrix.getTime(src.getIdx(), dst.getIdx(), veh.vehicleMetricId)
+		};
+	}
+
+	/**
+	 * @return Number of nodes in the matrix
+	 */
+	public int getSize() {
+		return matrix.getSize();
+	}
+
+	public int[] getVehicleMetricIds() {
+		return matrix.getVehicleMetricIds();
+	}
+
+	/**
+	 * @return true, if the distance from a to b is equal to the distance from b to a
+	 */
+	public boolean isSymmetric() {
+		return matrix.isSymmetric();
+	}
+}
@@ -0,0 +1,81 @@
+package xf.xfvrp.base.metric;
+
+import xf.xfvrp.base.exception.XFVRPException;
+import xf.xfvrp.base.exception.XFVRPExceptionType;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Writes a distance matrix file for MappedMatrixMetric.
+ *
+ * The file is created with its complete length and is mapped into memory, so
+ * the values are written directly into the file without a copy on the heap.
+ * Pairs, which are not added, have distance and time of 0. For a symmetric
+ * matrix only one direction of a pair needs to be added.
+ *
+ * The file is complete after close.
+ *
+ * @author hschneid
+ *
+ */
+public class MappedMatrixMetricWriter implements AutoCloseable {
+
+	private final MappedMatrix matrix;
+
+	/**
+	 * Creates or overwrites the given file for a matrix with one vehicle metric id 0.
+	 */
+	public MappedMatrixMetricWriter(Path file, int size, boolean isSymmetric) throws XFVRPException {
+		this(file, size, new int[]{0}, isSymmetric);
+	}
+
+	/**
+	 * Creates or overwrites the given file for a matrix with the given vehicle metric ids.
+	 */
+	public MappedMatrixMetricWriter(Path file, int size, int[] vehicleMetricIds, boolean isSymmetric) throws XFVRPException {
+		if(size < 0)
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_ARGUMENT, "Size of distance matrix must not be negative.");
+		for (int id : vehicleMetricIds)
+			if(id < 0)
+				throw new XFVRPException(XFVRPExceptionType.ILLEGAL_ARGUMENT, "Vehicle metric id " + id + " must not be negative.");
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedMatrix.writeHeader(channel, size, vehicleMetricIds, isSymmetric);
+			matrix = new MappedMatrix(channel, FileChannel.MapMode.READ_WRITE, size, vehicleMetricIds, isSymmetric);
+		} catch (IOException e) {
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Distance matrix file " + file + " can not be written.", e);
+		}
+	}
+
+	/**
+	 * Adds distance and time of a pair for vehicle metric id 0.
+	 */
+	public void add(int srcIdx, int dstIdx, float dist, float time) {
+		matrix.put(srcIdx, dstIdx, 0, dist, time);
+	}
+
+	/**
+	 * Adds distance and time of a pair for the given vehicle metric id.
+	 */
+	public void add(int srcIdx, int dstIdx, int vehicleMetricId, float dist, float time) {
+		matrix.put(srcIdx, dstIdx, vehicleMetricId, dist, time);
+	}
+
+	/**
+	 * Writes all added values to the file.
+	 */
+	@Override
+	public void close() {
+		matrix.force();
+	}
+}
@@ -0,0 +1,180 @@
+package xf.xfvrp.base.metric;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Hash table of distance and time per pair of ids.
+ *
+ * The pair is packed into a long key. The table uses open addressing with
+ * linear probing, where keys and values are stored in contiguous primitive
+ * arrays. So a lookup creates no object.
+ *
+ * @author hschneid
+ *
+ */
+class PairTable {
+
+	private static final float MAX_LOAD_FACTOR = 0.6f;
+
+	private long[] keys;
+	private boolean[] isUsed;
+	// Distance and time of slot i at 2 * i and 2 * i + 1
+	private float[] values;
+
+	private int size = 0;
+	private int mask;
+
+	PairTable() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedNbrOfPairs Number of pairs, which can be added without rehashing
+	 */
+	PairTable(int expectedNbrOfPairs) {
+		allocate(getCapacity(expectedNbrOfPairs));
+	}
+
+	/**
+	 * @return Slot of the pair or -1, if the pair is not contained
+	 */
+	int find(int srcId, int dstId) {
+		long key = toKey(srcId, dstId);
+		int slot = hash(key) & mask;
+		while(isUsed[slot]) {
+			if(keys[slot] == key)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	float getDistance(int slot) {
+		return values[2 * slot];
+	}
+
+	float getTime(int slot) {
+		return values[2 * slot + 1];
+	}
+
+	void put(int srcId, int dstId, float dist, float time) {
+		int slot = insert(srcId, dstId);
+		values[2 * slot] = dist;
+		values[2 * slot + 1] = time;
+	}
+
+	/**
+	 * Sets the distance of a pair. A new pair gets a time of -1.
+	 */
+	void putDistance(int srcId, int dstId, float dist) {
+		values[2 * insert(srcId, dstId)] = dist;
+	}
+
+	/**
+	 * Sets the time of a pair. A new pair gets a distance of -1.
+	 */
+	void putTime(int srcId, int dstId, float time) {
+		values[2 * insert(srcId, dstId) + 1] = time;
+	}
+
+	/**
+	 * Enlarges the table, so that the given number of pairs can be
+	 * contained without rehashing.
+	 */
+	void ensureCapacity(int nbrOfPairs) {
+		int capacity = getCapacity(nbrOfPairs);
+		if(capacity > keys.length)
+			rehash(capacity);
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return Slot of the pair, which is added with distance and time of -1, if it is not contained
+	 */
+	private int insert(int srcId, int dstId) {
+		long key = toKey(srcId, dstId);
+		int slot = hash(key) & mask;
+		while(isUsed[slot]) {
+			if(keys[slot] == key)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+
+		if(size + 1 > keys.length * MAX_LOAD_FACTOR) {
+			rehash(keys.length * 2);
+			return insert(srcId, dstId);
+		}
+
+		isUsed[slot] = true;
+		keys[slot] = key;
+		size++;
+
+		return slot;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		boolean[] oldIsUsed = isUsed;
+		float[] oldValues = values;
+
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if(!oldIsUsed[i])
+				continue;
+
+			int slot = hash(oldKeys[i]) & mask;
+			while(isUsed[slot])
+				slot = (slot + 1) & mask;
+
+			isUsed[slot] = true;
+			keys[slot] = oldKeys[i];
+			values[2 * slot] = oldValues[2 * i];
+			values[2 * slot + 1] = oldValues[2 * i + 1];
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		isUsed = new boolean[capacity];
+		// Unused slots are prepared for new pairs without distance or time
+		values = new float[capacity * 2];
+		Arrays.fill(values, -1);
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @return Power of 2, which holds the number of pairs below the maximal load factor
+	 */
+	private static int getCapacity(int nbrOfPairs) {
+		long minCapacity = (long) Math.ceil(Math.max(nbrOfPairs, 1) / MAX_LOAD_FACTOR) + 1;
+		if(minCapacity > (1 << 30))
+			throw new IllegalArgumentException("Too many pairs for a table: " + nbrOfPairs);
+		return Math.max(16, Integer.highestOneBit((int) minCapacity - 1) << 1);
+	}
+
+	private static long toKey(int srcId, int dstId) {
+		return ((long) srcId << 32) | (dstId & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Mixes all bits of the key, so that consecutive ids are spread over the table.
+	 */
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		key *= 0xC4CEB9FE1A85EC53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
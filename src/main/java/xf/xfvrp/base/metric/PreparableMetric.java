@@ -0,0 +1,29 @@
+package xf.xfvrp.base.metric;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * A metric, which can precompute the terms of single nodes for a known set of
+ * nodes. The transformation of the user defined metric into an internal metric
+ * uses the prepared metric, if the user defined metric is preparable.
+ *
+ * @author hschneid
+ *
+ */
+public interface PreparableMetric extends Metric {
+
+	/**
+	 * @param nodes All nodes, which are requested from the prepared metric
+	 * @param veh Container
+	 * @return Metric for the given nodes, which are addressed by their index
+	 */
+	public PreparedMetric prepare(Node[] nodes, Vehicle veh);
+}
@@ -0,0 +1,105 @@
+package xf.xfvrp.base.metric;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Prepared form of AirMetric, where the sine and cosine of latitude and longitude
+ * are computed once per node.
+ *
+ * The cosine of the longitude difference is expanded into the sum of products
+ * of the node terms. So the cosine of the central angle is computed without any
+ * trigonometric call and only the arc cosine remains per pair.
+ *
+ * @author hschneid
+ *
+ */
+class PreparedAirMetric implements PreparedMetric {
+
+	private final float[] xlong;
+	private final float[] ylat;
+	private final double[] cosLat;
+	private final double[] sinLat;
+	private final double[] cosLong;
+	private final double[] sinLong;
+
+	PreparedAirMetric(Node[] nodes) {
+		int size = 0;
+		for (Node node : nodes)
+			size = Math.max(size, node.getIdx() + 1);
+
+		xlong = new float[size];
+		ylat = new float[size];
+		cosLat = new double[size];
+		sinLat = new double[size];
+		cosLong = new double[size];
+		sinLong = new double[size];
+		for (Node node : nodes) {
+			int idx = node.getIdx();
+			double lat = Math.toRadians(90 - node.getYlat());
+			double lon = Math.toRadians(node.getXlong());
+
+			xlong[idx] = node.getXlong();
+			ylat[idx] = node.getYlat();
+			cosLat[idx] = Math.cos(lat);
+			sinLat[idx] = Math.sin(lat);
+			cosLong[idx] = Math.cos(lon);
+			sinLong[idx] = Math.sin(lon);
+		}
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst, Vehicle veh) {
+		return calc(src.getIdx(), dst.getIdx());
+	}
+
+	@Override
+	public float getTime(Node src, Node dst, Vehicle veh) {
+		return (calc(src.getIdx(), dst.getIdx())/60f)*60f;
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst, Vehicle veh) {
+		float f = calc(src.getIdx(), dst.getIdx());
+		return new float[]{f, (f/60f)*60f};
+	}
+
+	@Override
+	public void getRow(int srcIdx, float[] distances, float[] times) {
+		// Rows may be computed by several threads, so no buffer is shared
+		for (int i = 0; i < xlong.length; i++) {
+			distances[i] = calc(srcIdx, i);
+			times[i] = (distances[i]/60f)*60f;
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return xlong.length;
+	}
+
+	private float calc(int srcIdx, int dstIdx) {
+		if (xlong[srcIdx] == xlong[dstIdx] && ylat[srcIdx] == ylat[dstIdx])
+			return 0.0f;
+
+		return toDistance(getCosAngle(srcIdx, dstIdx));
+	}
+
+	private double getCosAngle(int srcIdx, int dstIdx) {
+		double cosDiffLong = cosLong[srcIdx] * cosLong[dstIdx] + sinLong[srcIdx] * sinLong[dstIdx];
+		return cosLat[srcIdx] * cosLat[dstIdx] + sinLat[srcIdx] * sinLat[dstIdx] * cosDiffLong;
+	}
+
+	private static float toDistance(double cosAngle) {
+		// Rounding may lead to values slightly outside of the domain of arc cosine
+		double alpha = Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, cosAngle))));
+		return (float) ((alpha * AirMetric.EARTH_RANGE) / 360.0d);
+	}
+}
@@ -0,0 +1,76 @@
+package xf.xfvrp.base.metric;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Prepared form of EucledianMetric, where the coordinates of the nodes are
+ * held in primitive arrays.
+ *
+ * @author hschneid
+ *
+ */
+class PreparedEucledianMetric implements PreparedMetric {
+
+	private final float[] x;
+	private final float[] y;
+
+	PreparedEucledianMetric(Node[] nodes) {
+		int size = 0;
+		for (Node node : nodes)
+			size = Math.max(size, node.getIdx() + 1);
+
+		x = new float[size];
+		y = new float[size];
+		for (Node node : nodes) {
+			x[node.getIdx()] = node.getXlong();
+			y[node.getIdx()] = node.getYlat();
+		}
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst, Vehicle veh) {
+		return calc(src.getIdx(), dst.getIdx());
+	}
+
+	@Override
+	public float getTime(Node src, Node dst, Vehicle veh) {
+		return calc(src.getIdx(), dst.getIdx());
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst, Vehicle veh) {
+		float f = calc(src.getIdx(), dst.getIdx());
+		return new float[]{f, f};
+	}
+
+	@Override
+	public void getRow(int srcIdx, float[] distances, float[] times) {
+		float xSrc = x[srcIdx];
+		float ySrc = y[srcIdx];
+		for (int i = 0; i < x.length; i++) {
+			double dx = xSrc - x[i];
+			double dy = ySrc - y[i];
+			distances[i] = (float) Math.sqrt(dx * dx + dy * dy);
+		}
+		System.arraycopy(distances, 0, times, 0, x.length);
+	}
+
+	@Override
+	public int getSize() {
+		return x.length;
+	}
+
+	private float calc(int srcIdx, int dstIdx) {
+		double dx = x[srcIdx] - x[dstIdx];
+		double dy = y[srcIdx] - y[dstIdx];
+		return (float) Math.sqrt(dx * dx + dy * dy);
+	}
+}
@@ -0,0 +1,35 @@
+package xf.xfvrp.base.metric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * A metric for a fixed set of nodes (see PreparableMetric). The nodes are addressed
+ * by their index, so a requested node must have the same index as at preparation.
+ *
+ * Beside the single pairs, a complete row of the matrix can be computed at once. The
+ * row is computed by loops over primitive arrays, which can be vectorized by the JIT.
+ *
+ * @author hschneid
+ *
+ */
+public interface PreparedMetric extends Metric {
+
+	/**
+	 * Computes the distances and times from the source node to all prepared nodes.
+	 *
+	 * @param srcIdx Index of source node
+	 * @param distances Distance to destination node is written at index of destination node
+	 * @param times Time to destination node is written at index of destination node
+	 */
+	public void getRow(int srcIdx, float[] distances, float[] times);
+
+	/**
+	 * @return Number of row entries, which is the greatest index of a prepared node plus one
+	 */
+	public int getSize();
+}
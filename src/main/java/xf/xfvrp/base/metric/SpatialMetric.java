@@ -0,0 +1,37 @@
+package xf.xfvrp.base.metric;
+
+import xf.xfvrp.base.Node;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * A metric, where the distance of two nodes grows with the euclidean distance
+ * of their positions in a space of a few dimensions. So the nearest nodes of a
+ * metric can be found by a spatial index (see KdTree).
+ *
+ * @author hschneid
+ *
+ */
+public interface SpatialMetric extends Metric {
+
+	/**
+	 * @return Number of dimensions of a position
+	 */
+	public int getNbrOfDimensions();
+
+	/**
+	 * Writes the position of the node into the given array.
+	 */
+	public void getPosition(Node node, double[] position);
+
+	/**
+	 * @param distance Distance of this metric
+	 * @return Euclidean distance of two positions, which have the given distance
+	 */
+	public double toPositionDistance(float distance);
+}
@@ -3,6 +3,8 @@ package xf.xfvrp.base.metric.internal;
 import xf.xfvrp.base.Node;
 import xf.xfvrp.base.metric.InternalMetric;
 
+import java.util.Arrays;
+
 /** 
  * Copyright (c) 2012-2021 Holger Schneider
  * All rights reserved.
@@ -10,20 +12,32 @@ import xf.xfvrp.base.metric.InternalMetric;
  * This source code is licensed under the MIT License (MIT) found in the
  * LICENSE file in the root directory of this source tree.
  *
+ *
+ * Rectangular matrix of distances and travel times between the nodes of a model,
+ * addressed by the node indexes.
+ *
+ * Distances and times are stored in two contiguous arrays with the position
+ * src * size + dst, so that no object is allocated per pair and a lookup reads
+ * a single array cell.
  * 
  * @author hschneid
  *
  */
 public class AcceleratedMetric implements InternalMetric {
 
-	private final float[][][] matrix;
+	private final int size;
+	private final float[] distances;
+	private final float[] times;
 	
 	/**
 	 * 
-	 * @param size
+	 * @param size Number of nodes
 	 */
 	public AcceleratedMetric(int size) {
-		matrix = new float[size][size][];
+		this.size = size;
+		int nbrOfPairs = Math.multiplyExact(size, size);
+		distances = new float[nbrOfPairs];
+		times = new float[nbrOfPairs];
 	}
 	
 	/*
@@ -32,7 +46,14 @@ public class AcceleratedMetric implements InternalMetric {
 	 */
 	@Override
 	public float getDistance(Node src, Node dst) {
-		return matrix[src.getIdx()][dst.getIdx()][0];
+		return distances[src.getIdx() * size + dst.getIdx()];
+	}
+
+	/**
+	 * @return distance between the nodes with the given indexes
+	 */
+	public float getDistance(int srcIdx, int dstIdx) {
+		return distances[srcIdx * size + dstIdx];
 	}
 
 	/*
@@ -41,7 +62,14 @@ public class AcceleratedMetric implements InternalMetric {
 	 */
 	@Override
 	public float getTime(Node src, Node dst) {
-		return matrix[src.getIdx()][dst.getIdx()][1];
+		return times[src.getIdx() * size + dst.getIdx()];
+	}
+
+	/**
+	 * @return travel time between the nodes with the given indexes
+	 */
+	public float getTime(int srcIdx, int dstIdx) {
+		return times[srcIdx * size + dstIdx];
 	}
 	
 	/*
@@ -50,9 +78,14 @@ public class AcceleratedMetric implements InternalMetric {
 	 */
 	@Override
 	public float[] getDistanceAndTime(Node src, Node dst) {
-		return matrix[src.getIdx()][dst.getIdx()];
+		int pos = src.getIdx() * size + dst.getIdx();
+		return new float[]{distances[pos], times[pos]};
 	}
 	
+	public int getSize() {
+		return size;
+	}
+
 	/**
 	 * 
 	 * @param srcIdx
@@ -61,6 +94,16 @@ public class AcceleratedMetric implements InternalMetric {
 	 * @param time
 	 */
 	public void add(int srcIdx, int dstIdx, float dist, float time) {
-		matrix[srcIdx][dstIdx] = new float[]{dist, time};
+		int pos = srcIdx * size + dstIdx;
+		distances[pos] = dist;
+		times[pos] = time;
+	}
+
+	/**
+	 * Sets the distance and time of all pairs to the given value.
+	 */
+	void setAll(float value) {
+		Arrays.fill(distances, value);
+		Arrays.fill(times, value);
 	}
 }
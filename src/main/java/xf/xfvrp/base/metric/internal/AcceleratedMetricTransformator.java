@@ -6,6 +6,12 @@ import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.base.exception.XFVRPExceptionType;
 import xf.xfvrp.base.metric.InternalMetric;
 import xf.xfvrp.base.metric.Metric;
+import xf.xfvrp.base.metric.PreparableMetric;
+import xf.xfvrp.base.metric.PreparedMetric;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** 
  * Copyright (c) 2012-2021 Holger Schneider
@@ -21,12 +27,21 @@ import xf.xfvrp.base.metric.Metric;
  * All nodes for the next optimization step and the associated vehicle data are
  * extracted into a rectangular matrix. The memory usage will be increased, but
  * the speed increases a lot.
+ *
+ * The rows of the matrix can be filled by several threads. Then the user defined
+ * metric is called in parallel.
+ *
+ * If the user defined metric is preparable, the prepared metric computes the
+ * matrix row by row.
  * 
  * @author hschneid
  *
  */
 public class AcceleratedMetricTransformator {
 
+	// Minimal number of nodes for a parallel transformation
+	private static final int MIN_PARALLEL_SIZE = 64;
+
 	/**
 	 * Performs the transformation of the user defined metric into a
 	 * internal metric, which is optimized for the use in optimization algorithms.
@@ -37,16 +52,195 @@ public class AcceleratedMetricTransformator {
 	 * @return Internal metric for use in optimization procedures
 	 */
 	public static InternalMetric transform(Metric metric, Node[] nodeArr, Vehicle veh) throws XFVRPException {
+		return transform(metric, nodeArr, veh, 1);
+	}
+
+	/**
+	 * Same as transform(metric, nodeArr, veh), where the rows of the matrix are
+	 * filled by the given number of threads.
+	 *
+	 * If distance information is missing for several pairs, the error names the
+	 * first pair in order of rows, like the transformation with a single thread.
+	 *
+	 * @param parallelism Number of threads (1 = no parallel calls of the metric)
+	 */
+	public static InternalMetric transform(Metric metric, Node[] nodeArr, Vehicle veh, int parallelism) throws XFVRPException {
 		AcceleratedMetric acceleratedMetric = new AcceleratedMetric(nodeArr.length);
-		for (int i = 0; i < nodeArr.length; i++)
-			for (int j = 0; j < nodeArr.length; j++) {
-				float[] v = metric.getDistanceAndTime(nodeArr[i], nodeArr[j], veh);
 
-				if(v == null)
-					throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Missing distance information ("+nodeArr[i].getGeoId()+","+nodeArr[j].getGeoId()+")");
+		int[] positions = new int[nodeArr.length];
+		int[] rowOfIdx = new int[nodeArr.length];
+		for (int i = 0; i < nodeArr.length; i++) {
+			positions[i] = i;
+			rowOfIdx[i] = i;
+		}
+		transform(metric, nodeArr, positions, veh, acceleratedMetric, rowOfIdx, parallelism);
 
-				acceleratedMetric.add(nodeArr[i].getIdx(), nodeArr[j].getIdx(), v[0], v[1]);
-			}
 		return acceleratedMetric;
 	}
-}
+
+	/**
+	 * Fills the rows of the nodes at the given positions (ascending) of the node array
+	 * into the target matrix, where a node with index idx is stored at row and column
+	 * rowOfIdx[idx]. The user defined metric is called with the nodes of the node array.
+	 *
+	 * If distance information is missing for several pairs, the error names the
+	 * first pair in order of rows, like the transformation with a single thread.
+	 */
+	static void transform(Metric metric, Node[] nodeArr, int[] positions, Vehicle veh, AcceleratedMetric target, int[] rowOfIdx, int parallelism) throws XFVRPException {
+		if(metric instanceof PreparableMetric)
+			metric = ((PreparableMetric) metric).prepare(nodeArr, veh);
+
+		// Position i * length + j of the first missing pair
+		AtomicLong firstMissingPair = new AtomicLong(Long.MAX_VALUE);
+		fillRows(new Rows(metric, nodeArr, positions, veh, target, rowOfIdx, firstMissingPair), positions.length, parallelism);
+		checkMissingPair(firstMissingPair, nodeArr);
+	}
+
+	/**
+	 * Fills the given number of rows by the given number of threads.
+	 */
+	static void fillRows(RowRange rows, int nbrOfRows, int parallelism) {
+		if(parallelism <= 1 || nbrOfRows < MIN_PARALLEL_SIZE)
+			rows.fill(0, nbrOfRows);
+		else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				int minRowsPerTask = Math.max(1, nbrOfRows / (parallelism * 8));
+				pool.invoke(new RowTask(rows, 0, nbrOfRows, minRowsPerTask));
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * @param firstMissingPair Position i * length + j of the first missing pair (Long.MAX_VALUE = no missing pair)
+	 */
+	static void checkMissingPair(AtomicLong firstMissingPair, Node[] nodeArr) throws XFVRPException {
+		if(firstMissingPair.get() != Long.MAX_VALUE) {
+			Node src = nodeArr[(int) (firstMissingPair.get() / nodeArr.length)];
+			Node dst = nodeArr[(int) (firstMissingPair.get() % nodeArr.length)];
+			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Missing distance information ("+src.getGeoId()+","+dst.getGeoId()+")");
+		}
+	}
+
+	/**
+	 * Range of rows of a transformation, which is filled by a single thread
+	 */
+	interface RowRange {
+
+		/**
+		 * Fills the rows from start (inclusive) to end (exclusive).
+		 */
+		void fill(int start, int end);
+	}
+
+	/**
+	 * Rows of a transformation, which are filled by one or more threads
+	 */
+	private static class Rows implements RowRange {
+
+		private final Metric metric;
+		private final Node[] nodeArr;
+		private final int[] positions;
+		private final Vehicle veh;
+		private final AcceleratedMetric target;
+		private final int[] rowOfIdx;
+		private final AtomicLong firstMissingPair;
+
+		Rows(Metric metric, Node[] nodeArr, int[] positions, Vehicle veh, AcceleratedMetric target, int[] rowOfIdx, AtomicLong firstMissingPair) {
+			this.metric = metric;
+			this.nodeArr = nodeArr;
+			this.positions = positions;
+			this.veh = veh;
+			this.target = target;
+			this.rowOfIdx = rowOfIdx;
+			this.firstMissingPair = firstMissingPair;
+		}
+
+		/**
+		 * Fills the rows of the positions from start (inclusive) to end (exclusive). A row
+		 * stops at its first missing pair, which is memorized, if it is before the known
+		 * first missing pair.
+		 */
+		@Override
+		public void fill(int start, int end) {
+			if(metric instanceof PreparedMetric) {
+				fillPrepared((PreparedMetric) metric, start, end);
+				return;
+			}
+
+			for (int k = start; k < end; k++) {
+				int i = positions[k];
+				// Rows after a known missing pair are not reported
+				if((long) i * nodeArr.length > firstMissingPair.get())
+					return;
+
+				int srcRow = rowOfIdx[nodeArr[i].getIdx()];
+				for (int j = 0; j < nodeArr.length; j++) {
+					float[] v = metric.getDistanceAndTime(nodeArr[i], nodeArr[j], veh);
+
+					if(v == null) {
+						long pair = (long) i * nodeArr.length + j;
+						firstMissingPair.accumulateAndGet(pair, Math::min);
+						break;
+					}
+
+					target.add(srcRow, rowOfIdx[nodeArr[j].getIdx()], v[0], v[1]);
+				}
+			}
+		}
+
+		/**
+		 * Fills the rows with complete rows of the prepared metric. A prepared metric has no missing pairs.
+		 */
+		private void fillPrepared(PreparedMetric metric, int start, int end) {
+			float[] distances = new float[metric.getSize()];
+			float[] times = new float[metric.getSize()];
+			for (int k = start; k < end; k++) {
+				int srcIdx = nodeArr[positions[k]].getIdx();
+				metric.getRow(srcIdx, distances, times);
+
+				int srcRow = rowOfIdx[srcIdx];
+				for (Node dst : nodeArr) {
+					int dstIdx = dst.getIdx();
+					target.add(srcRow, rowOfIdx[dstIdx], distances[dstIdx], times[dstIdx]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits a range of rows into halves, until the range is small enough for a single thread.
+	 */
+	private static class RowTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final RowRange rows;
+		private final int start;
+		private final int end;
+		private final int minRowsPerTask;
+
+		RowTask(RowRange rows, int start, int end, int minRowsPerTask) {
+			this.rows = rows;
+			this.start = start;
+			this.end = end;
+			this.minRowsPerTask = minRowsPerTask;
+		}
+
+		@Override
+		protected void compute() {
+			if(end - start <= minRowsPerTask) {
+				rows.fill(start, end);
+				return;
+			}
+
+			int middle = (start + end) >>> 1;
+			invokeAll(
+					new RowTask(rows, start, middle, minRowsPerTask),
+					new RowTask(rows, middle, end, minRowsPerTask)
+			);
+		}
+	}
+}
\ No newline at end of file
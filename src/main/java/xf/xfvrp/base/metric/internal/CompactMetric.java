@@ -0,0 +1,120 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.metric.InternalMetric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Matrix of distances and travel times, where each value is stored as 16 bit
+ * fixed point number. A value is min + q * step, where min and step are
+ * computed per matrix from the range of its values. Only the minimum itself is
+ * stored as level 0, so a distance of 0 (like between nodes of the same site)
+ * stays 0 and all other distances stay greater than 0. So the error of a value
+ * is at most step.
+ *
+ * If the matrix is symmetric, only the pairs with src <= dst are stored.
+ *
+ * The matrix uses a quarter (or an eighth for symmetric matrices) of the memory
+ * of an AcceleratedMetric and is created by CompactMetricTransformator.
+ *
+ * @author hschneid
+ *
+ */
+public class CompactMetric implements InternalMetric {
+
+	static final int MAX_LEVEL = 0xFFFF;
+
+	private final int size;
+	private final boolean isSymmetric;
+
+	private final char[] distances;
+	private final float minDistance;
+	private final float distanceStep;
+
+	private final char[] times;
+	private final float minTime;
+	private final float timeStep;
+
+	CompactMetric(int size, boolean isSymmetric, float minDistance, float maxDistance, float minTime, float maxTime) {
+		this.size = size;
+		this.isSymmetric = isSymmetric;
+
+		long nbrOfPairs = (isSymmetric) ? (long) size * (size + 1) / 2 : (long) size * size;
+		if(nbrOfPairs > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many nodes for a compact metric: " + size);
+
+		distances = new char[(int) nbrOfPairs];
+		this.minDistance = minDistance;
+		this.distanceStep = getStep(minDistance, maxDistance);
+
+		times = new char[(int) nbrOfPairs];
+		this.minTime = minTime;
+		this.timeStep = getStep(minTime, maxTime);
+	}
+
+	/**
+	 * @return Maximal difference between a stored and the original value of a
+	 * range from min to max
+	 */
+	static float getMaxError(float min, float max) {
+		return getStep(min, max);
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst) {
+		return minDistance + distances[getPosition(src.getIdx(), dst.getIdx())] * distanceStep;
+	}
+
+	@Override
+	public float getTime(Node src, Node dst) {
+		return minTime + times[getPosition(src.getIdx(), dst.getIdx())] * timeStep;
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst) {
+		int pos = getPosition(src.getIdx(), dst.getIdx());
+		return new float[]{minDistance + distances[pos] * distanceStep, minTime + times[pos] * timeStep};
+	}
+
+	void add(int srcIdx, int dstIdx, float dist, float time) {
+		int pos = getPosition(srcIdx, dstIdx);
+		distances[pos] = quantize(dist, minDistance, distanceStep);
+		times[pos] = quantize(time, minTime, timeStep);
+	}
+
+	public boolean isSymmetric() {
+		return isSymmetric;
+	}
+
+	private int getPosition(int srcIdx, int dstIdx) {
+		if(!isSymmetric)
+			return srcIdx * size + dstIdx;
+
+		long i = Math.min(srcIdx, dstIdx);
+		long j = Math.max(srcIdx, dstIdx);
+		// Rows of the upper triangle get shorter by one with each row
+		return (int) (i * size - i * (i - 1) / 2 + (j - i));
+	}
+
+	private static float getStep(float min, float max) {
+		return (max - min) / MAX_LEVEL;
+	}
+
+	private static char quantize(float value, float min, float step) {
+		if(step == 0)
+			return 0;
+
+		int level = Math.round((value - min) / step);
+		// Values above the minimum are not rounded down to the minimum
+		if(level == 0 && value > min)
+			level = 1;
+
+		return (char) Math.min(MAX_LEVEL, Math.max(0, level));
+	}
+}
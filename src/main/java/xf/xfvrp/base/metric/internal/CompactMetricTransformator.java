@@ -0,0 +1,227 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+import xf.xfvrp.base.exception.XFVRPException;
+import xf.xfvrp.base.metric.InternalMetric;
+import xf.xfvrp.base.metric.Metric;
+import xf.xfvrp.base.metric.PreparableMetric;
+import xf.xfvrp.base.metric.PreparedMetric;
+import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator.RowRange;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * This class performs the transformation of the user defined metric into a
+ * compact internal metric (see CompactMetric) for very large instances.
+ *
+ * No full precision matrix is held during the transformation. The rows of the user
+ * defined metric are read in two passes, which can be run by several threads like in
+ * AcceleratedMetricTransformator. The first pass finds the range of values and whether
+ * the metric is symmetric, where the reverse pair is read for each pair of the lower
+ * triangle as long as the metric is symmetric. The second pass quantizes the values of
+ * each row into the compact matrix.
+ *
+ * @author hschneid
+ *
+ */
+public class CompactMetricTransformator {
+
+	/**
+	 * Performs the transformation of the user defined metric into a compact internal metric.
+	 *
+	 * If the error of a distance or time value would be greater than the given tolerance,
+	 * the metric is transformed with full precision by AcceleratedMetricTransformator.
+	 *
+	 * @param metric The user defined metric
+	 * @param nodeArr Current list of nodes
+	 * @param veh Container object
+	 * @param tolerance Maximal absolute error of a distance or time value
+	 * @return Internal metric for use in optimization procedures
+	 */
+	public static InternalMetric transform(Metric metric, Node[] nodeArr, Vehicle veh, float tolerance) throws XFVRPException {
+		return transform(metric, nodeArr, veh, tolerance, 1);
+	}
+
+	/**
+	 * Same as transform(metric, nodeArr, veh, tolerance), where the rows are read
+	 * by the given number of threads.
+	 *
+	 * @param parallelism Number of threads (1 = no parallel calls of the metric)
+	 */
+	public static InternalMetric transform(Metric metric, Node[] nodeArr, Vehicle veh, float tolerance, int parallelism) throws XFVRPException {
+		CompactMetric compactMetric = transformCompact(metric, nodeArr, veh, tolerance, parallelism);
+		if(compactMetric == null)
+			return AcceleratedMetricTransformator.transform(metric, nodeArr, veh, parallelism);
+
+		return compactMetric;
+	}
+
+	/**
+	 * Same as transform(metric, nodeArr, veh, tolerance, parallelism) without the
+	 * full precision matrix as alternative.
+	 *
+	 * @return Compact metric or null, if the error of a distance or time value would be greater than the tolerance
+	 */
+	public static CompactMetric transformCompact(Metric metric, Node[] nodeArr, Vehicle veh, float tolerance, int parallelism) throws XFVRPException {
+		if(nodeArr.length == 0)
+			return null;
+		if(metric instanceof PreparableMetric)
+			metric = ((PreparableMetric) metric).prepare(nodeArr, veh);
+
+		// Position i * length + j of the first missing pair
+		AtomicLong firstMissingPair = new AtomicLong(Long.MAX_VALUE);
+		RangeRows range = new RangeRows(metric, nodeArr, veh, firstMissingPair);
+		AcceleratedMetricTransformator.fillRows(range, nodeArr.length, parallelism);
+		AcceleratedMetricTransformator.checkMissingPair(firstMissingPair, nodeArr);
+
+		if(CompactMetric.getMaxError(range.minDistance, range.maxDistance) > tolerance ||
+				CompactMetric.getMaxError(range.minTime, range.maxTime) > tolerance)
+			return null;
+
+		CompactMetric compactMetric = new CompactMetric(nodeArr.length, range.isSymmetric, range.minDistance, range.maxDistance, range.minTime, range.maxTime);
+		AcceleratedMetricTransformator.fillRows(new CompactRows(metric, nodeArr, veh, compactMetric), nodeArr.length, parallelism);
+
+		return compactMetric;
+	}
+
+	/**
+	 * First pass, which finds the range of values and whether the metric is symmetric.
+	 */
+	private static class RangeRows implements RowRange {
+
+		private final Metric metric;
+		private final Node[] nodeArr;
+		private final Vehicle veh;
+		private final AtomicLong firstMissingPair;
+
+		// Range of all rows, which is merged from the ranges of the threads
+		private float minDistance = Float.MAX_VALUE, maxDistance = -Float.MAX_VALUE;
+		private float minTime = Float.MAX_VALUE, maxTime = -Float.MAX_VALUE;
+		private volatile boolean isSymmetric = true;
+
+		RangeRows(Metric metric, Node[] nodeArr, Vehicle veh, AtomicLong firstMissingPair) {
+			this.metric = metric;
+			this.nodeArr = nodeArr;
+			this.veh = veh;
+			this.firstMissingPair = firstMissingPair;
+		}
+
+		/**
+		 * A row stops at its first missing pair like in AcceleratedMetricTransformator.
+		 */
+		@Override
+		public void fill(int start, int end) {
+			float minD = Float.MAX_VALUE, maxD = -Float.MAX_VALUE;
+			float minT = Float.MAX_VALUE, maxT = -Float.MAX_VALUE;
+
+			PreparedMetric preparedMetric = (metric instanceof PreparedMetric) ? (PreparedMetric) metric : null;
+			float[] distances = (preparedMetric != null) ? new float[preparedMetric.getSize()] : null;
+			float[] times = (preparedMetric != null) ? new float[preparedMetric.getSize()] : null;
+			for (int i = start; i < end; i++) {
+				// Rows after a known missing pair are not reported
+				if((long) i * nodeArr.length > firstMissingPair.get())
+					break;
+
+				Node src = nodeArr[i];
+				if(preparedMetric != null)
+					preparedMetric.getRow(src.getIdx(), distances, times);
+
+				for (int j = 0; j < nodeArr.length; j++) {
+					Node dst = nodeArr[j];
+					float distance, time;
+					if(preparedMetric != null) {
+						distance = distances[dst.getIdx()];
+						time = times[dst.getIdx()];
+					} else {
+						float[] v = metric.getDistanceAndTime(src, dst, veh);
+						if(v == null) {
+							firstMissingPair.accumulateAndGet((long) i * nodeArr.length + j, Math::min);
+							break;
+						}
+						distance = v[0];
+						time = v[1];
+					}
+
+					minD = Math.min(minD, distance);
+					maxD = Math.max(maxD, distance);
+					minT = Math.min(minT, time);
+					maxT = Math.max(maxT, time);
+
+					// The reverse pair is read only for pairs of the lower triangle
+					if(isSymmetric && src.getIdx() > dst.getIdx() && !isReverseEqual(src, dst, distance, time))
+						isSymmetric = false;
+				}
+			}
+
+			merge(minD, maxD, minT, maxT);
+		}
+
+		private boolean isReverseEqual(Node src, Node dst, float distance, float time) {
+			if(metric instanceof PreparedMetric)
+				return metric.getDistance(dst, src, veh) == distance && metric.getTime(dst, src, veh) == time;
+
+			float[] reverse = metric.getDistanceAndTime(dst, src, veh);
+			return reverse != null && reverse[0] == distance && reverse[1] == time;
+		}
+
+		private synchronized void merge(float minD, float maxD, float minT, float maxT) {
+			minDistance = Math.min(minDistance, minD);
+			maxDistance = Math.max(maxDistance, maxD);
+			minTime = Math.min(minTime, minT);
+			maxTime = Math.max(maxTime, maxT);
+		}
+	}
+
+	/**
+	 * Second pass, which quantizes the values of the rows into the compact matrix.
+	 * Each pair is written by exactly one thread.
+	 */
+	private static class CompactRows implements RowRange {
+
+		private final Metric metric;
+		private final Node[] nodeArr;
+		private final Vehicle veh;
+		private final CompactMetric target;
+
+		CompactRows(Metric metric, Node[] nodeArr, Vehicle veh, CompactMetric target) {
+			this.metric = metric;
+			this.nodeArr = nodeArr;
+			this.veh = veh;
+			this.target = target;
+		}
+
+		@Override
+		public void fill(int start, int end) {
+			PreparedMetric preparedMetric = (metric instanceof PreparedMetric) ? (PreparedMetric) metric : null;
+			float[] distances = (preparedMetric != null) ? new float[preparedMetric.getSize()] : null;
+			float[] times = (preparedMetric != null) ? new float[preparedMetric.getSize()] : null;
+			for (int i = start; i < end; i++) {
+				Node src = nodeArr[i];
+				int srcIdx = src.getIdx();
+				if(preparedMetric != null)
+					preparedMetric.getRow(srcIdx, distances, times);
+
+				for (Node dst : nodeArr) {
+					int dstIdx = dst.getIdx();
+					if(target.isSymmetric() && srcIdx > dstIdx)
+						continue;
+
+					if(preparedMetric != null)
+						target.add(srcIdx, dstIdx, distances[dstIdx], times[dstIdx]);
+					else {
+						float[] v = metric.getDistanceAndTime(src, dst, veh);
+						target.add(srcIdx, dstIdx, v[0], v[1]);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.SiteType;
+import xf.xfvrp.base.metric.InternalMetric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Decorator of an internal metric, which adds the fix cost of a vehicle to
+ * the distance of each connection between a depot and a customer. Times are
+ * not changed.
+ *
+ * @author hschneid
+ *
+ */
+class FixCostMetric implements InternalMetric {
+
+	private final InternalMetric base;
+	private final float fixCost;
+
+	FixCostMetric(InternalMetric base, float fixCost) {
+		this.base = base;
+		this.fixCost = fixCost;
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst) {
+		float dist = base.getDistance(src, dst);
+		if((src.getSiteType() == SiteType.DEPOT) != (dst.getSiteType() == SiteType.DEPOT))
+			dist += fixCost;
+
+		return dist;
+	}
+
+	@Override
+	public float getTime(Node src, Node dst) {
+		return base.getTime(src, dst);
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst) {
+		return new float[]{getDistance(src, dst), getTime(src, dst)};
+	}
+}
@@ -1,7 +1,6 @@
 package xf.xfvrp.base.metric.internal;
 
 import xf.xfvrp.base.Node;
-import xf.xfvrp.base.SiteType;
 import xf.xfvrp.base.Vehicle;
 import xf.xfvrp.base.metric.InternalMetric;
 
@@ -15,7 +14,8 @@ import xf.xfvrp.base.metric.InternalMetric;
  *
  * This class transforms an internal metric object by adding fix costs at
  * all edges from a depot to a customer. This way vehicle dependent fix costs
- * are realized.
+ * are realized. The fix costs are added on each lookup, so no matrix is copied.
+ * Without fix costs the internal metric is used directly.
  * 
  * An internal metric can be achived by an AcceleratedMetricTransformator.
  * 
@@ -33,26 +33,9 @@ public class FixCostMetricTransformator {
 	 * @return Internal metric with fix costs
 	 */
 	public static InternalMetric transform(InternalMetric metric, Node[] nodeArr, Vehicle vehicle) {
-		InternalOptMetric optMetric = new InternalOptMetric(nodeArr.length);
-		
-		for (Node src : nodeArr) {
-			SiteType srcType = src.getSiteType();
-			
-			for (Node dst : nodeArr) {
-				SiteType dstType = dst.getSiteType();
-				
-				float dist = metric.getDistance(src, dst);
-				if(
-						(srcType == SiteType.DEPOT && dstType != SiteType.DEPOT) ||
-						(srcType != SiteType.DEPOT && dstType == SiteType.DEPOT)
-						) {
-					dist += vehicle.fixCost;
-				}
-				
-				optMetric.setDistance(src, dst, dist);
-			}
-		}
-		
-		return optMetric;
+		if(vehicle.fixCost == 0)
+			return metric;
+
+		return new FixCostMetric(metric, vehicle.fixCost);
 	}
 }
@@ -0,0 +1,55 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.SiteType;
+import xf.xfvrp.base.metric.InternalMetric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Decorator of an internal metric for open routes. Connections from a depot
+ * to a customer (open start) or from a customer to a depot (open end) have
+ * distance and time of 0. All other values are read from the base metric.
+ *
+ * @author hschneid
+ *
+ */
+class OpenRouteMetric implements InternalMetric {
+
+	private final InternalMetric base;
+	private final boolean isOpenAtStart;
+	private final boolean isOpenAtEnd;
+
+	OpenRouteMetric(InternalMetric base, boolean isOpenAtStart, boolean isOpenAtEnd) {
+		this.base = base;
+		this.isOpenAtStart = isOpenAtStart;
+		this.isOpenAtEnd = isOpenAtEnd;
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst) {
+		return isOpen(src, dst) ? 0 : base.getDistance(src, dst);
+	}
+
+	@Override
+	public float getTime(Node src, Node dst) {
+		return isOpen(src, dst) ? 0 : base.getTime(src, dst);
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst) {
+		return isOpen(src, dst) ? new float[]{0, 0} : base.getDistanceAndTime(src, dst);
+	}
+
+	private boolean isOpen(Node src, Node dst) {
+		boolean isSrcDepot = src.getSiteType() == SiteType.DEPOT;
+		boolean isDstDepot = dst.getSiteType() == SiteType.DEPOT;
+
+		return (isOpenAtStart && isSrcDepot && !isDstDepot) || (isOpenAtEnd && !isSrcDepot && isDstDepot);
+	}
+}
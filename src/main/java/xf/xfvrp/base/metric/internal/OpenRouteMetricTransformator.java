@@ -1,7 +1,6 @@
 package xf.xfvrp.base.metric.internal;
 
 import xf.xfvrp.base.Node;
-import xf.xfvrp.base.SiteType;
 import xf.xfvrp.base.XFVRPParameter;
 import xf.xfvrp.base.metric.InternalMetric;
 
@@ -16,6 +15,8 @@ import xf.xfvrp.base.metric.InternalMetric;
 public class OpenRouteMetricTransformator {
 
 	/**
+	 * Wraps the metric, so that the open connections at the start or the end of
+	 * routes have distance and time of 0. The metric is not copied.
 	 * 
 	 * @param metric
 	 * @param nodeArr
@@ -23,25 +24,6 @@ public class OpenRouteMetricTransformator {
 	 * @return
 	 */
 	public static InternalMetric transform(InternalMetric metric, Node[] nodeArr, XFVRPParameter parameter) {
-		AcceleratedMetric openMetric = new AcceleratedMetric(nodeArr.length);
-		
-		float[] zero = new float[]{0, 0};
-		for (int i = 0; i < nodeArr.length; i++) {
-			SiteType srcType = nodeArr[i].getSiteType();
-			
-			for (int j = 0; j < nodeArr.length; j++) {
-				SiteType dstType = nodeArr[j].getSiteType();
-				
-				float[] v = metric.getDistanceAndTime(nodeArr[i], nodeArr[j]);
-				if(parameter.isOpenRouteAtStart() && srcType == SiteType.DEPOT && dstType != SiteType.DEPOT)
-					v = zero;
-				if(parameter.isOpenRouteAtEnd() && srcType != SiteType.DEPOT && dstType == SiteType.DEPOT)
-					v = zero;
-				
-				openMetric.add(nodeArr[i].getIdx(), nodeArr[j].getIdx(), v[0], v[1]);
-			}
-		}
-		
-		return openMetric;
+		return new OpenRouteMetric(metric, parameter.isOpenRouteAtStart(), parameter.isOpenRouteAtEnd());
 	}
 }
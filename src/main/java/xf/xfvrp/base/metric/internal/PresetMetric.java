@@ -0,0 +1,56 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.metric.InternalMetric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Decorator of an internal metric for the sequence position presets. If a node A
+ * has a preset follower, which is not node B, or node B has a preset ancestor, which
+ * is not node A, then the distance from A to B is unlimited. Times are not changed.
+ *
+ * Only the follower and ancestor per node are stored.
+ *
+ * @author hschneid
+ *
+ */
+class PresetMetric implements InternalMetric {
+
+	private final InternalMetric base;
+	// Index of follower or ancestor per node index (-1 = no preset)
+	private final int[] followers;
+	private final int[] ancestors;
+
+	PresetMetric(InternalMetric base, int[] followers, int[] ancestors) {
+		this.base = base;
+		this.followers = followers;
+		this.ancestors = ancestors;
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst) {
+		int sIdx = src.getIdx();
+		int dIdx = dst.getIdx();
+		if((followers[sIdx] != -1 && followers[sIdx] != dIdx) ||
+				(ancestors[dIdx] != -1 && ancestors[dIdx] != sIdx))
+			return Float.MAX_VALUE;
+
+		return base.getDistance(src, dst);
+	}
+
+	@Override
+	public float getTime(Node src, Node dst) {
+		return base.getTime(src, dst);
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst) {
+		return new float[]{getDistance(src, dst), getTime(src, dst)};
+	}
+}
@@ -32,14 +32,14 @@ public class PresetMetricTransformator {
 	 * 
 	 * @param metric The original internal metric
 	 * @param nodes The nodes of current XFVRP model
-	 * @return An internal optimization metric, where sequence position preset is considered.
+	 * @return An internal optimization metric, where sequence position preset is considered. Only the
+	 * followers and ancestors are stored, the distances are read from the original metric.
 	 */
 	public static InternalMetric transform(InternalMetric metric, final Node[] nodes) {
 		boolean shallTransform = isNecessary(nodes);
 		if(!shallTransform)
 			return metric;
 
-		InternalOptMetric optMetric = new InternalOptMetric(nodes.length);
 		int[] followers = new int[nodes.length];
 		int[] ancestors = new int[nodes.length];
 		Arrays.fill(followers, -1); Arrays.fill(ancestors, -1);
@@ -48,28 +48,7 @@ public class PresetMetricTransformator {
 
 		fillFollowersAndAncestors(nodes, followers, ancestors, blockIdxMap);
 
-		fillInternalMetric(metric, nodes, optMetric, followers, ancestors);
-		
-		return optMetric;
-	}
-
-	private static void fillInternalMetric(InternalMetric metric, final Node[] nodes, InternalOptMetric optMetric,
-			int[] followers, int[] ancestors) {
-		// Fill new metric with
-		// - the original metric data, if no follower or ancestor data are set
-		// - OR an infinite number (=infinite distance).
-
-		for (Node src : nodes) {
-			for (Node dst : nodes) {
-				int sIdx = src.getIdx();
-				int dIdx = dst.getIdx();
-				if((followers[sIdx] != -1 && followers[sIdx] != dIdx) || 
-						(ancestors[dIdx] != -1 && ancestors[dIdx] != sIdx))
-					optMetric.setDistance(src, dst, Float.MAX_VALUE);
-				else
-					optMetric.setDistance(src, dst, metric.getDistance(src, dst));
-			}
-		}
+		return new PresetMetric(metric, followers, ancestors);
 	}
 
 	private static void fillFollowersAndAncestors(final Node[] nodes, int[] followerArr, int[] ancestorArr,
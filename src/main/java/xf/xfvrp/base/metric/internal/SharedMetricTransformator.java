@@ -0,0 +1,124 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+import xf.xfvrp.base.exception.XFVRPException;
+import xf.xfvrp.base.exception.XFVRPExceptionType;
+import xf.xfvrp.base.metric.IndexFreeMetric;
+import xf.xfvrp.base.metric.InternalMetric;
+import xf.xfvrp.base.metric.Metric;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Transformation of the user defined metric for a sequence of models over
+ * subsets of the same nodes, like the runs per vehicle type of the mixed fleet heuristic.
+ *
+ * There is one matrix over all nodes per vehicle metric id, where the rows are the
+ * global indexes of the nodes. Each model gets a view of this matrix, which maps the
+ * local index of a node to its global row. The rows of a model, which are not filled yet,
+ * are filled by the user defined metric. So each pair is read only once per vehicle
+ * metric id and the user defined metric must give the same values for all vehicles
+ * with the same vehicle metric id.
+ *
+ * Like in all other transformations, the user defined metric is called with the nodes
+ * of the model, which are indexed locally. A row is filled by the first model, which
+ * contains the node of the row. So the values of the user defined metric must not depend
+ * on the index of the nodes, because the nodes are indexed differently in the later models.
+ * Only an IndexFreeMetric is shared this way, see isSharable.
+ *
+ * @author hschneid
+ *
+ */
+public class SharedMetricTransformator {
+
+	private final Metric metric;
+	private final int parallelism;
+	private final int nbrOfNodes;
+
+	// Matrix over all nodes per vehicle metric id, where pairs are NaN until they are filled
+	private final Map<Integer, AcceleratedMetric> baseMatrices = new HashMap<>();
+
+	/**
+	 * @param nodes All nodes, where the global indexes are 0 to nodes.length - 1
+	 * @param parallelism Number of threads for the transformation of a matrix
+	 */
+	public SharedMetricTransformator(Metric metric, Node[] nodes, int parallelism) throws XFVRPException {
+		this.metric = metric;
+		this.parallelism = parallelism;
+		this.nbrOfNodes = nodes.length;
+
+		boolean[] isKnown = new boolean[nodes.length];
+		for (Node node : nodes) {
+			int globalIdx = node.getGlobalIdx();
+			if(globalIdx < 0 || globalIdx >= nodes.length || isKnown[globalIdx])
+				throw new XFVRPException(XFVRPExceptionType.ILLEGAL_ARGUMENT, "Global index " + globalIdx + " of node " + node.getExternID() + " is not unique or out of range.");
+
+			isKnown[globalIdx] = true;
+		}
+	}
+
+	/**
+	 * @return true, if the values of the metric are the same for a pair of nodes in all models
+	 */
+	public static boolean isSharable(Metric metric) {
+		return metric instanceof IndexFreeMetric;
+	}
+
+	/**
+	 * Returns the internal metric for the given nodes, which are indexed locally
+	 * from 0 to nodes.length - 1.
+	 *
+	 * The error for missing distance information is the same as for AcceleratedMetricTransformator.
+	 */
+	public InternalMetric transform(Node[] nodes, Vehicle veh) throws XFVRPException {
+		AcceleratedMetric base = baseMatrices.computeIfAbsent(veh.vehicleMetricId, id -> {
+			AcceleratedMetric matrix = new AcceleratedMetric(nbrOfNodes);
+			matrix.setAll(Float.NaN);
+			return matrix;
+		});
+
+		int[] rowOfIdx = new int[nodes.length];
+		for (Node node : nodes) {
+			int globalIdx = node.getGlobalIdx();
+			if(globalIdx < 0 || globalIdx >= nbrOfNodes)
+				throw new XFVRPException(XFVRPExceptionType.ILLEGAL_ARGUMENT, "Node " + node.getExternID() + " is not known by the shared metric.");
+
+			rowOfIdx[node.getIdx()] = globalIdx;
+		}
+
+		int[] missingRows = findMissingRows(nodes, base);
+		if(missingRows.length > 0)
+			AcceleratedMetricTransformator.transform(metric, nodes, missingRows, veh, base, rowOfIdx, parallelism);
+
+		return new SharedMetricView(base, rowOfIdx);
+	}
+
+	/**
+	 * @return Positions of the nodes, whose row has an unfilled pair with a node of the model
+	 */
+	private int[] findMissingRows(Node[] nodes, AcceleratedMetric base) {
+		int[] positions = new int[nodes.length];
+		int nbrOfPositions = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			int srcRow = nodes[i].getGlobalIdx();
+			for (Node dst : nodes) {
+				if(Float.isNaN(base.getDistance(srcRow, dst.getGlobalIdx()))) {
+					positions[nbrOfPositions++] = i;
+					break;
+				}
+			}
+		}
+
+		return Arrays.copyOf(positions, nbrOfPositions);
+	}
+}
@@ -0,0 +1,46 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.metric.InternalMetric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * View of a shared matrix for the nodes of a single model. The local
+ * index of a node is mapped to the row of the node in the shared matrix.
+ *
+ * @author hschneid
+ *
+ */
+class SharedMetricView implements InternalMetric {
+
+	private final AcceleratedMetric base;
+	private final int[] rowOfIdx;
+
+	SharedMetricView(AcceleratedMetric base, int[] rowOfIdx) {
+		this.base = base;
+		this.rowOfIdx = rowOfIdx;
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst) {
+		return base.getDistance(rowOfIdx[src.getIdx()], rowOfIdx[dst.getIdx()]);
+	}
+
+	@Override
+	public float getTime(Node src, Node dst) {
+		return base.getTime(rowOfIdx[src.getIdx()], rowOfIdx[dst.getIdx()]);
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst) {
+		int srcRow = rowOfIdx[src.getIdx()];
+		int dstRow = rowOfIdx[dst.getIdx()];
+		return new float[]{base.getDistance(srcRow, dstRow), base.getTime(srcRow, dstRow)};
+	}
+}
@@ -0,0 +1,188 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+import xf.xfvrp.base.metric.InternalMetric;
+import xf.xfvrp.base.metric.Metric;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Internal metric for instances, where the complete distance matrix does not fit
+ * into memory.
+ *
+ * For each node the distances and times to its k nearest neighbors are stored. All
+ * other pairs are requested from the user defined metric, when they are needed. The
+ * results of these requests are memorized in a bounded cache.
+ *
+ * The cache is organized in sets of a few entries (set associative). If a set is full,
+ * an entry is replaced by the CLOCK strategy (like RouteQualityCache), which approximates
+ * the replacement of the least recently used entry.
+ *
+ * The cache is not thread-safe.
+ *
+ * @author hschneid
+ *
+ */
+public class SparseMetric implements InternalMetric {
+
+	private static final int NBR_OF_WAYS = 4;
+	private static final long EMPTY = -1;
+
+	private final Metric metric;
+	private final Vehicle veh;
+
+	private final int nbrOfNeighbors;
+	private final int[] neighbors;
+	private final float[] neighborValues;
+
+	private final int setMask;
+	private final long[] keys;
+	private final float[] values;
+	private final boolean[] isReferenced;
+	private final int[] clockHands;
+
+	private long nbrOfMetricCalls = 0;
+
+	/**
+	 * @param metric User defined metric for pairs, which are not stored
+	 * @param veh Container
+	 * @param size Number of nodes
+	 * @param nbrOfNeighbors Number of stored neighbors per node
+	 * @param cacheSize Maximal number of memorized pairs. It is rounded up to a power of two (at least 4).
+	 */
+	SparseMetric(Metric metric, Vehicle veh, int size, int nbrOfNeighbors, int cacheSize) {
+		this.metric = metric;
+		this.veh = veh;
+
+		this.nbrOfNeighbors = nbrOfNeighbors;
+		neighbors = new int[Math.multiplyExact(size, nbrOfNeighbors)];
+		neighborValues = new float[Math.multiplyExact(neighbors.length, 2)];
+		Arrays.fill(neighbors, -1);
+
+		int nbrOfSets = 1;
+		while(nbrOfSets * NBR_OF_WAYS < cacheSize)
+			nbrOfSets <<= 1;
+		int capacity = nbrOfSets * NBR_OF_WAYS;
+
+		setMask = nbrOfSets - 1;
+		keys = new long[capacity];
+		values = new float[capacity * 2];
+		isReferenced = new boolean[capacity];
+		clockHands = new int[nbrOfSets];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	@Override
+	public float getDistance(Node src, Node dst) {
+		int pos = findNeighbor(src.getIdx(), dst.getIdx());
+		if(pos >= 0)
+			return neighborValues[pos * 2];
+
+		return values[findInCache(src, dst) * 2];
+	}
+
+	@Override
+	public float getTime(Node src, Node dst) {
+		int pos = findNeighbor(src.getIdx(), dst.getIdx());
+		if(pos >= 0)
+			return neighborValues[pos * 2 + 1];
+
+		return values[findInCache(src, dst) * 2 + 1];
+	}
+
+	@Override
+	public float[] getDistanceAndTime(Node src, Node dst) {
+		int pos = findNeighbor(src.getIdx(), dst.getIdx());
+		if(pos >= 0)
+			return new float[]{neighborValues[pos * 2], neighborValues[pos * 2 + 1]};
+
+		pos = findInCache(src, dst);
+		return new float[]{values[pos * 2], values[pos * 2 + 1]};
+	}
+
+	/**
+	 * @return Number of requests to the user defined metric after the creation
+	 */
+	public long getNbrOfMetricCalls() {
+		return nbrOfMetricCalls;
+	}
+
+	/**
+	 * Sets the m-th nearest neighbor of the source node.
+	 */
+	void setNeighbor(int srcIdx, int m, int dstIdx, float dist, float time) {
+		int pos = srcIdx * nbrOfNeighbors + m;
+		neighbors[pos] = dstIdx;
+		neighborValues[pos * 2] = dist;
+		neighborValues[pos * 2 + 1] = time;
+	}
+
+	private int findNeighbor(int srcIdx, int dstIdx) {
+		int offset = srcIdx * nbrOfNeighbors;
+		for (int i = offset; i < offset + nbrOfNeighbors; i++) {
+			if(neighbors[i] == dstIdx)
+				return i;
+		}
+
+		return -1;
+	}
+
+	private int findInCache(Node src, Node dst) {
+		long key = ((long) src.getIdx() << 32) | dst.getIdx();
+
+		int set = getSet(key);
+		int offset = set * NBR_OF_WAYS;
+		for (int i = offset; i < offset + NBR_OF_WAYS; i++) {
+			if(keys[i] == key) {
+				isReferenced[i] = true;
+				return i;
+			}
+		}
+
+		int idx = findFreeEntry(set);
+		float[] v = metric.getDistanceAndTime(src, dst, veh);
+		nbrOfMetricCalls++;
+		if(v == null)
+			throw new IllegalStateException("Missing distance information ("+src.getGeoId()+","+dst.getGeoId()+")");
+
+		keys[idx] = key;
+		values[idx * 2] = v[0];
+		values[idx * 2 + 1] = v[1];
+		isReferenced[idx] = false;
+
+		return idx;
+	}
+
+	private int findFreeEntry(int set) {
+		int offset = set * NBR_OF_WAYS;
+		for (int i = offset; i < offset + NBR_OF_WAYS; i++) {
+			if(keys[i] == EMPTY)
+				return i;
+		}
+
+		// Clock: Give referenced entries a second chance
+		while(true) {
+			int idx = offset + clockHands[set];
+			clockHands[set] = (clockHands[set] + 1) % NBR_OF_WAYS;
+
+			if(!isReferenced[idx])
+				return idx;
+			isReferenced[idx] = false;
+		}
+	}
+
+	private int getSet(long key) {
+		key ^= (key >>> 29);
+		key *= 0xBF58476D1CE4E5B9L;
+		key ^= (key >>> 32);
+		return (int) key & setMask;
+	}
+}
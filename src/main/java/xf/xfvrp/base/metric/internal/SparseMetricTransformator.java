@@ -0,0 +1,163 @@
+package xf.xfvrp.base.metric.internal;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Vehicle;
+import xf.xfvrp.base.exception.XFVRPException;
+import xf.xfvrp.base.exception.XFVRPExceptionType;
+import xf.xfvrp.base.metric.InternalMetric;
+import xf.xfvrp.base.metric.Metric;
+import xf.xfvrp.base.metric.PreparableMetric;
+import xf.xfvrp.base.metric.PreparedMetric;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * This class performs the transformation of the user defined metric into a
+ * sparse internal metric (see SparseMetric), which holds the nearest neighbors
+ * of each node and a bounded cache for all other pairs.
+ *
+ * Each row of the user defined metric is read once to find the nearest neighbors.
+ * So the creation takes quadratic time, but needs only linear memory.
+ *
+ * @author hschneid
+ *
+ */
+public class SparseMetricTransformator {
+
+	static final int DEFAULT_NBR_OF_NEIGHBORS = 40;
+
+	// Bytes of a neighbor (index, distance, time) and of a cache entry (key, distance, time, reference bit)
+	private static final long BYTES_PER_NEIGHBOR = 12;
+	private static final long BYTES_PER_CACHE_ENTRY = 17;
+	private static final long BYTES_PER_DENSE_ENTRY = 8;
+	private static final long BYTES_PER_COMPACT_ENTRY = 4;
+
+	private static final int MIN_CACHE_SIZE = 1 << 10;
+	private static final int MAX_CACHE_SIZE = 1 << 26;
+
+	/**
+	 * The compact transformation holds no full precision matrix, so a CompactMetric
+	 * is sized with its own bytes per pair.
+	 *
+	 * @param isCompact Whether the complete matrix would be stored as CompactMetric
+	 * @return true, if the complete matrix of distances and times for the given number
+	 * of nodes does not fit into the memory budget
+	 */
+	public static boolean isSparse(int nbrOfNodes, boolean isCompact, long memoryBudget) {
+		long bytesPerPair = (isCompact) ? BYTES_PER_COMPACT_ENTRY : BYTES_PER_DENSE_ENTRY;
+		return (long) nbrOfNodes * nbrOfNodes * bytesPerPair > memoryBudget;
+	}
+
+	/**
+	 * Performs the transformation of the user defined metric into a sparse internal metric,
+	 * where the number of neighbors and the cache size are derived from the memory budget.
+	 * Half of the budget is used for neighbors (at most DEFAULT_NBR_OF_NEIGHBORS per node) and
+	 * the rest for the cache.
+	 *
+	 * @param metric The user defined metric
+	 * @param nodeArr Current list of nodes
+	 * @param veh Container object
+	 * @param memoryBudget Number of bytes for the internal metric
+	 * @return Internal metric for use in optimization procedures
+	 */
+	public static InternalMetric transform(Metric metric, Node[] nodeArr, Vehicle veh, long memoryBudget) throws XFVRPException {
+		long maxNbrOfNeighbors = memoryBudget / 2 / (Math.max(1, nodeArr.length) * BYTES_PER_NEIGHBOR);
+		int nbrOfNeighbors = (int) Math.max(1, Math.min(DEFAULT_NBR_OF_NEIGHBORS, maxNbrOfNeighbors));
+
+		long remainingBudget = memoryBudget - (long) nodeArr.length * nbrOfNeighbors * BYTES_PER_NEIGHBOR;
+		int cacheSize = (int) Math.max(MIN_CACHE_SIZE, Math.min(MAX_CACHE_SIZE, remainingBudget / BYTES_PER_CACHE_ENTRY));
+
+		return transform(metric, nodeArr, veh, nbrOfNeighbors, cacheSize);
+	}
+
+	/**
+	 * Performs the transformation of the user defined metric into a sparse internal metric.
+	 *
+	 * @param metric The user defined metric
+	 * @param nodeArr Current list of nodes
+	 * @param veh Container object
+	 * @param nbrOfNeighbors Number of stored nearest neighbors per node
+	 * @param cacheSize Maximal number of memorized other pairs
+	 * @return Internal metric for use in optimization procedures
+	 */
+	public static SparseMetric transform(Metric metric, Node[] nodeArr, Vehicle veh, int nbrOfNeighbors, int cacheSize) throws XFVRPException {
+		if(metric instanceof PreparableMetric)
+			metric = ((PreparableMetric) metric).prepare(nodeArr, veh);
+
+		nbrOfNeighbors = Math.max(0, Math.min(nbrOfNeighbors, nodeArr.length - 1));
+		SparseMetric sparseMetric = new SparseMetric(metric, veh, nodeArr.length, nbrOfNeighbors, cacheSize);
+
+		float[] distances = new float[nodeArr.length];
+		float[] times = new float[nodeArr.length];
+		float[][] preparedRow = (metric instanceof PreparedMetric) ?
+				new float[2][((PreparedMetric) metric).getSize()] :
+				null;
+		int[] nearest = new int[nbrOfNeighbors];
+		for (int i = 0; i < nodeArr.length; i++) {
+			readRow(metric, nodeArr, veh, i, distances, times, preparedRow);
+
+			int nbrOfNearest = findNearest(distances, i, nearest);
+			for (int m = 0; m < nbrOfNearest; m++) {
+				int j = nearest[m];
+				sparseMetric.setNeighbor(nodeArr[i].getIdx(), m, nodeArr[j].getIdx(), distances[j], times[j]);
+			}
+		}
+
+		return sparseMetric;
+	}
+
+	/**
+	 * Reads the distances and times from node at position i to all nodes in order of the node array.
+	 * A prepared metric writes its row into preparedRow, which is addressed by node index.
+	 */
+	private static void readRow(Metric metric, Node[] nodeArr, Vehicle veh, int i, float[] distances, float[] times, float[][] preparedRow) throws XFVRPException {
+		if(metric instanceof PreparedMetric) {
+			((PreparedMetric) metric).getRow(nodeArr[i].getIdx(), preparedRow[0], preparedRow[1]);
+			for (int j = 0; j < nodeArr.length; j++) {
+				distances[j] = preparedRow[0][nodeArr[j].getIdx()];
+				times[j] = preparedRow[1][nodeArr[j].getIdx()];
+			}
+			return;
+		}
+
+		for (int j = 0; j < nodeArr.length; j++) {
+			float[] v = metric.getDistanceAndTime(nodeArr[i], nodeArr[j], veh);
+			if(v == null)
+				throw new XFVRPException(XFVRPExceptionType.ILLEGAL_INPUT, "Missing distance information ("+nodeArr[i].getGeoId()+","+nodeArr[j].getGeoId()+")");
+
+			distances[j] = v[0];
+			times[j] = v[1];
+		}
+	}
+
+	/**
+	 * Finds the positions with the smallest distances (without position i) in ascending order
+	 * of distance by insertion into the sorted result.
+	 *
+	 * @return Number of found positions
+	 */
+	private static int findNearest(float[] distances, int i, int[] nearest) {
+		int nbrOfNearest = 0;
+		for (int j = 0; j < distances.length; j++) {
+			if(j == i)
+				continue;
+			if(nbrOfNearest == nearest.length && (nearest.length == 0 || distances[j] >= distances[nearest[nbrOfNearest - 1]]))
+				continue;
+
+			int pos = Math.min(nbrOfNearest, nearest.length - 1);
+			while(pos > 0 && distances[nearest[pos - 1]] > distances[j]) {
+				nearest[pos] = nearest[pos - 1];
+				pos--;
+			}
+			nearest[pos] = j;
+			nbrOfNearest = Math.min(nbrOfNearest + 1, nearest.length);
+		}
+
+		return nbrOfNearest;
+	}
+}
@@ -0,0 +1,28 @@
+package xf.xfvrp.base.monitor;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Kinds of evaluation calls, which are counted by the evaluation metrics.
+ *
+ * @author hschneid
+ *
+ */
+public enum EvaluationCheckType {
+
+	// All routes of a solution
+	SOLUTION,
+	// Two changed routes of a solution
+	TWO_ROUTES,
+	// All routes of a solution with early exit at first violation
+	VALID_SOLUTION,
+	// Two changed routes of a solution with early exit at first violation or bound
+	VALID_TWO_ROUTES,
+	// All insertion positions of a node in a single route
+	INSERTIONS;
+}
@@ -0,0 +1,83 @@
+package xf.xfvrp.base.monitor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Collects the counters and timers of the evaluations per optimization operator.
+ *
+ * The counters are always active. The time measurement costs two system calls
+ * per evaluation and must be activated explicitly.
+ *
+ * @author hschneid
+ *
+ */
+public class EvaluationMetrics {
+
+	private final Map<String, OperatorMetrics> operators = new ConcurrentHashMap<>();
+
+	private volatile boolean isTimerActive = false;
+
+	/**
+	 * Returns the metrics of the operator with the given name. If there are
+	 * no metrics for this name, they are created.
+	 */
+	public OperatorMetrics getOperator(String name) {
+		return operators.computeIfAbsent(name, n -> new OperatorMetrics(n, this));
+	}
+
+	/**
+	 * @return Metrics of all operators, which were used since the last reset, ordered by name
+	 */
+	public List<OperatorMetrics> getOperators() {
+		List<OperatorMetrics> list = new ArrayList<>();
+		for (OperatorMetrics metrics : operators.values()) {
+			if(metrics.getNbrOfExecutions() > 0 || metrics.getNbrOfChecks() > 0)
+				list.add(metrics);
+		}
+		list.sort(Comparator.comparing(OperatorMetrics::getName));
+		return list;
+	}
+
+	/**
+	 * Sets all counters and timers to 0. Operator metrics, which are
+	 * referenced by running operators, stay valid.
+	 */
+	public void reset() {
+		for (OperatorMetrics metrics : operators.values())
+			metrics.reset();
+	}
+
+	/**
+	 * Returns a copy of the current counters and timers, which is not
+	 * changed by later evaluations or resets of this object.
+	 */
+	public EvaluationMetrics copy() {
+		EvaluationMetrics copy = new EvaluationMetrics();
+		copy.isTimerActive = isTimerActive;
+		for (OperatorMetrics metrics : operators.values())
+			copy.operators.put(metrics.getName(), metrics.copy(copy));
+		return copy;
+	}
+
+	public boolean isTimerActive() {
+		return isTimerActive;
+	}
+
+	/**
+	 * @param isTimerActive true, if the time of executions and evaluations shall be measured
+	 */
+	public void setTimerActive(boolean isTimerActive) {
+		this.isTimerActive = isTimerActive;
+	}
+}
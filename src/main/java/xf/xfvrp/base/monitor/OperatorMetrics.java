@@ -0,0 +1,192 @@
+package xf.xfvrp.base.monitor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * Counters and timers of a single optimization operator.
+ *
+ * The counters are striped (LongAdder), so that they can be incremented by
+ * several threads without contention. Times are only measured, if the timer
+ * of the evaluation metrics is active. Otherwise the time values stay 0.
+ *
+ * @author hschneid
+ *
+ */
+public class OperatorMetrics {
+
+	private final String name;
+	private final EvaluationMetrics parent;
+
+	private final LongAdder nbrOfExecutions = new LongAdder();
+	private final LongAdder executionTime = new LongAdder();
+
+	private final LongAdder[] nbrOfChecks = createAdders();
+	private final LongAdder[] nbrOfInvalidChecks = createAdders();
+	private final LongAdder[] checkTime = createAdders();
+
+	private final LongAdder nbrOfEvaluatedChanges = new LongAdder();
+	private final LongAdder nbrOfAcceptedChanges = new LongAdder();
+	private final LongAdder nbrOfFilteredChanges = new LongAdder();
+
+	OperatorMetrics(String name, EvaluationMetrics parent) {
+		this.name = name;
+		this.parent = parent;
+	}
+
+	/**
+	 * @return Start time in nano seconds for a measurement or 0, if the timer is not active
+	 */
+	public long startTimer() {
+		return parent.isTimerActive() ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Counts an execution of the operator, which was started at the given time (see startTimer).
+	 */
+	public void countExecution(long startTime) {
+		nbrOfExecutions.increment();
+		if(startTime != 0)
+			executionTime.add(System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Counts an evaluation call, which was started at the given time (see startTimer).
+	 *
+	 * @param isValid false, if the evaluated solution or route violates a restriction
+	 */
+	public void countCheck(EvaluationCheckType type, boolean isValid, long startTime) {
+		nbrOfChecks[type.ordinal()].increment();
+		if(!isValid)
+			nbrOfInvalidChecks[type.ordinal()].increment();
+		if(startTime != 0)
+			checkTime[type.ordinal()].add(System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Counts a change of a solution, which was evaluated.
+	 */
+	public void countEvaluatedChange() {
+		nbrOfEvaluatedChanges.increment();
+	}
+
+	/**
+	 * Counts an evaluated change, which improved the solution and was kept.
+	 */
+	public void countAcceptedChange() {
+		nbrOfAcceptedChanges.increment();
+	}
+
+	/**
+	 * Counts a change, which was rejected by an estimation before the evaluation.
+	 */
+	public void countFilteredChange() {
+		nbrOfFilteredChanges.increment();
+	}
+
+	OperatorMetrics copy(EvaluationMetrics parent) {
+		OperatorMetrics copy = new OperatorMetrics(name, parent);
+		copy.nbrOfExecutions.add(getNbrOfExecutions());
+		copy.executionTime.add(getExecutionTimeInNanos());
+		for (int i = 0; i < nbrOfChecks.length; i++) {
+			copy.nbrOfChecks[i].add(nbrOfChecks[i].sum());
+			copy.nbrOfInvalidChecks[i].add(nbrOfInvalidChecks[i].sum());
+			copy.checkTime[i].add(checkTime[i].sum());
+		}
+		copy.nbrOfEvaluatedChanges.add(getNbrOfEvaluatedChanges());
+		copy.nbrOfAcceptedChanges.add(getNbrOfAcceptedChanges());
+		copy.nbrOfFilteredChanges.add(getNbrOfFilteredChanges());
+		return copy;
+	}
+
+	void reset() {
+		nbrOfExecutions.reset();
+		executionTime.reset();
+		for (int i = 0; i < nbrOfChecks.length; i++) {
+			nbrOfChecks[i].reset();
+			nbrOfInvalidChecks[i].reset();
+			checkTime[i].reset();
+		}
+		nbrOfEvaluatedChanges.reset();
+		nbrOfAcceptedChanges.reset();
+		nbrOfFilteredChanges.reset();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getNbrOfExecutions() {
+		return nbrOfExecutions.sum();
+	}
+
+	public long getExecutionTimeInNanos() {
+		return executionTime.sum();
+	}
+
+	public long getNbrOfChecks(EvaluationCheckType type) {
+		return nbrOfChecks[type.ordinal()].sum();
+	}
+
+	/**
+	 * @return Number of all evaluation calls of all types
+	 */
+	public long getNbrOfChecks() {
+		long sum = 0;
+		for (LongAdder adder : nbrOfChecks)
+			sum += adder.sum();
+		return sum;
+	}
+
+	public long getNbrOfInvalidChecks(EvaluationCheckType type) {
+		return nbrOfInvalidChecks[type.ordinal()].sum();
+	}
+
+	public long getCheckTimeInNanos(EvaluationCheckType type) {
+		return checkTime[type.ordinal()].sum();
+	}
+
+	public long getNbrOfEvaluatedChanges() {
+		return nbrOfEvaluatedChanges.sum();
+	}
+
+	public long getNbrOfAcceptedChanges() {
+		return nbrOfAcceptedChanges.sum();
+	}
+
+	/**
+	 * @return Number of evaluated changes, which were not accepted
+	 */
+	public long getNbrOfRejectedChanges() {
+		return getNbrOfEvaluatedChanges() - getNbrOfAcceptedChanges();
+	}
+
+	public long getNbrOfFilteredChanges() {
+		return nbrOfFilteredChanges.sum();
+	}
+
+	@Override
+	public String toString() {
+		return name +
+				" executions: " + getNbrOfExecutions() +
+				" checks: " + getNbrOfChecks() +
+				" evaluated changes: " + getNbrOfEvaluatedChanges() +
+				" accepted: " + getNbrOfAcceptedChanges() +
+				" rejected: " + getNbrOfRejectedChanges() +
+				" filtered: " + getNbrOfFilteredChanges() +
+				" time (ms): " + (getExecutionTimeInNanos() / 1_000_000);
+	}
+
+	private static LongAdder[] createAdders() {
+		LongAdder[] adders = new LongAdder[EvaluationCheckType.values().length];
+		for (int i = 0; i < adders.length; i++)
+			adders[i] = new LongAdder();
+		return adders;
+	}
+}
@@ -2,6 +2,7 @@ package xf.xfvrp.base.monitor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /** 
  * Copyright (c) 2012-2021 Holger Schneider
@@ -22,6 +23,13 @@ public class StatusManager {
 	private List<StatusMonitor> observerList = new ArrayList<>();
 	
 	private long startTime = 0;
+
+	/* Counters for the memorization of evaluated routes */
+	private final LongAdder routeQualityCacheHits = new LongAdder();
+	private final LongAdder routeQualityCacheMisses = new LongAdder();
+
+	/* Counters and timers of the evaluations per optimization operator */
+	private final EvaluationMetrics evaluationMetrics = new EvaluationMetrics();
 	
 	/**
 	 * 
@@ -56,6 +64,37 @@ public class StatusManager {
 		return (long)((System.currentTimeMillis() - startTime) / 1000f);
 	}
 
+	/**
+	 * Counts a route, whose quality was found in the route quality cache
+	 */
+	public void countRouteQualityCacheHit() {
+		routeQualityCacheHits.increment();
+	}
+
+	/**
+	 * Counts a route, which was evaluated, because it was not found in the route quality cache
+	 */
+	public void countRouteQualityCacheMiss() {
+		routeQualityCacheMisses.increment();
+	}
+
+	public void resetRouteQualityCacheCounter() {
+		routeQualityCacheHits.reset();
+		routeQualityCacheMisses.reset();
+	}
+
+	public long getRouteQualityCacheHits() {
+		return routeQualityCacheHits.sum();
+	}
+
+	public long getRouteQualityCacheMisses() {
+		return routeQualityCacheMisses.sum();
+	}
+
+	public EvaluationMetrics getEvaluationMetrics() {
+		return evaluationMetrics;
+	}
+
 	/**
 	 * Removes all accounted observers
 	 */
@@ -134,4 +134,68 @@ public abstract class XFVRP_Parameter extends XFVRP_Data {
 		parameter.setMaxRunningTimeInSec(seconds);
 	}
 
+	/**
+	 * Sets the number of route qualities, which are memorized during the optimization. A
+	 * memorized route must not be evaluated again. A value of 0 deactivates the memorization.
+	 *
+	 * @param size Maximal number of memorized routes
+	 */
+	public void setRouteQualityCacheSize(int size) {
+		parameter.setRouteQualityCacheSize(size);
+	}
+
+	/**
+	 * Sets the number of threads, which fill the distance matrix of the model in parallel.
+	 * With more than one thread, the user metric must allow parallel calls.
+	 *
+	 * @param nbrOfThreads Number of threads (1 = no parallel calls of the metric)
+	 */
+	public void setNbrOfMetricThreads(int nbrOfThreads) {
+		parameter.setNbrOfMetricThreads(nbrOfThreads);
+	}
+
+	/**
+	 * Sets the maximal absolute error of a distance or time value, if the distance matrix
+	 * is stored in the compact form with 16 bits per value. If the values can not be stored
+	 * within this error, the full precision matrix is used.
+	 *
+	 * @param tolerance Maximal absolute error (0 = full precision)
+	 */
+	public void setCompactMetricTolerance(float tolerance) {
+		parameter.setCompactMetricTolerance(tolerance);
+	}
+
+	/**
+	 * Sets the number of bytes for the distance matrix of a model. If the complete matrix
+	 * does not fit into this budget, only the nearest neighbors of each node and a bounded
+	 * cache of other pairs are stored. A compact matrix (see setCompactMetricTolerance)
+	 * needs half of the memory of a matrix with full precision.
+	 *
+	 * @param bytes Memory budget of the distance matrix
+	 */
+	public void setMetricMemoryBudget(long bytes) {
+		parameter.setMetricMemoryBudget(bytes);
+	}
+
+	/**
+	 * Sets the number of nearest neighbors per customer for the granular search
+	 * of the improvement operators. The operators only search changes, where a
+	 * new connection is between neighbors.
+	 *
+	 * @param nbrOfNeighbors Number of neighbors per customer (0 = no granular search)
+	 */
+	public void setNbrOfGranularNeighbors(int nbrOfNeighbors) {
+		parameter.setNbrOfGranularNeighbors(nbrOfNeighbors);
+	}
+
+	/**
+	 * Sets the maximal distance of a granular neighbor relative to the average
+	 * distance of all neighbors. Farther neighbors are dropped.
+	 *
+	 * @param factor Maximal relative distance of a neighbor (0 = no limit)
+	 */
+	public void setGranularityFactor(float factor) {
+		parameter.setGranularityFactor(factor);
+	}
+
 }
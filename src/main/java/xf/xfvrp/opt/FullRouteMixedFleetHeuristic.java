@@ -158,7 +158,7 @@ public class FullRouteMixedFleetHeuristic {
 		Vehicle invalidVehicle = InvalidVehicle.createInvalid();
 
 		// Create solution with single routes for each invalid node
-		InternalMetric internalMetric = AcceleratedMetricTransformator.transform(metric, nodes, invalidVehicle);
+		InternalMetric internalMetric = AcceleratedMetricTransformator.transform(metric, nodes, invalidVehicle, parameter.getNbrOfMetricThreads());
 
 		return new XFVRPSolution(
 				giantRoute,
@@ -5,10 +5,8 @@ import xf.xfvrp.base.Quality;
 import xf.xfvrp.base.SiteType;
 import xf.xfvrp.base.quality.RouteQuality;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 
 /**
  * Copyright (c) 2012-2021 Holger Schneider
@@ -16,6 +14,32 @@ import java.util.List;
  *
  * This source code is licensed under the MIT License (MIT) found in the
  * LICENSE file in the root directory of this source tree.
+ *
+ *
+ * A solution consists of routes, which start and end with a depot.
+ *
+ * The giant route view of the routes is built only on demand and kept until
+ * the routes are changed. Operators of the giant route can change this view in place,
+ * then the routes are parsed again on the next access to them, where the changed view
+ * stays valid. So a sequence of changes and reversals of the giant route needs no
+ * conversion from the routes into the giant route.
+ *
+ * Additionally the route index and position of each node is built on first request
+ * and afterwards updated for each changed route. Routes, which are changed in place,
+ * must be fetched with changeRoute or be changed with reverse.
+ *
+ * A copy of a solution shares the route arrays and route qualities with the original
+ * solution. A shared route or quality is copied only before it is changed in place,
+ * so copying a solution needs time proportional to the number of routes.
+ *
+ * Changes of an operator can be grouped by a transaction (begin, commit, rollback).
+ * The journal of a transaction holds the state of each route and route quality
+ * before its first change, where the node sequence is copied into reusable buffers.
+ * So a rejected change is undone by copying back the touched routes and qualities.
+ * The giant route view is restored in the same way, if it was changed in place.
+ *
+ * @author hschneid
+ *
  **/
 public class Solution implements Iterable<Node[]> {
 
@@ -23,44 +47,220 @@ public class Solution implements Iterable<Node[]> {
 	private RouteQuality[] routeQualities = new RouteQuality[] { new RouteQuality(0, null) };
 	private Quality totalQuality = new Quality(null);
 
-	private List<RouteQuality> invalidatedRoutesQualities = new ArrayList<>();
+	// True, if the route or the route quality may be referenced by another solution (copy on write)
+	private boolean[] isRouteShared = new boolean[1];
+	private boolean[] isQualityShared = new boolean[1];
+
+	// Journal of the current transaction
+	private boolean isInTransaction = false;
+	private int transactionId = 0;
+	private final Quality journalTotalQuality = new Quality();
+	private int journalNbrOfRoutes;
+	private int journalNbrOfRouteQualities;
+	// Transaction id of the last journal entry for a route or route quality
+	private int[] routeStamps = new int[0];
+	private int[] qualityStamps = new int[0];
+	// Routes before their first change in the transaction
+	private int nbrOfJournalRoutes = 0;
+	private int[] journalRouteIndexes = new int[2];
+	private Node[][] journalRoutes = new Node[2][];
+	private boolean[] journalRouteShared = new boolean[2];
+	private boolean[] isJournalContentSaved = new boolean[2];
+	private Node[][] journalContents = new Node[2][];
+	// Route qualities before their first change in the transaction
+	private int nbrOfJournalQualities = 0;
+	private int[] journalQualityIndexes = new int[2];
+	private RouteQuality[] journalQualities = new RouteQuality[2];
+	private boolean[] journalQualityShared = new boolean[2];
+	private Quality[] journalQualityValues = new Quality[2];
+	// Complete state of the solution, if all routes are replaced in the transaction
+	private boolean isJournalSolutionSaved = false;
+	private Node[][] journalAllRoutes;
+	private RouteQuality[] journalAllRouteQualities;
+	private boolean[] journalAllRouteShared;
+	private boolean[] journalAllQualityShared;
+	// Giant route view of the routes at begin and its nodes before its first change in place
+	private Node[] journalGiantRoute;
+	private boolean isJournalGiantRouteSaved = false;
+	private Node[] journalGiantRouteContent = new Node[0];
+
+	// Giant route view of the routes, which is null if it must be built again
+	private Node[] giantRoute;
+	// True, if the giant route view was changed and the routes must be parsed again
+	private boolean isGiantRouteChanged = false;
+
+	// Route index and position of a node by its index, which is null if it must be built again
+	private int[] routeIdxOfNode;
+	private int[] posOfNode;
+	// Routes, which were fetched by changeRoute and must be indexed again before the next request
+	private int nbrOfOutdatedRoutes = 0;
+	private int[] outdatedRoutes = new int[2];
 
 	public Node[][] getRoutes() {
+		parseChangedGiantRoute();
 		return routes;
 	}
 
 	public RouteQuality[] getRouteQualities() {
+		parseChangedGiantRoute();
 		return routeQualities;
 	}
 
 	public Quality getQuality() {
+		parseChangedGiantRoute();
 		return totalQuality;
 	}
 
 	public void deleteRoute(int routeIndex) {
+		parseChangedGiantRoute();
+		giantRoute = null;
+		recordRoute(routeIndex);
+		recordQuality(routeIndex);
+		removeFromIndex(routeIndex, routes[routeIndex]);
+
 		routes[routeIndex] = new Node[0];
+		isRouteShared[routeIndex] = false;
 
 		totalQuality.sub(routeQualities[routeIndex]);
 		routeQualities[routeIndex] = new RouteQuality(0, null);
+		isQualityShared[routeIndex] = false;
 	}
 
 	public void addRoute(Node[] newRoute) {
+		parseChangedGiantRoute();
+		giantRoute = null;
+
 		for (int i = 0; i < routes.length; i++) {
 			if(routes[i].length == 0) {
+				recordRoute(i);
 				routes[i] = newRoute;
+				isRouteShared[i] = false;
+				addToIndex(i, newRoute, 0, newRoute.length);
 				return;
 			}
 		}
 
 		routes = Arrays.copyOf(routes, routes.length + 1);
 		routes[routes.length - 1] = newRoute;
+		isRouteShared = Arrays.copyOf(isRouteShared, routes.length);
+		addToIndex(routes.length - 1, newRoute, 0, newRoute.length);
 
 		routeQualities = Arrays.copyOf(routeQualities, routeQualities.length + 1);
 		routeQualities[routeQualities.length - 1] = new RouteQuality(routeQualities.length - 1, null);
+		isQualityShared = Arrays.copyOf(isQualityShared, routeQualities.length);
 	}
 
+	/**
+	 * Replaces the route at the given index by a new route array.
+	 */
 	public void setRoute(int routeIndex, Node[] route) {
+		parseChangedGiantRoute();
+		giantRoute = null;
+		recordRoute(routeIndex);
+		removeFromIndex(routeIndex, routes[routeIndex]);
+		if(routes[routeIndex] != route)
+			isRouteShared[routeIndex] = false;
+
 		routes[routeIndex] = route;
+		addToIndex(routeIndex, route, 0, route.length);
+	}
+
+	/**
+	 * Returns the route, which is changed in place by the caller. If the route is
+	 * shared with another solution, it is copied before. The route is indexed
+	 * again on the next request of a route index or position.
+	 */
+	public Node[] changeRoute(int routeIndex) {
+		Node[] route = getRouteForChange(routeIndex);
+		if(posOfNode != null) {
+			removeFromIndex(routeIndex, route);
+			if(nbrOfOutdatedRoutes == outdatedRoutes.length)
+				outdatedRoutes = Arrays.copyOf(outdatedRoutes, nbrOfOutdatedRoutes * 2);
+			outdatedRoutes[nbrOfOutdatedRoutes++] = routeIndex;
+		}
+
+		return route;
+	}
+
+	private Node[] getRouteForChange(int routeIndex) {
+		parseChangedGiantRoute();
+		giantRoute = null;
+		recordRoute(routeIndex);
+		if(isRouteShared[routeIndex]) {
+			routes[routeIndex] = Arrays.copyOf(routes[routeIndex], routes[routeIndex].length);
+			isRouteShared[routeIndex] = false;
+		} else {
+			recordRouteContent(routeIndex);
+		}
+
+		return routes[routeIndex];
+	}
+
+	/**
+	 * Exchanges the routes and route qualities at the two given indexes.
+	 */
+	public void swapRoutes(int routeIndexA, int routeIndexB) {
+		parseChangedGiantRoute();
+		giantRoute = null;
+		recordRoute(routeIndexA);
+		recordRoute(routeIndexB);
+		recordQuality(routeIndexA);
+		recordQuality(routeIndexB);
+
+		Node[] route = routes[routeIndexA];
+		routes[routeIndexA] = routes[routeIndexB];
+		routes[routeIndexB] = route;
+		RouteQuality quality = routeQualities[routeIndexA];
+		routeQualities[routeIndexA] = routeQualities[routeIndexB];
+		routeQualities[routeIndexB] = quality;
+
+		boolean isShared = isRouteShared[routeIndexA];
+		isRouteShared[routeIndexA] = isRouteShared[routeIndexB];
+		isRouteShared[routeIndexB] = isShared;
+		isShared = isQualityShared[routeIndexA];
+		isQualityShared[routeIndexA] = isQualityShared[routeIndexB];
+		isQualityShared[routeIndexB] = isShared;
+
+		addToIndex(routeIndexA, routes[routeIndexA], 0, routes[routeIndexA].length);
+		addToIndex(routeIndexB, routes[routeIndexB], 0, routes[routeIndexB].length);
+	}
+
+	/**
+	 * Inverts the node sequence of a certain route in place
+	 * in the range from start to end (both inclusive).
+	 */
+	public void reverse(int routeIndex, int start, int end) {
+		Node[] route = getRouteForChange(routeIndex);
+		int offset = 0;
+		while (end - offset > start + offset) {
+			Node tmp = route[end - offset];
+			route[end - offset] = route[start + offset];
+			route[start + offset] = tmp;
+			offset++;
+		}
+
+		if(start <= end)
+			addToIndex(routeIndex, route, start, end + 1);
+	}
+
+	/**
+	 * @return index of the route, which contains the given customer, or -1 if it is in no route.
+	 * For depots, which are contained in multiple routes, the result is not defined.
+	 */
+	public int getRouteIndex(Node node) {
+		buildIndex();
+		int idx = node.getIdx();
+		return (idx < posOfNode.length && posOfNode[idx] >= 0) ? routeIdxOfNode[idx] : -1;
+	}
+
+	/**
+	 * @return position of the given customer in its route, or -1 if it is in no route.
+	 * For depots, which are contained in multiple routes, the result is not defined.
+	 */
+	public int getPosition(Node node) {
+		buildIndex();
+		int idx = node.getIdx();
+		return (idx < posOfNode.length) ? posOfNode[idx] : -1;
 	}
 
 	/**
@@ -69,45 +269,97 @@ public class Solution implements Iterable<Node[]> {
 	 * This means, the sub the current quality and add the new one.
 	 */
 	public void setRouteQuality(int routeIndex, Quality quality) {
+		parseChangedGiantRoute();
+		recordQuality(routeIndex);
 		totalQuality.sub(routeQualities[routeIndex]);
 
 		routeQualities[routeIndex] = (RouteQuality) quality;
+		isQualityShared[routeIndex] = false;
 		totalQuality.add(quality);
 	}
 
 	/**
-	 * This invalidates the quality of a certain route, so that
-	 * it can be overwritten.
+	 * Updates the quality of a certain route by overwriting the values
+	 * of the existing route quality object. In contrast to setRouteQuality
+	 * no quality object is referenced or created.
 	 */
-	public void invalidateRouteQuality(int routeIdx) {
-		invalidatedRoutesQualities.add(new RouteQuality(
-				routeIdx,
-				routeQualities[routeIdx]
-		));
+	public void updateRouteQuality(int routeIndex, Quality quality) {
+		parseChangedGiantRoute();
+		recordQuality(routeIndex);
+		if(isQualityShared[routeIndex]) {
+			routeQualities[routeIndex] = new RouteQuality(routeIndex, routeQualities[routeIndex]);
+			isQualityShared[routeIndex] = false;
+		}
+		RouteQuality routeQuality = routeQualities[routeIndex];
+
+		totalQuality.sub(routeQuality);
+		routeQuality.set(quality);
+		totalQuality.add(routeQuality);
 	}
 
 	/**
-	 * @return the giantRoute
+	 * @return the giantRoute as new array, which can be changed by the caller
 	 */
 	public Node[] getGiantRoute() {
-		if(routes.length == 0)
-			return new Node[0];
+		Node[] giantRoute = getGiantRouteView();
+		return Arrays.copyOf(giantRoute, giantRoute.length);
+	}
 
-		List<Node> giantRoute = new ArrayList<>();
-		for (Node[] route : routes) {
-			for (int i = 0; i < route.length - 1; i++) {
-				giantRoute.add(route[i]);
+	/**
+	 * Returns the giant route view, which is changed in place by the caller. The routes
+	 * are parsed from this view on the next access to them, like with setGiantRoute.
+	 */
+	Node[] changeGiantRoute() {
+		Node[] giantRoute = getGiantRouteView();
+		recordSolution();
+		recordGiantRouteContent();
+		isGiantRouteChanged = true;
+		clearIndex();
+
+		return giantRoute;
+	}
+
+	private Node[] getGiantRouteView() {
+		if(giantRoute != null)
+			return giantRoute;
+
+		int length = 0;
+		int lastRouteIdx = -1;
+		for (int i = 0; i < routes.length; i++) {
+			if(routes[i].length > 0) {
+				length += routes[i].length - 1;
+				lastRouteIdx = i;
 			}
 		}
 
-		for (int i = routes.length - 1; i >= 0; i--) {
-			if(routes[i].length > 0) {
-				giantRoute.add(routes[i][routes[i].length - 1]);
-				break;
+		Node[] newGiantRoute = new Node[(lastRouteIdx >= 0) ? length + 1 : 0];
+		int pos = 0;
+		for (Node[] route : routes) {
+			if(route.length > 0) {
+				System.arraycopy(route, 0, newGiantRoute, pos, route.length - 1);
+				pos += route.length - 1;
 			}
 		}
+		if(lastRouteIdx >= 0)
+			newGiantRoute[pos] = routes[lastRouteIdx][routes[lastRouteIdx].length - 1];
+
+		giantRoute = newGiantRoute;
+		// The view of the unchanged routes is also the view after a rollback
+		if(isInTransaction && !isJournalSolutionSaved && nbrOfJournalRoutes == 0 && routes.length == journalNbrOfRoutes)
+			journalGiantRoute = giantRoute;
+
+		return giantRoute;
+	}
 
-		return giantRoute.toArray(new Node[0]);
+	/**
+	 * Parses the routes from the changed giant route view, which stays the view of the new routes.
+	 */
+	private void parseChangedGiantRoute() {
+		if(isGiantRouteChanged) {
+			isGiantRouteChanged = false;
+			recordSolution();
+			parseGiantRoute(giantRoute);
+		}
 	}
 
 	/**
@@ -115,53 +367,75 @@ public class Solution implements Iterable<Node[]> {
 	 * with multiple routes
 	 */
 	public void setGiantRoute(Node[] giantRoute) {
+		recordSolution();
+		this.giantRoute = null;
+		this.isGiantRouteChanged = false;
+		parseGiantRoute(giantRoute);
+	}
+
+	/**
+	 * A route ends before each depot of the giant route, where the route is closed
+	 * with its first depot. The last route is not closed, if the giant route does
+	 * not end with a depot.
+	 */
+	private void parseGiantRoute(Node[] giantRoute) {
+		clearIndex();
+
 		if(giantRoute == null || giantRoute.length == 0) {
 			routes = new Node[0][0];
+			isRouteShared = new boolean[0];
 			return;
 		}
 
-		List<List<Node>> list = new ArrayList<>();
-		List<Node> currentRoute = new ArrayList<>();
-		currentRoute.add(giantRoute[0]);
-		Node lastDepot = giantRoute[0];
-		for (int i = 1; i < giantRoute.length; i++) {
-			Node currentNode = giantRoute[i];
-			if(currentNode != null && currentNode.getSiteType() == SiteType.DEPOT) {
-				currentRoute.add(lastDepot);
-				list.add(currentRoute);
-				currentRoute = new ArrayList<>();
-
-				if(i < giantRoute.length - 1)
-					currentRoute.add(currentNode);
+		int length = giantRoute.length;
+		boolean isLastRouteOpen = length == 1 || !isDepot(giantRoute[length - 1]);
+		int nbrOfRoutes = (isLastRouteOpen) ? 1 : 0;
+		for (int i = 1; i < length; i++) {
+			if(isDepot(giantRoute[i]))
+				nbrOfRoutes++;
+		}
 
-				lastDepot = currentNode;
-			} else {
-				currentRoute.add(currentNode);
+		routes = new Node[nbrOfRoutes][];
+		int routeIdx = 0;
+		int start = 0;
+		for (int i = 1; i < length; i++) {
+			if(isDepot(giantRoute[i])) {
+				Node[] route = Arrays.copyOfRange(giantRoute, start, i + 1);
+				route[route.length - 1] = giantRoute[start];
+				routes[routeIdx++] = route;
+				start = i;
 			}
 		}
-		if(currentRoute.size() > 0)
-			list.add(currentRoute);
+		if(isLastRouteOpen)
+			routes[routeIdx] = Arrays.copyOfRange(giantRoute, start, length);
 
-		routes = new Node[list.size()][];
-		routeQualities = new RouteQuality[list.size()];
-		for (int i = 0; i < list.size(); i++) {
-			routes[i] = list.get(i).toArray(new Node[0]);
+		routeQualities = new RouteQuality[nbrOfRoutes];
+		for (int i = 0; i < nbrOfRoutes; i++)
 			routeQualities[i] = new RouteQuality(i, null);
-		}
+		isRouteShared = new boolean[nbrOfRoutes];
+		isQualityShared = new boolean[nbrOfRoutes];
 		totalQuality = new Quality(null);
 	}
 
+	private static boolean isDepot(Node node) {
+		return node != null && node.getSiteType() == SiteType.DEPOT;
+	}
+
+	/**
+	 * Copies the solution, where routes and route qualities are shared with
+	 * this solution until one of both solutions changes them.
+	 */
 	public Solution copy() {
+		parseChangedGiantRoute();
 		Solution solution = new Solution();
 
-		Node[][] copyRoutes = new Node[routes.length][];
-		for (int i = 0; i < routes.length; i++)
-			copyRoutes[i] = Arrays.copyOf(routes[i], routes[i].length);
-		solution.routes = copyRoutes;
+		Arrays.fill(isRouteShared, true);
+		Arrays.fill(isQualityShared, true);
 
-		solution.routeQualities = new RouteQuality[routeQualities.length];
-		for (int i = 0; i < routeQualities.length; i++)
-			solution.routeQualities[i] = new RouteQuality(i, routeQualities[i]);
+		solution.routes = Arrays.copyOf(routes, routes.length);
+		solution.isRouteShared = Arrays.copyOf(isRouteShared, isRouteShared.length);
+		solution.routeQualities = Arrays.copyOf(routeQualities, routeQualities.length);
+		solution.isQualityShared = Arrays.copyOf(isQualityShared, isQualityShared.length);
 		solution.totalQuality = new Quality(totalQuality);
 
 		return solution;
@@ -169,25 +443,100 @@ public class Solution implements Iterable<Node[]> {
 
 	@Override
 	public Iterator<Node[]> iterator() {
+		parseChangedGiantRoute();
 		return new SolutionRoutesIterator(routes);
 	}
 
 	/**
-	 * Tells the solution, that the search is over and invalidated qualities can be purged.
+	 * Starts a transaction, where the state of the solution before each change is recorded.
+	 * A running transaction is committed before. The solution must not be copied
+	 * during a transaction.
+	 */
+	public void begin() {
+		parseChangedGiantRoute();
+		commit();
+
+		isInTransaction = true;
+		transactionId++;
+		journalTotalQuality.set(totalQuality);
+		journalNbrOfRoutes = routes.length;
+		journalNbrOfRouteQualities = routeQualities.length;
+		journalGiantRoute = giantRoute;
+	}
+
+	/**
+	 * Accepts all changes since begin and purges the journal.
 	 */
-	public void fixateQualities() {
-		invalidatedRoutesQualities.clear();
+	public void commit() {
+		isInTransaction = false;
+		Arrays.fill(journalRoutes, 0, nbrOfJournalRoutes, null);
+		Arrays.fill(journalQualities, 0, nbrOfJournalQualities, null);
+		nbrOfJournalRoutes = 0;
+		nbrOfJournalQualities = 0;
+		isJournalSolutionSaved = false;
+		journalAllRoutes = null;
+		journalAllRouteQualities = null;
+		journalAllRouteShared = null;
+		journalAllQualityShared = null;
+		journalGiantRoute = null;
+		isJournalGiantRouteSaved = false;
 	}
 
 	/**
-	 * Means, that the routes changed without reevaluation. The route qualities
-	 * must be reset to the old value.
+	 * Restores the routes and qualities of the solution, like they were at begin.
 	 */
-	public void resetQualities() {
-		for (RouteQuality invalidatedQuality : invalidatedRoutesQualities) {
-			setRouteQuality(invalidatedQuality.getRouteIdx(), invalidatedQuality);
+	public void rollback() {
+		if(!isInTransaction)
+			return;
+
+		isGiantRouteChanged = false;
+		giantRoute = journalGiantRoute;
+		if(isJournalGiantRouteSaved)
+			System.arraycopy(journalGiantRouteContent, 0, giantRoute, 0, giantRoute.length);
+		if(isJournalSolutionSaved) {
+			routes = journalAllRoutes;
+			routeQualities = journalAllRouteQualities;
+			isRouteShared = journalAllRouteShared;
+			isQualityShared = journalAllQualityShared;
+			clearIndex();
+		}
+
+		updateOutdatedRoutes();
+		for (int i = nbrOfJournalRoutes - 1; i >= 0; i--)
+			removeFromIndex(journalRouteIndexes[i], routes[journalRouteIndexes[i]]);
+		if(routes.length > journalNbrOfRoutes) {
+			for (int i = journalNbrOfRoutes; i < routes.length; i++)
+				removeFromIndex(i, routes[i]);
+			routes = Arrays.copyOf(routes, journalNbrOfRoutes);
+			isRouteShared = Arrays.copyOf(isRouteShared, journalNbrOfRoutes);
 		}
-		invalidatedRoutesQualities.clear();
+		if(routeQualities.length > journalNbrOfRouteQualities) {
+			routeQualities = Arrays.copyOf(routeQualities, journalNbrOfRouteQualities);
+			isQualityShared = Arrays.copyOf(isQualityShared, journalNbrOfRouteQualities);
+		}
+
+		for (int i = nbrOfJournalRoutes - 1; i >= 0; i--) {
+			int routeIndex = journalRouteIndexes[i];
+			Node[] route = journalRoutes[i];
+			if(isJournalContentSaved[i])
+				System.arraycopy(journalContents[i], 0, route, 0, route.length);
+			routes[routeIndex] = route;
+			isRouteShared[routeIndex] = journalRouteShared[i];
+		}
+		for (int i = 0; i < nbrOfJournalRoutes; i++)
+			addToIndex(journalRouteIndexes[i], routes[journalRouteIndexes[i]], 0, routes[journalRouteIndexes[i]].length);
+
+		for (int i = nbrOfJournalQualities - 1; i >= 0; i--) {
+			int routeIndex = journalQualityIndexes[i];
+			RouteQuality quality = journalQualities[i];
+			if(!journalQualityShared[i])
+				quality.set(journalQualityValues[i]);
+			routeQualities[routeIndex] = quality;
+			isQualityShared[routeIndex] = journalQualityShared[i];
+		}
+		totalQuality.set(journalTotalQuality);
+
+		commit();
 	}
 
 	/**
@@ -198,6 +547,11 @@ public class Solution implements Iterable<Node[]> {
 	 * routes.
 	 */
 	public void retainRoutes(int nbrOfRoutesToRetain) {
+		parseChangedGiantRoute();
+		recordSolution();
+		giantRoute = null;
+		clearIndex();
+
 		Node[][] newRoutes = new Node[nbrOfRoutesToRetain][];
 		RouteQuality[] newRouteQualities = new RouteQuality[nbrOfRoutesToRetain];
 		System.arraycopy(routes, 0, newRoutes, 0, nbrOfRoutesToRetain);
@@ -205,5 +559,184 @@ public class Solution implements Iterable<Node[]> {
 
 		this.routes = newRoutes;
 		this.routeQualities = newRouteQualities;
+		this.isRouteShared = Arrays.copyOf(isRouteShared, nbrOfRoutesToRetain);
+		this.isQualityShared = Arrays.copyOf(isQualityShared, nbrOfRoutesToRetain);
+	}
+
+	/**
+	 * Records the route before its first change in the current transaction.
+	 */
+	private void recordRoute(int routeIndex) {
+		if(!isInTransaction || isJournalSolutionSaved || routeIndex >= journalNbrOfRoutes)
+			return;
+		if(routeStamps.length < journalNbrOfRoutes)
+			routeStamps = Arrays.copyOf(routeStamps, journalNbrOfRoutes);
+		if(routeStamps[routeIndex] == transactionId)
+			return;
+		routeStamps[routeIndex] = transactionId;
+
+		if(nbrOfJournalRoutes == journalRouteIndexes.length) {
+			int length = nbrOfJournalRoutes * 2;
+			journalRouteIndexes = Arrays.copyOf(journalRouteIndexes, length);
+			journalRoutes = Arrays.copyOf(journalRoutes, length);
+			journalRouteShared = Arrays.copyOf(journalRouteShared, length);
+			isJournalContentSaved = Arrays.copyOf(isJournalContentSaved, length);
+			journalContents = Arrays.copyOf(journalContents, length);
+		}
+		journalRouteIndexes[nbrOfJournalRoutes] = routeIndex;
+		journalRoutes[nbrOfJournalRoutes] = routes[routeIndex];
+		journalRouteShared[nbrOfJournalRoutes] = isRouteShared[routeIndex];
+		isJournalContentSaved[nbrOfJournalRoutes] = false;
+		nbrOfJournalRoutes++;
+	}
+
+	/**
+	 * Copies the node sequence of a recorded route into the journal, before
+	 * the route array is changed in place.
+	 */
+	private void recordRouteContent(int routeIndex) {
+		if(!isInTransaction || isJournalSolutionSaved)
+			return;
+
+		for (int i = 0; i < nbrOfJournalRoutes; i++) {
+			if(journalRouteIndexes[i] != routeIndex)
+				continue;
+
+			Node[] route = journalRoutes[i];
+			if(isJournalContentSaved[i] || route != routes[routeIndex])
+				return;
+
+			if(journalContents[i] == null || journalContents[i].length < route.length)
+				journalContents[i] = new Node[Math.max(route.length, 16)];
+			System.arraycopy(route, 0, journalContents[i], 0, route.length);
+			isJournalContentSaved[i] = true;
+			return;
+		}
+	}
+
+	/**
+	 * Records the route quality before its first change in the current transaction.
+	 */
+	private void recordQuality(int routeIndex) {
+		if(!isInTransaction || isJournalSolutionSaved || routeIndex >= journalNbrOfRouteQualities)
+			return;
+		if(qualityStamps.length < journalNbrOfRouteQualities)
+			qualityStamps = Arrays.copyOf(qualityStamps, journalNbrOfRouteQualities);
+		if(qualityStamps[routeIndex] == transactionId)
+			return;
+		qualityStamps[routeIndex] = transactionId;
+
+		if(nbrOfJournalQualities == journalQualityIndexes.length) {
+			int length = nbrOfJournalQualities * 2;
+			journalQualityIndexes = Arrays.copyOf(journalQualityIndexes, length);
+			journalQualities = Arrays.copyOf(journalQualities, length);
+			journalQualityShared = Arrays.copyOf(journalQualityShared, length);
+			journalQualityValues = Arrays.copyOf(journalQualityValues, length);
+		}
+		if(journalQualityValues[nbrOfJournalQualities] == null)
+			journalQualityValues[nbrOfJournalQualities] = new Quality();
+
+		journalQualityIndexes[nbrOfJournalQualities] = routeIndex;
+		journalQualities[nbrOfJournalQualities] = routeQualities[routeIndex];
+		journalQualityShared[nbrOfJournalQualities] = isQualityShared[routeIndex];
+		journalQualityValues[nbrOfJournalQualities].set(routeQualities[routeIndex]);
+		nbrOfJournalQualities++;
+	}
+
+	/**
+	 * Records the complete solution, before all routes are replaced in the current
+	 * transaction. The replaced arrays are not changed afterwards, so only their
+	 * references are kept.
+	 */
+	private void recordSolution() {
+		if(!isInTransaction || isJournalSolutionSaved)
+			return;
+
+		isJournalSolutionSaved = true;
+		journalAllRoutes = routes;
+		journalAllRouteQualities = routeQualities;
+		journalAllRouteShared = isRouteShared;
+		journalAllQualityShared = isQualityShared;
+	}
+
+	/**
+	 * Copies the nodes of the giant route view at begin into the journal, before
+	 * the view is changed in place.
+	 */
+	private void recordGiantRouteContent() {
+		if(!isInTransaction || isJournalGiantRouteSaved || giantRoute != journalGiantRoute)
+			return;
+
+		if(journalGiantRouteContent.length < giantRoute.length)
+			journalGiantRouteContent = new Node[giantRoute.length];
+		System.arraycopy(giantRoute, 0, journalGiantRouteContent, 0, giantRoute.length);
+		isJournalGiantRouteSaved = true;
+	}
+
+	private void buildIndex() {
+		parseChangedGiantRoute();
+		if(posOfNode != null) {
+			updateOutdatedRoutes();
+			return;
+		}
+
+		routeIdxOfNode = new int[0];
+		posOfNode = new int[0];
+		for (int i = 0; i < routes.length; i++)
+			addToIndex(i, routes[i], 0, routes[i].length);
+	}
+
+	private void clearIndex() {
+		routeIdxOfNode = null;
+		posOfNode = null;
+		nbrOfOutdatedRoutes = 0;
+	}
+
+	/**
+	 * Indexes the routes again, which were changed in place after changeRoute.
+	 */
+	private void updateOutdatedRoutes() {
+		for (int i = 0; i < nbrOfOutdatedRoutes; i++) {
+			int routeIndex = outdatedRoutes[i];
+			if(routeIndex < routes.length)
+				addToIndex(routeIndex, routes[routeIndex], 0, routes[routeIndex].length);
+		}
+		nbrOfOutdatedRoutes = 0;
+	}
+
+	/**
+	 * Writes the route index and positions of the nodes in the range
+	 * from start (inclusive) to end (exclusive) into the index, if it exists.
+	 */
+	private void addToIndex(int routeIndex, Node[] route, int start, int end) {
+		if(posOfNode == null)
+			return;
+
+		for (int p = start; p < end; p++) {
+			int idx = route[p].getIdx();
+			if(idx >= posOfNode.length) {
+				int oldLength = posOfNode.length;
+				routeIdxOfNode = Arrays.copyOf(routeIdxOfNode, Math.max(idx + 1, oldLength * 2));
+				posOfNode = Arrays.copyOf(posOfNode, routeIdxOfNode.length);
+				Arrays.fill(posOfNode, oldLength, posOfNode.length, -1);
+			}
+			routeIdxOfNode[idx] = routeIndex;
+			posOfNode[idx] = p;
+		}
+	}
+
+	/**
+	 * Removes the nodes of a replaced route from the index, if they are
+	 * not already indexed for another route.
+	 */
+	private void removeFromIndex(int routeIndex, Node[] route) {
+		if(posOfNode == null)
+			return;
+
+		for (Node node : route) {
+			int idx = node.getIdx();
+			if(idx < posOfNode.length && routeIdxOfNode[idx] == routeIndex)
+				posOfNode[idx] = -1;
+		}
 	}
 }
@@ -6,6 +6,8 @@ import xf.xfvrp.base.XFVRPBase;
 import xf.xfvrp.base.XFVRPModel;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.base.exception.XFVRPExceptionType;
+import xf.xfvrp.base.monitor.OperatorMetrics;
+import xf.xfvrp.base.monitor.StatusManager;
 import xf.xfvrp.opt.evaluation.EvaluationService;
 
 import java.util.List;
@@ -38,17 +40,46 @@ public abstract class XFVRPOptBase extends XFVRPBase<XFVRPModel> {
 	protected static final float epsilon = 0.001f;
 	protected EvaluationService evaluationService = new EvaluationService();
 
+	// Counters of this operator (null, if there is no status manager)
+	protected OperatorMetrics metrics;
+
+	@Override
+	public Solution execute(Solution giantRoute, XFVRPModel model, StatusManager statusManager) throws XFVRPException {
+		initMetrics(statusManager);
+		evaluationService.setStatusManager(statusManager);
+
+		if(metrics == null)
+			return super.execute(giantRoute, model, statusManager);
+
+		long startTime = metrics.startTimer();
+		Solution solution = super.execute(giantRoute, model, statusManager);
+		metrics.countExecution(startTime);
+
+		return solution;
+	}
+
+	@Override
+	public void setStatusManager(StatusManager statusManager) {
+		super.setStatusManager(statusManager);
+		initMetrics(statusManager);
+		evaluationService.setStatusManager(statusManager);
+	}
+
+	/**
+	 * The metrics of an operator are addressed by the name of its class.
+	 */
+	private void initMetrics(StatusManager statusManager) {
+		metrics = (statusManager != null) ? statusManager.getEvaluationMetrics().getOperator(getClass().getSimpleName()) : null;
+		evaluationService.setMetrics(metrics);
+	}
+
 	/**
 	 * 
 	 * Inverts the node sequence in the range
 	 * from start to end, both inclusive. 
 	 */
 	protected void swap(Solution solution, int start, int end) {
-		Node[] giantTour = solution.getGiantRoute();
-		
-		swap(giantTour, start, end);
-		
-		solution.setGiantRoute(giantTour);
+		swap(solution.changeGiantRoute(), start, end);
 	}
 
 	protected void swap(Node[] nodes, int start, int end) {
@@ -66,12 +97,12 @@ public abstract class XFVRPOptBase extends XFVRPBase<XFVRPModel> {
 	 * to before the dst-node.
 	 */
 	protected void move(Solution solution, int src, int dst) {
-		Node[] giantTour = solution.getGiantRoute();
-
 		// If src is equal to dst, than nothing can be done.
 		if (src == dst)
 			return;
 
+		Node[] giantTour = solution.changeGiantRoute();
+
 		Node[] arr = new Node[1];
 		arr[0] = giantTour[src];
 
@@ -85,8 +116,6 @@ public abstract class XFVRPOptBase extends XFVRPBase<XFVRPModel> {
 			System.arraycopy(giantTour, src + 1, giantTour, src, dst - src);
 			System.arraycopy(arr, 0, giantTour, dst - 1, arr.length);
 		}
-
-		solution.setGiantRoute(giantTour);
 	}
 
 	/**
@@ -94,13 +123,11 @@ public abstract class XFVRPOptBase extends XFVRPBase<XFVRPModel> {
 	 * their counterparts.
 	 */
 	protected void exchange(Solution solution, int i, int j) {
-		Node[] giantTour = solution.getGiantRoute();
+		Node[] giantTour = solution.changeGiantRoute();
 		
 		Node tmp = giantTour[i];
 		giantTour[i] = giantTour[j];
 		giantTour[j] = tmp;
-		
-		solution.setGiantRoute(giantTour);
 	}
 
 	/**
@@ -117,7 +144,7 @@ public abstract class XFVRPOptBase extends XFVRPBase<XFVRPModel> {
 			for (int i = 0; i <= la; i++)
 				exchange(solution, a+i, b+i);
 		} else {
-			Node[] giantTour = solution.getGiantRoute();
+			Node[] giantTour = solution.changeGiantRoute();
 			
 			if(b < a) {
 				int tmp = a; a = b; b = tmp;
@@ -134,8 +161,6 @@ public abstract class XFVRPOptBase extends XFVRPBase<XFVRPModel> {
 			System.arraycopy(nodesOfB, 0 , giantTour, a, nodesOfB.length);
 			System.arraycopy(intermediates, 0 , giantTour, a + nodesOfB.length, intermediates.length);
 			System.arraycopy(nodesOfA, 0 , giantTour, a + nodesOfB.length + intermediates.length, nodesOfA.length);
-			
-			solution.setGiantRoute(giantTour);
 		}
 	}
 	
@@ -171,6 +196,57 @@ public abstract class XFVRPOptBase extends XFVRPBase<XFVRPModel> {
 		return evaluationService.check(solution, model, routeIdxA, routeIdxB);
 	}
 
+	/**
+	 * Processes a check evaluation for two routes, where the quality is
+	 * written into the given result object.
+	 */
+	public void check(Solution solution, int routeIdxA, int routeIdxB, Quality result) throws XFVRPException {
+		evaluationService.check(solution, model, routeIdxA, routeIdxB, result);
+	}
+
+	/**
+	 * Processes a check evaluation, which stops at the first violated restriction.
+	 *
+	 * @return true, if solution is valid. Only then the result contains the quality.
+	 */
+	public boolean checkValid(Solution solution, Quality result) throws XFVRPException {
+		return evaluationService.checkValid(solution, model, result);
+	}
+
+	/**
+	 * Processes a check evaluation for two routes, which stops at the first violated restriction
+	 * or if the fitness of the solution can not be lower than the given maximal fitness.
+	 *
+	 * @return true, if solution is valid. Only then the result contains the quality.
+	 */
+	public boolean checkValid(Solution solution, int routeIdxA, int routeIdxB, float maxFitness, Quality result) throws XFVRPException {
+		return evaluationService.checkValid(solution, model, routeIdxA, routeIdxB, maxFitness, result);
+	}
+
+	/**
+	 * Counts a change of the solution, which is evaluated.
+	 */
+	protected void countEvaluatedChange() {
+		if(metrics != null)
+			metrics.countEvaluatedChange();
+	}
+
+	/**
+	 * Counts an evaluated change, which improves the solution.
+	 */
+	protected void countAcceptedChange() {
+		if(metrics != null)
+			metrics.countAcceptedChange();
+	}
+
+	/**
+	 * Counts a change, which is rejected without evaluation.
+	 */
+	protected void countFilteredChange() {
+		if(metrics != null)
+			metrics.countFilteredChange();
+	}
+
 	public Random getRandom() {
 		return rand;
 	}
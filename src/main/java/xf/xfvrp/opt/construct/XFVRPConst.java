@@ -1,6 +1,7 @@
 package xf.xfvrp.opt.construct;
 
 import util.collection.ListMap;
+import xf.xfvrp.base.KdTree;
 import xf.xfvrp.base.Node;
 import xf.xfvrp.base.NormalizeSolutionService;
 import xf.xfvrp.base.SiteType;
@@ -88,13 +89,15 @@ public class XFVRPConst extends XFVRPOptBase {
 				.filter(node -> node.getSiteType() == SiteType.DEPOT)
 				.collect(Collectors.toList());
 
+		KdTree depotIndex = getDepotIndex();
+
 		Node[] giantTour = solution.getGiantRoute();
 		for (int i = 0; i < giantTour.length; i++) {
 			Node n = giantTour[i];
 
 			if(n.getSiteType() == SiteType.CUSTOMER) {
 
-				int bestIdx = findNearestDepot(depotList, n);
+				int bestIdx = (depotIndex != null) ? depotIndex.findNearest(n, 1)[0] : findNearestDepot(depotList, n);
 
 				allocMap.put(bestIdx, n);
 
@@ -123,6 +126,19 @@ public class XFVRPConst extends XFVRPOptBase {
 		return i;
 	}
 
+	/**
+	 * The nearest depot is searched in a spatial index, if the metric is spatial and
+	 * there are several depots. With open routes at start, all depots have the same
+	 * distance, so the first depot is taken like in findNearestDepot.
+	 */
+	private KdTree getDepotIndex() {
+		KdTree spatialIndex = model.getSpatialIndex();
+		if(spatialIndex == null || model.getNbrOfDepots() <= 1 || model.getParameter().isOpenRouteAtStart())
+			return null;
+
+		return spatialIndex.subset(idx -> model.getNodes()[idx].getSiteType() == SiteType.DEPOT);
+	}
+
 	private int findNearestDepot(List<Node> depotList, Node n) throws XFVRPException {
 		int bestIdx = -1;
 		float bestDistance = Float.MAX_VALUE;
@@ -33,6 +33,9 @@ public class XFPDPFirstBestInsert extends XFVRPOptBase {
 	private static final int PICKUP_POS = 0;
 	private static final int DELIVERY_POS = 1;
 	private static final int COST_VALUE = 2;
+
+	// Reused result object for the evaluation of insertions
+	private final Quality candidateQuality = new Quality();
 	
 	/*
 	 * (non-Javadoc)
@@ -93,8 +96,7 @@ public class XFPDPFirstBestInsert extends XFVRPOptBase {
 				// Evaluate new solution
 				Solution newSolution = new Solution();
 				newSolution.setGiantRoute(newGiantRoute);
-				Quality qq = check(newSolution);
-				if(qq.getPenalty() == 0) {
+				if(checkValid(newSolution, candidateQuality)) {
 					giantRoute = NormalizeSolutionService.normalizeRoute(newSolution, model).getGiantRoute();
 					break;
 				}
@@ -146,8 +148,7 @@ public class XFPDPFirstBestInsert extends XFVRPOptBase {
 				// Evaluate new solution
 				Solution newSolution = new Solution();
 				newSolution.setGiantRoute(newGiantRoute);
-				Quality qq = check(newSolution);
-				if(qq.getPenalty() == 0) {
+				if(checkValid(newSolution, candidateQuality)) {
 					giantRoute = NormalizeSolutionService.normalizeRoute(newSolution, model).getGiantRoute();
 					reducedGiantRoute = new Node[giantRoute.length - 2];
 					break;
@@ -175,46 +176,20 @@ public class XFPDPFirstBestInsert extends XFVRPOptBase {
 		Node pickup = shipment[0];
 		Node delivery = shipment[1];
 
-		for (int[] routeStats : routes) {// Create partial route with two additional empty slot
+		for (int[] routeStats : routes) {
 			Node[] route = createEvaluationRoute(giantRoute, routeStats);
 
-			// Get current solution
-			route[1] = route[0];
-			route[2] = route[0];
-			Solution ss = new Solution();
-			ss.setGiantRoute(route);
-			Quality currentRouteQuality = check(ss);
-
-			// For all insert positions for pickup
-			int pickCnt = 1;
-			for (int p = routeStats[0] + 1; p <= routeStats[1]; p++) {
-				// Insert new pickup node in first empty slot
-				route[pickCnt] = pickup;
-
-				int deliCnt = pickCnt + 1;
-				for (int k = p; k <= routeStats[1]; k++) {
-					// Insert new delivery node in second empty slot
-					route[deliCnt] = delivery;
-
-					// Check for feasibility
-					Solution newSolution = new Solution();
-					newSolution.setGiantRoute(route);
-					Quality newRouteQuality = check(newSolution);
-					if (newRouteQuality != null && newRouteQuality.getPenalty() == 0) {
-						insertPoints.add(new float[]{p, k, newRouteQuality.getCost() - currentRouteQuality.getCost()});
-					}
-
-					// Move second empty slot one position further
-					route[deliCnt] = route[deliCnt + 1];
-					deliCnt++;
-				}
-
-				// Restore the original giant route with start index pickCnt
-				System.arraycopy(route, pickCnt + 1, route, pickCnt + 2, route.length - pickCnt - 2);
+			// Evaluate all insert positions of pickup and delivery in the route at once
+			boolean[][] isFeasible = new boolean[route.length][route.length];
+			float[][] costDeltas = new float[route.length][route.length];
+			evaluationService.checkInsertions(route, pickup, delivery, model, isFeasible, costDeltas);
 
-				// Move first empty slot one position further
-				route[pickCnt] = route[pickCnt + 1];
-				pickCnt++;
+			// Position i in route is position routeStats[0] + i in giant route
+			for (int i = 1; i < route.length; i++) {
+				for (int j = i; j < route.length; j++) {
+					if(isFeasible[i][j])
+						insertPoints.add(new float[]{routeStats[0] + i, routeStats[0] + j, costDeltas[i][j]});
+				}
 			}
 		}
 
@@ -281,21 +256,18 @@ public class XFPDPFirstBestInsert extends XFVRPOptBase {
 	}
 
 	/**
-	 * Returns a certain single route of the giant route with two empty slots more than the original route.
+	 * Returns a certain single route of the giant route.
 	 * 
 	 * @param giantRoute Current solution of planned routes
 	 * @param routeStats Info, where the route starts and ends
-	 * @return Array of nodes between start and end position and with two empty slots more than the original route.
+	 * @return Array of nodes between start and end position, where the route ends at its starting depot
 	 */
 	private Node[] createEvaluationRoute(Node[] giantRoute, int[] routeStats) {
-		Node[] route = new Node[(routeStats[1] - routeStats[0]) + 1 + 2];
-		int cnt = 0;
-		for(int p = routeStats[0]; p <= routeStats[1]; p++) {
-			if(cnt == 1)
-				cnt+=2;
-			route[cnt++] = giantRoute[p];
-		}
-		
+		Node[] route = new Node[(routeStats[1] - routeStats[0]) + 1];
+		System.arraycopy(giantRoute, routeStats[0], route, 0, route.length - 1);
+
+		route[route.length - 1] = route[0];
+
 		return route;
 	}
 
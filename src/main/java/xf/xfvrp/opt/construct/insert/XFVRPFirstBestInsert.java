@@ -33,6 +33,9 @@ import java.util.stream.IntStream;
  */
 public class XFVRPFirstBestInsert extends XFVRPOptBase {
 
+	// Reused result object for the evaluation of insertions
+	private final Quality candidateQuality = new Quality();
+
 	/*
 	 * (non-Javadoc)
 	 * @see de.fhg.iml.vlog.xftour.model.XFBase#execute(de.fhg.iml.vlog.xftour.model.XFNode[])
@@ -110,8 +113,7 @@ public class XFVRPFirstBestInsert extends XFVRPOptBase {
 				// Evaluate new solution
 				Solution solution = new Solution();
 				solution.setGiantRoute(newGiantRoute);
-				Quality qq = check(solution);
-				if(qq.getPenalty() == 0) {
+				if(checkValid(solution, candidateQuality)) {
 					giantRoute = NormalizeSolutionService.normalizeRoute(solution, model).getGiantRoute();
 					break;
 				}
@@ -159,8 +161,7 @@ public class XFVRPFirstBestInsert extends XFVRPOptBase {
 				// Evaluate new solution
 				Solution solution = new Solution();
 				solution.setGiantRoute(newGiantRoute);
-				Quality qq = check(solution);
-				if(qq.getPenalty() == 0) {
+				if(checkValid(solution, candidateQuality)) {
 					giantRoute = NormalizeSolutionService.normalizeRoute(solution, model).getGiantRoute();
 					reducedGiantRoute = new Node[giantRoute.length - 1];
 					break;
@@ -185,32 +186,18 @@ public class XFVRPFirstBestInsert extends XFVRPOptBase {
 
 		List<float[]> insertPoints = new ArrayList<>();
 
-		for (int[] routeStats : routes) {// Create partial route with one additional empty slot
+		for (int[] routeStats : routes) {
 			Node[] route = createEvaluationRoute(giantRoute, routeStats);
 
-			// Check for feasibility
-			route[1] = route[0];
-			Solution ss = new Solution();
-			ss.setGiantRoute(route);
-			Quality currentRouteQuality = check(ss);
-
-			// For all insert positions
-			int cnt = 1;
-			for (int p = routeStats[0] + 1; p <= routeStats[1]; p++) {
-				// Insert new node in empty slot
-				route[cnt] = customer;
-
-				// Check for feasibility
-				Solution solution = new Solution();
-				solution.setGiantRoute(route);
-				Quality newRouteQuality = check(solution);
-				if (newRouteQuality != null && newRouteQuality.getPenalty() == 0) {
-					insertPoints.add(new float[]{p, newRouteQuality.getCost() - currentRouteQuality.getCost()});
-				}
+			// Evaluate all insert positions of the route at once
+			boolean[] isFeasible = new boolean[route.length];
+			float[] costDeltas = new float[route.length];
+			evaluationService.checkInsertions(route, customer, model, isFeasible, costDeltas);
 
-				// Move empty slot one position further
-				route[cnt] = route[cnt + 1];
-				cnt++;
+			// Position pos in route is position routeStats[0] + pos in giant route
+			for (int pos = 1; pos < route.length; pos++) {
+				if(isFeasible[pos])
+					insertPoints.add(new float[]{routeStats[0] + pos, costDeltas[pos]});
 			}
 		}
 
@@ -271,19 +258,14 @@ public class XFVRPFirstBestInsert extends XFVRPOptBase {
 	 * 
 	 * @param giantRoute Current solution of planned routes
 	 * @param routeStats Info where the route starts and ends
-	 * @return Array of nodes between start and end position (and with an empty slot for new customers)
+	 * @return Array of nodes between start and end position, where the route ends at its starting depot
 	 */
 	private Node[] createEvaluationRoute(Node[] giantRoute, int[] routeStats) {
-		Node[] route = new Node[(routeStats[1] - routeStats[0]) + 1 + 1];
-		int cnt = 0;
-		for(int p = routeStats[0]; p <= routeStats[1]; p++) {
-			if(cnt == 1)
-				cnt++;
-			route[cnt++] = giantRoute[p];
-		}
-		
+		Node[] route = new Node[(routeStats[1] - routeStats[0]) + 1];
+		System.arraycopy(giantRoute, routeStats[0], route, 0, route.length - 1);
+
 		route[route.length - 1] = route[0];
-		
+
 		return route;
 	}
 
@@ -2,8 +2,7 @@ package xf.xfvrp.opt.evaluation;
 
 import xf.xfvrp.base.Node;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import static xf.xfvrp.base.SiteType.DEPOT;
 import static xf.xfvrp.base.SiteType.REPLENISH;
@@ -25,49 +24,51 @@ public class ActiveNodeAnalyzer {
 	 * @return list of active (true) or disabled (false) nodes in giant route
 	 */
 	public static Node[] getActiveNodes(Node[] route) {
-		boolean[] activeFlags = new boolean[route.length];
-		if(route.length == 0)
-			return new Node[0];
-		if(route.length == 2 && route[0].getSiteType() == DEPOT && route[1].getSiteType() == DEPOT)
-			return route;
+		Node[] activeNodes = new Node[route.length];
+
+		int length = getActiveNodes(route, activeNodes);
+
+		return Arrays.copyOf(activeNodes, length);
+	}
 
-		int lastNodeIdx = 0;
-		Node lastNode = route[lastNodeIdx];
-		activeFlags[0] = true;
-		for (int i = 1; i < activeFlags.length; i++) {
-			activeFlags[i] = true;
+	/**
+	 * Same as getActiveNodes(route), but the active nodes are written into the given
+	 * target array, which must be at least as long as the route. So a reused
+	 * target array avoids any allocation during evaluation.
+	 *
+	 * @return number of active nodes, which are written into target
+	 */
+	public static int getActiveNodes(Node[] route, Node[] target) {
+		if(route.length == 0)
+			return 0;
+		if(route.length == 2 && route[0].getSiteType() == DEPOT && route[1].getSiteType() == DEPOT) {
+			target[0] = route[0];
+			target[1] = route[1];
+			return 2;
+		}
 
+		int length = 0;
+		target[length++] = route[0];
+		for (int i = 1; i < route.length; i++) {
 			Node currNode = route[i];
+			Node lastNode = target[length - 1];
 
-			if(currNode.getSiteType() == DEPOT && 
+			if(currNode.getSiteType() == DEPOT &&
 					lastNode.getSiteType() == DEPOT)
-				activeFlags[lastNodeIdx] = false;
+				length--;
 			else if(currNode.getSiteType() == REPLENISH &&
 					lastNode.getSiteType() == REPLENISH)
-				activeFlags[lastNodeIdx] = false;
+				length--;
 			else if(currNode.getSiteType() == DEPOT &&
 					lastNode.getSiteType() == REPLENISH)
-				activeFlags[lastNodeIdx] = false;
+				length--;
 			else if(currNode.getSiteType() == REPLENISH &&
 					lastNode.getSiteType() == DEPOT)
-				activeFlags[i] = false;
+				continue;
 
-			if(activeFlags[i]) {
-				lastNode = currNode;
-				lastNodeIdx = i;
-			}
+			target[length++] = currNode;
 		}
 
-		return extract(route, activeFlags);
-	}
-
-	private static Node[] extract(Node[] route, boolean[] activeFlags) {
-		List<Node> activeNodes = new ArrayList<>(); 
-		for (int i = 0; i < route.length; i++) {
-			if(activeFlags[i])
-				activeNodes.add(route[i]);
-		}
-		
-		return activeNodes.toArray(new Node[0]);
+		return length;
 	}
 }
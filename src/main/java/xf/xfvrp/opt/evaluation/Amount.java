@@ -1,5 +1,7 @@
 package xf.xfvrp.opt.evaluation;
 
+import java.util.Arrays;
+
 /**
  * Copyright (c) 2012-2021 Holger Schneider
  * All rights reserved.
@@ -10,6 +12,7 @@ package xf.xfvrp.opt.evaluation;
 public class Amount {
 
 	private float[] amounts;
+	private boolean hasAmount = false;
 	
 	public Amount() {
 	}
@@ -23,23 +26,34 @@ public class Amount {
 	}
 	
 	public float getAmount(int idx) {
-		return (amounts != null && idx < amounts.length) ? amounts[idx] : 0;
+		return (hasAmount && idx < amounts.length) ? amounts[idx] : 0;
 	}
 
 	public float[] getAmounts() {
-		return amounts;
+		return (hasAmount) ? amounts : null;
 	}
 
 	public void setAmounts(float[] amounts) {
 		this.amounts = amounts;
+		this.hasAmount = (amounts != null);
+	}
+
+	/**
+	 * Resets this amount for reuse. The internal array is kept.
+	 */
+	public void clear() {
+		if(hasAmount)
+			Arrays.fill(amounts, 0);
+		hasAmount = false;
 	}
 	
 	private void init(float[] otherAmount) {
-		if(amounts == null)
+		if(amounts == null || amounts.length != otherAmount.length)
 			amounts = new float[otherAmount.length];
+		hasAmount = true;
 	}
 
 	public boolean hasAmount() {
-		return (amounts != null);
+		return hasAmount;
 	}
 }
@@ -7,7 +7,6 @@ import xf.xfvrp.base.preset.BlockNameConverter;
 import xf.xfvrp.base.preset.BlockPositionConverter;
 
 import java.util.Arrays;
-import java.util.Map;
 
 public class Context {
 
@@ -28,41 +27,84 @@ public class Context {
 	private int[] availablePresetCountArr;
 	private int[] foundPresetCountArr;
 	private int[] lastPresetSequenceRankArr;
-	private boolean[] presetRoutingBlackList;
-	private boolean[] presetRoutingNodeList;
-
-	// Pre-evaluated infos of a route (service times and amounts)
-	private Map<Node, RouteInfo> routeInfos;
+	// Bitsets over global index of nodes
+	private long[] presetRoutingBlackList;
+	private long[] presetRoutingNodeList;
+
+	// Words of the bitsets and blocks, which were changed since the last reset. So
+	// resetting and checking takes time proportional to the evaluated nodes.
+	private int[] touchedWords;
+	private int nbrOfTouchedWords = 0;
+	private int[] touchedBlocks;
+	private boolean[] isBlockTouched;
+	private int nbrOfTouchedBlocks = 0;
+
+	// Pre-evaluated infos of a route (service times and amounts) per depot or replenishment of the route
+	private RouteInfo[] routeInfos = new RouteInfo[0];
+	private int nbrOfRouteInfos = 0;
+
+	// Reusable buffers for evaluation of a single route
+	private Node[] activeRoute = new Node[0];
+	private final Quality routeQuality = new Quality();
+	private final float[] fittingTimeWindow = new float[2];
+
+	// Qualities of already evaluated routes, null if caching is not possible
+	private RouteQualityCache routeQualityCache;
 
 	private Node currentDepot;
 	private Node currentNode;
 	private Node lastNode;
 
-	private float[] lastDrivenDistance;
+	private float lastDrivenDistance;
 
 	private XFVRPModel model;
+	private NodeTable nodeTable;
 
 	public Context() {
 		routeVar = new float[7];
 		routeVar[ROUTE_IDX] = -1;
 	}
 
+	/**
+	 * Resets all states, which are valid for the evaluation of a whole solution. So
+	 * this context can be reused for the next evaluation with same model.
+	 */
+	public void reset() {
+		routeVar[ROUTE_IDX] = -1;
+		for (int i = 0; i < nbrOfTouchedBlocks; i++) {
+			int blockIdx = touchedBlocks[i];
+			blockPresetArr[blockIdx] = -1;
+			foundPresetCountArr[blockIdx] = 0;
+			lastPresetSequenceRankArr[blockIdx] = 0;
+			isBlockTouched[blockIdx] = false;
+		}
+		nbrOfTouchedBlocks = 0;
+	}
+
 	public void setNextNode(Node newCurrentNode) {
 		this.lastNode = this.currentNode;
 		this.currentNode = newCurrentNode;
 	}
 
+	/**
+	 * @return time window of current node for the current time. The returned array is
+	 * reused by the next call.
+	 */
 	public float[] getFittingTimeWindow() {
-		return this.currentNode.getTimeWindow(routeVar[TIME]);
+		int timeWindowIdx = nodeTable.findTimeWindow(currentNode.getIdx(), routeVar[TIME]);
+		fittingTimeWindow[0] = nodeTable.getOpenTime(timeWindowIdx);
+		fittingTimeWindow[1] = nodeTable.getCloseTime(timeWindowIdx);
+
+		return fittingTimeWindow;
 	}
 
-	public void drive(float[] distance) {
+	public void drive(float distance, float time) {
 		this.lastDrivenDistance = distance;
 
-		routeVar[LENGTH] += distance[0];
-		routeVar[TIME] += distance[1];
-		routeVar[DURATION] += distance[1];
-		routeVar[DRIVING_TIME] += distance[1];
+		routeVar[LENGTH] += distance;
+		routeVar[TIME] += time;
+		routeVar[DURATION] += time;
+		routeVar[DRIVING_TIME] += time;
 	}
 
 	public void addStop() {
@@ -94,8 +136,11 @@ public class Context {
 		routeVar[DELAY] = 0;
 
 		lastPresetSequenceRankArr[BlockNameConverter.DEFAULT_BLOCK_IDX] = Integer.MIN_VALUE;
-		Arrays.fill(presetRoutingBlackList, false);
-		Arrays.fill(presetRoutingNodeList, false);
+		for (int i = 0; i < nbrOfTouchedWords; i++) {
+			presetRoutingBlackList[touchedWords[i]] = 0;
+			presetRoutingNodeList[touchedWords[i]] = 0;
+		}
+		nbrOfTouchedWords = 0;
 
 		return penalty;
 	}
@@ -103,7 +148,7 @@ public class Context {
 	public void setDepartureTimeAtDepot(float earliestDepartureTime, float loadingTimeAtDepot) {
 		routeVar[TIME] =
 				Math.max(
-						this.currentDepot.getTimeWindow(0)[0] + loadingTimeAtDepot,
+						nodeTable.getOpenTime(nodeTable.findTimeWindow(currentDepot.getIdx(), 0)) + loadingTimeAtDepot,
 						earliestDepartureTime
 				);
 		routeVar[DURATION] = loadingTimeAtDepot;
@@ -127,10 +172,11 @@ public class Context {
 		}
 
 		// Init delivery amount on the route
-		if(!routeInfos.containsKey(currentNode))
+		RouteInfo routeInfo = findRouteInfo(currentNode);
+		if(routeInfo == null)
 			throw new XFVRPException(XFVRPExceptionType.ILLEGAL_ARGUMENT, "Could not find route infos for depot id " + currentNode.getDepotId());
 
-		Amount deliveryOfRoute = routeInfos.get(currentNode).getDeliveryAmount();
+		Amount deliveryOfRoute = routeInfo.getDeliveryAmount();
 		if(deliveryOfRoute.hasAmount()) {
 			for (int compartment = 0; compartment < getNbrOfCompartments(); compartment++)
 				amountsOfRoute[compartment * CompartmentLoadType.NBR_OF_LOAD_TYPES + CompartmentLoadType.MIXED.index()] += deliveryOfRoute.getAmounts()[compartment];
@@ -142,11 +188,11 @@ public class Context {
 	}
 
 	public float getLoadingServiceTimeAtDepot() {
-		return routeInfos.get(currentDepot).getLoadingServiceTime();
+		return findRouteInfo(currentDepot).getLoadingServiceTime();
 	}
 
 	public float getUnLoadingServiceTimeAtDepot() {
-		return routeInfos.get(currentDepot).getUnLoadingServiceTime();
+		return findRouteInfo(currentDepot).getUnLoadingServiceTime();
 	}
 
 	public void addToTime(float addedTime) {
@@ -197,16 +243,87 @@ public class Context {
 		this.lastPresetSequenceRankArr = lastPresetSequenceRankArr;
 	}
 
-	public void setPresetRoutingBlackList(boolean[] presetRoutingBlackList) {
+	public void setPresetRoutingBlackList(long[] presetRoutingBlackList) {
 		this.presetRoutingBlackList = presetRoutingBlackList;
 	}
 
-	public void setPresetRoutingNodeList(boolean[] presetRoutingNodeList) {
+	public void setPresetRoutingNodeList(long[] presetRoutingNodeList) {
 		this.presetRoutingNodeList = presetRoutingNodeList;
+		this.touchedWords = new int[presetRoutingNodeList.length];
+	}
+
+	public void setNbrOfBlocks(int nbrOfBlocks) {
+		this.touchedBlocks = new int[nbrOfBlocks];
+		this.isBlockTouched = new boolean[nbrOfBlocks];
 	}
 
-	public void setRouteInfos(Map<Node, RouteInfo> routeDepotServiceMap) {
-		this.routeInfos = routeDepotServiceMap;
+	/**
+	 * @return false, if the model has no preset restrictions, so that all preset checks can be skipped
+	 */
+	public boolean isWithPresets() {
+		return nodeTable.hasPresets();
+	}
+
+	/**
+	 * Invalidates all route infos of the last evaluated route.
+	 */
+	public void clearRouteInfos() {
+		nbrOfRouteInfos = 0;
+	}
+
+	/**
+	 * Returns the next free route info object for the given depot or replenishment.
+	 * The route info is only valid after it was added by addRouteInfo.
+	 */
+	public RouteInfo nextRouteInfo(Node depot) {
+		if(nbrOfRouteInfos >= routeInfos.length)
+			routeInfos = Arrays.copyOf(routeInfos, Math.max(2, routeInfos.length * 2));
+
+		if(routeInfos[nbrOfRouteInfos] == null) {
+			routeInfos[nbrOfRouteInfos] = new RouteInfo(depot);
+		} else {
+			routeInfos[nbrOfRouteInfos].init(depot);
+		}
+
+		return routeInfos[nbrOfRouteInfos];
+	}
+
+	/**
+	 * Adds the last route info, which was returned by nextRouteInfo, to the valid route infos.
+	 */
+	public void addRouteInfo() {
+		nbrOfRouteInfos++;
+	}
+
+	/**
+	 * If a depot was added multiple times, the last added route info is valid.
+	 */
+	private RouteInfo findRouteInfo(Node depot) {
+		for (int i = nbrOfRouteInfos - 1; i >= 0; i--) {
+			if(routeInfos[i].getDepot() == depot)
+				return routeInfos[i];
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return reusable buffer for the active nodes of a route with at least the given length
+	 */
+	public Node[] getActiveRoute(int minLength) {
+		if(activeRoute.length < minLength)
+			activeRoute = new Node[minLength];
+
+		return activeRoute;
+	}
+
+	/**
+	 * @return reusable quality object for the evaluation of a single route, which is reset to zero
+	 */
+	public Quality getRouteQuality() {
+		routeQuality.reset();
+
+		return routeQuality;
 	}
 
 	public void setCurrentDepot(Node newDepot) {
@@ -226,7 +343,7 @@ public class Context {
 		return lastNode;
 	}
 
-	public float[] getLastDrivenDistance() {
+	public float getLastDrivenDistance() {
 		return lastDrivenDistance;
 	}
 
@@ -272,29 +389,44 @@ public class Context {
 	}
 
 	public int setAndCheckPresetSequence(int blockIndex) {
+		int rank = nodeTable.getPresetBlockRank(currentNode.getIdx());
+		touchBlock(blockIndex);
+
 		int penalty = 0;
-		if(lastPresetSequenceRankArr[blockIndex] > currentNode.getPresetBlockRank())
+		if(lastPresetSequenceRankArr[blockIndex] > rank)
 			penalty = 1;
-		lastPresetSequenceRankArr[blockIndex] = currentNode.getPresetBlockRank();
+		lastPresetSequenceRankArr[blockIndex] = rank;
 
 		return penalty;
 	}
 
 	public void setPresetRouting() {
-		if(currentNode.getSiteType() == SiteType.CUSTOMER) {
-			for (int bn : currentNode.getPresetRoutingBlackList())
-				presetRoutingBlackList[bn] = true;
-			presetRoutingNodeList[currentNode.getGlobalIdx()] = true;
+		int idx = currentNode.getIdx();
+		if(nodeTable.getSiteType(idx) == SiteType.CUSTOMER) {
+			for (int i = nodeTable.getBlackListStart(idx), end = nodeTable.getBlackListEnd(idx); i < end; i++) {
+				int word = nodeTable.getBlackListWord(i);
+				touchWord(word);
+				presetRoutingBlackList[word] |= nodeTable.getBlackListBits(i);
+			}
+
+			int globalIdx = nodeTable.getGlobalIdx(idx);
+			touchWord(globalIdx >>> 6);
+			presetRoutingNodeList[globalIdx >>> 6] |= 1L << globalIdx;
 		}
 	}
 
 	public int checkPresetPosition() {
-		if (currentNode.getPresetBlockPos() > BlockPositionConverter.UNDEF_POSITION)
+		int currentIdx = currentNode.getIdx();
+		int lastIdx = lastNode.getIdx();
+		int currentPos = nodeTable.getPresetBlockPos(currentIdx);
+		int currentBlockIdx = nodeTable.getPresetBlockIdx(currentIdx);
+
+		if (currentPos > BlockPositionConverter.UNDEF_POSITION)
 			// 1 is the first setted block position. The second block pos needs to be checked at first. 
-			if(currentNode.getPresetBlockPos() > 1)
-				if (currentNode.getPresetBlockIdx() > BlockNameConverter.DEFAULT_BLOCK_IDX)
-					if (currentNode.getPresetBlockIdx() == lastNode.getPresetBlockIdx()) {
-						if (lastNode.getPresetBlockPos() != currentNode.getPresetBlockPos() - 1)
+			if(currentPos > 1)
+				if (currentBlockIdx > BlockNameConverter.DEFAULT_BLOCK_IDX)
+					if (currentBlockIdx == nodeTable.getPresetBlockIdx(lastIdx)) {
+						if (nodeTable.getPresetBlockPos(lastIdx) != currentPos - 1)
 							return 1;
 					} else
 						return 1;
@@ -303,7 +435,8 @@ public class Context {
 	}
 
 	public int checkPresetDepot() {
-		if(currentNode.getPresetDepotList().size() > 0 && !currentNode.isInPresetDepotList(currentDepot.getGlobalIdx()))
+		int idx = currentNode.getIdx();
+		if(nodeTable.hasPresetDepots(idx) && !nodeTable.isInPresetDepotList(idx, nodeTable.getGlobalIdx(currentDepot.getIdx())))
 			return 1;
 
 		return 0;
@@ -320,14 +453,16 @@ public class Context {
 			penalty = 1;
 
 		// Save number of seen nodes for this block
+		touchBlock(blockIndex);
 		foundPresetCountArr[blockIndex]++;
 
 		return penalty;
 	}
 
 	public int checkPresetBlackList() {
-		for (int j = 0; j < presetRoutingBlackList.length; j++) {
-			if(presetRoutingBlackList[j] & presetRoutingNodeList[j]) {
+		for (int i = 0; i < nbrOfTouchedWords; i++) {
+			int j = touchedWords[i];
+			if((presetRoutingBlackList[j] & presetRoutingNodeList[j]) != 0) {
 				return 1;
 			}
 		}
@@ -337,13 +472,30 @@ public class Context {
 
 	public int checkPresetBlockCount() {
 		int penalty = 0;
-		for (int j = 0; j < foundPresetCountArr.length; j++)
+		for (int i = 0; i < nbrOfTouchedBlocks; i++) {
+			int j = touchedBlocks[i];
 			if(foundPresetCountArr[j] > 0 && availablePresetCountArr[j] - foundPresetCountArr[j] > 0)
 				penalty += availablePresetCountArr[j] - foundPresetCountArr[j];
+		}
 
 		return penalty;
 	}
 
+	/**
+	 * Memorizes a word of the route bitsets, before it gets its first bit.
+	 */
+	private void touchWord(int word) {
+		if(presetRoutingBlackList[word] == 0 && presetRoutingNodeList[word] == 0)
+			touchedWords[nbrOfTouchedWords++] = word;
+	}
+
+	private void touchBlock(int blockIdx) {
+		if(!isBlockTouched[blockIdx]) {
+			isBlockTouched[blockIdx] = true;
+			touchedBlocks[nbrOfTouchedBlocks++] = blockIdx;
+		}
+	}
+
 	public float getNbrOfStops() {
 		return routeVar[NBR_OF_STOPS];
 	}
@@ -362,10 +514,23 @@ public class Context {
 
 	public void setModel(XFVRPModel model) {
 		this.model = model;
+		this.nodeTable = model.getNodeTable();
+	}
+
+	public NodeTable getNodeTable() {
+		return nodeTable;
+	}
+
+	public RouteQualityCache getRouteQualityCache() {
+		return routeQualityCache;
+	}
+
+	public void setRouteQualityCache(RouteQualityCache routeQualityCache) {
+		this.routeQualityCache = routeQualityCache;
 	}
 
 	public RouteInfo getRouteInfo() {
-		return routeInfos.get(currentNode);
+		return findRouteInfo(currentNode);
 	}
 
 	public int getNbrOfCompartments() {
@@ -29,8 +29,9 @@ public class ContextBuilder {
 		context.setAvailablePresetCountArr(model.getBlockPresetCountList());
 		context.setFoundPresetCountArr(new int[model.getNbrOfBlocks()]);
 		context.setLastPresetSequenceRankArr(new int[model.getNbrOfBlocks()]);
-		context.setPresetRoutingBlackList(new boolean[context.getMaxGlobalNodeIdx()]);
-		context.setPresetRoutingNodeList(new boolean[context.getMaxGlobalNodeIdx()]);
+		context.setNbrOfBlocks(model.getNbrOfBlocks());
+		context.setPresetRoutingBlackList(new long[model.getNodeTable().getNbrOfWords()]);
+		context.setPresetRoutingNodeList(new long[model.getNodeTable().getNbrOfWords()]);
 
 		return context;
 	}
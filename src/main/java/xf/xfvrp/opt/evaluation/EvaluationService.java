@@ -2,8 +2,10 @@ package xf.xfvrp.opt.evaluation;
 
 import xf.xfvrp.base.*;
 import xf.xfvrp.base.exception.XFVRPException;
+import xf.xfvrp.base.monitor.EvaluationCheckType;
+import xf.xfvrp.base.monitor.OperatorMetrics;
+import xf.xfvrp.base.monitor.StatusManager;
 import xf.xfvrp.base.preset.BlockNameConverter;
-import xf.xfvrp.base.quality.RouteQuality;
 import xf.xfvrp.opt.Solution;
 
 /**
@@ -19,6 +21,20 @@ import xf.xfvrp.opt.Solution;
  */
 public class EvaluationService {
 
+	// Relative tolerance for the cost bound of an early exit evaluation
+	private static final float EPSILON = 0.001f;
+
+	// Context is reused for each evaluation of the same model within the same thread. It is
+	// shared by all evaluation services, so that all optimization methods use the same route quality cache.
+	private static final ThreadLocal<Context> contexts = new ThreadLocal<>();
+
+	private final SegmentEvaluationService segmentEvaluationService = new SegmentEvaluationService();
+
+	private StatusManager statusManager;
+
+	// Counters of the operator, which uses this service (may be null)
+	private OperatorMetrics metrics;
+
 	/**
 	 * Evaluates the costs and validates the restrictions of the 
 	 * given solution. The costs are equal to the driven distance.
@@ -30,11 +46,25 @@ public class EvaluationService {
 	 * starting depot of a route stands also for the ending depot, in any case. 
 	 */
 	public Quality check(Solution solution, XFVRPModel model) throws XFVRPException {
-		Context context = ContextBuilder.build(model);
+		Quality result = new Quality();
+
+		check(solution, model, result);
+
+		return result;
+	}
+
+	/**
+	 * Same as check(solution, model), but the quality is written into the given
+	 * result object. So no quality object is created for the caller.
+	 */
+	public void check(Solution solution, XFVRPModel model, Quality result) throws XFVRPException {
+		long startTime = startTimer();
+		Context context = getContext(model);
 
 		checkRoutes(solution, context);
 
-		return new Quality(solution.getQuality());
+		result.set(solution.getQuality());
+		countCheck(EvaluationCheckType.SOLUTION, result.getPenalty() == 0, startTime);
 	}
 
 	/**
@@ -43,16 +73,248 @@ public class EvaluationService {
 	 * Here only 2 routes are checked, which are changed by neighborhood search.
 	 */
 	public Quality check(Solution solution, XFVRPModel model, int routeIdxA, int routeIdxB) throws XFVRPException {
-		Context context = ContextBuilder.build(model);
+		Quality result = new Quality();
+
+		check(solution, model, routeIdxA, routeIdxB, result);
+
+		return result;
+	}
+
+	/**
+	 * Same as check(solution, model, routeIdxA, routeIdxB), but the quality is written
+	 * into the given result object. So no quality object is created for the caller.
+	 */
+	public void check(Solution solution, XFVRPModel model, int routeIdxA, int routeIdxB, Quality result) throws XFVRPException {
+		long startTime = startTimer();
+		Context context = getContext(model);
 
-		solution.invalidateRouteQuality(routeIdxA);
 		checkAndUpdateRoutes(routeIdxA, solution, context);
 		if(routeIdxA != routeIdxB) {
-			solution.invalidateRouteQuality(routeIdxB);
 			checkAndUpdateRoutes(routeIdxB, solution, context);
 		}
 
-		return new Quality(solution.getQuality());
+		result.set(solution.getQuality());
+		countCheck(EvaluationCheckType.TWO_ROUTES, result.getPenalty() == 0, startTime);
+	}
+
+	/**
+	 * Early exit variant of check(solution, model, result). The evaluation stops at the
+	 * first violated restriction (capacity, time window, duration, stop count, presets),
+	 * because a penalized solution is rejected anyway by the most callers.
+	 *
+	 * @return true, if the solution is valid. Only then the result contains the quality
+	 * of the solution. Otherwise the route qualities of the solution are incomplete.
+	 */
+	public boolean checkValid(Solution solution, XFVRPModel model, Quality result) throws XFVRPException {
+		long startTime = startTimer();
+		boolean isValid = checkValidRoutes(solution, model, result);
+		countCheck(EvaluationCheckType.VALID_SOLUTION, isValid, startTime);
+
+		return isValid;
+	}
+
+	private boolean checkValidRoutes(Solution solution, XFVRPModel model, Quality result) throws XFVRPException {
+		Context context = getContext(model);
+
+		Node[][] routes = solution.getRoutes();
+		for (int i = 0, routesLength = routes.length; i < routesLength; i++) {
+			if(!checkAndUpdateRoutes(i, solution, context, true, Float.POSITIVE_INFINITY))
+				return false;
+		}
+
+		result.set(solution.getQuality());
+		return true;
+	}
+
+	/**
+	 * Early exit variant of check(solution, model, routeIdxA, routeIdxB, result). The evaluation
+	 * stops at the first violated restriction or if the cost of the solution gets clearly greater
+	 * than the given maximal fitness (e.g. the fitness of the best known solution).
+	 *
+	 * The costs of routes only grow with each visited node, so the evaluated part of
+	 * a route and the costs of the unchanged routes are a lower bound of the new cost.
+	 *
+	 * @return true, if the solution is valid. Only then the result contains the quality
+	 * of the solution. Otherwise the qualities of the solution must be restored with
+	 * the rollback of a transaction (see Solution.begin).
+	 */
+	public boolean checkValid(Solution solution, XFVRPModel model, int routeIdxA, int routeIdxB, float maxFitness, Quality result) throws XFVRPException {
+		long startTime = startTimer();
+		boolean isValid = checkValidRoutes(solution, model, routeIdxA, routeIdxB, maxFitness, result);
+		countCheck(EvaluationCheckType.VALID_TWO_ROUTES, isValid, startTime);
+
+		return isValid;
+	}
+
+	private boolean checkValidRoutes(Solution solution, XFVRPModel model, int routeIdxA, int routeIdxB, float maxFitness, Quality result) throws XFVRPException {
+		Context context = getContext(model);
+
+		// Costs of all routes, which are not evaluated here
+		float otherCost = solution.getQuality().getCost() - solution.getRouteQualities()[routeIdxA].getCost();
+		if(routeIdxA != routeIdxB)
+			otherCost -= solution.getRouteQualities()[routeIdxB].getCost();
+		float maxCost = maxFitness - otherCost + EPSILON * Math.max(1, Math.abs(maxFitness));
+
+		if(!checkAndUpdateRoutes(routeIdxA, solution, context, true, maxCost))
+			return false;
+		if(routeIdxA != routeIdxB) {
+			maxCost -= solution.getRouteQualities()[routeIdxA].getCost();
+
+			if(!checkAndUpdateRoutes(routeIdxB, solution, context, true, maxCost))
+				return false;
+		}
+
+		result.set(solution.getQuality());
+		return true;
+	}
+
+	/**
+	 * Evaluates the insertion of a node before each position 1 to route.length - 1 of a
+	 * single route. The first and the last node of the route must be depots.
+	 *
+	 * If the model allows a segment based estimation, all positions are evaluated in one
+	 * forward and backward sweep over the route. The estimation is a relaxation of the complete
+	 * evaluation (see SegmentEvaluationService), so a feasible position must be confirmed by a check
+	 * of the changed solution. Otherwise each position is evaluated completely.
+	 *
+	 * @param isFeasible Is written for each position, whether the insertion can be valid
+	 * @param costDeltas Is written for each position with the additional cost of the insertion
+	 */
+	public void checkInsertions(Node[] route, Node node, XFVRPModel model, boolean[] isFeasible, float[] costDeltas) throws XFVRPException {
+		long startTime = startTimer();
+		if(SegmentEvaluationService.isApplicable(model)) {
+			segmentEvaluationService.estimateInsertions(route, node, model, isFeasible, costDeltas);
+			countCheck(EvaluationCheckType.INSERTIONS, true, startTime);
+			return;
+		}
+
+		Quality q = new Quality();
+		checkSingleRoute(route, model, q);
+		float currentCost = q.getCost();
+		Node[] newRoute = new Node[route.length + 1];
+		for (int pos = 1; pos < route.length; pos++) {
+			System.arraycopy(route, 0, newRoute, 0, pos);
+			newRoute[pos] = node;
+			System.arraycopy(route, pos, newRoute, pos + 1, route.length - pos);
+
+			isFeasible[pos] = checkSingleRoute(newRoute, model, q);
+			costDeltas[pos] = q.getCost() - currentCost;
+		}
+		countCheck(EvaluationCheckType.INSERTIONS, true, startTime);
+	}
+
+	/**
+	 * Evaluates the insertion of a pickup before each position i and of a delivery before each
+	 * position j (1 <= i <= j < route.length) of a single route. If i is equal to j, then
+	 * the delivery is inserted directly after the pickup. The results are written into the
+	 * fields [i][j] of the given arrays.
+	 *
+	 * Same as checkInsertions(route, node, model, isFeasible, costDeltas), the segment based
+	 * estimation is used, if the model allows it.
+	 */
+	public void checkInsertions(Node[] route, Node pickup, Node delivery, XFVRPModel model, boolean[][] isFeasible, float[][] costDeltas) throws XFVRPException {
+		long startTime = startTimer();
+		if(SegmentEvaluationService.isApplicable(model)) {
+			segmentEvaluationService.estimateInsertions(route, pickup, delivery, model, isFeasible, costDeltas);
+			countCheck(EvaluationCheckType.INSERTIONS, true, startTime);
+			return;
+		}
+
+		Quality q = new Quality();
+		checkSingleRoute(route, model, q);
+		float currentCost = q.getCost();
+		Node[] newRoute = new Node[route.length + 2];
+		for (int i = 1; i < route.length; i++) {
+			for (int j = i; j < route.length; j++) {
+				System.arraycopy(route, 0, newRoute, 0, i);
+				newRoute[i] = pickup;
+				System.arraycopy(route, i, newRoute, i + 1, j - i);
+				newRoute[j + 1] = delivery;
+				System.arraycopy(route, j, newRoute, j + 2, route.length - j);
+
+				isFeasible[i][j] = checkSingleRoute(newRoute, model, q);
+				costDeltas[i][j] = q.getCost() - currentCost;
+			}
+		}
+		countCheck(EvaluationCheckType.INSERTIONS, true, startTime);
+	}
+
+	/**
+	 * Evaluates a single route without a solution and without the route quality cache.
+	 *
+	 * @return true, if the route is valid
+	 */
+	private boolean checkSingleRoute(Node[] route, XFVRPModel model, Quality q) throws XFVRPException {
+		Context context = getContext(model);
+		q.reset();
+
+		FeasibilityAnalzer.checkFeasibility(route);
+		checkRoute(route, q, context, false, Float.POSITIVE_INFINITY);
+
+		return q.getPenalty() == 0;
+	}
+
+	/**
+	 * Returns the context of the current thread. If the model has changed, a
+	 * new context is built. Otherwise the existing context is reset for reuse.
+	 */
+	private Context getContext(XFVRPModel model) {
+		Context context = contexts.get();
+		if(context == null || context.getModel() != model) {
+			context = ContextBuilder.build(model);
+			context.setRouteQualityCache(createRouteQualityCache(model));
+			contexts.set(context);
+		} else {
+			context.reset();
+		}
+
+		return context;
+	}
+
+	/**
+	 * Route qualities can only be cached, if a route is evaluated independently from the other
+	 * routes. This is not the case for block presets, where all nodes of a block must be on
+	 * the same route.
+	 *
+	 * @return route quality cache or null, if caching is not possible or not wanted
+	 */
+	private RouteQualityCache createRouteQualityCache(XFVRPModel model) {
+		int size = model.getParameter().getRouteQualityCacheSize();
+		if(size <= 0 || model.getNbrOfBlocks() > BlockNameConverter.DEFAULT_BLOCK_IDX + 1)
+			return null;
+
+		return new RouteQualityCache(size, model.getVehicle().idx);
+	}
+
+	/**
+	 * Releases the context of the current thread, so that the last evaluated model is
+	 * not referenced any more. The route quality cache is cleared by this.
+	 */
+	public static void releaseContext() {
+		contexts.remove();
+	}
+
+	/**
+	 * The status manager counts the hits and misses of the route quality cache.
+	 */
+	public void setStatusManager(StatusManager statusManager) {
+		this.statusManager = statusManager;
+	}
+
+	/**
+	 * The operator metrics count the evaluation calls of this service.
+	 */
+	public void setMetrics(OperatorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	private long startTimer() {
+		return (metrics != null) ? metrics.startTimer() : 0;
+	}
+
+	private void countCheck(EvaluationCheckType type, boolean isValid, long startTime) {
+		if(metrics != null)
+			metrics.countCheck(type, isValid, startTime);
 	}
 
 	private void checkRoutes(Solution solution, Context context) throws XFVRPException {
@@ -64,32 +326,61 @@ public class EvaluationService {
 	}
 
 	private void checkAndUpdateRoutes(int routeIdx, Solution solution, Context context) throws XFVRPException {
+		checkAndUpdateRoutes(routeIdx, solution, context, false, Float.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * @return false, if the evaluation was stopped early. Then the route quality is not updated.
+	 */
+	private boolean checkAndUpdateRoutes(int routeIdx, Solution solution, Context context, boolean isEarlyExit, float maxCost) throws XFVRPException {
 		Node[] route = solution.getRoutes()[routeIdx];
+		Quality routeQuality = context.getRouteQuality();
 		if(route.length == 0) {
-			solution.setRouteQuality(routeIdx, new Quality(null));
-			return;
+			solution.updateRouteQuality(routeIdx, routeQuality);
+			return true;
 		}
 
 		// Feasibility check
 		FeasibilityAnalzer.checkFeasibility(route);
 
-		Quality routeQuality = checkRoute(routeIdx, route, context);
+		RouteQualityCache cache = context.getRouteQualityCache();
+		if(cache != null && cache.get(route, routeQuality)) {
+			if(statusManager != null)
+				statusManager.countRouteQualityCacheHit();
+		} else {
+			if(statusManager != null && cache != null)
+				statusManager.countRouteQualityCacheMiss();
 
-		solution.setRouteQuality(routeIdx, routeQuality);
-	}
+			// Partial results of an early exit are not cached
+			if(!checkRoute(route, routeQuality, context, isEarlyExit, maxCost))
+				return false;
 
-	private Quality checkRoute(int routeIdx, Node[] route, Context context) throws XFVRPException {
-		RouteQuality q = new RouteQuality(routeIdx, null);
+			if(cache != null)
+				cache.put(route, routeQuality);
+		}
 
-		route = ActiveNodeAnalyzer.getActiveNodes(route);
-		context.setRouteInfos(RouteInfoBuilder.build(route));
+		if(isEarlyExit && (routeQuality.getPenalty() > 0 || routeQuality.getCost() > maxCost))
+			return false;
 
-		context.setCurrentNode(route[0]);
-		beginRoute(route[0], findNextCustomer(route), q, context);
-		context.setNextNode(route[0]);
+		solution.updateRouteQuality(routeIdx, routeQuality);
+		return true;
+	}
 
-		for (int i = 1; i < route.length; i++) {
-			context.setNextNode(route[i]);
+	/**
+	 * @return false, if early exit is active and the evaluation was stopped because the route
+	 * is invalid or too expensive
+	 */
+	private boolean checkRoute(Node[] route, Quality q, Context context, boolean isEarlyExit, float maxCost) throws XFVRPException {
+		Node[] activeRoute = context.getActiveRoute(route.length);
+		int length = ActiveNodeAnalyzer.getActiveNodes(route, activeRoute);
+		RouteInfoBuilder.build(activeRoute, length, context);
+
+		context.setCurrentNode(activeRoute[0]);
+		beginRoute(activeRoute[0], findNextCustomer(activeRoute, length), q, context);
+		context.setNextNode(activeRoute[0]);
+
+		for (int i = 1; i < length; i++) {
+			context.setNextNode(activeRoute[i]);
 
 			// Times and Distances
 			drive(context);
@@ -116,31 +407,67 @@ public class EvaluationService {
 			if(context.getCurrentNode().getSiteType() == SiteType.DEPOT) {
 				finishRoute(q, context);
 			}
+
+			if(isEarlyExit && isAbortable(q, context, maxCost))
+				return false;
 		}
 
 		// Check of block preset penalty after last node
-		int penalty = context.checkPresetBlockCount();
-		q.addPenalty(penalty, Quality.PENALTY_REASON_PRESETTING);
+		if(context.isWithPresets()) {
+			int penalty = context.checkPresetBlockCount();
+			q.addPenalty(penalty, Quality.PENALTY_REASON_PRESETTING);
+		}
+
+		return true;
+	}
+
+	/**
+	 * The penalties for delay, duration and stop count are added at the end of
+	 * a route. But these values never decrease while the route is evaluated, so
+	 * the route can not become valid any more, if they already lead to a penalty.
+	 */
+	private boolean isAbortable(Quality q, Context context, float maxCost) {
+		if(q.getPenalty() > 0)
+			return true;
+
+		Vehicle v = context.getModel().getVehicle();
+		if(Quality.isPenalty(context.getDelay()) ||
+				Quality.isPenalty(context.getDuration() - v.maxRouteDuration) ||
+				Quality.isPenalty(context.getNbrOfStops() - v.maxStopCount))
+			return true;
+
+		// Cost of finished parts of route and driven distance of current part
+		float cost = q.getCost();
+		if(context.getCurrentNode().getSiteType() != SiteType.DEPOT) {
+			cost += context.getLength();
+			if(context.getNbrOfStops() > 0)
+				cost += v.fixCost;
+		}
 
-		return q;
+		return cost > maxCost;
 	}
 
 	private void checkStop(Context context) {
-		if(context.getCurrentNode().getSiteType() == SiteType.CUSTOMER)
+		NodeTable nodes = context.getNodeTable();
+		boolean isCustomer = nodes.getSiteType(context.getCurrentNode().getIdx()) == SiteType.CUSTOMER;
+
+		if(isCustomer)
 			context.addStop();
 
-		if(context.getLastNode().getSiteType() == SiteType.CUSTOMER
-				&& context.getCurrentNode().getSiteType() == SiteType.CUSTOMER
-				&& context.getLastDrivenDistance()[0] == 0)
+		if(isCustomer
+				&& nodes.getSiteType(context.getLastNode().getIdx()) == SiteType.CUSTOMER
+				&& context.getLastDrivenDistance() == 0)
 			context.removeStop();
 	}
 
 	private void checkCapacities(Quality q, Context context) {
+		NodeTable nodes = context.getNodeTable();
+		int idx = context.getCurrentNode().getIdx();
 		float[] amounts = context.getAmountsOfRoute();
 
 		for (int compartment = 0; compartment < context.getNbrOfCompartments(); compartment++) {
-			float delivery = (context.getCurrentNode().getLoadType() == LoadType.DELIVERY) ? context.getCurrentNode().getDemand()[compartment] : 0;
-			float pickup = (context.getCurrentNode().getLoadType() == LoadType.PICKUP) ? context.getCurrentNode().getDemand()[compartment] : 0;
+			float delivery = nodes.getDelivery(idx, compartment);
+			float pickup = nodes.getPickup(idx, compartment);
 
 			int compartmentIdx = compartment * CompartmentLoadType.NBR_OF_LOAD_TYPES;
 			amounts[compartmentIdx + CompartmentLoadType.PICKUP.index()] += pickup;
@@ -154,11 +481,12 @@ public class EvaluationService {
 	}
 
 	private void checkTimeWindow(Quality q, Context context) {
-		Node currentNode = context.getCurrentNode();
+		NodeTable nodes = context.getNodeTable();
+		int idx = context.getCurrentNode().getIdx();
 		XFVRPModel model = context.getModel();
 
 		// Service time at depot should be considered into time window
-		if(model.getParameter().isWithUnloadingTimeAtDepot() && currentNode.getSiteType() == SiteType.DEPOT) {
+		if(model.getParameter().isWithUnloadingTimeAtDepot() && nodes.getSiteType(idx) == SiteType.DEPOT) {
 			float depotServiceTime = context.getUnLoadingServiceTimeAtDepot();
 			context.addToTime(depotServiceTime);
 			context.addToDuration(depotServiceTime);
@@ -176,7 +504,7 @@ public class EvaluationService {
 		if(waiting > model.getVehicle().maxWaitingTime)
 			q.addPenalty(1, Quality.PENALTY_REASON_DURATION);
 
-		float serviceTime = (context.getLastDrivenDistance()[0] == 0) ? currentNode.getServiceTime() : currentNode.getServiceTime() + currentNode.getServiceTimeForSite();
+		float serviceTime = (context.getLastDrivenDistance() == 0) ? nodes.getServiceTime(idx) : nodes.getServiceTime(idx) + nodes.getServiceTimeForSite(idx);
 
 		context.setTimeToTimeWindow(timeWindow);
 		context.addToTime(serviceTime);
@@ -188,9 +516,10 @@ public class EvaluationService {
 	 * for later preset restriction checks.
 	 */
 	private void checkPreset(Quality q, Context context) {
-		Node currNode = context.getCurrentNode();
+		if(!context.isWithPresets())
+			return;
 
-		int blockIndex = currNode.getPresetBlockIdx();
+		int blockIndex = context.getNodeTable().getPresetBlockIdx(context.getCurrentNode().getIdx());
 
 		// Only for non default blocks
 		if(blockIndex > BlockNameConverter.DEFAULT_BLOCK_IDX) {
@@ -226,9 +555,11 @@ public class EvaluationService {
 	}
 
 	private void drive(Context context) {
-		float[] dist = context.getModel().getDistanceAndTime(context.getLastNode(), context.getCurrentNode());
+		XFVRPModel model = context.getModel();
+		Node lastNode = context.getLastNode();
+		Node currentNode = context.getCurrentNode();
 
-		context.drive(dist);
+		context.drive(model.getDistance(lastNode, currentNode), model.getTime(lastNode, currentNode));
 	}
 
 	private void finishRoute(Quality q, Context context) {
@@ -251,8 +582,10 @@ public class EvaluationService {
 
 		// Check for black listed nodes on route
 		// Afterwards reset the arrays for next route
-		int penalty = context.checkPresetBlackList();
-		q.addPenalty(penalty, Quality.PENALTY_REASON_BLACKLIST);
+		if(context.isWithPresets()) {
+			int penalty = context.checkPresetBlackList();
+			q.addPenalty(penalty, Quality.PENALTY_REASON_BLACKLIST);
+		}
 	}
 
 	private void beginRoute(Node newDepot, Node nextNode, Quality q, Context context) throws XFVRPException {
@@ -261,7 +594,8 @@ public class EvaluationService {
 		float penalty = context.createNewRoute(newDepot);
 		q.addPenalty(penalty, Quality.PENALTY_REASON_CAPACITY);
 
-		float earliestDepartureTime = (nextNode != null) ? nextNode.getTimeWindow(0)[0] - model.getTime(newDepot, nextNode) : 0;
+		NodeTable nodes = context.getNodeTable();
+		float earliestDepartureTime = (nextNode != null) ? nodes.getOpenTime(nodes.findTimeWindow(nextNode.getIdx(), 0)) - model.getTime(newDepot, nextNode) : 0;
 
 		// If loading time at depot should be considered, service time of all
 		// deliveries at the route is added to starting time at depot
@@ -272,8 +606,8 @@ public class EvaluationService {
 		context.setDepartureTimeAtDepot(earliestDepartureTime, loadingTimeAtDepot);
 	}
 
-	private Node findNextCustomer(Node[] route) {
-		for (int i = 1; i < route.length; i++) {
+	private Node findNextCustomer(Node[] route, int length) {
+		for (int i = 1; i < length; i++) {
 			if(route[i].getSiteType() == SiteType.CUSTOMER)
 				return route[i];
 		}
@@ -11,17 +11,28 @@ import xf.xfvrp.base.Node;
  **/
 public class RouteInfo {
 
-	private final Node depot;
+	private Node depot;
 	
 	private float loadingServiceTime = 0;
 	private float unLoadingServiceTime = 0;
 	
-	private Amount deliveryAmount = new Amount();
-	private Amount pickupAmount = new Amount();
+	private final Amount deliveryAmount = new Amount();
+	private final Amount pickupAmount = new Amount();
 	
 	public RouteInfo(Node depot) {
 		this.depot = depot;
 	}
+
+	/**
+	 * Resets this route info for reuse with a new depot.
+	 */
+	public void init(Node depot) {
+		this.depot = depot;
+		loadingServiceTime = 0;
+		unLoadingServiceTime = 0;
+		deliveryAmount.clear();
+		pickupAmount.clear();
+	}
 	
 	public void addLoadingServiceTime(float time) {
 		loadingServiceTime += time;
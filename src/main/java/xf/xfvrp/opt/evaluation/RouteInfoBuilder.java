@@ -5,9 +5,6 @@ import xf.xfvrp.base.Node;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.base.exception.XFVRPExceptionType;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Copyright (c) 2012-2021 Holger Schneider
  * All rights reserved.
@@ -17,27 +14,29 @@ import java.util.Map;
  **/
 public class RouteInfoBuilder {
 
-	public static Map<Node, RouteInfo> build(Node[] route) throws XFVRPException {
-		Map<Node, RouteInfo> routeInfos = new HashMap<>();
+	/**
+	 * Builds the route infos of the first length nodes of the route. The
+	 * route infos are stored in the reusable route info array of the context.
+	 */
+	public static void build(Node[] route, int length, Context context) throws XFVRPException {
+		context.clearRouteInfos();
 		RouteInfo routeInfo = null;
 		
-		for (int idx = 0; idx < route.length; idx++) {
+		for (int idx = 0; idx < length; idx++) {
 			Node node = route[idx];
 			
-			routeInfo = createRouteInfo(routeInfos, routeInfo, node);
+			routeInfo = createRouteInfo(context, routeInfo, node);
 		}
-		
-		return routeInfos;
 	}
 
-	private static RouteInfo createRouteInfo(Map<Node, RouteInfo> routeInfos, RouteInfo routeInfo, Node node) throws XFVRPException {
+	private static RouteInfo createRouteInfo(Context context, RouteInfo routeInfo, Node node) throws XFVRPException {
 		switch(node.getSiteType()) {
 			case DEPOT :
 			case REPLENISH :
 				if(routeInfo != null) {
-					routeInfos.put(routeInfo.getDepot(), routeInfo);
+					context.addRouteInfo();
 				}
-				return new RouteInfo(node);
+				return context.nextRouteInfo(node);
 			case CUSTOMER : {
 				changeRouteInfo(node, routeInfo);
 				return routeInfo;
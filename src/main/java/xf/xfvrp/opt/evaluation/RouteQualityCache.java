@@ -0,0 +1,163 @@
+package xf.xfvrp.opt.evaluation;
+
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.Quality;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ * Bounded cache for the qualities of already evaluated routes.
+ *
+ * A route is identified by a rolling hash of its node sequence and the vehicle. Because
+ * of hash collisions, the node sequence of a found entry is compared with the requested
+ * route.
+ *
+ * The cache is organized in sets of a few entries (set associative). A route can only
+ * be stored in the set of its hash. If a set is full, an entry is replaced by the CLOCK
+ * strategy: Each access marks an entry as referenced. The clock hand of the set skips and
+ * unmarks referenced entries and replaces the first unreferenced entry.
+ *
+ * All entries are allocated at creation, so adding routes creates no objects, as long
+ * as the stored routes are not longer than before.
+ *
+ * The cache is not thread-safe.
+ *
+ * @author hschneid
+ *
+ */
+public class RouteQualityCache {
+
+	private static final int NBR_OF_WAYS = 4;
+
+	private final int vehicleIdx;
+	private final int setMask;
+
+	private final long[] hashes;
+	private final Node[][] routes;
+	private final int[] lengths;
+	private final Quality[] qualities;
+	private final boolean[] isReferenced;
+	private final int[] clockHands;
+
+	/**
+	 * @param size Maximal number of cached routes. It is rounded up to a power of two (at least 4).
+	 * @param vehicleIdx Index of the vehicle of the evaluated routes
+	 */
+	public RouteQualityCache(int size, int vehicleIdx) {
+		this.vehicleIdx = vehicleIdx;
+
+		int nbrOfSets = 1;
+		while(nbrOfSets * NBR_OF_WAYS < size)
+			nbrOfSets <<= 1;
+		int capacity = nbrOfSets * NBR_OF_WAYS;
+
+		setMask = nbrOfSets - 1;
+		hashes = new long[capacity];
+		routes = new Node[capacity][];
+		lengths = new int[capacity];
+		qualities = new Quality[capacity];
+		isReferenced = new boolean[capacity];
+		clockHands = new int[nbrOfSets];
+		for (int i = 0; i < capacity; i++) {
+			routes[i] = new Node[0];
+			lengths[i] = -1;
+			qualities[i] = new Quality();
+		}
+	}
+
+	/**
+	 * Searches the quality of the given route.
+	 *
+	 * @return true, if the route was found. Then the quality is written into result.
+	 */
+	public boolean get(Node[] route, Quality result) {
+		long hash = hash(route);
+
+		int offset = getSet(hash) * NBR_OF_WAYS;
+		for (int i = offset; i < offset + NBR_OF_WAYS; i++) {
+			if(hashes[i] == hash && isSameRoute(i, route)) {
+				isReferenced[i] = true;
+				result.set(qualities[i]);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Stores the quality of a completely evaluated route. If the set of the
+	 * route is full, an entry is replaced.
+	 */
+	public void put(Node[] route, Quality quality) {
+		long hash = hash(route);
+
+		int set = getSet(hash);
+		int idx = findFreeEntry(set);
+
+		if(routes[idx].length < route.length)
+			routes[idx] = new Node[route.length];
+		System.arraycopy(route, 0, routes[idx], 0, route.length);
+		lengths[idx] = route.length;
+		hashes[idx] = hash;
+		qualities[idx].set(quality);
+		isReferenced[idx] = false;
+	}
+
+	/**
+	 * @return maximal number of routes in this cache
+	 */
+	public int getCapacity() {
+		return hashes.length;
+	}
+
+	private int findFreeEntry(int set) {
+		int offset = set * NBR_OF_WAYS;
+		for (int i = offset; i < offset + NBR_OF_WAYS; i++) {
+			if(lengths[i] == -1)
+				return i;
+		}
+
+		// Clock: Give referenced entries a second chance
+		while(true) {
+			int idx = offset + clockHands[set];
+			clockHands[set] = (clockHands[set] + 1) % NBR_OF_WAYS;
+
+			if(!isReferenced[idx])
+				return idx;
+			isReferenced[idx] = false;
+		}
+	}
+
+	private boolean isSameRoute(int idx, Node[] route) {
+		if(lengths[idx] != route.length)
+			return false;
+
+		Node[] cachedRoute = routes[idx];
+		for (int i = 0; i < route.length; i++) {
+			if(cachedRoute[i] != route[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	private int getSet(long hash) {
+		return (int)(hash ^ (hash >>> 32)) & setMask;
+	}
+
+	private long hash(Node[] route) {
+		long hash = vehicleIdx;
+		for (int i = 0; i < route.length; i++)
+			hash = hash * 1_000_003L + route[i].getIdx();
+
+		// Spread the bits for the selection of the set
+		hash ^= (hash >>> 29);
+		hash *= 0xBF58476D1CE4E5B9L;
+		return hash ^ (hash >>> 32);
+	}
+}
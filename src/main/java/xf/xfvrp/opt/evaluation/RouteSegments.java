@@ -0,0 +1,66 @@
+package xf.xfvrp.opt.evaluation;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ * Holds the forward (prefix) and backward (suffix) segments of a single route.
+ *
+ * prefix[i] summarizes the nodes 0..i and suffix[i] the nodes i..length-1
+ * of the route. The segment objects are kept for reuse, if the route is
+ * rebuilt with a length, which is not greater than the current capacity.
+ *
+ * @author hschneid
+ *
+ */
+public class RouteSegments {
+
+	private final int nbrOfCompartments;
+
+	private Segment[] prefix = new Segment[0];
+	private Segment[] suffix = new Segment[0];
+	private int length;
+
+	public RouteSegments(int nbrOfCompartments) {
+		this.nbrOfCompartments = nbrOfCompartments;
+	}
+
+	/**
+	 * Prepares this container for a route with given length.
+	 */
+	void reset(int length) {
+		if(prefix.length < length) {
+			Segment[] newPrefix = new Segment[length];
+			Segment[] newSuffix = new Segment[length];
+			System.arraycopy(prefix, 0, newPrefix, 0, prefix.length);
+			System.arraycopy(suffix, 0, newSuffix, 0, suffix.length);
+			for (int i = prefix.length; i < length; i++) {
+				newPrefix[i] = new Segment(nbrOfCompartments);
+				newSuffix[i] = new Segment(nbrOfCompartments);
+			}
+			prefix = newPrefix;
+			suffix = newSuffix;
+		}
+
+		this.length = length;
+	}
+
+	public Segment getPrefix(int pos) {
+		return prefix[pos];
+	}
+
+	public Segment getSuffix(int pos) {
+		return suffix[pos];
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	int getNbrOfCompartments() {
+		return nbrOfCompartments;
+	}
+}
@@ -0,0 +1,128 @@
+package xf.xfvrp.opt.evaluation;
+
+import xf.xfvrp.base.Node;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ * A segment is a resource summary of a consecutive node sequence of a route.
+ *
+ * It holds the values, which are needed to evaluate the concatenation
+ * of two segments in constant time:
+ * 	- minimal duration, time warp, earliest and latest start time
+ * 	- driven distance and number of stops
+ * 	- picked up and delivered amount per compartment
+ *
+ * Segments are mutable to reuse them during search without allocation.
+ *
+ * @author hschneid
+ *
+ */
+public class Segment {
+
+	float duration;
+	float timeWarp;
+	float earliest;
+	float latest;
+	float distance;
+	int nbrOfStops;
+	int nbrOfCustomers;
+	final float[] pickup;
+	final float[] delivery;
+
+	Node first;
+	Node last;
+
+	public Segment(int nbrOfCompartments) {
+		pickup = new float[nbrOfCompartments];
+		delivery = new float[nbrOfCompartments];
+	}
+
+	/**
+	 * Copies all values of other segment into this segment.
+	 */
+	void set(Segment other) {
+		duration = other.duration;
+		timeWarp = other.timeWarp;
+		earliest = other.earliest;
+		latest = other.latest;
+		distance = other.distance;
+		nbrOfStops = other.nbrOfStops;
+		nbrOfCustomers = other.nbrOfCustomers;
+		System.arraycopy(other.pickup, 0, pickup, 0, pickup.length);
+		System.arraycopy(other.delivery, 0, delivery, 0, delivery.length);
+		first = other.first;
+		last = other.last;
+	}
+
+	/**
+	 * Resets this segment to an empty node sequence.
+	 */
+	void clear() {
+		duration = 0;
+		timeWarp = 0;
+		earliest = 0;
+		latest = Float.POSITIVE_INFINITY;
+		distance = 0;
+		nbrOfStops = 0;
+		nbrOfCustomers = 0;
+		Arrays.fill(pickup, 0);
+		Arrays.fill(delivery, 0);
+		first = null;
+		last = null;
+	}
+
+	public boolean isEmpty() {
+		return first == null;
+	}
+
+	public float getDuration() {
+		return duration;
+	}
+
+	public float getTimeWarp() {
+		return timeWarp;
+	}
+
+	public float getEarliest() {
+		return earliest;
+	}
+
+	public float getLatest() {
+		return latest;
+	}
+
+	public float getDistance() {
+		return distance;
+	}
+
+	public int getNbrOfStops() {
+		return nbrOfStops;
+	}
+
+	public int getNbrOfCustomers() {
+		return nbrOfCustomers;
+	}
+
+	public float[] getPickup() {
+		return pickup;
+	}
+
+	public float[] getDelivery() {
+		return delivery;
+	}
+
+	public Node getFirst() {
+		return first;
+	}
+
+	public Node getLast() {
+		return last;
+	}
+}
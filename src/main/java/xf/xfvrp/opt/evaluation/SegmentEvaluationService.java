@@ -0,0 +1,501 @@
+package xf.xfvrp.opt.evaluation;
+
+import xf.xfvrp.base.*;
+import xf.xfvrp.base.quality.RouteQuality;
+import xf.xfvrp.opt.Solution;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ * Estimates the feasibility and the cost of route based neighborhood
+ * changes in constant time by concatenating precomputed segments
+ * of the routes (prefixes and suffixes). Only short moved segments
+ * or intermediate sequences of intra route changes are concatenated node by node.
+ *
+ * The estimation is a relaxation of the full evaluation in the EvaluationService:
+ * 	- Multiple time windows are relaxed to the hull of all windows
+ * 	- Service times for sites, driver shifts and max waiting times are ignored
+ *  - Preset restrictions are ignored
+ * So a change, which is rejected here, can never be valid and improving. A change,
+ * which is accepted here, must be confirmed by the full evaluation.
+ *
+ * For models with replenishment or loading/unloading times at depot the
+ * estimation is switched off and every change is accepted.
+ *
+ * @author hschneid
+ *
+ */
+public class SegmentEvaluationService {
+
+	private static final float EPSILON = 0.001f;
+
+	private XFVRPModel model;
+	private Solution solution;
+	private boolean isActive = false;
+
+	private RouteSegments[] routeSegments = new RouteSegments[0];
+	private RouteSegments insertionSegments;
+
+	private Segment acc;
+	private Segment nodeSegment;
+	private Segment middleSegment;
+	private Segment pickupSegment;
+	private Segment deliverySegment;
+	private float estimatedCost;
+
+	/**
+	 * Builds the prefix and suffix segments for all routes of the given solution.
+	 *
+	 * The segments stay valid as long as the node sequences of the routes
+	 * are not changed (or are restored after a change).
+	 */
+	public void init(Solution solution, XFVRPModel model) {
+		this.model = model;
+		this.solution = solution;
+		this.isActive = isApplicable(model);
+		if(!isActive)
+			return;
+
+		int nbrOfCompartments = initSegments(model);
+
+		Node[][] routes = solution.getRoutes();
+		if(routeSegments.length < routes.length) {
+			RouteSegments[] newRouteSegments = new RouteSegments[routes.length];
+			System.arraycopy(routeSegments, 0, newRouteSegments, 0, routeSegments.length);
+			for (int i = routeSegments.length; i < routes.length; i++)
+				newRouteSegments[i] = new RouteSegments(nbrOfCompartments);
+			routeSegments = newRouteSegments;
+		}
+
+		for (int i = 0; i < routes.length; i++)
+			build(routes[i], routeSegments[i]);
+	}
+
+	/**
+	 * Estimates the insertion of a node before each position 1 to route.length - 1 of a single
+	 * route, where the first and the last node of the route are depots. Each position is
+	 * estimated in constant time by concatenating prefix, node and suffix of the route.
+	 *
+	 * @param isFeasible Is written for each position, whether the insertion can be valid
+	 * @param costDeltas Is written for each position with the estimated additional cost
+	 */
+	public void estimateInsertions(Node[] route, Node node, XFVRPModel model, boolean[] isFeasible, float[] costDeltas) {
+		prepareInsertions(route, model);
+
+		float currentCost = getSegmentCost(insertionSegments.getPrefix(route.length - 1));
+		initNode(nodeSegment, node, false);
+
+		for (int pos = 1; pos < route.length; pos++) {
+			acc.set(insertionSegments.getPrefix(pos - 1));
+			concat(acc, nodeSegment);
+			concat(acc, insertionSegments.getSuffix(pos));
+
+			isFeasible[pos] = finish();
+			costDeltas[pos] = getSegmentCost(acc) - currentCost;
+		}
+	}
+
+	/**
+	 * Estimates the insertion of a pickup before each position i and a delivery before each
+	 * position j (1 <= i <= j < route.length) of a single route. If i is equal to j, the
+	 * delivery is inserted directly after the pickup. The nodes between the pickup and the
+	 * delivery are accumulated incrementally, so each pair of positions is estimated in constant time.
+	 *
+	 * @param isFeasible Is written for each pair [i][j], whether the insertion can be valid
+	 * @param costDeltas Is written for each pair [i][j] with the estimated additional cost
+	 */
+	public void estimateInsertions(Node[] route, Node pickup, Node delivery, XFVRPModel model, boolean[][] isFeasible, float[][] costDeltas) {
+		prepareInsertions(route, model);
+
+		float currentCost = getSegmentCost(insertionSegments.getPrefix(route.length - 1));
+		initNode(pickupSegment, pickup, false);
+		initNode(deliverySegment, delivery, false);
+
+		for (int i = 1; i < route.length; i++) {
+			middleSegment.clear();
+			for (int j = i; j < route.length; j++) {
+				if(j > i) {
+					initNode(nodeSegment, route[j - 1], false);
+					concat(middleSegment, nodeSegment);
+				}
+
+				acc.set(insertionSegments.getPrefix(i - 1));
+				concat(acc, pickupSegment);
+				concat(acc, middleSegment);
+				concat(acc, deliverySegment);
+				concat(acc, insertionSegments.getSuffix(j));
+
+				isFeasible[i][j] = finish();
+				costDeltas[i][j] = getSegmentCost(acc) - currentCost;
+			}
+		}
+	}
+
+	/**
+	 * The estimation is only valid for models, where the resources of a route
+	 * are accumulated strictly from start to end.
+	 */
+	public static boolean isApplicable(XFVRPModel model) {
+		return model != null &&
+				model.getVehicle() != null &&
+				model.getParameter() != null &&
+				model.getNbrOfReplenish() == 0 &&
+				!model.getParameter().isWithLoadingTimeAtDepot() &&
+				!model.getParameter().isWithUnloadingTimeAtDepot();
+	}
+
+	public boolean isActive() {
+		return isActive;
+	}
+
+	public RouteSegments getRouteSegments(int routeIdx) {
+		return routeSegments[routeIdx];
+	}
+
+	/**
+	 * Estimates, whether moving the segment from srcPos to srcPos + segmentLength (both inclusive)
+	 * before the dstPos can lead to a valid and improving solution.
+	 */
+	public boolean isMovePromising(int srcRouteIdx, int dstRouteIdx, int srcPos, int dstPos, int segmentLength, boolean isInverted) {
+		if(!isActive)
+			return true;
+
+		Node[][] routes = solution.getRoutes();
+		int srcEnd = srcPos + segmentLength;
+
+		float newCost;
+		float oldCost;
+		if(srcRouteIdx != dstRouteIdx) {
+			int srcLength = routes[srcRouteIdx].length;
+			int dstLength = routes[dstRouteIdx].length;
+
+			begin();
+			append(srcRouteIdx, 0, srcPos - 1, false);
+			append(srcRouteIdx, srcEnd + 1, srcLength - 1, false);
+			if(!finish())
+				return false;
+			newCost = estimatedCost;
+
+			begin();
+			append(dstRouteIdx, 0, dstPos - 1, false);
+			append(srcRouteIdx, srcPos, srcEnd, isInverted);
+			append(dstRouteIdx, dstPos, dstLength - 1, false);
+			if(!finish())
+				return false;
+			newCost += estimatedCost;
+
+			oldCost = getCost(srcRouteIdx) + getCost(dstRouteIdx);
+		} else {
+			int length = routes[srcRouteIdx].length;
+
+			begin();
+			if(dstPos < srcPos) {
+				append(srcRouteIdx, 0, dstPos - 1, false);
+				append(srcRouteIdx, srcPos, srcEnd, isInverted);
+				append(srcRouteIdx, dstPos, srcPos - 1, false);
+				append(srcRouteIdx, srcEnd + 1, length - 1, false);
+			} else {
+				append(srcRouteIdx, 0, srcPos - 1, false);
+				append(srcRouteIdx, srcEnd + 1, dstPos - 1, false);
+				append(srcRouteIdx, srcPos, srcEnd, isInverted);
+				append(srcRouteIdx, dstPos, length - 1, false);
+			}
+			if(!finish())
+				return false;
+			newCost = estimatedCost;
+
+			oldCost = getCost(srcRouteIdx);
+		}
+
+		return isImproving(newCost, oldCost);
+	}
+
+	/**
+	 * Estimates, whether exchanging the segment A (aPos to aPos + aSegmentLength) with
+	 * segment B (bPos to bPos + bSegmentLength) can lead to a valid and improving solution.
+	 */
+	public boolean isSwapPromising(int aRouteIdx, int bRouteIdx, int aPos, int bPos, int aSegmentLength, int bSegmentLength, boolean isAInverted, boolean isBInverted) {
+		if(!isActive)
+			return true;
+
+		// Segment A is always before segment B in same route
+		if(aRouteIdx == bRouteIdx && bPos < aPos) {
+			int tmp = aPos; aPos = bPos; bPos = tmp;
+			tmp = aSegmentLength; aSegmentLength = bSegmentLength; bSegmentLength = tmp;
+			boolean tmpInvert = isAInverted; isAInverted = isBInverted; isBInverted = tmpInvert;
+		}
+
+		Node[][] routes = solution.getRoutes();
+		int aEnd = aPos + aSegmentLength;
+		int bEnd = bPos + bSegmentLength;
+
+		float newCost;
+		float oldCost;
+		if(aRouteIdx != bRouteIdx) {
+			begin();
+			append(aRouteIdx, 0, aPos - 1, false);
+			append(bRouteIdx, bPos, bEnd, isBInverted);
+			append(aRouteIdx, aEnd + 1, routes[aRouteIdx].length - 1, false);
+			if(!finish())
+				return false;
+			newCost = estimatedCost;
+
+			begin();
+			append(bRouteIdx, 0, bPos - 1, false);
+			append(aRouteIdx, aPos, aEnd, isAInverted);
+			append(bRouteIdx, bEnd + 1, routes[bRouteIdx].length - 1, false);
+			if(!finish())
+				return false;
+			newCost += estimatedCost;
+
+			oldCost = getCost(aRouteIdx) + getCost(bRouteIdx);
+		} else {
+			begin();
+			append(aRouteIdx, 0, aPos - 1, false);
+			append(aRouteIdx, bPos, bEnd, isBInverted);
+			append(aRouteIdx, aEnd + 1, bPos - 1, false);
+			append(aRouteIdx, aPos, aEnd, isAInverted);
+			append(aRouteIdx, bEnd + 1, routes[aRouteIdx].length - 1, false);
+			if(!finish())
+				return false;
+			newCost = estimatedCost;
+
+			oldCost = getCost(aRouteIdx);
+		}
+
+		return isImproving(newCost, oldCost);
+	}
+
+	/**
+	 * Resets the accumulated segment for a new estimated route.
+	 */
+	void begin() {
+		acc.clear();
+	}
+
+	/**
+	 * Appends the nodes from position start to end (both inclusive) of a route
+	 * to the accumulated segment. Prefixes and suffixes are concatenated in constant time.
+	 */
+	void append(int routeIdx, int start, int end, boolean isInverted) {
+		if(end < start)
+			return;
+
+		RouteSegments segments = routeSegments[routeIdx];
+		if(!isInverted && start == 0) {
+			concat(acc, segments.getPrefix(end));
+		} else if(!isInverted && end == segments.getLength() - 1) {
+			concat(acc, segments.getSuffix(start));
+		} else {
+			Node[] route = solution.getRoutes()[routeIdx];
+			if(isInverted) {
+				for (int i = end; i >= start; i--) {
+					initNode(nodeSegment, route[i], false);
+					concat(acc, nodeSegment);
+				}
+			} else {
+				for (int i = start; i <= end; i++) {
+					initNode(nodeSegment, route[i], false);
+					concat(acc, nodeSegment);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks the accumulated segment against the restrictions of the vehicle
+	 * and memorizes the estimated cost.
+	 *
+	 * @return false, if the accumulated route can not be valid
+	 */
+	boolean finish() {
+		Vehicle vehicle = model.getVehicle();
+
+		if(acc.timeWarp > EPSILON * Math.max(1, Math.abs(acc.earliest) + acc.duration))
+			return false;
+		if(exceeds(acc.duration, vehicle.maxRouteDuration))
+			return false;
+		if(acc.nbrOfStops > vehicle.maxStopCount)
+			return false;
+
+		for (int compartment = 0; compartment < acc.pickup.length; compartment++) {
+			int compartmentIdx = compartment * CompartmentLoadType.NBR_OF_LOAD_TYPES;
+			float pickup = acc.pickup[compartment];
+			float delivery = acc.delivery[compartment];
+
+			if(pickup == 0 && delivery > 0 && exceeds(delivery, vehicle.capacity[compartmentIdx + CompartmentLoadType.DELIVERY.index()]))
+				return false;
+			if(pickup > 0 && delivery == 0 && exceeds(pickup, vehicle.capacity[compartmentIdx + CompartmentLoadType.PICKUP.index()]))
+				return false;
+			// At the end of a mixed route all deliveries are unloaded and all pickups are loaded
+			if(pickup > 0 && delivery > 0 && exceeds(pickup, vehicle.capacity[compartmentIdx + CompartmentLoadType.MIXED.index()]))
+				return false;
+		}
+
+		estimatedCost = getSegmentCost(acc);
+
+		return true;
+	}
+
+	private float getSegmentCost(Segment segment) {
+		return segment.distance + ((segment.nbrOfCustomers > 0) ? model.getVehicle().fixCost : 0);
+	}
+
+	private void prepareInsertions(Node[] route, XFVRPModel model) {
+		this.model = model;
+		int nbrOfCompartments = initSegments(model);
+
+		if(insertionSegments == null)
+			insertionSegments = new RouteSegments(nbrOfCompartments);
+		build(route, insertionSegments);
+	}
+
+	/**
+	 * Creates the reusable segments, if the number of compartments has changed.
+	 *
+	 * @return number of compartments of the model
+	 */
+	private int initSegments(XFVRPModel model) {
+		int nbrOfCompartments = getNbrOfCompartments(model);
+		if(acc == null || acc.pickup.length != nbrOfCompartments) {
+			acc = new Segment(nbrOfCompartments);
+			nodeSegment = new Segment(nbrOfCompartments);
+			middleSegment = new Segment(nbrOfCompartments);
+			pickupSegment = new Segment(nbrOfCompartments);
+			deliverySegment = new Segment(nbrOfCompartments);
+			routeSegments = new RouteSegments[0];
+			insertionSegments = null;
+		}
+
+		return nbrOfCompartments;
+	}
+
+	/**
+	 * @return estimated cost of the last successfully finished route
+	 */
+	float getEstimatedCost() {
+		return estimatedCost;
+	}
+
+	/**
+	 * Builds the prefix and suffix segments of a single route.
+	 */
+	private void build(Node[] route, RouteSegments segments) {
+		segments.reset(route.length);
+		if(route.length == 0)
+			return;
+
+		initNode(segments.getPrefix(0), route[0], true);
+		for (int i = 1; i < route.length; i++) {
+			Segment prefix = segments.getPrefix(i);
+			prefix.set(segments.getPrefix(i - 1));
+			initNode(nodeSegment, route[i], false);
+			concat(prefix, nodeSegment);
+		}
+
+		initNode(segments.getSuffix(route.length - 1), route[route.length - 1], false);
+		for (int i = route.length - 2; i >= 0; i--) {
+			Segment suffix = segments.getSuffix(i);
+			initNode(suffix, route[i], false);
+			concat(suffix, segments.getSuffix(i + 1));
+		}
+	}
+
+	/**
+	 * Concatenates segment b at the end of segment a. The result is written into a.
+	 */
+	void concat(Segment a, Segment b) {
+		if(b.isEmpty())
+			return;
+		if(a.isEmpty()) {
+			a.set(b);
+			return;
+		}
+
+		float distance = model.getDistance(a.last, b.first);
+		float time = model.getTime(a.last, b.first);
+
+		float delta = a.duration - a.timeWarp + time;
+		float deltaWaitingTime = Math.max(b.earliest - delta - a.latest, 0);
+		float deltaTimeWarp = Math.max(a.earliest + delta - b.latest, 0);
+
+		a.duration = a.duration + b.duration + time + deltaWaitingTime;
+		a.timeWarp = a.timeWarp + b.timeWarp + deltaTimeWarp;
+		a.earliest = Math.max(b.earliest - delta, a.earliest) - deltaWaitingTime;
+		a.latest = Math.min(b.latest - delta, a.latest) + deltaTimeWarp;
+		a.distance = a.distance + b.distance + distance;
+
+		// Two customers at same location count as one stop
+		a.nbrOfStops += b.nbrOfStops;
+		if(distance == 0 && a.last.getSiteType() == SiteType.CUSTOMER && b.first.getSiteType() == SiteType.CUSTOMER)
+			a.nbrOfStops--;
+		a.nbrOfCustomers += b.nbrOfCustomers;
+
+		for (int i = 0; i < a.pickup.length; i++) {
+			a.pickup[i] += b.pickup[i];
+			a.delivery[i] += b.delivery[i];
+		}
+
+		a.last = b.last;
+	}
+
+	/**
+	 * Initializes a segment with a single node. A starting depot
+	 * has no service time and no latest departure time.
+	 */
+	void initNode(Segment segment, Node node, boolean isStartDepot) {
+		NodeTable nodes = model.getNodeTable();
+		int idx = node.getIdx();
+
+		segment.clear();
+		segment.first = node;
+		segment.last = node;
+
+		int firstTimeWindow = nodes.getFirstTimeWindow(idx);
+		int lastTimeWindow = nodes.getLastTimeWindow(idx);
+		if(isStartDepot) {
+			segment.earliest = nodes.getOpenTime(firstTimeWindow);
+		} else {
+			segment.duration = nodes.getServiceTime(idx);
+			float earliest = Float.POSITIVE_INFINITY;
+			float latest = Float.NEGATIVE_INFINITY;
+			for (int i = firstTimeWindow; i <= lastTimeWindow; i++) {
+				earliest = Math.min(earliest, nodes.getOpenTime(i));
+				latest = Math.max(latest, nodes.getCloseTime(i));
+			}
+			segment.earliest = earliest;
+			segment.latest = latest;
+		}
+
+		if(nodes.getSiteType(idx) == SiteType.CUSTOMER) {
+			segment.nbrOfStops = 1;
+			segment.nbrOfCustomers = 1;
+		}
+
+		for (int compartment = 0; compartment < segment.pickup.length; compartment++) {
+			segment.pickup[compartment] = nodes.getPickup(idx, compartment);
+			segment.delivery[compartment] = nodes.getDelivery(idx, compartment);
+		}
+	}
+
+	private float getCost(int routeIdx) {
+		RouteQuality quality = solution.getRouteQualities()[routeIdx];
+		return (quality != null) ? quality.getCost() : Float.MAX_VALUE;
+	}
+
+	private boolean isImproving(float newCost, float oldCost) {
+		return newCost < oldCost + EPSILON * Math.max(1, Math.abs(oldCost));
+	}
+
+	private boolean exceeds(float value, float limit) {
+		return value > limit + EPSILON * Math.max(1, Math.abs(limit));
+	}
+
+	private static int getNbrOfCompartments(XFVRPModel model) {
+		return model.getVehicle().capacity.length / CompartmentLoadType.NBR_OF_LOAD_TYPES;
+	}
+}
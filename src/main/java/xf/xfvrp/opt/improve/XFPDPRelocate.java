@@ -46,14 +46,16 @@ public class XFPDPRelocate extends XFVRPOptImpBase {
 
 		// Finde die erste valide verbessernde L�sung
 		for (float[] val : improvements) {
+			solution.begin();
 			change(solution, val);
 
 			Quality result = checkIt(solution);
 			if(result != null && result.getFitness() < bestResult.getFitness()) {
+				solution.commit();
 				return result;
 			}
 
-			reverseChange(solution, val);
+			solution.rollback();
 		}
 
 		return null;
@@ -68,40 +70,6 @@ public class XFPDPRelocate extends XFVRPOptImpBase {
 		shipmentMove(solution, srcA, srcB, dstA, dstB);
 	}
 
-	public void reverseChange(Solution solution, float[] val) {
-		int srcA = (int) val[0];
-		int srcB = (int) val[1];
-		int dstA = (int) val[2];
-		int dstB = (int) val[3];
-		
-		int srcAOffset = 0;
-		int srcBOffset = 0;
-		int dstAOffset = 0;
-		int dstBOffset = 0;
-		
-		dstAOffset += (dstA > srcB) ? -1 : 0;
-		dstAOffset += (dstA > srcA) ? -1 : 0;
-		dstBOffset += (dstB > srcA && dstB > srcB) ? -1 : 0;
-		dstBOffset += (dstB < srcA && dstB < srcB) ? 1 : 0;
-		srcAOffset += (srcA > dstB) ? 2 : 0;
-		srcAOffset += (srcA > dstA && srcA < dstB) ? 1 : 0;
-		srcBOffset += (srcB > dstA) ? 1 : 0;
-		srcBOffset += (srcB > dstB) ? 0 : -1;
-		
-		srcA += srcAOffset;
-		srcB += srcBOffset;
-		dstA += dstAOffset;
-		dstB += dstBOffset;
-
-		srcA += (srcA == dstA) ? 1 : 0;
-		srcA += (srcA == dstB) ? 1 : 0;
-		
-		srcB += (srcB == dstA) ? 1 : 0;
-		srcB += (srcB == dstB) ? 1 : 0;
-		
-		shipmentMove(solution, dstA, dstB, srcA, srcB);
-	}
-
 	/**
 	 * Searches all improving valid steps in search space for a VRP with one depot.
 	 */
@@ -125,6 +93,10 @@ public class XFPDPRelocate extends XFVRPOptImpBase {
 			int srcB = shipmentPositions[srcA];
 
 			for (int dstA = 1; dstA < route.length; dstA++) {
+				// In granular search the pickup needs a granular new connection
+				if(!model.isGranular(route[dstA - 1], route[srcA]) && !model.isGranular(route[srcA], route[dstA]))
+					continue;
+
 				for (int dstB = dstA; dstB < route.length; dstB++) {
 					// Destinations must be on same route
 					if(routeIdx[dstA] != routeIdx[dstB])
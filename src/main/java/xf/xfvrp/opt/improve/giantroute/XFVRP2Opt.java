@@ -49,13 +49,16 @@ public class XFVRP2Opt extends XFVRPOptImpBase {
 			int i = (int) val[0];
 			int j = (int) val[1];
 
+			solution.begin();
 			swap(solution, i, j);
 
 			Quality result = checkIt(solution);
-			if(result != null && result.getFitness() < bestResult.getFitness())
+			if(result != null && result.getFitness() < bestResult.getFitness()) {
+				solution.commit();
 				return result;
+			}
 
-			swap(solution, i, j);
+			solution.rollback();
 		}
 
 		return null;
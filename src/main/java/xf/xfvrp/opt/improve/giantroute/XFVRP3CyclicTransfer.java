@@ -43,13 +43,16 @@ public class XFVRP3CyclicTransfer extends XFVRPOptImpBase {
 
 		// Finde die erste valide verbessernde L�sung
 		for (float[] val : improvingStepList) {
+			solution.begin();
 			change(solution, val);
 
 			Quality result = checkIt(solution);
-			if(result != null && result.getFitness() < bestResult.getFitness())
+			if(result != null && result.getFitness() < bestResult.getFitness()) {
+				solution.commit();
 				return result;
+			}
 
-			reverseChange(solution, val);
+			solution.rollback();
 		}
 
 		return null;
@@ -64,15 +67,6 @@ public class XFVRP3CyclicTransfer extends XFVRPOptImpBase {
 		exchange(solution, a,c);
 	}
 
-	private void reverseChange(Solution solution, float[] val) {
-		int a = (int) val[0];
-		int b = (int) val[1];
-		int c = (int) val[2];
-
-		exchange(solution, a,c);
-		exchange(solution, a,b);
-	}
-
 	private List<float[]> search(Node[] giantTour) {
 		List<float[]> improvingStepList = new ArrayList<>();
 
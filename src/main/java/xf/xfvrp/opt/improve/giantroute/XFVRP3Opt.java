@@ -46,14 +46,16 @@ public class XFVRP3Opt extends XFVRPOptImpBase {
 
 		// Finde die erste valide verbessernde L�sung
 		for (float[] val : improvingStepList) {
+			solution.begin();
 			change(solution, val);
 			
 			Quality result = checkIt(solution);
 			if(result != null && result.getFitness() < bestResult.getFitness()) {
+				solution.commit();
 				return result;
 			}
 
-			reverseChange(solution, val);
+			solution.rollback();
 		}
 
 		return null;
@@ -107,36 +109,12 @@ public class XFVRP3Opt extends XFVRPOptImpBase {
 			swap(solution, a + 1, c);
 			break;
 		}
-		case 7 : {
-			// Revert move of case 3
-			swap(solution, a + 1, c);
-			swap(solution, a + 1, b);
-			swap(solution, b + 1, c);
-			break;
-		}
-		case 8 : {
-			// Revert move of case 4
-			swap(solution, a + 1, c);
-			swap(solution, b + 1, c);
-			break;
-		}
-		case 9 : {
-			// Revert move of case 5
-			swap(solution, a + 1, c);
-			swap(solution, a + 1, b);
-			break;
-		}
 		default:
 			// Nothing to do
 			break;
 		}
 	}
 
-	private void reverseChange(Solution solution, float[] val) {
-		val[3] = modifyForReverseChange((int) val[3]);
-		change(solution, val);
-	}
-
 	private List<float[]> search(Node[] giantRoute) {
 		List<float[]> improvingStepList = new ArrayList<>();
 		
@@ -152,18 +130,35 @@ public class XFVRP3Opt extends XFVRPOptImpBase {
 	}
 
 	private void findImprovements(Node[] giantTour, int a, int b, int c, List<float[]> impList) {
+		// In granular search a change needs a granular new connection
+		boolean isGranularA = true;
+		boolean isGranularB = true;
+		if(model.isGranularSearch()) {
+			isGranularA = model.isGranular(giantTour[a], giantTour[b]) ||
+					model.isGranular(giantTour[a], giantTour[b + 1]) ||
+					model.isGranular(giantTour[a], giantTour[c]);
+			isGranularB = model.isGranular(giantTour[b], giantTour[c]) ||
+					model.isGranular(giantTour[b + 1], giantTour[c + 1]);
+			if(!isGranularA && !isGranularB)
+				return;
+		}
+
 		final float old = getDistanceForOptimization(giantTour[a], giantTour[a + 1]) +
 				getDistanceForOptimization(giantTour[b], giantTour[b + 1]) +
 				getDistanceForOptimization(giantTour[c], giantTour[c + 1]);
 
 		float val;
 		// Invert (b + 1 - c)
-		if (c - b > 1) {
+		if (c - b > 1 && isGranularB) {
 			val = old - (getDistanceForOptimization(giantTour[a], giantTour[a + 1]) +
 					getDistanceForOptimization(giantTour[b], giantTour[c]) +
 					getDistanceForOptimization(giantTour[b + 1], giantTour[c + 1]));
 			if (val > epsilon) impList.add(new float[]{a, b, c, 0, val});
 		}
+		// All other changes have a new connection at a
+		if(!isGranularA)
+			return;
+
 		// Invert (a + 1 - b)
 		if (b - a > 1) {
 			val = old - (getDistanceForOptimization(giantTour[a], giantTour[b]) +
@@ -208,13 +203,4 @@ public class XFVRP3Opt extends XFVRPOptImpBase {
 		}
 	}
 
-	private int modifyForReverseChange(int m) {
-		switch(m) {
-		case 3 : {return 7;}
-		case 4 : {return 8;}
-		case 5 : {return 9;}
-		default : {return m;}
-		}
-	}
-
 }
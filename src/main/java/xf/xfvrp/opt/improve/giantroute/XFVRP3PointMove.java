@@ -38,13 +38,16 @@ public class XFVRP3PointMove extends XFVRPOptImpBase {
 
 		// Finde die erste valide verbessernde L�sung
 		for (float[] val : improvingStepList) {
+			solution.begin();
 			change(solution, val);
 
 			Quality result = checkIt(solution);
-			if(result != null && result.getFitness() < bestResult.getFitness())
+			if(result != null && result.getFitness() < bestResult.getFitness()) {
+				solution.commit();
 				return result;
+			}
 
-			reverseChange(solution, val);
+			solution.rollback();
 		}
 
 		return null;
@@ -57,16 +60,6 @@ public class XFVRP3PointMove extends XFVRPOptImpBase {
 		swap3Point(solution, a, b);
 	}
 
-	private void reverseChange(Solution solution, float[] val) {
-		int a = (int) val[0];
-		int b = (int) val[1];
-
-		if(a < b)
-			swap3Point(solution, b - 1, a);
-		else 
-			swap3Point(solution, b, a + 1);
-	}
-
 	/**
 	 * Searches all improving valid steps in search space for
 	 * a VRP with multiple depots.
@@ -78,6 +78,7 @@ public abstract class XFVRPOptImpBase extends XFVRPOptBase {
 			if (result == null)
 				break;
 
+			countAcceptedChange();
 			bestResult = result;
 		}
 
@@ -118,6 +119,8 @@ public abstract class XFVRPOptImpBase extends XFVRPOptBase {
 	 * check includes a possible check of the loading restrictions.
 	 */
 	protected Quality checkIt(Solution solution) throws XFVRPException {
+		countEvaluatedChange();
+
 		// Evaluate the costs and restrictions (penalties) of a giant route
 		Quality result = check(solution);
 
@@ -77,14 +77,16 @@ public class XFPDPRandomChangeService extends XFVRPOptBase implements XFRandomCh
 	}
 
 	private boolean checkMove(Choice choice, Solution solution) throws XFVRPException {
+		solution.begin();
 		operator.change(solution, choice.toArray());
 
 		Quality q = check(solution);
 		if(q.getPenalty() == 0) {
+			solution.commit();
 			return true;
 		}
 
-		operator.reverseChange(solution, choice.toArray());
+		solution.rollback();
 
 		return false;
 	}
@@ -69,14 +69,16 @@ public class XFVRPRandomChangeService extends XFVRPOptBase implements XFRandomCh
 	}
 
 	private boolean checkMove(Choice choice, Solution solution) throws XFVRPException {
+		solution.begin();
 		XFVRPMoveUtil.change(solution, choice.toArray());
 
 		Quality q = check(solution);
 		if(q.getPenalty() == 0) {
+			solution.commit();
 			return true;
 		}
 
-		XFVRPMoveUtil.reverseChange(solution, choice.toArray());
+		solution.rollback();
 		return false;
 	}
 
@@ -0,0 +1,154 @@
+package xf.xfvrp.opt.improve.routebased;
+
+import xf.xfvrp.base.NeighborList;
+import xf.xfvrp.base.Node;
+import xf.xfvrp.base.SiteType;
+import xf.xfvrp.base.XFVRPModel;
+import xf.xfvrp.opt.Solution;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2012-2021 Holger Schneider
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT License (MIT) found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ * Insert positions in the routes of a solution for the granular search
+ * (see XFVRPModel.isGranular). The positions of the customers are read from
+ * the position index of the solution, which is kept over the searches.
+ *
+ * For a node sequence, which is inserted into the routes, it finds all insert positions
+ * with a granular connection. So a search needs time proportional to the number
+ * of neighbors instead of the number of nodes.
+ *
+ * @author hschneid
+ *
+ */
+public class GranularPositions {
+
+	private final Solution solution;
+	private final Node[][] routes;
+	private final Node[] nodes;
+	private final NeighborList neighborList;
+
+	// Insert positions before or after a node, which is no customer (depots, replenishments)
+	private final int[] fixedRoutes;
+	private final int[] fixedPositions;
+
+	public GranularPositions(XFVRPModel model, Solution solution) {
+		this.solution = solution;
+		this.routes = solution.getRoutes();
+		this.nodes = model.getNodes();
+		this.neighborList = model.getNeighborList();
+
+		int nbrOfFixed = 0;
+		int[] fixedRoutes = new int[16];
+		int[] fixedPositions = new int[16];
+		for (int r = 0; r < routes.length; r++) {
+			Node[] route = routes[r];
+			for (int p = 1; p < route.length; p++) {
+				if(isCustomer(route[p - 1]) && isCustomer(route[p]))
+					continue;
+
+				if(nbrOfFixed == fixedRoutes.length) {
+					fixedRoutes = Arrays.copyOf(fixedRoutes, nbrOfFixed * 2);
+					fixedPositions = Arrays.copyOf(fixedPositions, nbrOfFixed * 2);
+				}
+				fixedRoutes[nbrOfFixed] = r;
+				fixedPositions[nbrOfFixed] = p;
+				nbrOfFixed++;
+			}
+		}
+		this.fixedRoutes = Arrays.copyOf(fixedRoutes, nbrOfFixed);
+		this.fixedPositions = Arrays.copyOf(fixedPositions, nbrOfFixed);
+	}
+
+	/**
+	 * Finds all insert positions (route, pos) with pos in 1 to route length - 1,
+	 * where the connection from the node before pos to first or the connection
+	 * from last to the node at pos is granular. Each position is found once.
+	 *
+	 * @param first First node of the inserted sequence
+	 * @param last Last node of the inserted sequence
+	 * @param resultRoutes Routes of found positions (size at least getMaxNbrOfPositions)
+	 * @param resultPositions Found positions (size at least getMaxNbrOfPositions)
+	 * @return Number of found positions
+	 */
+	public int findInsertPositions(Node first, Node last, int[] resultRoutes, int[] resultPositions) {
+		int size = 0;
+
+		// Connection from neighbor of first to first
+		if(isCustomer(first)) {
+			for (int i = neighborList.getStart(first.getIdx()); i < neighborList.getEnd(first.getIdx()); i++) {
+				Node neighbor = nodes[neighborList.getNeighbor(i)];
+				int p = getPosition(neighbor);
+				if(p == -1)
+					continue;
+
+				resultRoutes[size] = solution.getRouteIndex(neighbor);
+				resultPositions[size] = p + 1;
+				size++;
+			}
+		}
+
+		// Connection from last to neighbor of last
+		if(isCustomer(last)) {
+			for (int i = neighborList.getStart(last.getIdx()); i < neighborList.getEnd(last.getIdx()); i++) {
+				Node neighbor = nodes[neighborList.getNeighbor(i)];
+				int p = getPosition(neighbor);
+				if(p == -1)
+					continue;
+
+				int r = solution.getRouteIndex(neighbor);
+				if(isNeighbor(routes[r][p - 1], first))
+					continue;
+
+				resultRoutes[size] = r;
+				resultPositions[size] = p;
+				size++;
+			}
+		}
+
+		// Connections to nodes, which are no customers
+		for (int i = 0; i < fixedRoutes.length; i++) {
+			Node[] route = routes[fixedRoutes[i]];
+			int p = fixedPositions[i];
+			if(isNeighbor(route[p - 1], first) || isNeighbor(last, route[p]))
+				continue;
+
+			resultRoutes[size] = fixedRoutes[i];
+			resultPositions[size] = p;
+			size++;
+		}
+
+		return size;
+	}
+
+	/**
+	 * @return Maximal number of insert positions of a search
+	 */
+	public int getMaxNbrOfPositions(Node first, Node last) {
+		return getNbrOfNeighbors(first) + getNbrOfNeighbors(last) + fixedRoutes.length;
+	}
+
+	/**
+	 * @return Position of a customer in its route or -1, if it is no customer or in no route
+	 */
+	private int getPosition(Node node) {
+		return (isCustomer(node)) ? solution.getPosition(node) : -1;
+	}
+
+	private int getNbrOfNeighbors(Node node) {
+		return (isCustomer(node)) ? neighborList.getEnd(node.getIdx()) - neighborList.getStart(node.getIdx()) : 0;
+	}
+
+	private boolean isNeighbor(Node n1, Node n2) {
+		return isCustomer(n1) && isCustomer(n2) && neighborList.isNeighbor(n1.getIdx(), n2.getIdx());
+	}
+
+	private static boolean isCustomer(Node node) {
+		return node.getSiteType() == SiteType.CUSTOMER;
+	}
+}
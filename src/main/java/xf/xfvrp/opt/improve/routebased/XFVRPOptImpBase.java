@@ -1,12 +1,12 @@
 package xf.xfvrp.opt.improve.routebased;
 
-import xf.xfvrp.base.Node;
 import xf.xfvrp.base.NormalizeSolutionService;
 import xf.xfvrp.base.Quality;
 import xf.xfvrp.base.XFVRPModel;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.opt.Solution;
 import xf.xfvrp.opt.XFVRPOptBase;
+import xf.xfvrp.opt.evaluation.SegmentEvaluationService;
 
 import java.util.Queue;
 
@@ -32,6 +32,11 @@ import java.util.Queue;
  */
 public abstract class XFVRPOptImpBase extends XFVRPOptBase {
 
+	protected final SegmentEvaluationService segmentEvaluationService = new SegmentEvaluationService();
+
+	// Reused result object for the evaluation of changed routes
+	private final Quality candidateQuality = new Quality();
+
 	/**
 	 * Constructor for all improvement heuristics
 	 */
@@ -39,9 +44,18 @@ public abstract class XFVRPOptImpBase extends XFVRPOptBase {
 		isSplittable = true;
 	}
 
-	protected abstract Queue<float[]> search(Node[][] routes);
+	protected abstract Queue<float[]> search(Solution solution);
 	protected abstract void change(Solution solution, float[] changeParameter) throws XFVRPException;
-	protected abstract void reverseChange(Solution solution, float[] changeParameter) throws XFVRPException;
+
+	/**
+	 * Estimates in constant time, whether a change can lead to a valid and improving
+	 * solution. Changes, which are rejected here, are not evaluated by the full evaluation.
+	 *
+	 * By default all changes are promising.
+	 */
+	protected boolean isPromising(float[] changeParameter) {
+		return true;
+	}
 
 	/**
 	 * This method calls the abstract improve method of this optimization class with
@@ -73,6 +87,7 @@ public abstract class XFVRPOptImpBase extends XFVRPOptBase {
 			if (result == null)
 				break;
 
+			countAcceptedChange();
 			bestResult = result;
 		}
 
@@ -85,24 +100,33 @@ public abstract class XFVRPOptImpBase extends XFVRPOptBase {
 	private Quality improve(final Solution solution, Quality bestResult) throws XFVRPException {
 		checkIt(solution);
 
-		Queue<float[]> improvingSteps = search(solution.getRoutes());
+		Queue<float[]> improvingSteps = search(solution);
+
+		// Prefix and suffix segments of current routes for the estimation of changes
+		segmentEvaluationService.init(solution, model);
 
 		// Find first valid improving change
 		while(!improvingSteps.isEmpty()) {
 			float[] val = improvingSteps.remove();
 
+			// Skip changes, which can not be valid or improving
+			if(!isPromising(val)) {
+				countFilteredChange();
+				continue;
+			}
+
 			// Variation
+			solution.begin();
 			change(solution, val);
 
-			Quality result = checkIt(solution, (int)val[1], (int)val[2]);
+			Quality result = checkIt(solution, (int)val[1], (int)val[2], bestResult.getFitness());
 			if(result != null && result.getFitness() < bestResult.getFitness()) {
-				solution.fixateQualities();
-				return result;
+				solution.commit();
+				return new Quality(result);
 			}
 
 			// Reverse-Variation
-			reverseChange(solution, val);
-			solution.resetQualities();
+			solution.rollback();
 		}
 
 		return null;
@@ -127,14 +151,18 @@ public abstract class XFVRPOptImpBase extends XFVRPOptBase {
 
 	/**
 	 * Check a solution for 2 routes
+	 *
+	 * The evaluation stops early, if the solution is invalid or can not be better than the
+	 * given maximal fitness. The returned quality object is reused by the next call and must
+	 * be copied, if it is kept.
 	 */
-	protected Quality checkIt(Solution solution, int routeIdxA, int routeIdxB) throws XFVRPException {
-		// Evaluate the costs and restrictions (penalties) of a giant route
-		Quality result = check(solution, routeIdxA, routeIdxB);
+	protected Quality checkIt(Solution solution, int routeIdxA, int routeIdxB, float maxFitness) throws XFVRPException {
+		countEvaluatedChange();
 
+		// Evaluate the costs and restrictions (penalties) of the changed routes
 		// Only valid solutions are allowed.
-		if(result.getPenalty() == 0) {
-			return result;
+		if(checkValid(solution, routeIdxA, routeIdxB, maxFitness, candidateQuality)) {
+			return candidateQuality;
 		}
 
 		return null;
@@ -3,6 +3,8 @@ package xf.xfvrp.opt.improve.routebased.move;
 import xf.xfvrp.base.Node;
 import xf.xfvrp.base.SiteType;
 import xf.xfvrp.base.XFVRPModel;
+import xf.xfvrp.opt.Solution;
+import xf.xfvrp.opt.improve.routebased.GranularPositions;
 
 import java.util.Queue;
 
@@ -19,8 +21,17 @@ public class XFVRPMoveSearchUtil {
 
     /**
      * Searches all improving steps in search space for a VRP.
+     *
+     * In granular search (see XFVRPModel.isGranular) only destinations are searched,
+     * where one of the connections to the inserted segment is granular.
      */
-    public static void search(XFVRPModel model, Node[][] routes, Queue<float[]> improvingSteps, int maxSegmentLength, boolean isInvertationActive) {
+    public static void search(XFVRPModel model, Solution solution, Queue<float[]> improvingSteps, int maxSegmentLength, boolean isInvertationActive) {
+        if(model.isGranularSearch()) {
+            searchGranular(model, solution, improvingSteps, maxSegmentLength, isInvertationActive);
+            return;
+        }
+
+        Node[][] routes = solution.getRoutes();
         int nbrOfRoutes = routes.length;
         for (int srcRtIdx = 0; srcRtIdx < nbrOfRoutes; srcRtIdx++) {
             Node[] srcRoute = routes[srcRtIdx];
@@ -53,6 +64,49 @@ public class XFVRPMoveSearchUtil {
         }
     }
 
+    private static void searchGranular(XFVRPModel model, Solution solution, Queue<float[]> improvingSteps, int maxSegmentLength, boolean isInvertationActive) {
+        Node[][] routes = solution.getRoutes();
+        GranularPositions positions = new GranularPositions(model, solution);
+        int[] dstRtIdxs = new int[0];
+        int[] dstPositions = new int[0];
+
+        for (int srcRtIdx = 0; srcRtIdx < routes.length; srcRtIdx++) {
+            Node[] srcRoute = routes[srcRtIdx];
+            for (int srcPos = 1; srcPos < srcRoute.length - 1; srcPos++) {
+                // src node must not be a depot
+                if(srcRoute[srcPos].getSiteType() == SiteType.DEPOT)
+                    continue;
+
+                for (int segmentLength = 0; segmentLength < maxSegmentLength; segmentLength++) {
+                    // src segment must not too big for src route
+                    if((srcPos + segmentLength) > srcRoute.length - 2) {
+                        break;
+                    }
+
+                    Node first = srcRoute[srcPos];
+                    Node last = srcRoute[srcPos + segmentLength];
+                    int maxNbrOfPositions = positions.getMaxNbrOfPositions(first, last);
+                    if(dstRtIdxs.length < maxNbrOfPositions) {
+                        dstRtIdxs = new int[maxNbrOfPositions];
+                        dstPositions = new int[maxNbrOfPositions];
+                    }
+                    int nbrOfPositions = positions.findInsertPositions(first, last, dstRtIdxs, dstPositions);
+
+                    for (int i = 0; i < nbrOfPositions; i++) {
+                        int dstRtIdx = dstRtIdxs[i];
+                        int dstPos = dstPositions[i];
+                        // Dst must not lay in the segment or directly behind it (no-move)
+                        if(srcRtIdx == dstRtIdx && dstPos <= srcPos + segmentLength + 1 && dstPos >= srcPos) {
+                            continue;
+                        }
+
+                        searchInRoutes(model, srcRoute, routes[dstRtIdx], srcRtIdx, dstRtIdx, srcPos, dstPos, segmentLength, improvingSteps, isInvertationActive);
+                    }
+                }
+            }
+        }
+    }
+
     private static void searchInRoutes(XFVRPModel model, Node[] srcRoute, Node[] dstRoute, int srcRtIdx, int dstRtIdx, int srcPos, int dstPos, int segmentLength, Queue<float[]> improvingSteps, boolean isInvertationActive) {
         // dstPos is directly before src
         if(srcRtIdx == dstRtIdx && srcPos - dstPos == 1) {
@@ -73,7 +127,10 @@ public class XFVRPMoveSearchUtil {
                         (model.getDistanceForOptimization(srcRoute[srcPos - 1], srcRoute[srcPos + segmentLength + 1]) +
                                 model.getDistanceForOptimization(dstRoute[dstPos - 1], srcRoute[srcPos]) +
                                 model.getDistanceForOptimization(srcRoute[srcPos + segmentLength], dstRoute[dstPos]));
-        if (val > EPSILON) improvingSteps.add(new float[]
+        if (val > EPSILON && isTimeWindowFeasible(model,
+                srcRoute[srcPos - 1], srcRoute[srcPos + segmentLength + 1],
+                dstRoute[dstPos - 1], srcRoute[srcPos],
+                srcRoute[srcPos + segmentLength], dstRoute[dstPos])) improvingSteps.add(new float[]
                 {val, srcRtIdx, dstRtIdx, srcPos, dstPos, segmentLength, XFVRPMoveUtil.NO_INVERT}
                 );
 
@@ -84,7 +141,10 @@ public class XFVRPMoveSearchUtil {
                             (model.getDistanceForOptimization(srcRoute[srcPos - 1], srcRoute[srcPos + segmentLength + 1]) +
                                     model.getDistanceForOptimization(dstRoute[dstPos - 1], srcRoute[srcPos + segmentLength]) +
                                     model.getDistanceForOptimization(srcRoute[srcPos], dstRoute[dstPos]));
-            if (val > EPSILON) improvingSteps.add(new float[]
+            if (val > EPSILON && isTimeWindowFeasible(model,
+                    srcRoute[srcPos - 1], srcRoute[srcPos + segmentLength + 1],
+                    dstRoute[dstPos - 1], srcRoute[srcPos + segmentLength],
+                    srcRoute[srcPos], dstRoute[dstPos])) improvingSteps.add(new float[]
                     {val, srcRtIdx, dstRtIdx, srcPos, dstPos, segmentLength, XFVRPMoveUtil.INVERT}
                     );
         }
@@ -102,7 +162,10 @@ public class XFVRPMoveSearchUtil {
                         (model.getDistanceForOptimization(route[dstPos - 1], route[srcPos]) +
                                 model.getDistanceForOptimization(route[srcPos + segmentLength], route[dstPos]) +
                                 model.getDistanceForOptimization(route[dstPos], route[srcPos + segmentLength + 1]));
-        if (val > EPSILON) improvingSteps.add(new float[]
+        if (val > EPSILON && isTimeWindowFeasible(model,
+                route[dstPos - 1], route[srcPos],
+                route[srcPos + segmentLength], route[dstPos],
+                route[dstPos], route[srcPos + segmentLength + 1])) improvingSteps.add(new float[]
                 {val, srcRtIdx, dstRtIdx, srcPos, dstPos, segmentLength, XFVRPMoveUtil.NO_INVERT}
                 );
 
@@ -113,9 +176,22 @@ public class XFVRPMoveSearchUtil {
                             (model.getDistanceForOptimization(route[dstPos - 1], route[srcPos + segmentLength]) +
                                     model.getDistanceForOptimization(route[srcPos], route[dstPos]) +
                                     model.getDistanceForOptimization(route[dstPos], route[srcPos + segmentLength + 1]));
-            if (val > EPSILON) improvingSteps.add(new float[]
+            if (val > EPSILON && isTimeWindowFeasible(model,
+                    route[dstPos - 1], route[srcPos + segmentLength],
+                    route[srcPos], route[dstPos],
+                    route[dstPos], route[srcPos + segmentLength + 1])) improvingSteps.add(new float[]
                     {val, srcRtIdx, dstRtIdx, srcPos, dstPos, segmentLength, XFVRPMoveUtil.INVERT}
                     );
         }
     }
+
+    /**
+     * Rejects a change, if one of the three new connections (pairs of nodes)
+     * must violate a time window.
+     */
+    private static boolean isTimeWindowFeasible(XFVRPModel model, Node a1, Node a2, Node b1, Node b2, Node c1, Node c2) {
+        return model.isTimeWindowFeasible(a1, a2) &&
+                model.isTimeWindowFeasible(b1, b2) &&
+                model.isTimeWindowFeasible(c1, c2);
+    }
 }
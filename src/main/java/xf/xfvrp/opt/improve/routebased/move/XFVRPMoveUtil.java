@@ -4,6 +4,7 @@ import xf.xfvrp.base.Node;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.base.exception.XFVRPExceptionType;
 import xf.xfvrp.opt.Solution;
+import xf.xfvrp.opt.evaluation.SegmentEvaluationService;
 
 /**
  * Copyright (c) 2012-2021 Holger Schneider
@@ -29,21 +30,18 @@ public class XFVRPMoveUtil {
         move(solution, srcRouteIdx, dstRouteIdx, srcPos, srcPos + segmentLength, dstPos);
     }
 
-    public static void reverseChange(Solution solution, float[] val) throws XFVRPException {
-        int srcRouteIdx = (int) val[1];
-        int dstRouteIdx = (int) val[2];
-        int srcPos = (int) val[3];
-        int dstPos = (int) val[4];
-        int segmentLength = (int) val[5];
-        int isInverted = (int) val[6];
-
-        if(srcRouteIdx == dstRouteIdx && dstPos > srcPos)
-            move(solution, dstRouteIdx, srcRouteIdx, dstPos - segmentLength - 1, dstPos - 1, srcPos);
-        else if(srcRouteIdx == dstRouteIdx && dstPos < srcPos)
-            move(solution, dstRouteIdx, srcRouteIdx, dstPos, dstPos + segmentLength, srcPos + segmentLength + 1);
-        else
-            move(solution, dstRouteIdx, srcRouteIdx, dstPos, dstPos + segmentLength, srcPos);
-        if(isInverted == INVERT) swap(solution, srcRouteIdx, srcPos, srcPos + segmentLength);
+    /**
+     * Estimates by segment concatenation, whether the change can lead to a valid and improving solution.
+     */
+    public static boolean isPromising(SegmentEvaluationService segmentEvaluationService, float[] val) {
+        return segmentEvaluationService.isMovePromising(
+                (int) val[1],
+                (int) val[2],
+                (int) val[3],
+                (int) val[4],
+                (int) val[5],
+                (int) val[6] == INVERT
+        );
     }
 
     /**
@@ -71,6 +69,7 @@ public class XFVRPMoveUtil {
             solution.setRoute(srcRouteIdx, remove(srcRoute, srcStart, srcEnd));
             solution.setRoute(dstRouteIdx, addBefore(dstRoute, nodes, dstPos));
         } else {
+            srcRoute = solution.changeRoute(srcRouteIdx);
             if(srcStart < dstPos) {
                 System.arraycopy(srcRoute, srcEnd + 1, srcRoute, srcStart, dstPos - srcEnd);
                 System.arraycopy(nodes, 0, srcRoute, dstPos - ((srcEnd - srcStart) + 1), nodes.length);
@@ -78,6 +77,7 @@ public class XFVRPMoveUtil {
                 System.arraycopy(srcRoute, dstPos, srcRoute, dstPos + (srcEnd - srcStart) + 1, srcStart - dstPos);
                 System.arraycopy(nodes, 0, srcRoute, dstPos, nodes.length);
             }
+            solution.setRoute(srcRouteIdx, srcRoute);
         }
     }
 
@@ -86,15 +86,7 @@ public class XFVRPMoveUtil {
      * in the range from start to end (both inclusive)
      */
     public static void swap(Solution solution, int routeIdx, int start, int end) {
-        Node[] route = solution.getRoutes()[routeIdx];
-
-        int offset = 0;
-        while (end - offset > start + offset) {
-            Node tmp = route[end - offset];
-            route[end - offset] = route[start + offset];
-            route[start + offset] = tmp;
-            offset++;
-        }
+        solution.reverse(routeIdx, start, end);
     }
 
     /**
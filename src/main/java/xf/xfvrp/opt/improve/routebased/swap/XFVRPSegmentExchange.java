@@ -1,6 +1,5 @@
 package xf.xfvrp.opt.improve.routebased.swap;
 
-import xf.xfvrp.base.Node;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.opt.Solution;
 import xf.xfvrp.opt.improve.routebased.XFVRPOptImpBase;
@@ -34,12 +33,12 @@ public class XFVRPSegmentExchange extends XFVRPOptImpBase {
 	private int maxSegmentLength = 3;
 
 	@Override
-	protected Queue<float[]> search(Node[][] routes) {
+	protected Queue<float[]> search(Solution solution) {
 		PriorityQueue<float[]> improvingSteps = new PriorityQueue<>(
 				(o1, o2) -> Float.compare(o2[0], o1[0])
 		);
-		XFVRPMoveSearchUtil.search(model, routes, improvingSteps, maxSegmentLength, isInvertationActive);
-		XFVRPSwapSearchUtil.search(model, routes, improvingSteps, maxSegmentLength, isSegmentLengthEqual, isInvertationActive);
+		XFVRPMoveSearchUtil.search(model, solution, improvingSteps, maxSegmentLength, isInvertationActive);
+		XFVRPSwapSearchUtil.search(model, solution, improvingSteps, maxSegmentLength, isSegmentLengthEqual, isInvertationActive);
 
 		return improvingSteps;
 	}
@@ -54,11 +53,12 @@ public class XFVRPSegmentExchange extends XFVRPOptImpBase {
 	}
 
 	@Override
-	protected void reverseChange(Solution solution, float[] changeParameter) throws XFVRPException {
+	protected boolean isPromising(float[] changeParameter) {
 		if(changeParameter.length == 8) {
-		XFVRPSwapUtil.reverseChange(solution, changeParameter);
+			return XFVRPSwapUtil.isPromising(segmentEvaluationService, changeParameter);
 		} else if(changeParameter.length == 7) {
-			XFVRPMoveUtil.reverseChange(solution, changeParameter);
+			return XFVRPMoveUtil.isPromising(segmentEvaluationService, changeParameter);
 		}
+		return true;
 	}
 }
\ No newline at end of file
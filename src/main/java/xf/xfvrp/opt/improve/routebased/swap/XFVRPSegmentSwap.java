@@ -1,6 +1,5 @@
 package xf.xfvrp.opt.improve.routebased.swap;
 
-import xf.xfvrp.base.Node;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.opt.Solution;
 import xf.xfvrp.opt.improve.routebased.XFVRPOptImpBase;
@@ -32,11 +31,11 @@ public class XFVRPSegmentSwap extends XFVRPOptImpBase {
 	private int maxSegmentLength = 3;
 
 	@Override
-	protected Queue<float[]> search(Node[][] routes) {
+	protected Queue<float[]> search(Solution solution) {
 		PriorityQueue<float[]> improvingSteps = new PriorityQueue<>(
 				(o1, o2) -> Float.compare(o2[0], o1[0])
 		);
-		XFVRPSwapSearchUtil.search(model, routes, improvingSteps, maxSegmentLength, isSegmentLengthEqual, isInvertationActive);
+		XFVRPSwapSearchUtil.search(model, solution, improvingSteps, maxSegmentLength, isSegmentLengthEqual, isInvertationActive);
 
 		return improvingSteps;
 	}
@@ -47,8 +46,8 @@ public class XFVRPSegmentSwap extends XFVRPOptImpBase {
 	}
 
 	@Override
-	protected void reverseChange(Solution solution, float[] changeParameter) throws XFVRPException {
-		XFVRPSwapUtil.reverseChange(solution, changeParameter);
+	protected boolean isPromising(float[] changeParameter) {
+		return XFVRPSwapUtil.isPromising(segmentEvaluationService, changeParameter);
 	}
 
 	public void setInvertationMode(boolean isInvertationActive) {
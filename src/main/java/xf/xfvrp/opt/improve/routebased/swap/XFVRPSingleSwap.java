@@ -1,6 +1,5 @@
 package xf.xfvrp.opt.improve.routebased.swap;
 
-import xf.xfvrp.base.Node;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.opt.Solution;
 import xf.xfvrp.opt.improve.routebased.XFVRPOptImpBase;
@@ -29,11 +28,11 @@ public class XFVRPSingleSwap extends XFVRPOptImpBase {
 	private int maxSegmentLength = 1;
 
 	@Override
-	protected Queue<float[]> search(Node[][] routes) {
+	protected Queue<float[]> search(Solution solution) {
 		PriorityQueue<float[]> improvingSteps = new PriorityQueue<>(
 				(o1, o2) -> Float.compare(o2[0], o1[0])
 		);
-		XFVRPSwapSearchUtil.search(model, routes, improvingSteps, maxSegmentLength, isSegmentLengthEqual, isInvertationActive);
+		XFVRPSwapSearchUtil.search(model, solution, improvingSteps, maxSegmentLength, isSegmentLengthEqual, isInvertationActive);
 
 		return improvingSteps;
 	}
@@ -44,8 +43,8 @@ public class XFVRPSingleSwap extends XFVRPOptImpBase {
 	}
 
 	@Override
-	protected void reverseChange(Solution solution, float[] changeParameter) throws XFVRPException {
-		XFVRPSwapUtil.reverseChange(solution, changeParameter);
+	protected boolean isPromising(float[] changeParameter) {
+		return XFVRPSwapUtil.isPromising(segmentEvaluationService, changeParameter);
 	}
 
 	public void setInvertationMode(boolean isInvertationActive) {
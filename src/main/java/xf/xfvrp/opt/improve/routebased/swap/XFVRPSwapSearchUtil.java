@@ -2,6 +2,8 @@ package xf.xfvrp.opt.improve.routebased.swap;
 
 import xf.xfvrp.base.Node;
 import xf.xfvrp.base.XFVRPModel;
+import xf.xfvrp.opt.Solution;
+import xf.xfvrp.opt.improve.routebased.GranularPositions;
 
 import java.util.Queue;
 
@@ -18,8 +20,18 @@ public class XFVRPSwapSearchUtil {
 
     /**
      * Searches all improving steps in search space for a VRP.
+     *
+     * In granular search (see XFVRPModel.isGranular) only B-segments are searched,
+     * where the connection from the node before B to A or from the node before
+     * A to B is granular.
      */
-    public static void search(XFVRPModel model, Node[][] routes, Queue<float[]> improvingSteps, int maxSegmentLength, boolean isSegmentLengthEqual, boolean isInvertActive) {
+    public static void search(XFVRPModel model, Solution solution, Queue<float[]> improvingSteps, int maxSegmentLength, boolean isSegmentLengthEqual, boolean isInvertActive) {
+        if(model.isGranularSearch()) {
+            searchGranular(model, solution, improvingSteps, maxSegmentLength, isSegmentLengthEqual, isInvertActive);
+            return;
+        }
+
+        Node[][] routes = solution.getRoutes();
         int nbrOfRoutes = routes.length;
         for (int aRtIdx = 0; aRtIdx < nbrOfRoutes; aRtIdx++) {
             Node[] aRoute = routes[aRtIdx];
@@ -31,38 +43,16 @@ public class XFVRPSwapSearchUtil {
                     for (int aSegmentLength = 0; aSegmentLength < aMaxSegmentLength; aSegmentLength++) {
 
                         for (int bPos = 1; bPos < bRoute.length - 1; bPos++) {
-                            // aPos must not be identical to bPos
-                            if(aRtIdx == bRtIdx && bPos == aPos) {
-                                continue;
-                            }
-
-                            // Both segments must not overlap - Is bPos in A-segment
-                            if(aRtIdx == bRtIdx && bPos >= aPos && bPos <= aPos + aSegmentLength) {
-                                continue;
-                            }
-
-                            int bMaxSegmentLength = Math.min(maxSegmentLength, bRoute.length - bPos - 1);
-                            for (int bSegmentLength = 0; bSegmentLength < bMaxSegmentLength; bSegmentLength++) {
-                                // Both segments must not overlap - Is B-segment in A-segment
-                                if(aRtIdx == bRtIdx && bPos < aPos && bPos + bSegmentLength >= aPos) {
-                                    continue;
-                                }
-
-                                // If segment length should be equal
-                                if(isSegmentLengthEqual && aSegmentLength != bSegmentLength) {
-                                    continue;
-                                }
-
-                                searchInRoutes(
-                                        model,
-                                        aRoute, bRoute,
-                                        aRtIdx, bRtIdx,
-                                        aPos, aSegmentLength,
-                                        bPos, bSegmentLength,
-                                        improvingSteps,
-                                        isInvertActive
-                                );
-                            }
+                            searchBSegments(
+                                    model,
+                                    aRoute, bRoute,
+                                    aRtIdx, bRtIdx,
+                                    aPos, aSegmentLength,
+                                    bPos,
+                                    maxSegmentLength, isSegmentLengthEqual,
+                                    improvingSteps,
+                                    isInvertActive
+                            );
                         }
                     }
                 }
@@ -70,6 +60,96 @@ public class XFVRPSwapSearchUtil {
         }
     }
 
+    private static void searchGranular(XFVRPModel model, Solution solution, Queue<float[]> improvingSteps, int maxSegmentLength, boolean isSegmentLengthEqual, boolean isInvertActive) {
+        Node[][] routes = solution.getRoutes();
+        GranularPositions positions = new GranularPositions(model, solution);
+        int[] bRtIdxs = new int[0];
+        int[] bPositions = new int[0];
+
+        for (int aRtIdx = 0; aRtIdx < routes.length; aRtIdx++) {
+            Node[] aRoute = routes[aRtIdx];
+            for (int aPos = 1; aPos < aRoute.length - 1; aPos++) {
+                // B is inserted between node before A and node after A
+                int maxNbrOfPositions = positions.getMaxNbrOfPositions(aRoute[aPos], aRoute[aPos - 1]);
+                if(bRtIdxs.length < maxNbrOfPositions) {
+                    bRtIdxs = new int[maxNbrOfPositions];
+                    bPositions = new int[maxNbrOfPositions];
+                }
+                int nbrOfPositions = positions.findInsertPositions(aRoute[aPos], aRoute[aPos - 1], bRtIdxs, bPositions);
+
+                int aMaxSegmentLength = Math.min(maxSegmentLength, aRoute.length - aPos - 1);
+                for (int i = 0; i < nbrOfPositions; i++) {
+                    int bRtIdx = bRtIdxs[i];
+                    int bPos = bPositions[i];
+                    // Same pairs of routes as in complete search and B must not be a depot
+                    if(bRtIdx < aRtIdx || bPos >= routes[bRtIdx].length - 1)
+                        continue;
+
+                    for (int aSegmentLength = 0; aSegmentLength < aMaxSegmentLength; aSegmentLength++) {
+                        searchBSegments(
+                                model,
+                                aRoute, routes[bRtIdx],
+                                aRtIdx, bRtIdx,
+                                aPos, aSegmentLength,
+                                bPos,
+                                maxSegmentLength, isSegmentLengthEqual,
+                                improvingSteps,
+                                isInvertActive
+                        );
+                    }
+                }
+            }
+        }
+    }
+
+    private static void searchBSegments(
+            XFVRPModel model,
+            Node[] aRoute,
+            Node[] bRoute,
+            int aRtIdx,
+            int bRtIdx,
+            int aPos,
+            int aSegmentLength,
+            int bPos,
+            int maxSegmentLength,
+            boolean isSegmentLengthEqual,
+            Queue<float[]> improvingSteps,
+            boolean isInvertActive
+    ) {
+        // aPos must not be identical to bPos
+        if(aRtIdx == bRtIdx && bPos == aPos) {
+            return;
+        }
+
+        // Both segments must not overlap - Is bPos in A-segment
+        if(aRtIdx == bRtIdx && bPos >= aPos && bPos <= aPos + aSegmentLength) {
+            return;
+        }
+
+        int bMaxSegmentLength = Math.min(maxSegmentLength, bRoute.length - bPos - 1);
+        for (int bSegmentLength = 0; bSegmentLength < bMaxSegmentLength; bSegmentLength++) {
+            // Both segments must not overlap - Is B-segment in A-segment
+            if(aRtIdx == bRtIdx && bPos < aPos && bPos + bSegmentLength >= aPos) {
+                continue;
+            }
+
+            // If segment length should be equal
+            if(isSegmentLengthEqual && aSegmentLength != bSegmentLength) {
+                continue;
+            }
+
+            searchInRoutes(
+                    model,
+                    aRoute, bRoute,
+                    aRtIdx, bRtIdx,
+                    aPos, aSegmentLength,
+                    bPos, bSegmentLength,
+                    improvingSteps,
+                    isInvertActive
+            );
+        }
+    }
+
     private static void searchInRoutes(
             XFVRPModel model,
             Node[] aRoute,
@@ -135,7 +215,11 @@ public class XFVRPSwapSearchUtil {
                 model.getDistance(bRoute[bb], aRoute[aa + 1]) +
                 model.getDistance(bRoute[bPos - 1], aRoute[aPos]) +
                 model.getDistance(aRoute[aa], bRoute[bb + 1]));
-        if(val > EPSILON) {
+        if(val > EPSILON && isTimeWindowFeasible(model,
+                aRoute[aPos - 1], bRoute[bPos],
+                bRoute[bb], aRoute[aa + 1],
+                bRoute[bPos - 1], aRoute[aPos],
+                aRoute[aa], bRoute[bb + 1])) {
             improvingSteps.add(new float[]{val, aRtIdx, bRtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.NO_INVERT});
         }
 
@@ -145,7 +229,11 @@ public class XFVRPSwapSearchUtil {
                     model.getDistance(bRoute[bPos], aRoute[aa + 1]) +
                     model.getDistance(bRoute[bPos - 1], aRoute[aa]) +
                     model.getDistance(aRoute[aPos], bRoute[bb + 1]));
-            if(val > EPSILON) {
+            if(val > EPSILON && isTimeWindowFeasible(model,
+                    aRoute[aPos - 1], bRoute[bb],
+                    bRoute[bPos], aRoute[aa + 1],
+                    bRoute[bPos - 1], aRoute[aa],
+                    aRoute[aPos], bRoute[bb + 1])) {
                 improvingSteps.add(new float[]{val, aRtIdx, bRtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.BOTH_INVERT});
             }
         }
@@ -155,7 +243,11 @@ public class XFVRPSwapSearchUtil {
                     model.getDistance(bRoute[bb], aRoute[aa + 1]) +
                     model.getDistance(bRoute[bPos - 1], aRoute[aa]) +
                     model.getDistance(aRoute[aPos], bRoute[bb + 1]));
-            if(val > EPSILON) {
+            if(val > EPSILON && isTimeWindowFeasible(model,
+                    aRoute[aPos - 1], bRoute[bPos],
+                    bRoute[bb], aRoute[aa + 1],
+                    bRoute[bPos - 1], aRoute[aa],
+                    aRoute[aPos], bRoute[bb + 1])) {
                 improvingSteps.add(new float[]{val, aRtIdx, bRtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.A_INVERT});
             }
         }
@@ -165,7 +257,11 @@ public class XFVRPSwapSearchUtil {
                     model.getDistance(bRoute[bPos], aRoute[aa + 1]) +
                     model.getDistance(bRoute[bPos - 1], aRoute[aPos]) +
                     model.getDistance(aRoute[aa], bRoute[bb + 1]));
-            if(val > EPSILON) {
+            if(val > EPSILON && isTimeWindowFeasible(model,
+                    aRoute[aPos - 1], bRoute[bb],
+                    bRoute[bPos], aRoute[aa + 1],
+                    bRoute[bPos - 1], aRoute[aPos],
+                    aRoute[aa], bRoute[bb + 1])) {
                 improvingSteps.add(new float[]{val, aRtIdx, bRtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.B_INVERT});
             }
         }
@@ -187,7 +283,10 @@ public class XFVRPSwapSearchUtil {
                         model.getDistance(route[aa], route[bPos]) +
                         model.getDistance(route[bb], route[aa + 1])
         );
-        if(val > EPSILON) {
+        if(val > EPSILON && isTimeWindowFeasible(model,
+                route[bPos - 1], route[aPos],
+                route[aa], route[bPos],
+                route[bb], route[aa + 1])) {
             improvingSteps.add(new float[]{val, rtIdx, rtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.NO_INVERT});
         }
 
@@ -198,7 +297,10 @@ public class XFVRPSwapSearchUtil {
                             model.getDistance(route[aPos], route[bb]) +
                             model.getDistance(route[bPos], route[aa + 1])
             );
-            if(val > EPSILON) {
+            if(val > EPSILON && isTimeWindowFeasible(model,
+                    route[bPos - 1], route[aa],
+                    route[aPos], route[bb],
+                    route[bPos], route[aa + 1])) {
                 improvingSteps.add(new float[]{val, rtIdx, rtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.BOTH_INVERT});
             }
         }
@@ -209,7 +311,10 @@ public class XFVRPSwapSearchUtil {
                             model.getDistance(route[aPos], route[bPos]) +
                             model.getDistance(route[bb], route[aa + 1])
             );
-            if(val > EPSILON) {
+            if(val > EPSILON && isTimeWindowFeasible(model,
+                    route[bPos - 1], route[aa],
+                    route[aPos], route[bPos],
+                    route[bb], route[aa + 1])) {
                 improvingSteps.add(new float[]{val, rtIdx, rtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.A_INVERT});
             }
         }
@@ -220,9 +325,33 @@ public class XFVRPSwapSearchUtil {
                             model.getDistance(route[aa], route[bb]) +
                             model.getDistance(route[bPos], route[aa + 1])
             );
-            if(val > EPSILON) {
+            if(val > EPSILON && isTimeWindowFeasible(model,
+                    route[bPos - 1], route[aPos],
+                    route[aa], route[bb],
+                    route[bPos], route[aa + 1])) {
                 improvingSteps.add(new float[]{val, rtIdx, rtIdx, aPos, bPos, aSegmentLength, bSegmentLength, XFVRPSwapUtil.B_INVERT});
             }
         }
     }
+
+    /**
+     * Rejects a change, if one of the three new connections (pairs of nodes)
+     * must violate a time window.
+     */
+    private static boolean isTimeWindowFeasible(XFVRPModel model, Node a1, Node a2, Node b1, Node b2, Node c1, Node c2) {
+        return model.isTimeWindowFeasible(a1, a2) &&
+                model.isTimeWindowFeasible(b1, b2) &&
+                model.isTimeWindowFeasible(c1, c2);
+    }
+
+    /**
+     * Rejects a change, if one of the four new connections (pairs of nodes)
+     * must violate a time window.
+     */
+    private static boolean isTimeWindowFeasible(XFVRPModel model, Node a1, Node a2, Node b1, Node b2, Node c1, Node c2, Node d1, Node d2) {
+        return model.isTimeWindowFeasible(a1, a2) &&
+                model.isTimeWindowFeasible(b1, b2) &&
+                model.isTimeWindowFeasible(c1, c2) &&
+                model.isTimeWindowFeasible(d1, d2);
+    }
 }
@@ -4,6 +4,7 @@ import xf.xfvrp.base.Node;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.base.exception.XFVRPExceptionType;
 import xf.xfvrp.opt.Solution;
+import xf.xfvrp.opt.evaluation.SegmentEvaluationService;
 import xf.xfvrp.opt.improve.routebased.move.XFVRPMoveUtil;
 
 /**
@@ -36,32 +37,22 @@ public class XFVRPSwapUtil {
         exchange(solution, aRouteIndex, bRouteIndex, aPos, bPos, aSegmentLength, bSegmentLength);
     }
 
-    public static void reverseChange(Solution solution, float[] val) throws XFVRPException {
-        int aRouteIndex = (int) val[1];
-        int bRouteIndex = (int) val[2];
-        int aPos = (int) val[3];
-        int bPos = (int) val[4];
-        int aSegmentLength = (int) val[5];
-        int bSegmentLength = (int) val[6];
+    /**
+     * Estimates by segment concatenation, whether the change can lead to a valid and improving solution.
+     */
+    public static boolean isPromising(SegmentEvaluationService segmentEvaluationService, float[] val) {
         int invertType = (int) val[7];
 
-        // Swap segment parameter, that A is always before B
-        if(aRouteIndex == bRouteIndex && bPos < aPos) {
-            int tmp = aPos; aPos = bPos; bPos = tmp;
-            tmp = aSegmentLength; aSegmentLength = bSegmentLength; bSegmentLength = tmp;
-
-            if(invertType == A_INVERT) invertType = B_INVERT;
-            else if(invertType == B_INVERT) invertType = A_INVERT;
-        }
-
-        if(aRouteIndex != bRouteIndex) {
-            // Just change segment lengths
-            exchange(solution, aRouteIndex, bRouteIndex, aPos, bPos, bSegmentLength, aSegmentLength);
-        } else {
-            int newBPos = bPos - (aSegmentLength - bSegmentLength);
-            exchange(solution, aRouteIndex, bRouteIndex, aPos, newBPos, bSegmentLength, aSegmentLength);
-        }
-        invert(solution, aRouteIndex, bRouteIndex, aPos, bPos, aSegmentLength, bSegmentLength, invertType);
+        return segmentEvaluationService.isSwapPromising(
+                (int) val[1],
+                (int) val[2],
+                (int) val[3],
+                (int) val[4],
+                (int) val[5],
+                (int) val[6],
+                invertType == A_INVERT || invertType == BOTH_INVERT,
+                invertType == B_INVERT || invertType == BOTH_INVERT
+        );
     }
 
     /**
@@ -114,15 +105,17 @@ public class XFVRPSwapUtil {
             System.arraycopy(routes[bRouteIndex], bPos , bSegment, 0, bSegment.length);
 
             if(aRouteIndex != bRouteIndex) {
-                routes[aRouteIndex] = replace(routes[aRouteIndex], aPos, aPos + aSegmentLength, bSegment);
-                routes[bRouteIndex] = replace(routes[bRouteIndex], bPos, bPos + bSegmentLength, aSegment);
+                solution.setRoute(aRouteIndex, replace(routes[aRouteIndex], aPos, aPos + aSegmentLength, bSegment));
+                solution.setRoute(bRouteIndex, replace(routes[bRouteIndex], bPos, bPos + bSegmentLength, aSegment));
             } else {
+                Node[] route = solution.changeRoute(aRouteIndex);
                 Node[] intermediates = new Node[bPos - (aPos + aSegmentLength + 1)];
-                System.arraycopy(routes[aRouteIndex], aPos + aSegmentLength + 1, intermediates, 0, intermediates.length);
+                System.arraycopy(route, aPos + aSegmentLength + 1, intermediates, 0, intermediates.length);
 
-                System.arraycopy(bSegment, 0, routes[aRouteIndex], aPos, bSegment.length);
-                System.arraycopy(intermediates, 0, routes[aRouteIndex], aPos + bSegment.length, intermediates.length);
-                System.arraycopy(aSegment, 0, routes[aRouteIndex], aPos + bSegment.length + intermediates.length, aSegment.length);
+                System.arraycopy(bSegment, 0, route, aPos, bSegment.length);
+                System.arraycopy(intermediates, 0, route, aPos + bSegment.length, intermediates.length);
+                System.arraycopy(aSegment, 0, route, aPos + bSegment.length + intermediates.length, aSegment.length);
+                solution.setRoute(aRouteIndex, route);
             }
         }
     }
@@ -140,13 +133,16 @@ public class XFVRPSwapUtil {
     }
 
     private static void swapSegmentsEqualLength(Solution solution, int aRouteIndex, int bRouteIndex, int aPos, int bPos, int aSegmentLength) {
-        Node[] aRoute = solution.getRoutes()[aRouteIndex];
-        Node[] bRoute = solution.getRoutes()[bRouteIndex];
+        Node[] aRoute = solution.changeRoute(aRouteIndex);
+        Node[] bRoute = solution.changeRoute(bRouteIndex);
         for (int i = 0; i <= aSegmentLength; i++) {
             Node tmp = aRoute[aPos + i];
             aRoute[aPos + i] = bRoute[bPos + i];
             bRoute[bPos + i] = tmp;
         }
+        solution.setRoute(aRouteIndex, aRoute);
+        if(bRouteIndex != aRouteIndex)
+            solution.setRoute(bRouteIndex, bRoute);
     }
 
     private static void invert(Solution solution,
@@ -1,5 +1,6 @@
 package xf.xfvrp.opt.init;
 
+import xf.xfvrp.base.KdTree;
 import xf.xfvrp.base.Node;
 import xf.xfvrp.base.Vehicle;
 import xf.xfvrp.base.XFVRPModel;
@@ -7,10 +8,14 @@ import xf.xfvrp.base.XFVRPParameter;
 import xf.xfvrp.base.exception.XFVRPException;
 import xf.xfvrp.base.metric.InternalMetric;
 import xf.xfvrp.base.metric.Metric;
+import xf.xfvrp.base.metric.SpatialMetric;
 import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator;
+import xf.xfvrp.base.metric.internal.CompactMetricTransformator;
 import xf.xfvrp.base.metric.internal.FixCostMetricTransformator;
 import xf.xfvrp.base.metric.internal.OpenRouteMetricTransformator;
 import xf.xfvrp.base.metric.internal.PresetMetricTransformator;
+import xf.xfvrp.base.metric.internal.SharedMetricTransformator;
+import xf.xfvrp.base.metric.internal.SparseMetricTransformator;
 import xf.xfvrp.base.monitor.StatusCode;
 import xf.xfvrp.base.monitor.StatusManager;
 import xf.xfvrp.base.preset.BlockNameConverter;
@@ -23,6 +28,20 @@ import xf.xfvrp.base.preset.BlockNameConverter;
  * LICENSE file in the root directory of this source tree.
  **/
 public class ModelBuilder {
+
+	// Transforms the user metric once for all models (may be null)
+	private final SharedMetricTransformator sharedMetricTransformator;
+
+	public ModelBuilder() {
+		this(null);
+	}
+
+	/**
+	 * @param sharedMetricTransformator The internal metric of the model is a view of the shared matrix (null = own matrix per model)
+	 */
+	public ModelBuilder(SharedMetricTransformator sharedMetricTransformator) {
+		this.sharedMetricTransformator = sharedMetricTransformator;
+	}
 	
 	/**
 	 * Transforms the read data into a model, which can be used
@@ -45,7 +64,10 @@ public class ModelBuilder {
 
 		statusManager.fireMessage(StatusCode.RUNNING, "Nbr of nodes : "+nodes.length);
 
-		XFVRPModel model = new XFVRPModel(nodes, internalMetric, optMetric, veh, parameter);
+		// Spatial index for coordinate based metrics
+		KdTree spatialIndex = (externalMetric instanceof SpatialMetric) ? new KdTree(nodes, (SpatialMetric) externalMetric) : null;
+
+		XFVRPModel model = new XFVRPModel(nodes, internalMetric, optMetric, veh, parameter, spatialIndex);
 
 		countNbrOfNodesInBlocks(nodes, model);
 		
@@ -60,7 +82,20 @@ public class ModelBuilder {
 	}
 
 	private InternalMetric buildInternalMetric(Node[] nodes, Vehicle veh, Metric metric, XFVRPParameter parameter) throws XFVRPException {
-		InternalMetric internalMetric = AcceleratedMetricTransformator.transform(metric, nodes, veh);
+		InternalMetric internalMetric = null;
+		long memoryBudget = parameter.getMetricMemoryBudget();
+		// Compact matrix is null, if the values can not be stored within the tolerance
+		if(parameter.getCompactMetricTolerance() > 0 && !SparseMetricTransformator.isSparse(nodes.length, true, memoryBudget))
+			internalMetric = CompactMetricTransformator.transformCompact(metric, nodes, veh, parameter.getCompactMetricTolerance(), parameter.getNbrOfMetricThreads());
+
+		if(internalMetric == null) {
+			if(SparseMetricTransformator.isSparse(nodes.length, false, memoryBudget))
+				internalMetric = SparseMetricTransformator.transform(metric, nodes, veh, memoryBudget);
+			else if(sharedMetricTransformator != null)
+				internalMetric = sharedMetricTransformator.transform(nodes, veh);
+			else
+				internalMetric = AcceleratedMetricTransformator.transform(metric, nodes, veh, parameter.getNbrOfMetricThreads());
+		}
 		if(parameter.isOpenRouteAtStart() || parameter.isOpenRouteAtEnd())
 			internalMetric = OpenRouteMetricTransformator.transform(internalMetric, nodes, parameter);
 		return internalMetric;
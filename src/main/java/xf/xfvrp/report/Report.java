@@ -2,6 +2,7 @@ package xf.xfvrp.report;
 
 import xf.xfvrp.base.Vehicle;
 import xf.xfvrp.base.XFVRPModel;
+import xf.xfvrp.base.monitor.EvaluationMetrics;
 import xf.xfvrp.opt.Solution;
 
 import java.util.ArrayList;
@@ -29,6 +30,8 @@ public class Report {
 	private final List<RouteReport> reportList = new ArrayList<>();
 
 	private final Set<Vehicle> vehicleSet = new HashSet<>();
+
+	private EvaluationMetrics evaluationMetrics;
 	
 	/**
 	 * A Report is the structral representation of a route planning solution.
@@ -114,4 +117,19 @@ public class Report {
 	public ErrorSummary getErrors() {
 		return errors;
 	}
+
+	/**
+	 * Returns the counters of the evaluations per optimization operator, which were
+	 * collected during the route planning of this report. They are a copy, which
+	 * is not changed by later route plannings.
+	 * 
+	 * @return null, if the report was not created by a route planning
+	 */
+	public EvaluationMetrics getEvaluationMetrics() {
+		return evaluationMetrics;
+	}
+
+	public void setEvaluationMetrics(EvaluationMetrics evaluationMetrics) {
+		this.evaluationMetrics = evaluationMetrics;
+	}
 }
@@ -11,6 +11,8 @@ import xf.xfvrp.report.Event;
 import xf.xfvrp.report.Report;
 import xf.xfvrp.report.RouteReport;
 
+import java.util.Arrays;
+
 /**
  * Copyright (c) 2012-2021 Holger Schneider
  * All rights reserved.
@@ -47,7 +49,7 @@ public class ReportBuilder {
         RouteReport routeReport = new RouteReport(context.getModel().getVehicle());
 
         route = ActiveNodeAnalyzer.getActiveNodes(route);
-        context.setRouteInfos(RouteInfoBuilder.build(route));
+        RouteInfoBuilder.build(route, route.length, context);
 
         context.setCurrentNode(route[0]);
         routeReport.add(
@@ -110,7 +112,7 @@ public class ReportBuilder {
 
     private void drive(Context context, RouteReport report) {
         float[] dist = context.getModel().getDistanceAndTime(context.getLastNode(), context.getCurrentNode());
-        context.drive(dist);
+        context.drive(dist[0], dist[1]);
 
         // check max driving time per shift restrictions
         if(context.getDrivingTime() >= context.getModel().getVehicle().maxDrivingTimePerShift) {
@@ -173,7 +175,7 @@ public class ReportBuilder {
 
         float waitingTime = context.getWaitingTimeAtTimeWindow(timeWindow);
 
-        float serviceTime = (context.getLastDrivenDistance()[0] == 0) ?
+        float serviceTime = (context.getLastDrivenDistance() == 0) ?
                 context.getCurrentNode().getServiceTime() :
                 context.getCurrentNode().getServiceTime() + context.getCurrentNode().getServiceTimeForSite();
         totalServiceTime += serviceTime;
@@ -199,8 +201,9 @@ public class ReportBuilder {
     private void setAmountsToEvent(Event e, float[] amounts, LoadType loadType) {
         e.setLoadType(loadType);
 
+        // Amounts of route infos are reused by context, so event needs its own copy
         if(amounts != null) {
-            e.setAmounts(amounts);
+            e.setAmounts(Arrays.copyOf(amounts, amounts.length));
         }
     }
 }
@@ -0,0 +1,79 @@
+package xf.xfvrp.base
+
+import spock.lang.Specification
+import util.instances.TestNode
+
+class IntArraySetSpec extends Specification {
+
+	def "Values are sorted and unique"() {
+		def set = new IntArraySet()
+
+		when:
+		[5, 1, 9, 1, 3, 5, 7].each { set.add(it as int) }
+
+		then:
+		set.size() == 5
+		(0..<set.size()).collect { set.getInt(it) } == [1, 3, 5, 7, 9]
+		set as List == [1, 3, 5, 7, 9]
+	}
+
+	def "Contains with and without boxing"() {
+		def set = new IntArraySet()
+		set.add(4)
+		set.add(2)
+
+		expect:
+		set.contains(2)
+		set.contains(4 as Integer)
+		!set.contains(3)
+		!set.contains("2")
+		!new IntArraySet().contains(0)
+	}
+
+	def "Retain all of other set"() {
+		def set = new IntArraySet()
+		set.add(1)
+		set.add(3)
+		def other = new HashSet<Integer>([1, 2, 3, 4])
+
+		when:
+		other.retainAll(set)
+
+		then:
+		other == [1, 3] as Set
+	}
+
+	def "Remove values like a HashSet"() {
+		def set = new IntArraySet()
+		[1, 2, 3, 4, 5, 6].each { set.add(it as int) }
+
+		when:
+		def isRemoved = set.remove(3 as Integer)
+		def isNotRemoved = set.remove(7 as Integer)
+		set.removeIf { it % 2 == 0 }
+		set.add(8)
+
+		then:
+		isRemoved
+		!isNotRemoved
+		set as List == [1, 5, 8]
+		!set.contains(2)
+		set.contains(5)
+	}
+
+	def "Preset sets of node support removal"() {
+		def node = new TestNode(externID: "1").getNode()
+		node.addPresetDepot(4)
+		node.addPresetDepot(2)
+
+		when:
+		node.getPresetDepotList().remove(4)
+		def iterator = node.getPresetDepotList().iterator()
+		iterator.next()
+		iterator.remove()
+
+		then:
+		node.getPresetDepotList().isEmpty()
+		!node.isInPresetDepotList(2)
+	}
+}
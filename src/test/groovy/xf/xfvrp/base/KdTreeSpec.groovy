@@ -0,0 +1,78 @@
+package xf.xfvrp.base
+
+import spock.lang.Specification
+import util.instances.TestNode
+import xf.xfvrp.base.metric.AirMetric
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator
+
+class KdTreeSpec extends Specification {
+
+	def random = new Random(1234)
+
+	def n = (0..<300).collect {
+		def node = new TestNode(globalIdx: it, xlong: 6 + random.nextFloat() * 2, ylat: 50 + random.nextFloat()).getNode()
+		node.setIdx(it)
+		node
+	} as Node[]
+
+	def "Nearest nodes like complete search"() {
+		def tree = new KdTree(n, metric)
+
+		expect:
+		(0..<300).step(7).every { i ->
+			tree.findNearest(n[i], 10) as List == nearest(metric, i, 10)
+		}
+
+		where:
+		metric << [new EucledianMetric(), new AirMetric()]
+	}
+
+	def "Nodes in radius like complete search"() {
+		def tree = new KdTree(n, metric)
+
+		expect:
+		(0..<300).step(7).every { i ->
+			tree.findInRadius(n[i], radius) as List ==
+					(0..<300).findAll { metric.getDistance(n[i], n[it], null) <= radius }.toList()
+		}
+
+		where:
+		metric                | radius
+		new EucledianMetric() | 0.3f
+		new AirMetric()       | 20f
+	}
+
+	def "Subset contains only selected nodes"() {
+		def tree = new KdTree(n, new EucledianMetric())
+
+		when:
+		def subset = tree.subset({ idx -> idx % 2 == 0 })
+
+		then:
+		subset.size() == 150
+		subset.findNearest(n[1], 5).every { it % 2 == 0 }
+		subset.findNearest(n[1], 5) as List == nearest(new EucledianMetric(), 1, 300).findAll { it % 2 == 0 }.take(5)
+	}
+
+	def "Neighbor list with spatial index like without"() {
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null)
+		def tree = new KdTree(n, new EucledianMetric())
+
+		when:
+		def list = new NeighborList(n, metric, 8, 0)
+		def spatialList = new NeighborList(n, metric, tree, 8, 0)
+
+		then:
+		(0..<300).every { i ->
+			(list.getStart(i)..<list.getEnd(i)).collect { list.getNeighbor(it) } ==
+					(spatialList.getStart(i)..<spatialList.getEnd(i)).collect { spatialList.getNeighbor(it) }
+		}
+	}
+
+	List<Integer> nearest(def metric, int i, int k) {
+		return (0..<300).toList()
+				.sort { a, b -> metric.getDistance(n[i], n[a], null) <=> metric.getDistance(n[i], n[b], null) ?: a <=> b }
+				.take(k)
+	}
+}
@@ -0,0 +1,65 @@
+package xf.xfvrp.base
+
+import spock.lang.Specification
+import util.instances.TestNode
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator
+
+class NeighborListSpec extends Specification {
+
+	def "Nearest customers are symmetric neighbors"() {
+		def nodes = nodes([0, 1, 2, 10])
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), nodes, null)
+
+		when:
+		def list = new NeighborList(nodes, metric, 1, 0)
+
+		then:
+		list.isNeighbor(1, 2)
+		list.isNeighbor(2, 1)
+		list.isNeighbor(2, 3)
+		list.isNeighbor(4, 3)
+		list.isNeighbor(3, 4)
+		!list.isNeighbor(1, 3)
+		!list.isNeighbor(1, 4)
+		list.getEnd(0) == list.getStart(0)
+		(list.getStart(3)..<list.getEnd(3)).collect { list.getNeighbor(it) } == [2, 4]
+	}
+
+	def "Far neighbors are dropped by granularity factor"() {
+		def nodes = nodes([0, 1, 2, 10])
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), nodes, null)
+
+		when:
+		def list = new NeighborList(nodes, metric, 1, 1.5f)
+
+		then:
+		list.isNeighbor(1, 2)
+		!list.isNeighbor(3, 4)
+		!list.isNeighbor(4, 3)
+	}
+
+	def "Connections to depots are always granular"() {
+		def parameter = new XFVRPParameter()
+		parameter.setNbrOfGranularNeighbors(1)
+		def nodes = nodes([0, 1, 2, 10])
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), nodes, null)
+
+		when:
+		def model = new XFVRPModel(nodes, metric, metric, null, parameter)
+
+		then:
+		model.isGranularSearch()
+		model.isGranular(nodes[0], nodes[4])
+		model.isGranular(nodes[4], nodes[3])
+		!model.isGranular(nodes[1], nodes[4])
+	}
+
+	Node[] nodes(List<Integer> customerPositions) {
+		def depot = new TestNode(globalIdx: 0, siteType: SiteType.DEPOT, xlong: 100, ylat: 0).getNode()
+		def customers = customerPositions.withIndex().collect { x, i -> new TestNode(globalIdx: i + 1, xlong: x, ylat: 0).getNode() }
+		def nodes = ([depot] + customers) as Node[]
+		nodes.eachWithIndex { n, i -> n.setIdx(i) }
+		return nodes
+	}
+}
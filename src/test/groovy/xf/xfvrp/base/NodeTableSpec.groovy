@@ -0,0 +1,117 @@
+package xf.xfvrp.base
+
+import spock.lang.Specification
+import util.instances.TestNode
+
+class NodeTableSpec extends Specification {
+
+	def "Attributes of nodes are addressed by local index"() {
+		def depot = new TestNode(globalIdx: 10, siteType: SiteType.DEPOT, demand: [0, 0], timeWindow: [[1, 99]]).getNode()
+		def pickup = new TestNode(globalIdx: 11, demand: [2, 3], loadType: LoadType.PICKUP, serviceTime: 4, serviceTimeForSite: 5, presetBlockIdx: 2, presetBlockPos: 1, presetBlockRank: 3).getNode()
+		def delivery = new TestNode(globalIdx: 12, demand: [6, 7], loadType: LoadType.DELIVERY).getNode()
+		depot.setIdx(2)
+		pickup.setIdx(0)
+		delivery.setIdx(1)
+
+		when:
+		def table = new NodeTable([depot, pickup, delivery] as Node[], 2, 12)
+
+		then:
+		table.getSiteType(2) == SiteType.DEPOT
+		table.getSiteType(0) == SiteType.CUSTOMER
+		table.getGlobalIdx(2) == 10
+		table.getPickup(0, 1) == 3
+		table.getDelivery(0, 1) == 0
+		table.getDelivery(1, 0) == 6
+		table.getPickup(1, 0) == 0
+		table.getServiceTime(0) == 4
+		table.getServiceTimeForSite(0) == 5
+		table.getPresetBlockIdx(0) == 2
+		table.getPresetBlockPos(0) == 1
+		table.getPresetBlockRank(0) == 3
+		table.getOpenTime(table.findTimeWindow(2, 0)) == 1
+	}
+
+	def "Find fitting time window like node"() {
+		def node = new TestNode(timeWindow: [[0, 5], [10, 15], [20, 25]]).getNode()
+		node.setIdx(0)
+		def table = new NodeTable([node] as Node[], 1, 0)
+
+		expect:
+		table.getOpenTime(table.findTimeWindow(0, time)) == node.getTimeWindow(time)[0]
+		table.getCloseTime(table.findTimeWindow(0, time)) == node.getTimeWindow(time)[1]
+
+		where:
+		time << [0, 5, 7, 14, 16, 30]
+	}
+
+	def "Find fitting time window of overlapping windows like node"() {
+		def node = new TestNode(timeWindow: [[0, 10], [2, 4], [5, 20], [12, 15]]).getNode()
+		node.setIdx(0)
+		def table = new NodeTable([node] as Node[], 1, 0)
+
+		expect:
+		table.getOpenTime(table.findTimeWindow(0, time)) == node.getTimeWindow(time)[0]
+		table.getCloseTime(table.findTimeWindow(0, time)) == node.getTimeWindow(time)[1]
+
+		where:
+		time << [0, 3, 10, 11, 14, 20, 25]
+	}
+
+	def "Earliest departure and latest arrival of all time windows"() {
+		def depot = new TestNode(siteType: SiteType.DEPOT, serviceTime: 3, timeWindow: [[2, 50]]).getNode()
+		def customer = new TestNode(serviceTime: 3, timeWindow: [[5, 8], [1, 4], [10, 12]]).getNode()
+		depot.setIdx(0)
+		customer.setIdx(1)
+
+		when:
+		def table = new NodeTable([depot, customer] as Node[], 1, 0)
+
+		then:
+		table.getEarliestDeparture(0) == 2
+		table.getLatestArrival(0) == 50
+		table.getEarliestDeparture(1) == 4
+		table.getLatestArrival(1) == 12
+	}
+
+	def "Preset depots and black list as bitsets"() {
+		def n1 = new TestNode(globalIdx: 1, presetDepotGlobalIdx: 70, presetBlackNodeIdx: 65).getNode()
+		def n2 = new TestNode(globalIdx: 2).getNode()
+		n1.setIdx(0)
+		n2.setIdx(1)
+
+		when:
+		def table = new NodeTable([n1, n2] as Node[], 1, 100)
+
+		then:
+		table.getNbrOfWords() == 2
+		table.hasPresets()
+		table.hasPresetDepots(0)
+		!table.hasPresetDepots(1)
+		table.isInPresetDepotList(0, 70)
+		!table.isInPresetDepotList(0, 6)
+		table.getBlackListEnd(0) - table.getBlackListStart(0) == 1
+		table.getBlackListWord(table.getBlackListStart(0)) == 1
+		table.getBlackListBits(table.getBlackListStart(0)) == 1L << 1
+		table.getBlackListEnd(1) == table.getBlackListStart(1)
+	}
+
+	def "No presets for equal ranks in default block"() {
+		def n1 = new TestNode(globalIdx: 1, presetBlockRank: rank1).getNode()
+		def n2 = new TestNode(globalIdx: 2, presetBlockRank: rank2).getNode()
+		n1.setIdx(0)
+		n2.setIdx(1)
+
+		when:
+		def table = new NodeTable([n1, n2] as Node[], 1, 2)
+
+		then:
+		table.hasPresets() == expected
+
+		where:
+		rank1 | rank2 || expected
+		0     | 0     || false
+		1     | 1     || false
+		1     | 2     || true
+	}
+}
@@ -0,0 +1,81 @@
+package xf.xfvrp.base.metric
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+
+class MapMetricSpec extends Specification {
+
+	def v = new TestVehicle(name: "V1").getVehicle()
+	def v2 = new TestVehicle(name: "V2", vehicleMetricId: 3).getVehicle()
+
+	def "Find distance and time per geo ids and vehicle metric id"() {
+		def metric = new MapMetric()
+
+		when:
+		metric.add(1, 2, 5, 6)
+		metric.add(2, 1, 7, 8)
+		metric.add(1, 2, 3, 9, 10)
+
+		then:
+		metric.getDistance(node(1), node(2), v) == 5
+		metric.getTime(node(1), node(2), v) == 6
+		metric.getDistanceAndTime(node(2), node(1), v) == [7, 8] as float[]
+		metric.getDistanceAndTime(node(1), node(2), v2) == [9, 10] as float[]
+		metric.getDistanceAndTime(node(2), node(1), v2) == null
+		metric.getDistanceAndTime(node(1), node(3), v) == null
+	}
+
+	def "Add distance and time separately"() {
+		def metric = new MapMetric()
+
+		when:
+		metric.addDist(1, 2, 5)
+		metric.addTime(2, 1, 8)
+		metric.addTime(1, 2, 6)
+
+		then:
+		metric.getDistanceAndTime(node(1), node(2), v) == [5, 6] as float[]
+		metric.getDistanceAndTime(node(2), node(1), v) == [-1, 8] as float[]
+	}
+
+	def "Keep all pairs after growing table"() {
+		def metric = new MapMetric()
+		def ids = (0..<60).toList()
+
+		when:
+		ids.each { i -> ids.each { j -> metric.add(i, j - 30, i, j) } }
+
+		then:
+		ids.every { i -> ids.every { j -> metric.getDistanceAndTime(node(i), node(j - 30), v) == [i, j] as float[] } }
+	}
+
+	def "Bulk load matrix and pair lists"() {
+		def metric = new MapMetric()
+
+		when:
+		metric.addMatrix([7, 9] as int[], 0, [[0, 1], [2, 0]] as float[][], [[0, 3], [4, 0]] as float[][])
+		metric.addAll([7, 9] as int[], [9, 7] as int[], 3, [5, 6] as float[], [7, 8] as float[])
+
+		then:
+		metric.getDistanceAndTime(node(7), node(9), v) == [1, 3] as float[]
+		metric.getDistanceAndTime(node(9), node(7), v) == [2, 4] as float[]
+		metric.getDistanceAndTime(node(9), node(9), v) == [0, 0] as float[]
+		metric.getDistanceAndTime(node(9), node(7), v2) == [6, 8] as float[]
+	}
+
+	def "Missing pair is reported"() {
+		def metric = new MapMetric()
+		metric.add(1, 2, 5, 6)
+
+		when:
+		metric.getDistance(node(2), node(1), v)
+
+		then:
+		thrown IllegalStateException
+	}
+
+	def node(int geoId) {
+		return new TestNode(geoId: geoId).getNode()
+	}
+}
@@ -0,0 +1,98 @@
+package xf.xfvrp.base.metric
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.exception.XFVRPException
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class MappedMatrixMetricSpec extends Specification {
+
+	Path file
+
+	def setup() {
+		file = Files.createTempFile("matrix", ".bin")
+	}
+
+	def cleanup() {
+		Files.deleteIfExists(file)
+	}
+
+	def "Read written matrix per vehicle metric id"() {
+		def n = nodes(3)
+		def v1 = new TestVehicle(name: "V1", vehicleMetricId: 4).getVehicle()
+		def v2 = new TestVehicle(name: "V2", vehicleMetricId: 1).getVehicle()
+
+		when:
+		def writer = new MappedMatrixMetricWriter(file, 3, [4, 1] as int[], false)
+		writer.add(0, 1, 4, 5, 6)
+		writer.add(1, 0, 4, 7, 8)
+		writer.add(0, 1, 1, 9, 10)
+		writer.close()
+		def metric = new MappedMatrixMetric(file)
+
+		then:
+		metric.getSize() == 3
+		metric.getVehicleMetricIds() == [4, 1] as int[]
+		!metric.isSymmetric()
+		metric.getDistance(n[0], n[1], v1) == 5
+		metric.getTime(n[0], n[1], v1) == 6
+		metric.getDistanceAndTime(n[1], n[0], v1) == [7, 8] as float[]
+		metric.getDistanceAndTime(n[0], n[1], v2) == [9, 10] as float[]
+		metric.getDistance(n[1], n[0], v2) == 0
+	}
+
+	def "Symmetric matrix stores one direction"() {
+		def n = nodes(4)
+		def v = new TestVehicle(name: "V1").getVehicle()
+
+		when:
+		def writer = new MappedMatrixMetricWriter(file, 4, true)
+		for (int i = 0; i < 4; i++)
+			for (int j = i; j < 4; j++)
+				writer.add(j, i, i * 10 + j, i + j)
+		writer.close()
+		def metric = new MappedMatrixMetric(file)
+
+		then:
+		Files.size(file) == (5 + 1) * 4 + 10 * 2 * 4
+		metric.isSymmetric()
+		(0..<4).every { i -> (0..<4).every { j ->
+			metric.getDistance(n[i], n[j], v) == Math.min(i, j) * 10 + Math.max(i, j) &&
+					metric.getTime(n[j], n[i], v) == i + j
+		}}
+	}
+
+	def "Reject unknown file"() {
+		Files.write(file, [1, 2, 3, 4] as byte[])
+
+		when:
+		new MappedMatrixMetric(file)
+
+		then:
+		thrown XFVRPException
+	}
+
+	def "Reject truncated file"() {
+		new MappedMatrixMetricWriter(file, 10, false).close()
+		def bytes = Files.readAllBytes(file)
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 4))
+
+		when:
+		new MappedMatrixMetric(file)
+
+		then:
+		thrown XFVRPException
+	}
+
+	Node[] nodes(int size) {
+		return (0..<size).collect {
+			def node = new TestNode(globalIdx: it).getNode()
+			node.setIdx(it)
+			node
+		} as Node[]
+	}
+}
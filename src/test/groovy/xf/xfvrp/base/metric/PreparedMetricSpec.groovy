@@ -0,0 +1,47 @@
+package xf.xfvrp.base.metric
+
+import spock.lang.Specification
+import util.instances.TestNode
+import xf.xfvrp.base.Node
+
+class PreparedMetricSpec extends Specification {
+
+	def n = (0..<50).collect {
+		def node = new TestNode(globalIdx: it, xlong: 6 + (it % 7) * 0.37f, ylat: 50 + it.intdiv(7) * 0.21f).getNode()
+		node.setIdx(it)
+		node
+	} as Node[]
+
+	def "Prepared metric gives same values as plain metric"() {
+		def prepared = metric.prepare(n, null)
+
+		expect:
+		(0..<50).every { i -> (0..<50).every { j ->
+			Math.abs(prepared.getDistance(n[i], n[j], null) - metric.getDistance(n[i], n[j], null)) < 0.001f &&
+					Math.abs(prepared.getTime(n[i], n[j], null) - metric.getTime(n[i], n[j], null)) < 0.001f
+		}}
+		prepared.getDistance(n[3], n[3], null) == 0
+
+		where:
+		metric << [new AirMetric(), new EucledianMetric()]
+	}
+
+	def "Row of prepared metric is addressed by node index"() {
+		def prepared = metric.prepare(n, null)
+		def distances = new float[prepared.getSize()]
+		def times = new float[prepared.getSize()]
+
+		when:
+		prepared.getRow(5, distances, times)
+
+		then:
+		prepared.getSize() == 50
+		(0..<50).every { j ->
+			distances[j] == prepared.getDistance(n[5], n[j], null) &&
+					times[j] == prepared.getTime(n[5], n[j], null)
+		}
+
+		where:
+		metric << [new AirMetric(), new EucledianMetric()]
+	}
+}
@@ -0,0 +1,94 @@
+package xf.xfvrp.base.metric.internal
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.SiteType
+import xf.xfvrp.base.XFVRPParameter
+import xf.xfvrp.base.exception.XFVRPException
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.MapMetric
+
+class AcceleratedMetricSpec extends Specification {
+
+	def "Distance and time are addressed by node indexes"() {
+		def n = nodes()
+		def metric = new AcceleratedMetric(3)
+
+		when:
+		metric.add(0, 1, 5, 6)
+		metric.add(1, 0, 7, 8)
+		metric.add(2, 2, 9, 10)
+
+		then:
+		metric.getDistance(n[0], n[1]) == 5
+		metric.getTime(n[0], n[1]) == 6
+		metric.getDistance(n[1], n[0]) == 7
+		metric.getTime(n[1], n[0]) == 8
+		metric.getDistanceAndTime(n[2], n[2]) == [9, 10] as float[]
+		metric.getDistance(n[0], n[2]) == 0
+	}
+
+	def "Open routes have no distance from depot"() {
+		def n = nodes()
+		def parameter = new XFVRPParameter()
+		parameter.setOpenRouteAtStart(true)
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null)
+
+		when:
+		def openMetric = OpenRouteMetricTransformator.transform(metric, n, parameter)
+
+		then:
+		openMetric.getDistance(n[0], n[1]) == 0
+		openMetric.getTime(n[0], n[1]) == 0
+		openMetric.getDistance(n[1], n[0]) == metric.getDistance(n[1], n[0])
+		openMetric.getDistance(n[1], n[2]) == metric.getDistance(n[1], n[2])
+	}
+
+	def "Parallel transformation gives same matrix"() {
+		def n = (0..<100).collect {
+			def node = new TestNode(globalIdx: it, xlong: it % 10, ylat: it.intdiv(10)).getNode()
+			node.setIdx(it)
+			node
+		} as Node[]
+
+		when:
+		def sequential = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null, 1)
+		def parallel = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null, 4)
+
+		then:
+		(0..<100).every { i -> (0..<100).every { j ->
+			sequential.getDistance(n[i], n[j]) == parallel.getDistance(n[i], n[j]) &&
+					sequential.getTime(n[i], n[j]) == parallel.getTime(n[i], n[j])
+		}}
+	}
+
+	def "Parallel transformation reports first missing pair"() {
+		def n = (0..<100).collect {
+			def node = new TestNode(globalIdx: it, geoId: it).getNode()
+			node.setIdx(it)
+			node
+		} as Node[]
+		def missingRows = [30, 70, 90]
+		def metric = new MapMetric()
+		(0..<100).each { i -> (0..<100).each { j -> if(!(i in missingRows && j >= 5)) metric.add(i, j, 1, 1) } }
+
+		when:
+		AcceleratedMetricTransformator.transform(metric, n, new TestVehicle(name: "V1").getVehicle(), 4)
+
+		then:
+		def e = thrown(XFVRPException)
+		e.getMessage().contains("(30,5)")
+	}
+
+	Node[] nodes() {
+		def n0 = new TestNode(globalIdx: 0, siteType: SiteType.DEPOT, xlong: 0, ylat: 0).getNode()
+		def n1 = new TestNode(globalIdx: 1, xlong: 3, ylat: 4).getNode()
+		def n2 = new TestNode(globalIdx: 2, xlong: 1, ylat: 0).getNode()
+		n0.setIdx(0)
+		n1.setIdx(1)
+		n2.setIdx(2)
+		return [n0, n1, n2] as Node[]
+	}
+}
@@ -0,0 +1,112 @@
+package xf.xfvrp.base.metric.internal
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.Vehicle
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.MapMetric
+import xf.xfvrp.base.metric.Metric
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class CompactMetricSpec extends Specification {
+
+	def n = (0..<100).collect {
+		def node = new TestNode(globalIdx: it, geoId: it, xlong: it % 10, ylat: it.intdiv(10)).getNode()
+		node.setIdx(it)
+		node
+	} as Node[]
+
+	def "Compact values are within tolerance"() {
+		def full = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null)
+
+		when:
+		def compact = CompactMetricTransformator.transform(new EucledianMetric(), n, null, 0.001f)
+
+		then:
+		compact instanceof CompactMetric
+		((CompactMetric) compact).isSymmetric()
+		(0..<100).every { i -> (0..<100).every { j ->
+			Math.abs(compact.getDistance(n[i], n[j]) - full.getDistance(n[i], n[j])) <= 0.001f &&
+					Math.abs(compact.getTime(n[i], n[j]) - full.getTime(n[i], n[j])) <= 0.001f
+		}}
+	}
+
+	def "Asymmetric metric is stored completely"() {
+		def metric = new MapMetric()
+		(0..<100).each { i -> (0..<100).each { j -> metric.add(i, j, i * 2 + j, i + j * 3) } }
+
+		when:
+		def compact = CompactMetricTransformator.transform(metric, n, new TestVehicle(name: "V1").getVehicle(), 0.01f)
+
+		then:
+		compact instanceof CompactMetric
+		!((CompactMetric) compact).isSymmetric()
+		Math.abs(compact.getDistance(n[3], n[7]) - 13) <= 0.01f
+		Math.abs(compact.getDistance(n[7], n[3]) - 17) <= 0.01f
+		Math.abs(compact.getDistanceAndTime(n[7], n[3])[1] - 16) <= 0.01f
+	}
+
+	def "Only equal sites have a distance of 0"() {
+		def metric = new MapMetric()
+		(0..<100).each { i -> (0..<100).each { j -> metric.add(i, j, (i == j) ? 0 : 100, (i == j) ? 0 : 100) } }
+		metric.add(0, 1, 0.0001f, 0.0001f)
+
+		when:
+		def compact = CompactMetricTransformator.transform(metric, n, new TestVehicle(name: "V1").getVehicle(), 0.01f)
+
+		then:
+		compact instanceof CompactMetric
+		compact.getDistance(n[0], n[0]) == 0
+		compact.getDistance(n[0], n[1]) > 0
+		compact.getTime(n[0], n[1]) > 0
+		Math.abs(compact.getDistance(n[0], n[1]) - 0.0001f) <= 0.01f
+		compact.getDistance(n[1], n[0]) == 100
+	}
+
+	def "User metric is read in two passes without full precision matrix"() {
+		def nbrOfCalls = new AtomicInteger()
+		def metric = new Metric() {
+			float getDistance(Node src, Node dst, Vehicle veh) { return src.getIdx() + dst.getIdx() }
+			float getTime(Node src, Node dst, Vehicle veh) { return src.getIdx() + dst.getIdx() }
+			float[] getDistanceAndTime(Node src, Node dst, Vehicle veh) { nbrOfCalls.incrementAndGet(); return [src.getIdx() + dst.getIdx(), 1] as float[] }
+		}
+
+		when:
+		def compact = CompactMetricTransformator.transform(metric, n, new TestVehicle(name: "V1").getVehicle(), 0.01f, 4)
+
+		then:
+		compact instanceof CompactMetric
+		// Range pass with reverse pairs of the lower triangle and fill pass of the upper triangle
+		nbrOfCalls.get() == 100 * 100 + 100 * 99 / 2 + 100 * 101 / 2
+		Math.abs(compact.getDistance(n[3], n[7]) - 10) <= 0.01f
+	}
+
+	def "Several threads give the same compact matrix"() {
+		def metric = new MapMetric()
+		def rand = new Random(1234)
+		(0..<100).each { i -> (0..<100).each { j -> metric.add(i, j, rand.nextInt(500), rand.nextInt(500)) } }
+		def v = new TestVehicle(name: "V1").getVehicle()
+
+		when:
+		def single = CompactMetricTransformator.transform(metric, n, v, 0.01f, 1)
+		def parallel = CompactMetricTransformator.transform(metric, n, v, 0.01f, 4)
+
+		then:
+		parallel instanceof CompactMetric
+		(0..<100).every { i -> (0..<100).every { j ->
+			single.getDistance(n[i], n[j]) == parallel.getDistance(n[i], n[j]) &&
+					single.getTime(n[i], n[j]) == parallel.getTime(n[i], n[j])
+		}}
+	}
+
+	def "Full precision if tolerance is too small"() {
+		when:
+		def metric = CompactMetricTransformator.transform(new EucledianMetric(), n, null, 0.00001f)
+
+		then:
+		metric instanceof AcceleratedMetric
+	}
+}
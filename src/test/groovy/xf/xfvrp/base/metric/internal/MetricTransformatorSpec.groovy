@@ -0,0 +1,69 @@
+package xf.xfvrp.base.metric.internal
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.SiteType
+import xf.xfvrp.base.metric.EucledianMetric
+
+class MetricTransformatorSpec extends Specification {
+
+	def "Fix cost at connections between depot and customer"() {
+		def n = nodes()
+		def v = new TestVehicle(name: "V1", fixCost: 10).getVehicle()
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, v)
+
+		when:
+		def optMetric = FixCostMetricTransformator.transform(metric, n, v)
+
+		then:
+		optMetric.getDistance(n[0], n[1]) == metric.getDistance(n[0], n[1]) + 10f
+		optMetric.getDistance(n[2], n[0]) == metric.getDistance(n[2], n[0]) + 10f
+		optMetric.getDistance(n[1], n[2]) == metric.getDistance(n[1], n[2])
+		optMetric.getDistance(n[0], n[0]) == 0
+		optMetric.getTime(n[0], n[1]) == metric.getTime(n[0], n[1])
+	}
+
+	def "No fix cost transformation without fix cost"() {
+		def n = nodes()
+		def v = new TestVehicle(name: "V1", fixCost: 0).getVehicle()
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, v)
+
+		expect:
+		FixCostMetricTransformator.transform(metric, n, v).is(metric)
+	}
+
+	def "Unlimited distance to other nodes than preset follower"() {
+		def n = nodes()
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null)
+
+		when:
+		def optMetric = PresetMetricTransformator.transform(metric, n)
+
+		then:
+		optMetric.getDistance(n[1], n[2]) == metric.getDistance(n[1], n[2])
+		optMetric.getDistance(n[1], n[0]) == Float.MAX_VALUE
+		optMetric.getDistance(n[0], n[2]) == Float.MAX_VALUE
+		optMetric.getDistance(n[0], n[1]) == metric.getDistance(n[0], n[1])
+		optMetric.getDistance(n[2], n[0]) == metric.getDistance(n[2], n[0])
+	}
+
+	def "No preset transformation without blocks"() {
+		def n = nodes()
+		def metric = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null)
+
+		expect:
+		PresetMetricTransformator.transform(metric, [n[0]] as Node[]).is(metric)
+	}
+
+	Node[] nodes() {
+		def n0 = new TestNode(globalIdx: 0, siteType: SiteType.DEPOT, xlong: 0, ylat: 0).getNode()
+		def n1 = new TestNode(globalIdx: 1, xlong: 3, ylat: 4, presetBlockIdx: 2, presetBlockPos: 1).getNode()
+		def n2 = new TestNode(globalIdx: 2, xlong: 1, ylat: 0, presetBlockIdx: 2, presetBlockPos: 2).getNode()
+		n0.setIdx(0)
+		n1.setIdx(1)
+		n2.setIdx(2)
+		return [n0, n1, n2] as Node[]
+	}
+}
@@ -0,0 +1,130 @@
+package xf.xfvrp.base.metric.internal
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.Vehicle
+import xf.xfvrp.base.exception.XFVRPException
+import xf.xfvrp.base.metric.AirMetric
+import xf.xfvrp.base.metric.DirectMatrixMetric
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.MapMetric
+import xf.xfvrp.base.metric.Metric
+
+class SharedMetricTransformatorSpec extends Specification {
+
+	def v1 = new TestVehicle(name: "V1").getVehicle()
+	def v2 = new TestVehicle(name: "V2").getVehicle()
+	def v3 = new TestVehicle(name: "V3", vehicleMetricId: 1).getVehicle()
+
+	def "View of subset has same values as own transformation"() {
+		def nodes = createNodes(5)
+		def transformator = new SharedMetricTransformator(new EucledianMetric(), nodes, 1)
+		def subset = [nodes[4], nodes[1], nodes[3]] as Node[]
+		indexLocally(subset)
+
+		when:
+		def view = transformator.transform(subset, v1)
+		def expected = AcceleratedMetricTransformator.transform(new EucledianMetric(), subset, v1)
+
+		then:
+		(0..<3).every { i -> (0..<3).every { j ->
+			view.getDistance(subset[i], subset[j]) == expected.getDistance(subset[i], subset[j]) &&
+					view.getTime(subset[i], subset[j]) == expected.getTime(subset[i], subset[j]) &&
+					view.getDistanceAndTime(subset[i], subset[j]) == expected.getDistanceAndTime(subset[i], subset[j])
+		}}
+	}
+
+	def "Views of mixed fleet runs with reduced node sets equal own transformations"() {
+		def nodes = createNodes(6)
+		def rand = new Random(1234)
+		def metric = new MapMetric()
+		(0..<6).each { i -> (0..<6).each { j ->
+			metric.add(i, j, rand.nextInt(1000), rand.nextInt(1000))
+			metric.add(i, j, 1, rand.nextInt(1000), rand.nextInt(1000))
+		}}
+		def transformator = new SharedMetricTransformator(metric, nodes, 1)
+		def runs = [
+				[nodes as List, v1],
+				[[nodes[0], nodes[5], nodes[2], nodes[4]], v2],
+				[[nodes[0], nodes[4], nodes[3]], v1],
+				[[nodes[0], nodes[3], nodes[1]], v3]
+		]
+
+		when:
+		def isEqual = runs.every { List<Node> runNodes, Vehicle veh ->
+			def subset = runNodes as Node[]
+			indexLocally(subset)
+			def view = transformator.transform(subset, veh)
+			def expected = AcceleratedMetricTransformator.transform(metric, subset, veh)
+
+			return subset.every { src -> subset.every { dst ->
+				view.getDistance(src, dst) == expected.getDistance(src, dst) &&
+						view.getTime(src, dst) == expected.getTime(src, dst)
+			}}
+		}
+
+		then:
+		isEqual
+	}
+
+	def "Only index free metrics are shared"() {
+		expect:
+		SharedMetricTransformator.isSharable(new EucledianMetric())
+		SharedMetricTransformator.isSharable(new AirMetric())
+		SharedMetricTransformator.isSharable(new MapMetric())
+		!SharedMetricTransformator.isSharable(new DirectMatrixMetric(3))
+	}
+
+	def "Transform each pair once per vehicle metric id"() {
+		def nodes = createNodes(4)
+		int nbrOfCalls = 0
+		def metric = new Metric() {
+			float getDistance(Node src, Node dst, Vehicle veh) { return 1 }
+			float getTime(Node src, Node dst, Vehicle veh) { return 1 }
+			float[] getDistanceAndTime(Node src, Node dst, Vehicle veh) { nbrOfCalls++; return [1, 1] as float[] }
+		}
+		def transformator = new SharedMetricTransformator(metric, nodes, 1)
+
+		when:
+		transformator.transform(nodes, v1)
+		def subset = [nodes[2], nodes[3]] as Node[]
+		indexLocally(subset)
+		transformator.transform(subset, v2)
+		transformator.transform(subset, v3)
+
+		then:
+		nbrOfCalls == 16 + 4
+	}
+
+	def "Missing distance only for nodes of the model"() {
+		def nodes = createNodes(3)
+		def metric = new MapMetric()
+		(0..<3).each { i -> (0..<3).each { j -> if(!(i == 0 && j == 2)) metric.add(i, j, 1, 1) } }
+		def transformator = new SharedMetricTransformator(metric, nodes, 1)
+
+		when:
+		def subset = [nodes[1], nodes[2]] as Node[]
+		indexLocally(subset)
+		transformator.transform(subset, v1)
+		indexLocally(nodes)
+		transformator.transform(nodes, v1)
+
+		then:
+		def e = thrown(XFVRPException)
+		e.getMessage().contains("(0,2)")
+	}
+
+	Node[] createNodes(int size) {
+		return (0..<size).collect {
+			def node = new TestNode(globalIdx: it, geoId: it, xlong: it, ylat: it % 2).getNode()
+			node.setIdx(it)
+			node
+		} as Node[]
+	}
+
+	void indexLocally(Node[] nodes) {
+		nodes.eachWithIndex { Node n, int i -> n.setIdx(i) }
+	}
+}
@@ -0,0 +1,74 @@
+package xf.xfvrp.base.metric.internal
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.exception.XFVRPException
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.MapMetric
+
+class SparseMetricSpec extends Specification {
+
+	def n = (0..<100).collect {
+		def node = new TestNode(globalIdx: it, geoId: it, xlong: it % 10, ylat: it.intdiv(10)).getNode()
+		node.setIdx(it)
+		node
+	} as Node[]
+
+	def "Sparse metric gives same values as complete matrix"() {
+		def full = AcceleratedMetricTransformator.transform(new EucledianMetric(), n, null)
+
+		when:
+		def sparse = SparseMetricTransformator.transform(new EucledianMetric(), n, null, 8, 16)
+
+		then:
+		(0..<100).every { i -> (0..<100).every { j ->
+			sparse.getDistance(n[i], n[j]) == full.getDistance(n[i], n[j]) &&
+					sparse.getTime(n[i], n[j]) == full.getTime(n[i], n[j]) &&
+					sparse.getDistanceAndTime(n[i], n[j]) == full.getDistanceAndTime(n[i], n[j])
+		}}
+	}
+
+	def "Nearest neighbors and cached pairs need no metric call"() {
+		def sparse = SparseMetricTransformator.transform(new EucledianMetric(), n, null, 4, 16)
+
+		when:
+		sparse.getDistance(n[0], n[1])
+		sparse.getDistance(n[0], n[10])
+		sparse.getDistance(n[0], n[11])
+		def callsOfNeighbors = sparse.getNbrOfMetricCalls()
+		sparse.getDistance(n[0], n[99])
+		sparse.getTime(n[0], n[99])
+
+		then:
+		callsOfNeighbors == 0
+		sparse.getNbrOfMetricCalls() == 1
+	}
+
+	def "Missing distance information is reported at creation"() {
+		def metric = new MapMetric()
+		(0..<100).each { i -> (0..<100).each { j -> if(i != 30 || j != 5) metric.add(i, j, 1, 1) } }
+
+		when:
+		SparseMetricTransformator.transform(metric, n, new TestVehicle(name: "V1").getVehicle(), 4, 16)
+
+		then:
+		def e = thrown(XFVRPException)
+		e.getMessage().contains("(30,5)")
+	}
+
+	def "Sparse if complete matrix exceeds memory budget"() {
+		expect:
+		SparseMetricTransformator.isSparse(nbrOfNodes, isCompact, budget) == expected
+
+		where:
+		nbrOfNodes | isCompact | budget         || expected
+		100        | false     | 80_000         || false
+		100        | false     | 79_999         || true
+		100        | true      | 40_000         || false
+		100        | true      | 39_999         || true
+		50_000     | false     | 1_000_000_000L || true
+		50_000     | false     | Long.MAX_VALUE || false
+	}
+}
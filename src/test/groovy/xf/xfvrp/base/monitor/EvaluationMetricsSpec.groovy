@@ -0,0 +1,84 @@
+package xf.xfvrp.base.monitor
+
+import spock.lang.Specification
+
+class EvaluationMetricsSpec extends Specification {
+
+	def "Count checks and changes per operator"() {
+		def metrics = new EvaluationMetrics()
+
+		when:
+		def op = metrics.getOperator("OP")
+		op.countCheck(EvaluationCheckType.TWO_ROUTES, true, op.startTimer())
+		op.countCheck(EvaluationCheckType.TWO_ROUTES, false, op.startTimer())
+		op.countCheck(EvaluationCheckType.SOLUTION, true, op.startTimer())
+		3.times { op.countEvaluatedChange() }
+		op.countAcceptedChange()
+		op.countFilteredChange()
+
+		then:
+		metrics.getOperator("OP").is(op)
+		op.getNbrOfChecks(EvaluationCheckType.TWO_ROUTES) == 2
+		op.getNbrOfInvalidChecks(EvaluationCheckType.TWO_ROUTES) == 1
+		op.getNbrOfChecks(EvaluationCheckType.INSERTIONS) == 0
+		op.getNbrOfChecks() == 3
+		op.getNbrOfAcceptedChanges() == 1
+		op.getNbrOfRejectedChanges() == 2
+		op.getNbrOfFilteredChanges() == 1
+		op.getCheckTimeInNanos(EvaluationCheckType.TWO_ROUTES) == 0
+	}
+
+	def "Measure time only with active timer"() {
+		def metrics = new EvaluationMetrics()
+		def op = metrics.getOperator("OP")
+
+		when:
+		metrics.setTimerActive(true)
+		def startTime = op.startTimer()
+		Thread.sleep(2)
+		op.countExecution(startTime)
+
+		then:
+		startTime != 0
+		op.getNbrOfExecutions() == 1
+		op.getExecutionTimeInNanos() > 0
+	}
+
+	def "Reset keeps referenced operators"() {
+		def metrics = new EvaluationMetrics()
+		def op = metrics.getOperator("OP")
+		op.countExecution(0)
+		metrics.getOperator("UNUSED")
+
+		when:
+		def operatorsBefore = metrics.getOperators()
+		metrics.reset()
+
+		then:
+		operatorsBefore*.getName() == ["OP"]
+		metrics.getOperators().isEmpty()
+		op.getNbrOfExecutions() == 0
+		metrics.getOperator("OP").is(op)
+	}
+
+	def "Copy is not changed by later counts and reset"() {
+		def metrics = new EvaluationMetrics()
+		def op = metrics.getOperator("OP")
+		op.countExecution(0)
+		op.countCheck(EvaluationCheckType.SOLUTION, false, 0)
+		op.countAcceptedChange()
+
+		when:
+		def copy = metrics.copy()
+		metrics.reset()
+		op.countExecution(0)
+		op.countExecution(0)
+
+		then:
+		copy.getOperators()*.getName() == ["OP"]
+		copy.getOperator("OP").getNbrOfExecutions() == 1
+		copy.getOperator("OP").getNbrOfInvalidChecks(EvaluationCheckType.SOLUTION) == 1
+		copy.getOperator("OP").getNbrOfAcceptedChanges() == 1
+		op.getNbrOfExecutions() == 2
+	}
+}
@@ -0,0 +1,235 @@
+package xf.xfvrp.opt
+
+import spock.lang.Specification
+import util.instances.TestNode
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.Quality
+import xf.xfvrp.base.SiteType
+
+class SolutionSpec extends Specification {
+
+	def depot = node(0, SiteType.DEPOT)
+	def n1 = node(1, SiteType.CUSTOMER)
+	def n2 = node(2, SiteType.CUSTOMER)
+	def n3 = node(3, SiteType.CUSTOMER)
+	def n4 = node(4, SiteType.CUSTOMER)
+
+	def "Giant route is a new array for each call"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, depot] as Node[])
+
+		when:
+		def giantRoute = sol.getGiantRoute()
+		giantRoute[1] = n4
+
+		then:
+		sol.getGiantRoute() == [depot, n1, n2, depot, n3, depot] as Node[]
+		sol.getRoutes()[0] == [depot, n1, n2, depot] as Node[]
+	}
+
+	def "Changed giant route is parsed on next access of routes"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, depot] as Node[])
+
+		when:
+		def giantRoute = sol.changeGiantRoute()
+		giantRoute[2] = n3
+		giantRoute[4] = n2
+
+		then:
+		sol.getRoutes().length == 2
+		sol.getRoutes()[0] == [depot, n1, n3, depot] as Node[]
+		sol.getRoutes()[1] == [depot, n2, depot] as Node[]
+		sol.getRouteIndex(n2) == 1
+	}
+
+	def "Changed routes invalidate giant route"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, depot] as Node[])
+		sol.getGiantRoute()
+
+		when:
+		sol.setRoute(1, [depot, n3, n4, depot] as Node[])
+
+		then:
+		sol.getGiantRoute() == [depot, n1, n2, depot, n3, n4, depot] as Node[]
+	}
+
+	def "Routes changed in place invalidate giant route"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, depot] as Node[])
+		sol.getGiantRoute()
+
+		when:
+		sol.changeRoute(1)[1] = n4
+		def changed = sol.getGiantRoute()
+		sol.reverse(0, 1, 2)
+
+		then:
+		changed == [depot, n1, n2, depot, n4, depot] as Node[]
+		sol.getGiantRoute() == [depot, n2, n1, depot, n4, depot] as Node[]
+	}
+
+	def "Position index is updated for changed routes"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, n3, depot, n4, depot] as Node[])
+
+		when:
+		def before = [n1, n2, n3, n4].collect { [sol.getRouteIndex(it), sol.getPosition(it)] }
+		sol.reverse(0, 1, 3)
+		def reversed = [n1, n2, n3].collect { sol.getPosition(it) }
+		def route = sol.changeRoute(0)
+		route[1] = n1
+		route[3] = n3
+		def changed = [n1, n3].collect { sol.getPosition(it) }
+		sol.setRoute(0, [depot, n3, n1, depot] as Node[])
+		sol.setRoute(1, [depot, n4, n2, depot] as Node[])
+		def replaced = [n1, n2, n3, n4].collect { [sol.getRouteIndex(it), sol.getPosition(it)] }
+		sol.deleteRoute(1)
+
+		then:
+		before == [[0, 1], [0, 2], [0, 3], [1, 1]]
+		reversed == [3, 2, 1]
+		changed == [1, 3]
+		replaced == [[0, 2], [1, 2], [0, 1], [1, 1]]
+		sol.getRouteIndex(n2) == -1
+		sol.getPosition(n4) == -1
+		sol.getRouteIndex(n1) == 0
+	}
+
+	def "Copy shares routes until they are changed"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, n4, depot] as Node[])
+
+		when:
+		def copy = sol.copy()
+		def isSharedBefore = copy.getRoutes()[0].is(sol.getRoutes()[0])
+		copy.reverse(0, 1, 2)
+		copy.changeRoute(1)[1] = n1
+
+		then:
+		isSharedBefore
+		!copy.getRoutes()[0].is(sol.getRoutes()[0])
+		sol.getRoutes()[0] == [depot, n1, n2, depot] as Node[]
+		sol.getRoutes()[1] == [depot, n3, n4, depot] as Node[]
+		copy.getRoutes()[0] == [depot, n2, n1, depot] as Node[]
+		copy.getRoutes()[1] == [depot, n1, n4, depot] as Node[]
+	}
+
+	def "Copy shares route qualities until they are changed"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, depot, n2, depot] as Node[])
+		sol.updateRouteQuality(0, quality(5))
+
+		when:
+		def copy = sol.copy()
+		copy.updateRouteQuality(0, quality(3))
+		copy.swapRoutes(0, 1)
+
+		then:
+		Math.abs(sol.getRouteQualities()[0].getCost() - 5) < 0.001
+		Math.abs(sol.getQuality().getCost() - 5) < 0.001
+		Math.abs(copy.getRouteQualities()[1].getCost() - 3) < 0.001
+		Math.abs(copy.getQuality().getCost() - 3) < 0.001
+		copy.getRoutes()[1] == [depot, n1, depot] as Node[]
+		copy.getRouteIndex(n1) == 1
+	}
+
+	def "Rollback restores changed routes and qualities"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, depot] as Node[])
+		sol.updateRouteQuality(0, quality(5))
+		sol.updateRouteQuality(1, quality(2))
+		def route = sol.getRoutes()[0]
+		sol.getPosition(n1)
+
+		when:
+		sol.begin()
+		sol.reverse(0, 1, 2)
+		sol.changeRoute(0)[1] = n4
+		sol.setRoute(1, [depot, n3, n4, depot] as Node[])
+		sol.addRoute([depot, n1, depot] as Node[])
+		sol.updateRouteQuality(0, quality(1))
+		sol.rollback()
+
+		then:
+		sol.getRoutes().length == 2
+		sol.getRoutes()[0].is(route)
+		sol.getRoutes()[0] == [depot, n1, n2, depot] as Node[]
+		sol.getRoutes()[1] == [depot, n3, depot] as Node[]
+		Math.abs(sol.getRouteQualities()[0].getCost() - 5) < 0.001
+		Math.abs(sol.getQuality().getCost() - 7) < 0.001
+		sol.getPosition(n1) == 1
+		sol.getPosition(n2) == 2
+		sol.getRouteIndex(n3) == 1
+		sol.getPosition(n4) == -1
+	}
+
+	def "Rollback restores changed giant route and commit keeps changes"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, depot] as Node[])
+
+		when:
+		sol.begin()
+		sol.changeGiantRoute()[2] = n3
+		sol.changeGiantRoute()[4] = n2
+		def changed = sol.getGiantRoute()
+		sol.rollback()
+		def restored = sol.getGiantRoute()
+		sol.begin()
+		sol.reverse(0, 1, 2)
+		sol.commit()
+
+		then:
+		changed == [depot, n1, n3, depot, n2, depot] as Node[]
+		restored == [depot, n1, n2, depot, n3, depot] as Node[]
+		sol.getRoutes()[0] == [depot, n2, n1, depot] as Node[]
+	}
+
+	def "Giant route view is kept after parse and restored by rollback"() {
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n1, n2, depot, n3, depot] as Node[])
+		def view = sol.changeGiantRoute()
+		view[2] = n3
+		view[4] = n2
+		sol.getRoutes()
+
+		when:
+		def isKeptAfterParse = sol.changeGiantRoute().is(view)
+		sol.begin()
+		sol.changeGiantRoute()[1] = n4
+		def changedRoutes = sol.getRoutes()[0]
+		sol.rollback()
+
+		then:
+		isKeptAfterParse
+		changedRoutes == [depot, n4, n3, depot] as Node[]
+		sol.changeGiantRoute().is(view)
+		view == [depot, n1, n3, depot, n2, depot] as Node[]
+		sol.getRoutes()[0] == [depot, n1, n3, depot] as Node[]
+	}
+
+	def "Parse giant route with open last route"() {
+		def sol = new Solution()
+
+		when:
+		sol.setGiantRoute([depot, n1, depot, n2, n3] as Node[])
+
+		then:
+		sol.getRoutes().length == 2
+		sol.getRoutes()[0] == [depot, n1, depot] as Node[]
+		sol.getRoutes()[1] == [depot, n2, n3] as Node[]
+	}
+
+	Quality quality(float cost) {
+		def q = new Quality()
+		q.addCost(cost)
+		return q
+	}
+
+	Node node(int idx, SiteType siteType) {
+		def n = new TestNode(globalIdx: idx, externID: idx + "", siteType: siteType).getNode()
+		n.setIdx(idx)
+		return n
+	}
+}
@@ -154,13 +154,11 @@ class XFPDPFirstBestInsertSpec extends Specification {
 		def route = service.createEvaluationRoute(giantRoute, [3, 6] as int[])
 
 		then:
-		route.size() == 6
+		route.size() == 4
 		route[0] == giantRoute[3]
-		route[1] == null
-		route[2] == null
-		route[3] == giantRoute[4]
-		route[4] == giantRoute[5]
-		route[5] == giantRoute[6]
+		route[1] == giantRoute[4]
+		route[2] == giantRoute[5]
+		route[3] == giantRoute[3]
 	}
 
 	def "Evaluate"() {
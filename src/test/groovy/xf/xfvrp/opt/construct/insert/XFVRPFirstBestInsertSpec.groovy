@@ -151,12 +151,11 @@ class XFVRPFirstBestInsertSpec extends Specification {
 		def route = service.createEvaluationRoute(giantRoute, [3, 6] as int[])
 
 		then:
-		route.size()== 5
+		route.size()== 4
 		route[0] == giantRoute[3]
-		route[1] == null
-		route[2] == giantRoute[4]
-		route[3] == giantRoute[5]
-		route[4] == giantRoute[3]
+		route[1] == giantRoute[4]
+		route[2] == giantRoute[5]
+		route[3] == giantRoute[3]
 	}
 
 	def "Evaluate"() {
@@ -0,0 +1,91 @@
+package xf.xfvrp.opt.evaluation
+
+import groovy.transform.CompileStatic
+import spock.lang.Requires
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.*
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator
+import xf.xfvrp.opt.Solution
+
+import java.lang.management.ManagementFactory
+
+@Requires({ ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean })
+class EvaluationServiceAllocationSpec extends Specification {
+
+	static final int NBR_OF_CUSTOMERS = 200
+	static final int ROUTE_LENGTH = 10
+
+	def service = new EvaluationService()
+
+	def "Check of two routes with quality holder allocates nothing - cache #cacheSize"() {
+		def model = initScen(cacheSize)
+		def solution = initSolution(model)
+		service.check(solution, model)
+		def holder = new Quality()
+
+		when:
+		checkRoutes(service, solution, model, holder, 20_000)
+		long bytes = checkRoutes(service, solution, model, holder, 100_000)
+
+		then:
+		bytes / 100_000 < 1
+
+		where:
+		// Without cache, each check evaluates the routes again
+		cacheSize << [0, 4096]
+	}
+
+	@CompileStatic
+	static long checkRoutes(EvaluationService service, Solution solution, XFVRPModel model, Quality holder, int iterations) {
+		def bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()
+		long threadId = Thread.currentThread().getId()
+		int nbrOfRoutes = solution.getRoutes().length
+
+		long bytes = bean.getThreadAllocatedBytes(threadId)
+		for (int i = 0; i < iterations; i++) {
+			solution.begin()
+			service.check(solution, model, i % nbrOfRoutes, (i + 1) % nbrOfRoutes, holder)
+			solution.rollback()
+		}
+		return bean.getThreadAllocatedBytes(threadId) - bytes
+	}
+
+	Solution initSolution(XFVRPModel model) {
+		def nodes = model.getNodes()
+		def customers = (1..NBR_OF_CUSTOMERS).collect { nodes[it] }
+		Collections.shuffle(customers, new Random(1234))
+
+		def giantRoute = []
+		customers.eachWithIndex { Node customer, int i ->
+			if(i % ROUTE_LENGTH == 0)
+				giantRoute.add(nodes[0])
+			giantRoute.add(customer)
+		}
+		giantRoute.add(nodes[0])
+
+		def solution = new Solution()
+		solution.setGiantRoute(giantRoute as Node[])
+		return solution
+	}
+
+	XFVRPModel initScen(int cacheSize) {
+		def rand = new Random(1234)
+		def v = new TestVehicle(name: "V1", capacity: [ROUTE_LENGTH]).getVehicle()
+
+		def depot = new TestNode(externID: "DEP", siteType: SiteType.DEPOT, xlong: 50, ylat: 50, demand: [0], timeWindow: [[0, 9999]]).getNode()
+		def nodes = [depot] + (1..NBR_OF_CUSTOMERS).collect {
+			new TestNode(globalIdx: it, externID: "C" + it, xlong: rand.nextFloat() * 100, ylat: rand.nextFloat() * 100, geoId: it, demand: [1], timeWindow: [[0, 9999]]).getNode()
+		}
+		nodes.eachWithIndex { Node n, int i -> n.setIdx(i) }
+
+		def iMetric = new AcceleratedMetricTransformator().transform(new EucledianMetric(), nodes as Node[], v)
+
+		def parameter = new XFVRPParameter()
+		parameter.setRouteQualityCacheSize(cacheSize)
+
+		return new XFVRPModel(nodes as Node[], iMetric, iMetric, v, parameter)
+	}
+}
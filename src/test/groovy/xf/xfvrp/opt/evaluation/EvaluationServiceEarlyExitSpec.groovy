@@ -0,0 +1,111 @@
+package xf.xfvrp.opt.evaluation
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.*
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator
+import xf.xfvrp.opt.Solution
+
+class EvaluationServiceEarlyExitSpec extends Specification {
+
+	def service = new EvaluationService()
+
+	def parameter = new XFVRPParameter()
+	def metric = new EucledianMetric()
+
+	def depot = new TestNode(
+			externID: "DEP",
+			siteType: SiteType.DEPOT,
+			demand: [0],
+			timeWindow: [[0,99]]
+	).getNode()
+
+	def "Valid solution - same result as full check"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], n[2], depot, n[3], depot] as Node[])
+		def result = new Quality()
+
+		when:
+		def isValid = service.checkValid(sol, model, result)
+		def expected = service.check(sol, model)
+
+		then:
+		isValid
+		Math.abs(result.getCost() - expected.getCost()) < 0.001
+		result.getPenalty() == 0
+	}
+
+	def "Capacity violation - not valid"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [2]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], n[2], n[3], depot] as Node[])
+
+		when:
+		def isValid = service.checkValid(sol, model, new Quality())
+		def expected = service.check(sol, model)
+
+		then:
+		!isValid
+		expected.getPenalty() > 0
+	}
+
+	def "Time window violation - not valid"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 2.5f]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], n[2], n[3], depot] as Node[])
+
+		when:
+		def isValid = service.checkValid(sol, model, new Quality())
+		def expected = service.check(sol, model)
+
+		then:
+		!isValid
+		expected.getPenalty() > 0
+	}
+
+	def "Two routes - stop if cost bound is exceeded"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], n[2], depot, n[3], depot] as Node[])
+		def quality = service.check(sol, model)
+		def result = new Quality()
+
+		when:
+		sol.begin()
+		def isBounded = service.checkValid(sol, model, 0, 1, (quality.getCost() - 1) as float, result)
+		sol.rollback()
+		def isNotBounded = service.checkValid(sol, model, 0, 1, (quality.getCost() + 1) as float, result)
+
+		then:
+		!isBounded
+		isNotBounded
+		Math.abs(result.getCost() - quality.getCost()) < 0.001
+		Math.abs(sol.getQuality().getCost() - quality.getCost()) < 0.001
+	}
+
+	XFVRPModel initScen(TestVehicle paraV, float[][] timeWindow3) {
+		def v = paraV.getVehicle()
+
+		def n1 = new TestNode(globalIdx: 1, externID: "1", xlong: 1, ylat: 0, geoId: 1, demand: [1], timeWindow: [[0, 99]]).getNode()
+		def n2 = new TestNode(globalIdx: 2, externID: "2", xlong: 2, ylat: 0, geoId: 2, demand: [1], timeWindow: [[0, 99]]).getNode()
+		def n3 = new TestNode(globalIdx: 3, externID: "3", xlong: 0, ylat: 1, geoId: 3, demand: [1], timeWindow: timeWindow3).getNode()
+
+		depot.setIdx(0)
+		n1.setIdx(1)
+		n2.setIdx(2)
+		n3.setIdx(3)
+
+		def nodes = [depot, n1, n2, n3] as Node[]
+
+		def iMetric = new AcceleratedMetricTransformator().transform(metric, nodes, v)
+
+		return new XFVRPModel(nodes, iMetric, iMetric, v, parameter)
+	}
+}
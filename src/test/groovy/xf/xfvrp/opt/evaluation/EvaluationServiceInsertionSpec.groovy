@@ -0,0 +1,127 @@
+package xf.xfvrp.opt.evaluation
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.*
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator
+import xf.xfvrp.opt.Solution
+
+class EvaluationServiceInsertionSpec extends Specification {
+
+	def service = new EvaluationService()
+
+	def parameter = new XFVRPParameter()
+	def metric = new EucledianMetric()
+
+	def depot = new TestNode(
+			externID: "DEP",
+			siteType: SiteType.DEPOT,
+			demand: [0],
+			timeWindow: [[0,99]]
+	).getNode()
+
+	def "Insert node - same cost deltas as complete evaluation"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def route = [depot, n[1], n[2], depot] as Node[]
+		def isFeasible = new boolean[route.length]
+		def costDeltas = new float[route.length]
+
+		when:
+		service.checkInsertions(route, n[3], model, isFeasible, costDeltas)
+
+		then:
+		(1..<route.length).every { isFeasible[it] }
+		(1..<route.length).every { Math.abs(costDeltas[it] - delta(route, insert(route, n[3], it), model)) < 0.01 }
+	}
+
+	def "Insert node - reject time window and capacity violation"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [capacity]), [[0, 1.5f]] as float[][])
+		def n = model.getNodes()
+		def route = [depot, n[1], n[2], depot] as Node[]
+		def isFeasible = new boolean[route.length]
+
+		when:
+		service.checkInsertions(route, n[3], model, isFeasible, new float[route.length])
+
+		then:
+		isFeasible[1..<route.length] == expected
+
+		where:
+		capacity || expected
+		3        || [true, false, false]
+		2        || [false, false, false]
+	}
+
+	def "Insert node - complete evaluation without segment estimation"() {
+		parameter.setLoadingTimeAtDepot(true)
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 1.5f]] as float[][])
+		def n = model.getNodes()
+		def route = [depot, n[1], n[2], depot] as Node[]
+		def isFeasible = new boolean[route.length]
+		def costDeltas = new float[route.length]
+
+		when:
+		service.checkInsertions(route, n[3], model, isFeasible, costDeltas)
+
+		then:
+		!SegmentEvaluationService.isApplicable(model)
+		isFeasible[1]
+		!isFeasible[2]
+		!isFeasible[3]
+		Math.abs(costDeltas[1] - delta(route, insert(route, n[3], 1), model)) < 0.01
+	}
+
+	def "Insert pickup and delivery - same cost deltas as complete evaluation"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def route = [depot, n[1], depot] as Node[]
+		def isFeasible = new boolean[route.length][route.length]
+		def costDeltas = new float[route.length][route.length]
+
+		when:
+		service.checkInsertions(route, n[2], n[3], model, isFeasible, costDeltas)
+
+		then:
+		[[1, 1], [1, 2], [2, 2]].every { isFeasible[it[0]][it[1]] }
+		Math.abs(costDeltas[1][1] - delta(route, [depot, n[2], n[3], n[1], depot] as Node[], model)) < 0.01
+		Math.abs(costDeltas[1][2] - delta(route, [depot, n[2], n[1], n[3], depot] as Node[], model)) < 0.01
+		Math.abs(costDeltas[2][2] - delta(route, [depot, n[1], n[2], n[3], depot] as Node[], model)) < 0.01
+	}
+
+	Node[] insert(Node[] route, Node node, int pos) {
+		def list = route as List
+		list.add(pos, node)
+		return list as Node[]
+	}
+
+	float delta(Node[] route, Node[] newRoute, XFVRPModel model) {
+		def sol = new Solution()
+		sol.setGiantRoute(route)
+		def newSol = new Solution()
+		newSol.setGiantRoute(newRoute)
+
+		return service.check(newSol, model).getCost() - service.check(sol, model).getCost()
+	}
+
+	XFVRPModel initScen(TestVehicle paraV, float[][] timeWindow3) {
+		def v = paraV.getVehicle()
+
+		def n1 = new TestNode(globalIdx: 1, externID: "1", xlong: 1, ylat: 0, geoId: 1, demand: [1], timeWindow: [[0, 99]]).getNode()
+		def n2 = new TestNode(globalIdx: 2, externID: "2", xlong: 2, ylat: 0, geoId: 2, demand: [1], timeWindow: [[0, 99]]).getNode()
+		def n3 = new TestNode(globalIdx: 3, externID: "3", xlong: 0, ylat: 1, geoId: 3, demand: [1], timeWindow: timeWindow3).getNode()
+
+		depot.setIdx(0)
+		n1.setIdx(1)
+		n2.setIdx(2)
+		n3.setIdx(3)
+
+		def nodes = [depot, n1, n2, n3] as Node[]
+
+		def iMetric = new AcceleratedMetricTransformator().transform(metric, nodes, v)
+
+		return new XFVRPModel(nodes, iMetric, iMetric, v, parameter)
+	}
+}
@@ -102,6 +102,30 @@ class EvaluationServiceStructureSpec extends Specification {
 		result != null
 	}
 
+	def "Reused context and result holder give same result as new evaluation"() {
+		def v = new TestVehicle(name: "V1", capacity: [3, 3]).getVehicle()
+		def model = initScen1(v, LoadType.DELIVERY)
+		def n = model.getNodes()
+
+		sol = new Solution()
+		sol.setGiantRoute([nd, n[2], nr, n[3], nd, n[4], nd] as Node[])
+		def sol2 = new Solution()
+		sol2.setGiantRoute([nd, n[2], nr, n[3], nd, n[4], nd] as Node[])
+		def holder = new Quality()
+
+		when:
+		def expected = new EvaluationService().check(sol2, model)
+		service.check(sol, model, holder)
+		def first = new Quality(holder)
+		service.check(sol, model, 0, 1, holder)
+
+		then:
+		Math.abs(first.getCost() - expected.getCost()) < 0.001
+		first.getPenalty() == expected.getPenalty()
+		Math.abs(holder.getCost() - expected.getCost()) < 0.001
+		holder.getPenalty() == expected.getPenalty()
+	}
+
 	XFVRPModel initScen1(Vehicle v, LoadType loadType) {
 		def n1 = new TestNode(
 				globalIdx: 1,
@@ -0,0 +1,96 @@
+package xf.xfvrp.opt.evaluation
+
+import spock.lang.Specification
+import util.instances.TestNode
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.Quality
+import xf.xfvrp.base.SiteType
+
+class RouteQualityCacheSpec extends Specification {
+
+	def depot = node(0, SiteType.DEPOT)
+	def n1 = node(1, SiteType.CUSTOMER)
+	def n2 = node(2, SiteType.CUSTOMER)
+	def n3 = node(3, SiteType.CUSTOMER)
+
+	def "Find stored route"() {
+		def cache = new RouteQualityCache(16, 0)
+		def route = [depot, n1, n2, depot] as Node[]
+		def result = new Quality()
+
+		when:
+		cache.put(route, quality(5, 1))
+		def isFound = cache.get([depot, n1, n2, depot] as Node[], result)
+
+		then:
+		isFound
+		Math.abs(result.getCost() - 5) < 0.001
+		Math.abs(result.getPenalty() - 1) < 0.001
+	}
+
+	def "Do not find other sequence or copied node"() {
+		def cache = new RouteQualityCache(16, 0)
+		def copiedNode = node(1, SiteType.CUSTOMER)
+		def result = new Quality()
+
+		when:
+		cache.put([depot, n1, n2, depot] as Node[], quality(5, 0))
+		def otherSequence = cache.get([depot, n2, n1, depot] as Node[], result)
+		def otherLength = cache.get([depot, n1, depot] as Node[], result)
+		def otherNode = cache.get([depot, copiedNode, n2, depot] as Node[], result)
+
+		then:
+		!otherSequence
+		!otherLength
+		!otherNode
+	}
+
+	def "Stored route is independent from changed route array"() {
+		def cache = new RouteQualityCache(16, 0)
+		def route = [depot, n1, n2, depot] as Node[]
+
+		when:
+		cache.put(route, quality(5, 0))
+		route[1] = n3
+		def isFound = cache.get([depot, n1, n2, depot] as Node[], new Quality())
+
+		then:
+		isFound
+	}
+
+	def "Replace unreferenced route if cache is full"() {
+		def cache = new RouteQualityCache(4, 0)
+		def r1 = [depot, n1, depot] as Node[]
+		def r2 = [depot, n2, depot] as Node[]
+		def r3 = [depot, n3, depot] as Node[]
+		def r4 = [depot, n1, n2, depot] as Node[]
+		def r5 = [depot, n2, n3, depot] as Node[]
+		def result = new Quality()
+
+		when:
+		[r1, r2, r3, r4].each { cache.put(it, quality(1, 0)) }
+		[r1, r2, r3].each { cache.get(it, result) }
+		cache.put(r5, quality(1, 0))
+
+		then:
+		cache.getCapacity() == 4
+		!cache.get(r4, result)
+		cache.get(r1, result)
+		cache.get(r2, result)
+		cache.get(r3, result)
+		cache.get(r5, result)
+	}
+
+	Quality quality(float cost, float penalty) {
+		def q = new Quality()
+		q.addCost(cost)
+		q.addPenalty(penalty, Quality.PENALTY_REASON_CAPACITY)
+		return q
+	}
+
+	Node node(int idx, SiteType siteType) {
+		def n = new TestNode(globalIdx: idx, externID: idx + "", siteType: siteType).getNode()
+		n.setIdx(idx)
+		return n
+	}
+}
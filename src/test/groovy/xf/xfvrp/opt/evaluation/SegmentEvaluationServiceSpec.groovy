@@ -0,0 +1,162 @@
+package xf.xfvrp.opt.evaluation
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.*
+import xf.xfvrp.base.metric.EucledianMetric
+import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator
+import xf.xfvrp.opt.Solution
+
+class SegmentEvaluationServiceSpec extends Specification {
+
+	def service = new SegmentEvaluationService()
+	def evaluationService = new EvaluationService()
+
+	def parameter = new XFVRPParameter()
+	def metric = new EucledianMetric()
+
+	def depot = new TestNode(
+			externID: "DEP",
+			siteType: SiteType.DEPOT,
+			demand: [0],
+			timeWindow: [[0,99]]
+	).getNode()
+
+	def "Prefix and suffix segments of a route"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], n[2], depot] as Node[])
+
+		when:
+		service.init(sol, model)
+		def segments = service.getRouteSegments(0)
+
+		then:
+		service.isActive()
+		segments.getLength() == 4
+		Math.abs(segments.getPrefix(3).getDistance() - 4) < 0.001
+		Math.abs(segments.getSuffix(1).getDistance() - 3) < 0.001
+		segments.getPrefix(3).getNbrOfCustomers() == 2
+		segments.getPrefix(3).getNbrOfStops() == 2
+		segments.getPrefix(3).getTimeWarp() == 0
+		segments.getPrefix(3).getDelivery()[0] == 2
+		segments.getPrefix(3).getPickup()[0] == 0
+	}
+
+	def "Move - reject time window violation"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 2.5f]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], n[3], n[2], depot] as Node[])
+		evaluationService.check(sol, model)
+
+		when:
+		service.init(sol, model)
+		def toEnd = service.isMovePromising(0, 0, 2, 4, 0, false)
+		def toStart = service.isMovePromising(0, 0, 2, 1, 0, false)
+
+		then:
+		!toEnd
+		toStart
+	}
+
+	def "Move - reject non improving change"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[3], n[1], n[2], depot] as Node[])
+		evaluationService.check(sol, model)
+
+		when:
+		service.init(sol, model)
+		def result = service.isMovePromising(0, 0, 1, 3, 0, false)
+
+		then:
+		!result
+	}
+
+	def "Move - reject capacity violation"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [1]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], depot, n[2], depot] as Node[])
+		evaluationService.check(sol, model)
+
+		when:
+		service.init(sol, model)
+		def result = service.isMovePromising(0, 1, 1, 1, 0, false)
+
+		then:
+		!result
+	}
+
+	def "Move - accept valid improving change"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [2]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], depot, n[2], depot] as Node[])
+		evaluationService.check(sol, model)
+
+		when:
+		service.init(sol, model)
+		def result = service.isMovePromising(0, 1, 1, 1, 0, false)
+
+		then:
+		result
+	}
+
+	def "Swap - reject time window violation and accept valid change"() {
+		def model = initScen(new TestVehicle(name: "V1", capacity: [3]), [[0, 2.5f]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[2], n[1], n[3], depot] as Node[])
+		evaluationService.check(sol, model)
+
+		when:
+		service.init(sol, model)
+		def notValid = service.isSwapPromising(0, 0, 1, 2, 0, 0, false, false)
+		def valid = service.isSwapPromising(0, 0, 1, 3, 0, 0, false, false)
+
+		then:
+		!notValid
+		valid
+	}
+
+	def "Inactive for loading time at depot"() {
+		parameter.setLoadingTimeAtDepot(true)
+		def model = initScen(new TestVehicle(name: "V1", capacity: [1]), [[0, 99]] as float[][])
+		def n = model.getNodes()
+		def sol = new Solution()
+		sol.setGiantRoute([depot, n[1], depot, n[2], depot] as Node[])
+		evaluationService.check(sol, model)
+
+		when:
+		service.init(sol, model)
+		def result = service.isMovePromising(0, 1, 1, 1, 0, false)
+
+		then:
+		!service.isActive()
+		result
+	}
+
+	XFVRPModel initScen(TestVehicle paraV, float[][] timeWindow3) {
+		def v = paraV.getVehicle()
+
+		def n1 = new TestNode(globalIdx: 1, externID: "1", xlong: 1, ylat: 0, geoId: 1, demand: [1], timeWindow: [[0, 99]]).getNode()
+		def n2 = new TestNode(globalIdx: 2, externID: "2", xlong: 2, ylat: 0, geoId: 2, demand: [1], timeWindow: [[0, 99]]).getNode()
+		def n3 = new TestNode(globalIdx: 3, externID: "3", xlong: 0, ylat: 1, geoId: 3, demand: [1], timeWindow: timeWindow3).getNode()
+
+		depot.setIdx(0)
+		n1.setIdx(1)
+		n2.setIdx(2)
+		n3.setIdx(3)
+
+		def nodes = [depot, n1, n2, n3] as Node[]
+
+		def iMetric = new AcceleratedMetricTransformator().transform(metric, nodes, v)
+
+		return new XFVRPModel(nodes, iMetric, iMetric, v, parameter)
+	}
+}
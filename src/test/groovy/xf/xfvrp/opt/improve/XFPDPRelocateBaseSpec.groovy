@@ -98,16 +98,18 @@ class XFPDPRelocateBaseSpec extends Specification {
 		nn[7].externID == "DEP"
 	}
 	
-	def "Reverse change of all right"() {
+	def "Rollback change of all right"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[3], n[1], n[4], n[5], n[6], n[2], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], n[5], n[6], nd] as Node[])
 
 		when:
-		service.reverseChange(sol, [1, 2, 4, 7] as float[])
+		sol.begin()
+		service.change(sol, [1, 2, 4, 7] as float[])
+		sol.rollback()
 		
 		def nn = sol.getGiantRoute()
 
@@ -122,16 +124,18 @@ class XFPDPRelocateBaseSpec extends Specification {
 		nn[7].externID == "DEP"
 	}
 	
-	def "Reverse change of all left"() {
+	def "Rollback change of all left"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[4], n[1], n[6], n[2], n[3], n[5], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], n[5], n[6], nd] as Node[])
 
 		when:
-		service.reverseChange(sol, [4, 6, 1, 2] as float[])
+		sol.begin()
+		service.change(sol, [4, 6, 1, 2] as float[])
+		sol.rollback()
 		
 		def nn = sol.getGiantRoute()
 
@@ -146,16 +150,18 @@ class XFPDPRelocateBaseSpec extends Specification {
 		nn[7].externID == "DEP"
 	}
 	
-	def "Reverse change with overlapping 1"() {
+	def "Rollback change with overlapping 1"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[2], n[1], n[3], n[5], n[6], n[4], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], n[5], n[6], nd] as Node[])
 
 		when:
-		service.reverseChange(sol, [1, 4, 3, 7] as float[])
+		sol.begin()
+		service.change(sol, [1, 4, 3, 7] as float[])
+		sol.rollback()
 		
 		def nn = sol.getGiantRoute()
 
@@ -170,16 +176,18 @@ class XFPDPRelocateBaseSpec extends Specification {
 		nn[7].externID == "DEP"
 	}
 	
-	def "Reverse change with overlapping 2"() {
+	def "Rollback change with overlapping 2"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[2], n[4], n[1], n[5], n[6], n[3], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], n[5], n[6], nd] as Node[])
 
 		when:
-		service.reverseChange(sol, [1, 3, 5, 7] as float[])
+		sol.begin()
+		service.change(sol, [1, 3, 5, 7] as float[])
+		sol.rollback()
 		
 		def nn = sol.getGiantRoute()
 
@@ -194,16 +202,18 @@ class XFPDPRelocateBaseSpec extends Specification {
 		nn[7].externID == "DEP"
 	}
 	
-	def "Reverse change in the mid"() {
+	def "Rollback change in the mid"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[2], n[1], n[3], n[4], n[6], n[5], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], n[5], n[6], nd] as Node[])
 
 		when:
-		service.reverseChange(sol, [1, 6, 3, 5] as float[])
+		sol.begin()
+		service.change(sol, [1, 6, 3, 5] as float[])
+		sol.rollback()
 		
 		def nn = sol.getGiantRoute()
 
@@ -218,16 +228,18 @@ class XFPDPRelocateBaseSpec extends Specification {
 		nn[7].externID == "DEP"
 	}
 
-	def "Reverse change from the mid"() {
+	def "Rollback change from the mid"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[3], n[1], n[2], n[5], n[6], n[4], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], n[5], n[6], nd] as Node[])
 
 		when:
-		service.reverseChange(sol, [3, 4, 1, 7] as float[])
+		sol.begin()
+		service.change(sol, [3, 4, 1, 7] as float[])
+		sol.rollback()
 		
 		def nn = sol.getGiantRoute()
 
@@ -242,16 +254,18 @@ class XFPDPRelocateBaseSpec extends Specification {
 		nn[7].externID == "DEP"
 	}
 	
-	def "Reverse change - Some case"() {
+	def "Rollback change - Some case"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[3], n[2], n[4], nd] as Node[])
 
 		when:
-		service.reverseChange(sol, [2, 4, 5, 5] as float[])
+		sol.begin()
+		service.change(sol, [2, 4, 5, 5] as float[])
+		sol.rollback()
 		
 		def nn = sol.getGiantRoute()
 
@@ -6,6 +6,8 @@ import util.instances.TestVehicle
 import xf.xfvrp.base.*
 import xf.xfvrp.base.metric.EucledianMetric
 import xf.xfvrp.base.metric.internal.AcceleratedMetricTransformator
+import xf.xfvrp.base.monitor.EvaluationCheckType
+import xf.xfvrp.base.monitor.StatusManager
 import xf.xfvrp.opt.Solution
 import xf.xfvrp.opt.improve.giantroute.XFVRP2Opt
 
@@ -111,6 +113,26 @@ class XFVRP2OptSpec extends Specification {
 		impList.size() == 0
 	}
 
+	def "Execute - Count evaluations of operator"() {
+		def model = initScen()
+		def n = model.getNodes()
+		def statusManager = new StatusManager()
+
+		sol = new Solution()
+		sol.setGiantRoute([nd, n[2], n[5], n[4], nd, nd, n[3], nd] as Node[])
+
+		when:
+		service.execute(sol, model, statusManager)
+		def metrics = statusManager.getEvaluationMetrics().getOperator("XFVRP2Opt")
+
+		then:
+		metrics.getNbrOfExecutions() == 1
+		metrics.getNbrOfAcceptedChanges() > 0
+		metrics.getNbrOfEvaluatedChanges() >= metrics.getNbrOfAcceptedChanges()
+		metrics.getNbrOfChecks(EvaluationCheckType.SOLUTION) == metrics.getNbrOfEvaluatedChanges() + 1
+		metrics.getExecutionTimeInNanos() == 0
+	}
+
 	XFVRPModel initScen() {
 		def v = new TestVehicle(name: "V1", capacity: [3, 3]).getVehicle()
 
@@ -106,18 +106,20 @@ class XFVRP3CyclicTransferSpec extends Specification {
 		newGiantRoute[10] == nd
 	}
 
-	def "Reverse Change Both Invert"() {
+	def "Rollback Change Both Invert"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], nd, n[5], n[6], n[7], n[8], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[7], n[3], n[2], nd, n[5], n[6], n[4], n[8], nd] as Node[])
 
 		def changeMove = [2, 8, 4] as float[]
 
 		when:
-		service.reverseChange(sol, changeMove)
+		sol.begin()
+		service.change(sol, changeMove)
+		sol.rollback()
 
 		def newGiantRoute = sol.getGiantRoute()
 
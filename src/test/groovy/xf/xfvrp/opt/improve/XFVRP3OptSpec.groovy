@@ -274,18 +274,20 @@ class XFVRP3OptSpec extends Specification {
 		newGiantRoute[9] == nd
 	}
 
-	def "Reverse Change Both Invert"() {
+	def "Rollback Change Both Invert"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[2], n[1], n[5], n[6], n[7], n[8], n[4], n[3], nd] as Node[])
+		sol.setGiantRoute([nd, n[2], n[6], n[5], n[1], n[4], n[8], n[7], n[3], nd] as Node[])
 
 		def changeMove = [1, 4, 7, 2] as float[]
 
 		when:
-		service.reverseChange(sol, changeMove)
+		sol.begin()
+		service.change(sol, changeMove)
+		sol.rollback()
 
 		def newGiantRoute = sol.getGiantRoute()
 
@@ -302,18 +304,20 @@ class XFVRP3OptSpec extends Specification {
 		newGiantRoute[9] == nd
 	}
 	
-	def "Reverse Change Triple Invert"() {
+	def "Rollback Change Triple Invert"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[2], n[1], n[5], n[6], n[7], n[8], n[4], n[3], nd] as Node[])
+		sol.setGiantRoute([nd, n[2], n[7], n[8], n[4], n[1], n[5], n[6], n[3], nd] as Node[])
 
 		def changeMove = [1, 4, 7, 3] as float[]
 
 		when:
-		service.reverseChange(sol, changeMove)
+		sol.begin()
+		service.change(sol, changeMove)
+		sol.rollback()
 
 		def newGiantRoute = sol.getGiantRoute()
 
@@ -330,18 +334,20 @@ class XFVRP3OptSpec extends Specification {
 		newGiantRoute[9] == nd
 	}
 	
-	def "Reverse Change Invert B and ALL"() {
+	def "Rollback Change Invert B and ALL"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[2], n[1], n[5], n[6], n[7], n[8], n[4], n[3], nd] as Node[])
+		sol.setGiantRoute([nd, n[2], n[4], n[8], n[7], n[1], n[5], n[6], n[3], nd] as Node[])
 
 		def changeMove = [1, 4, 7, 4] as float[]
 
 		when:
-		service.reverseChange(sol, changeMove)
+		sol.begin()
+		service.change(sol, changeMove)
+		sol.rollback()
 
 		def newGiantRoute = sol.getGiantRoute()
 
@@ -358,18 +364,20 @@ class XFVRP3OptSpec extends Specification {
 		newGiantRoute[9] == nd
 	}
 	
-	def "Reverse Change Invert A and ALL"() {
+	def "Rollback Change Invert A and ALL"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[2], n[1], n[5], n[6], n[7], n[8], n[4], n[3], nd] as Node[])
+		sol.setGiantRoute([nd, n[2], n[7], n[8], n[4], n[6], n[5], n[1], n[3], nd] as Node[])
 
 		def changeMove = [1, 4, 7, 5] as float[]
 
 		when:
-		service.reverseChange(sol, changeMove)
+		sol.begin()
+		service.change(sol, changeMove)
+		sol.rollback()
 
 		def newGiantRoute = sol.getGiantRoute()
 
@@ -174,18 +174,20 @@ class XFVRP3PointMoveSpec extends Specification {
 		newGiantRoute[10] == nd
 	}
 
-	def "Reverse Change Left-Right"() {
+	def "Rollback Change Left-Right"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], nd, n[5], n[6], n[7], n[8], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[6], n[7], n[4], nd, n[5], n[3], n[8], nd] as Node[])
 
 		def changeMove = [3, 8] as float[]
 
 		when:
-		service.reverseChange(sol, changeMove)
+		sol.begin()
+		service.change(sol, changeMove)
+		sol.rollback()
 
 		def newGiantRoute = sol.getGiantRoute()
 
@@ -203,18 +205,20 @@ class XFVRP3PointMoveSpec extends Specification {
 		newGiantRoute[10] == nd
 	}
 
-	def "Reverse Change Right-Left"() {
+	def "Rollback Change Right-Left"() {
 		def model = initScen()
 		def n = model.getNodes()
 		service.setModel(model)
 
 		sol = new Solution()
-		sol.setGiantRoute([nd, n[1], n[2], n[3], n[4], nd, n[5], n[6], n[7], n[8], nd] as Node[])
+		sol.setGiantRoute([nd, n[1], n[2], n[6], nd, n[5], n[3], n[4], n[7], n[8], nd] as Node[])
 
 		def changeMove = [6, 3] as float[]
 
 		when:
-		service.reverseChange(sol, changeMove)
+		sol.begin()
+		service.change(sol, changeMove)
+		sol.rollback()
 
 		def newGiantRoute = sol.getGiantRoute()
 
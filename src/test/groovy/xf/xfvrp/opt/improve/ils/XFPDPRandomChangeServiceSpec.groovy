@@ -467,8 +467,9 @@ class XFPDPRandomChangeServiceSpec extends Specification {
 		service.chooseDstPickup(choice, sol)
 		service.chooseDstDelivery(choice, sol)
 
+		sol.begin()
 		service.operator.change(sol, choice.toArray())
-		service.operator.reverseChange(sol, choice.toArray())
+		sol.rollback()
 
 		def gt = sol.getGiantRoute()
 
@@ -52,7 +52,7 @@ class XFVRPSegmentMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 3, true)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 3, true)
 
 		then:
 		impList.size() > 0
@@ -72,7 +72,7 @@ class XFVRPSegmentMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 3, true)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 3, true)
 
 		then:
 		impList.size() > 0
@@ -88,7 +88,7 @@ class XFVRPSegmentMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 3, true)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 3, true)
 
 		then:
 		impList.size() == 0
@@ -104,7 +104,7 @@ class XFVRPSegmentMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 3, false)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 3, false)
 
 		then:
 		impList.size() > 0
@@ -122,7 +122,7 @@ class XFVRPSegmentMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 3, true)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 3, true)
 
 		then:
 		impList.size() > 0
@@ -139,7 +139,7 @@ class XFVRPSegmentMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 3, false)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 3, false)
 
 		then:
 		impList.size() > 0
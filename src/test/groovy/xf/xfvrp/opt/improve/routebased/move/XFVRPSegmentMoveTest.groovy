@@ -31,8 +31,9 @@ class XFVRPSegmentMoveTest extends Specification {
         def parameter = [-1, 0, 1, 1, 2, 2, 0] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
 
         then:
@@ -51,8 +52,9 @@ class XFVRPSegmentMoveTest extends Specification {
         def parameter = [-1, 0, 0, 2, 6, 1, 0] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
         then:
         result[0].externID == "1"
@@ -69,8 +71,9 @@ class XFVRPSegmentMoveTest extends Specification {
         def parameter = [-1, 0, 0, 3, 2, 1, 0] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
         then:
         result[0].externID == "1"
@@ -87,8 +90,9 @@ class XFVRPSegmentMoveTest extends Specification {
         def parameter = [-1, 0, 1, 1, 2, 2, 1] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
 
         then:
@@ -107,8 +111,9 @@ class XFVRPSegmentMoveTest extends Specification {
         def parameter = [-1, 0, 0, 2, 6, 1, 1] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
         then:
         result[0].externID == "1"
@@ -125,8 +130,9 @@ class XFVRPSegmentMoveTest extends Specification {
         def parameter = [-1, 0, 0, 3, 2, 1, 1] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
         then:
         result[0].externID == "1"
@@ -50,7 +50,7 @@ class XFVRPSingleMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 1, false)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 1, false)
 
 		then:
 		impList.size() == 4
@@ -74,12 +74,32 @@ class XFVRPSingleMove2Spec extends Specification {
 		impList.clear()
 
 		when:
-		XFVRPMoveSearchUtil.search(model, sol.getRoutes(), impList, 1, false)
+		XFVRPMoveSearchUtil.search(model, sol, impList, 1, false)
 
 		then:
 		impList.size() == 0
 	}
 
+	def "Search multi depot - Granular search with all neighbors finds all improving steps"() {
+		parameter.setNbrOfGranularNeighbors(10)
+		def model = initScenMultiDepot()
+		def n = model.getNodes()
+
+		sol = new Solution()
+		sol.setGiantRoute([nd, n[2], nd, n[3], nd2, n[4], nd2] as Node[])
+		impList.clear()
+
+		when:
+		XFVRPMoveSearchUtil.search(model, sol, impList, 1, false)
+
+		then:
+		impList.size() == 4
+		impList.stream().filter({f -> f.toList().subList(1,7) == [0,1,1,1,0,0]}).count() == 1
+		impList.stream().filter({f -> f.toList().subList(1,7) == [1,0,1,1,0,0]}).count() == 1
+		impList.stream().filter({f -> f.toList().subList(1,7) == [0,1,1,2,0,0]}).count() == 1
+		impList.stream().filter({f -> f.toList().subList(1,7) == [1,0,1,2,0,0]}).count() == 1
+	}
+
 	XFVRPModel initScen() {
 		def v = new TestVehicle(name: "V1", capacity: [3, 3]).getVehicle()
 		
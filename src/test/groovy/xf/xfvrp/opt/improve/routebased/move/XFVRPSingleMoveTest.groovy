@@ -26,8 +26,9 @@ class XFVRPSingleMoveTest extends Specification {
         def parameter = [-1, 0, 1, 1, 2, 0, 0] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
         then:
         result[0].externID == "1"
@@ -45,8 +46,9 @@ class XFVRPSingleMoveTest extends Specification {
         def parameter = [-1, 0, 0, 1, 3, 0, 0] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
         then:
         result[0].externID == "1"
@@ -63,8 +65,9 @@ class XFVRPSingleMoveTest extends Specification {
         def parameter = [-1, 0, 0, 4, 1, 0, 0] as float[]
 
         when:
+        sol.begin()
         XFVRPMoveUtil.change(sol, parameter)
-        XFVRPMoveUtil.reverseChange(sol, parameter)
+        sol.rollback()
         def result = sol.getGiantRoute()
         then:
         result[0].externID == "1"
@@ -50,7 +50,7 @@ class XFVRPSwapSearchUtilSpec extends Specification {
 		when:
 		XFVRPSwapSearchUtil.search(
 				model,
-				sol.getRoutes(),
+				sol,
 				impList,
 				4,
 				false,
@@ -73,7 +73,7 @@ class XFVRPSwapSearchUtilSpec extends Specification {
 		when:
 		XFVRPSwapSearchUtil.search(
 				model,
-				sol.getRoutes(),
+				sol,
 				impList,
 				3,
 				false,
@@ -95,7 +95,7 @@ class XFVRPSwapSearchUtilSpec extends Specification {
 		when:
 		XFVRPSwapSearchUtil.search(
 				model,
-				sol.getRoutes(),
+				sol,
 				impList,
 				4,
 				false,
@@ -119,7 +119,7 @@ class XFVRPSwapSearchUtilSpec extends Specification {
 		when:
 		XFVRPSwapSearchUtil.search(
 				model,
-				sol.getRoutes(),
+				sol,
 				impList,
 				4,
 				true,
@@ -143,7 +143,7 @@ class XFVRPSwapSearchUtilSpec extends Specification {
 		when:
 		XFVRPSwapSearchUtil.search(
 				model,
-				sol.getRoutes(),
+				sol,
 				impList,
 				2,
 				false,
@@ -157,6 +157,46 @@ class XFVRPSwapSearchUtilSpec extends Specification {
 		impList.stream().find({f -> f.toList().subList(1,8) == [0,1,1,1,3,3,0]}) == null
 	}
 
+	def "Search - granular search with all neighbors finds all improving steps"() {
+		def model = initScen()
+		def n = model.getNodes()
+		sol = new Solution()
+		sol.setGiantRoute([nd, n[6], n[7], n[8], n[9], nd2, n[2], n[3], n[4], n[5], nd2] as Node[])
+		XFVRPSwapSearchUtil.search(model, sol, impList, 4, false, true)
+		def completeSteps = impList.collect { it.toList() }
+		impList.clear()
+
+		when:
+		parameter.setNbrOfGranularNeighbors(10)
+		def granularModel = initScen()
+		XFVRPSwapSearchUtil.search(granularModel, sol, impList, 4, false, true)
+
+		then:
+		impList.size() == completeSteps.size()
+		impList.collect { it.toList() } as Set == completeSteps as Set
+	}
+
+	def "Search - granular search finds subset of improving steps"() {
+		def model = initScen()
+		def n = model.getNodes()
+		sol = new Solution()
+		sol.setGiantRoute([nd, n[6], n[7], n[8], n[9], nd2, n[2], n[3], n[4], n[5], nd2] as Node[])
+		XFVRPSwapSearchUtil.search(model, sol, impList, 4, false, true)
+		def completeSteps = impList.collect { it.toList() }
+		impList.clear()
+
+		when:
+		parameter.setNbrOfGranularNeighbors(1)
+		def granularModel = initScen()
+		XFVRPSwapSearchUtil.search(granularModel, sol, impList, 4, false, true)
+
+		then:
+		impList.size() > 0
+		impList.size() < completeSteps.size()
+		impList.every { completeSteps.contains(it.toList()) }
+		impList.stream().filter({f -> f.toList().subList(1,8) == [0,1,1,1,3,3,0]}).count() == 1
+	}
+
 	XFVRPModel initScen() {
 		def v = new TestVehicle(name: "V1", capacity: [3, 3]).getVehicle()
 
@@ -248,8 +248,9 @@ class XFVRPSwapUtilSpec extends Specification {
 		def para = [-1, 0, 1, 1, 2, 2, 1, XFVRPSwapUtil.BOTH_INVERT] as float[]
 
 		when:
+		sol.begin()
 		XFVRPSwapUtil.change(sol, para)
-		XFVRPSwapUtil.reverseChange(sol, para)
+		sol.rollback()
 		def result = sol.getGiantRoute()
 
 		then:
@@ -271,8 +272,9 @@ class XFVRPSwapUtilSpec extends Specification {
 		def para = [-1, 0, 0, 6, 1, 0, 2, XFVRPSwapUtil.B_INVERT] as float[]
 
 		when:
+		sol.begin()
 		XFVRPSwapUtil.change(sol, para)
-		XFVRPSwapUtil.reverseChange(sol, para)
+		sol.rollback()
 		def result = sol.getGiantRoute()
 
 		then:
@@ -293,8 +295,9 @@ class XFVRPSwapUtilSpec extends Specification {
 		def para = [-1, 0, 0, 5, 3, 1, 1, XFVRPSwapUtil.A_INVERT] as float[]
 
 		when:
+		sol.begin()
 		XFVRPSwapUtil.change(sol, para)
-		XFVRPSwapUtil.reverseChange(sol, para)
+		sol.rollback()
 		def result = sol.getGiantRoute()
 
 		then:
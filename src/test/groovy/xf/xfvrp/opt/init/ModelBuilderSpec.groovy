@@ -0,0 +1,82 @@
+package xf.xfvrp.opt.init
+
+import spock.lang.Specification
+import util.instances.TestNode
+import util.instances.TestVehicle
+import xf.xfvrp.base.Node
+import xf.xfvrp.base.SiteType
+import xf.xfvrp.base.Vehicle
+import xf.xfvrp.base.XFVRPParameter
+import xf.xfvrp.base.metric.Metric
+import xf.xfvrp.base.metric.internal.AcceleratedMetric
+import xf.xfvrp.base.metric.internal.CompactMetric
+import xf.xfvrp.base.metric.internal.SharedMetricTransformator
+import xf.xfvrp.base.metric.internal.SparseMetric
+import xf.xfvrp.base.monitor.StatusManager
+
+class ModelBuilderSpec extends Specification {
+
+	def statusManager = Stub StatusManager
+
+	// Depends only on the index of the nodes
+	def metric = new Metric() {
+		float getDistance(Node src, Node dst, Vehicle veh) { return src.getIdx() * 10 + dst.getIdx() }
+		float getTime(Node src, Node dst, Vehicle veh) { return src.getIdx() + dst.getIdx() * 10 }
+		float[] getDistanceAndTime(Node src, Node dst, Vehicle veh) { return [getDistance(src, dst, veh), getTime(src, dst, veh)] as float[] }
+	}
+
+	def "Index based metric gives same values for all matrix types"() {
+		def v = new TestVehicle(name: "V1").getVehicle()
+		def nodes = nodes([3, 0, 5, 1, 4, 2])
+
+		def parameter = new XFVRPParameter()
+		def expected = new ModelBuilder().build(nodes, v, metric, parameter, statusManager)
+
+		def compactParameter = new XFVRPParameter()
+		compactParameter.setCompactMetricTolerance(0.01f)
+		def sparseParameter = new XFVRPParameter()
+		sparseParameter.setMetricMemoryBudget(1)
+
+		when:
+		def models = [
+				new ModelBuilder().build(nodes, v, metric, compactParameter, statusManager),
+				new ModelBuilder().build(nodes, v, metric, sparseParameter, statusManager),
+				new ModelBuilder(new SharedMetricTransformator(metric, nodes, 1)).build(nodes, v, metric, parameter, statusManager)
+		]
+
+		then:
+		models.every { model -> nodes.every { src -> nodes.every { dst ->
+			Math.abs(model.getDistance(src, dst) - expected.getDistance(src, dst)) < 0.01 &&
+					Math.abs(model.getTime(src, dst) - expected.getTime(src, dst)) < 0.01
+		}}}
+		expected.getDistance(nodes[1], nodes[2]) == 12
+	}
+
+	def "Compact matrix is sized with its own memory - #tolerance #budget"() {
+		def v = new TestVehicle(name: "V1").getVehicle()
+		def nodes = nodes([3, 0, 5, 1, 4, 2])
+		def parameter = new XFVRPParameter()
+		parameter.setCompactMetricTolerance(tolerance)
+		parameter.setMetricMemoryBudget(budget)
+
+		when:
+		def model = new ModelBuilder().build(nodes, v, metric, parameter, statusManager)
+
+		then:
+		expectedType.isInstance(model.metric)
+
+		where:
+		// 6 nodes need 144 bytes as compact and 288 bytes as full precision matrix
+		tolerance | budget || expectedType
+		0.01f     | 144    || CompactMetric
+		0.01f     | 143    || SparseMetric
+		0.00001f  | 288    || AcceleratedMetric
+		0.00001f  | 200    || SparseMetric
+	}
+
+	Node[] nodes(List<Integer> globalIdxs) {
+		return globalIdxs.withIndex().collect { int globalIdx, int i ->
+			new TestNode(globalIdx: globalIdx, externID: "N" + globalIdx, siteType: (i == 0) ? SiteType.DEPOT : SiteType.CUSTOMER).getNode()
+		} as Node[]
+	}
+}